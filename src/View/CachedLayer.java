@@ -0,0 +1,112 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : An offscreen buffer holding a static part of the frame, painted again only when what it shows changes
+*/
+
+import static processing.core.PConstants.CORNER;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * <h1>CachedLayer</h1>
+ * <p>
+ *   Holds a part of the frame that looks the same on many frames (like the legend or the shaded countries) in an
+ *   offscreen PGraphics, the painter draws the layer into the buffer only when the state it's drawn for changes
+ *   or the layer is invalidated, any other frame only draws the buffer on the graphics of the applet as an image
+ * </p>
+ * <p>
+ *   The state is any object whose equals tells when the layer looks different (like the shown map or the Viewport of
+ *   a map), the painter draws in the coordinates of the applet as the buffer is moved to the position the layer is
+ *   drawn at, so drawing code of the applet is moved into a layer as it is
+ * </p>
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see Viewport
+ */
+public final class CachedLayer {
+
+  private final PApplet applet;
+  private final int width;
+  private final int height;
+  private final Consumer<PGraphics> painter;
+  private PGraphics buffer; // null till first drawn
+  // what the buffer was painted for
+  private Object paintedState;
+  private float paintedX;
+  private float paintedY;
+  private boolean valid;
+  private int paintCount;
+
+  /**
+   * Layer Constructor. makes a layer of the given size that's painted by the painter
+   * @param applet PApplet whose graphics the layer is drawn on
+   * @param width width of the layer in pixels
+   * @param height height of the layer in pixels
+   * @param painter Consumer drawing the layer on the given graphics in the coordinates of the applet,
+   * it's given a cleared graphics and shouldn't call beginDraw or endDraw
+   * @throws IllegalArgumentException if the applet or the painter is null or the size isn't positive
+   */
+  public CachedLayer(PApplet applet, int width, int height, Consumer<PGraphics> painter) {
+    if (applet == null || painter == null)
+      throw new IllegalArgumentException("Applet and painter can't be null");
+    if (width <= 0 || height <= 0)
+      throw new IllegalArgumentException("Size of the layer should be positive, given: " + width + "x" + height);
+    this.applet = applet;
+    this.width = width;
+    this.height = height;
+    this.painter = painter;
+  }
+
+  /**
+   * Makes the layer painted again on the next draw, used when what it shows changed without its state
+   */
+  public void invalidate() {
+    this.valid = false;
+  }
+
+  /**
+   * Draws the layer with its top left corner at the given position on the graphics of the applet,
+   * painting it first if it was never painted, it's invalidated or its state or position changed
+   * @param x float x-coordinate of the top left corner of the layer
+   * @param y float y-coordinate of the top left corner of the layer
+   * @param state Object the layer is drawn for, compared by equals to the state it was painted for
+   */
+  public void draw(float x, float y, Object state) {
+    if (this.buffer == null)
+      this.buffer = this.applet.createGraphics(this.width, this.height);
+    if (!this.valid || !Objects.equals(state, this.paintedState) || x != this.paintedX || y != this.paintedY) {
+      this.buffer.beginDraw();
+      this.buffer.clear();
+      this.buffer.pushMatrix();
+      this.buffer.translate(-x, -y);
+      this.painter.accept(this.buffer);
+      this.buffer.popMatrix();
+      this.buffer.endDraw();
+      this.paintedState = state;
+      this.paintedX = x;
+      this.paintedY = y;
+      this.valid = true;
+      ++this.paintCount;
+    }
+    PGraphics g = this.applet.g;
+    g.pushStyle();
+    g.imageMode(CORNER);
+    g.noTint();
+    g.image(this.buffer, x, y);
+    g.popStyle();
+  }
+
+  /**
+   * Gets the number of times the layer was painted, the frames it wasn't painted on only drew the buffer
+   * @return number of paints since the layer was made
+   */
+  public int getPaintCount() {
+    return this.paintCount;
+  }
+}
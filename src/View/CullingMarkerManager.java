@@ -0,0 +1,483 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A marker manager that draws only the markers in the shown part of the map, found through an index of their boxes,
+               drawing clusters of the chosen markers at low zooms and the markers of the same style in batches
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.marker.AbstractMarker;
+import de.fhpotsdam.unfolding.marker.AbstractShapeMarker;
+import de.fhpotsdam.unfolding.marker.Marker;
+import de.fhpotsdam.unfolding.marker.MarkerManager;
+import de.fhpotsdam.unfolding.marker.MultiMarker;
+import de.fhpotsdam.unfolding.utils.ScreenPosition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import model.marker.BatchedMarker;
+import model.marker.ClusterMarker;
+import model.marker.MarkerBatch;
+import model.spatial.GridClusters;
+import model.spatial.STRTree;
+import processing.core.PApplet;
+
+/**
+ * <h1>CullingMarkerManager</h1>
+ * <p>
+ *   Draws only the markers whose locations are in the shown part of the map widened by a margin, found through
+ *   an STRTree of the boxes of the markers (the location of a point marker, the box of the locations of a shape marker)
+ *   instead of projecting and drawing every marker on each frame, so the cost of a frame follows the markers
+ *   on screen not the count of the markers, zoomed in on a big dataset draws as fast as a small one
+ * </p>
+ * <p>
+ *   The tree is made again on the first frame after markers are added, removed or set, the markers are drawn
+ *   in the order of the list as the default manager does, markers that have no box (no location or a MultiMarker)
+ *   are always drawn, as are the pinned markers that draw beyond their location (like the lines of a clicked earthquake)
+ * </p>
+ * <p>
+ *   Markers chosen to be clustered (point markers like airports or earthquakes) are drawn as the clusters of
+ *   GridClusters at zooms up to <code>GridClusters.MAX_ZOOM</code>, a cluster of a single marker is drawn as the marker
+ *   and a cluster of many as a ClusterMarker, the clusters of each zoom and their tree are made on the first frame
+ *   at that zoom after the markers are changed, so at low zooms the few clusters are drawn and hovered instead of
+ *   thousands of overlapping markers
+ * </p>
+ * <p>
+ *   Made with an applet, each run of markers that follow each other in the drawing order and are BatchedMarkers
+ *   of the same style (like the depth color of earthquakes or the image of cities) is drawn as a MarkerBatch,
+ *   instead of each marker setting its style and drawing its shape, keeping the order the markers are drawn in
+ *   with the markers drawn on their own between the runs, the batches are filled again only when the markers of
+ *   the frame, the batched ones or the viewport change
+ * </p>
+ * Added to its map before any marker so it's the default manager of the map, and the markers added to the map go into it.
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see STRTree
+ * @see GridClusters
+ * @see MarkerBatch
+ */
+public final class CullingMarkerManager extends MarkerManager<Marker> {
+
+  private final UnfoldingMap map;
+  private final float margin;
+
+  // state the tree was made for
+  private List<Marker> indexed = new ArrayList<>(); // markers in the order of the list when the tree was made
+  private STRTree index;
+  private int[] bounded = new int[0]; // marker of each box of the tree in ascending order
+  private int[] unbounded = new int[0]; // markers that are drawn on every frame
+  private final List<Marker> pinned = new ArrayList<>();
+  private int drawnCount;
+  private Predicate<Marker> animated; // chooses the markers that move on their own, null if none do
+  private boolean animating;
+
+  // clustering, clustered markers are kept out of the tree of the other markers
+  private Predicate<Marker> clustered; // chooses the markers drawn as clusters, null if none are
+  private boolean clustering = true;
+  private STRTree clusteredIndex;
+  private int[] clusteredBounded = new int[0]; // marker of each box of the tree of the clustered markers in ascending order
+  private GridClusters clusters;
+  private final List<List<Marker>> zoomClusters = new ArrayList<>(); // clusters of each zoom, null till drawn at that zoom
+  private final List<STRTree> zoomClustersIndexes = new ArrayList<>();
+  private List<Marker> shownClusters;
+
+  // batching, null applet if every marker draws itself
+  private final PApplet applet;
+  private final List<Object> segments = new ArrayList<>(); // batches and markers drawn on their own in the drawing order
+  private List<Marker> segmentedMarkers = new ArrayList<>(); // markers of the frame the segments were made for
+  private List<Marker> batchedMarkers = new ArrayList<>(); // markers in the batches in the order they were added
+  private Viewport batchedViewport; // viewport the batches were filled for
+
+  /**
+   * Map Constructor. makes an empty manager of the given map
+   * @param map UnfoldingMap the markers are drawn on
+   * @param margin distance in pixels out of the map that markers are still drawn in, should cover the biggest marker
+   * so a marker whose location is just out of the map but reaches into it isn't cut
+   * @throws IllegalArgumentException if the map is null or the margin is negative
+   */
+  public CullingMarkerManager(UnfoldingMap map, float margin) {
+    this(map, margin, null);
+  }
+
+  /**
+   * Batching Constructor. makes an empty manager of the given map that draws the markers that are BatchedMarkers
+   * in batches of the same style on the graphics of the applet, the batches are filled again only when the drawn
+   * markers, their state or the viewport of the map change
+   * @param map UnfoldingMap the markers are drawn on
+   * @param margin distance in pixels out of the map that markers are still drawn in, should cover the biggest marker
+   * @param applet PApplet whose graphics the map is drawn on, null to draw every marker by itself
+   * @throws IllegalArgumentException if the map is null or the margin is negative
+   */
+  public CullingMarkerManager(UnfoldingMap map, float margin, PApplet applet) {
+    if (map == null)
+      throw new IllegalArgumentException("Map can't be null");
+    if (!(margin >= 0))
+      throw new IllegalArgumentException("Margin can't be negative, given: " + margin);
+    this.map = map;
+    this.margin = margin;
+    this.applet = applet;
+  }
+
+  @Override
+  public boolean addMarker(Marker marker) {
+    this.index = null;
+    return super.addMarker(marker);
+  }
+
+  @Override
+  public void addMarkers(List<Marker> markers) {
+    this.index = null;
+    super.addMarkers(markers);
+  }
+
+  @Override
+  public boolean removeMarker(Marker marker) {
+    this.index = null;
+    this.pinned.remove(marker);
+    return super.removeMarker(marker);
+  }
+
+  @Override
+  public void clearMarkers() {
+    this.index = null;
+    this.pinned.clear();
+    super.clearMarkers();
+  }
+
+  @Override
+  public void setMarkers(List<Marker> markers) {
+    this.index = null;
+    this.pinned.clear();
+    super.setMarkers(markers);
+  }
+
+  /**
+   * Makes the given marker drawn on every frame even when its location is out of the map,
+   * till it's unpinned or removed from the manager
+   * @param marker Marker of the manager that draws beyond its location
+   */
+  public void pin(Marker marker) {
+    if (marker != null && !this.pinned.contains(marker))
+      this.pinned.add(marker);
+  }
+
+  /**
+   * Makes all the pinned markers drawn only when they are in the map again
+   */
+  public void unpinAll() {
+    this.pinned.clear();
+  }
+
+  /**
+   * Chooses the markers that are drawn as clusters at zooms up to GridClusters.MAX_ZOOM,
+   * markers that aren't point markers with a location are never clustered
+   * @param clustered Predicate choosing the clustered markers, null for no clustering
+   */
+  public void setClustered(Predicate<Marker> clustered) {
+    this.clustered = clustered;
+    this.index = null;
+  }
+
+  /**
+   * Turns the clustering on or off without making the clusters again, like turning it off while some markers
+   * are hidden to show a selection
+   * @param clustering True to draw the clustered markers as clusters, False to draw them as markers
+   */
+  public void setClustering(boolean clustering) {
+    this.clustering = clustering;
+  }
+
+  /**
+   * Gets the clusters drawn in place of the clustered markers on the last frame, the markers to be hovered instead of them
+   * @return List of the clusters of the zoom of the last frame holding ClusterMarkers and the markers of single clusters,
+   * null if the clustered markers were drawn as markers
+   */
+  public List<Marker> getShownClusters() {
+    return this.shownClusters;
+  }
+
+  /**
+   * Chooses the markers that change on their own from frame to frame (like pulsing markers), so the map knows
+   * it should keep drawing while any of them is shown
+   * @param animated Predicate choosing the animated markers, null if none are
+   */
+  public void setAnimated(Predicate<Marker> animated) {
+    this.animated = animated;
+  }
+
+  /**
+   * Checks if an animated marker that isn't hidden was drawn on the last frame
+   * @return True if the last frame showed an animated marker, False otherwise
+   */
+  public boolean isAnimating() {
+    return this.animating;
+  }
+
+  /**
+   * Gets the number of markers drawn on the last frame, hidden markers included as they are skipped by their own draw
+   * @return number of drawn markers
+   */
+  public int getDrawnCount() {
+    return this.drawnCount;
+  }
+
+  /**
+   * Draws the markers in the shown part of the map in the order of the list, making the tree again first
+   * if markers were changed since it was made
+   */
+  @Override
+  public void draw() {
+    if (!isDrawingEnabled())
+      return;
+    List<Marker> markers = getMarkers();
+    if (this.index == null || markers.size() != this.indexed.size())
+      build(markers);
+
+    float[] box = shownBox(this.map, this.margin); // null if the map can't be turned into a box, all markers are drawn then
+    int zoom = this.map.getZoomLevel();
+    boolean clustered = this.clusters != null && this.clustering && zoom >= 0 && zoom <= GridClusters.MAX_ZOOM;
+    int count = 0;
+    float[] bounds = new float[4];
+    this.animating = false;
+    for (Marker marker : this.pinned) { // drawn below the others, the ones in the map are drawn in order with the others
+      if (box != null && bounds(marker, bounds, 0) && !intersects(bounds, box)) {
+        marker.draw(this.map);
+        this.animating |= isAnimated(marker);
+        ++count;
+      }
+    }
+    List<Marker> frame = new ArrayList<>(); // markers of this frame in the order they're drawn
+    this.shownClusters = null;
+    if (clustered) { // clusters are drawn below the other markers
+      List<Marker> zoomClusters = clusters(zoom);
+      for (int cluster : search(this.zoomClustersIndexes.get(zoom), null, box))
+        frame.add(zoomClusters.get(cluster));
+      this.shownClusters = zoomClusters;
+    }
+    int[] visible = search(this.index, this.bounded, box);
+    int[] visibleClustered = clustered ? new int[0] : search(this.clusteredIndex, this.clusteredBounded, box);
+    int[] drawn = Arrays.copyOf(visible, visible.length + visibleClustered.length + this.unbounded.length);
+    System.arraycopy(visibleClustered, 0, drawn, visible.length, visibleClustered.length);
+    System.arraycopy(this.unbounded, 0, drawn, visible.length + visibleClustered.length, this.unbounded.length);
+    Arrays.sort(drawn); // in the order of the list
+    for (int i : drawn)
+      frame.add(this.indexed.get(i));
+    if (this.applet == null) {
+      frame.forEach(m -> m.draw(this.map));
+    } else {
+      drawBatched(frame);
+    }
+    for (Marker marker : frame)
+      this.animating |= isAnimated(marker);
+    this.drawnCount = count + frame.size();
+  }
+
+  /*
+   * private helper method that checks if a drawn marker is animated and shown
+   * @Param: Marker drawn on the frame
+   * */
+  private boolean isAnimated(Marker marker) {
+    return this.animated != null && !marker.isHidden() && this.animated.test(marker);
+  }
+
+  /*
+   * private helper method that draws the markers of the frame in order, a run of batched markers of the same style
+   * in a batch, the segments are made again only if the markers of the frame, the batched ones or the viewport changed
+   * @Param: List of the markers of the frame in the order they're drawn
+   * */
+  private void drawBatched(List<Marker> frame) {
+    boolean[] isBatched = new boolean[frame.size()];
+    List<Marker> batched = new ArrayList<>();
+    for (int i = 0; i < frame.size(); ++i) {
+      Marker marker = frame.get(i);
+      isBatched[i] = marker instanceof BatchedMarker && marker instanceof AbstractMarker && ((BatchedMarker) marker).isBatched();
+      if (isBatched[i])
+        batched.add(marker);
+    }
+    Viewport viewport = Viewport.of(this.map);
+    if (!viewport.equals(this.batchedViewport) || !sameMarkers(frame, this.segmentedMarkers)
+        || !sameMarkers(batched, this.batchedMarkers)) {
+      this.segments.clear();
+      MarkerBatch batch = null; // batch of the current run, null after a marker drawn on its own
+      Object batchKey = null;
+      for (int i = 0; i < frame.size(); ++i) {
+        Marker marker = frame.get(i);
+        if (!isBatched[i]) {
+          this.segments.add(marker);
+          batch = null;
+          continue;
+        }
+        BatchedMarker batchedMarker = (BatchedMarker) marker;
+        if (batch == null || !batchKey.equals(batchedMarker.getBatchKey())) { // a run of another style starts
+          batch = batchedMarker.makeBatch();
+          batchKey = batchedMarker.getBatchKey();
+          this.segments.add(batch);
+        }
+        ScreenPosition position = ((AbstractMarker) marker).getScreenPosition(this.map);
+        batchedMarker.addToBatch(batch, position.x, position.y);
+      }
+      this.batchedViewport = viewport;
+      this.segmentedMarkers = frame;
+      this.batchedMarkers = batched;
+    }
+    for (Object segment : this.segments) {
+      if (segment instanceof MarkerBatch)
+        ((MarkerBatch) segment).draw(this.applet.g);
+      else
+        ((Marker) segment).draw(this.map);
+    }
+  }
+
+  /*
+   * private helper method that checks if two lists hold the same markers in the same order by reference
+   * @Param: List of markers, List of markers
+   * */
+  private static boolean sameMarkers(List<Marker> markers, List<Marker> others) {
+    if (markers.size() != others.size())
+      return false;
+    for (int i = 0; i < markers.size(); ++i)
+      if (markers.get(i) != others.get(i))
+        return false;
+    return true;
+  }
+
+  /*
+   * private helper method that finds the items of the tree whose boxes intersect the box, all of them if the box is null
+   * @Param: STRTree to search, int[] of the marker of each item of the tree or null to get the items, float[] box or null
+   * */
+  private static int[] search(STRTree tree, int[] markers, float[] box) {
+    int[] found;
+    if (box != null) {
+      found = tree.search(box[0], box[1], box[2], box[3]);
+    } else {
+      found = new int[tree.size()];
+      Arrays.setAll(found, i -> i);
+    }
+    if (markers != null)
+      for (int i = 0; i < found.length; ++i)
+        found[i] = markers[found[i]];
+    return found;
+  }
+
+  /*
+   * private helper method that gets the clusters of the zoom, making them and their tree if they weren't made
+   * since the markers were changed
+   * @Param: int zoom from 0 to GridClusters.MAX_ZOOM
+   * */
+  private List<Marker> clusters(int zoom) {
+    if (this.zoomClusters.get(zoom) == null) {
+      int count = this.clusters.getClustersCount(zoom);
+      List<Marker> zoomClusters = new ArrayList<>(count);
+      float[] bounds = new float[count * 4];
+      for (int cluster = 0; cluster < count; ++cluster) {
+        Marker marker;
+        if (this.clusters.getCount(zoom, cluster) == 1) {
+          marker = this.indexed.get(this.clusteredBounded[this.clusters.getItems(zoom, cluster)[0]]);
+        } else {
+          marker = new ClusterMarker(new Location(this.clusters.getLatitude(zoom, cluster), this.clusters.getLongitude(zoom, cluster)),
+              this.clusters.getCount(zoom, cluster), this.clusters.getExpansionZoom(zoom, cluster));
+        }
+        zoomClusters.add(marker);
+        bounds[cluster * 4] = bounds[cluster * 4 + 2] = this.clusters.getLatitude(zoom, cluster);
+        bounds[cluster * 4 + 1] = bounds[cluster * 4 + 3] = this.clusters.getLongitude(zoom, cluster);
+      }
+      this.zoomClusters.set(zoom, zoomClusters);
+      this.zoomClustersIndexes.set(zoom, new STRTree(bounds));
+    }
+    return this.zoomClusters.get(zoom);
+  }
+
+  /*
+   * private helper method that makes the tree of the boxes of the markers of the list
+   * @Param: List of the markers of the manager
+   * */
+  private void build(List<Marker> markers) {
+    this.indexed = new ArrayList<>(markers);
+    float[] bounds = new float[this.indexed.size() * 4], clusteredBounds = new float[this.indexed.size() * 4];
+    int[] bounded = new int[this.indexed.size()], clusteredBounded = new int[this.indexed.size()];
+    int[] unbounded = new int[this.indexed.size()];
+    int boundedCount = 0, clusteredCount = 0, unboundedCount = 0;
+    for (int i = 0; i < this.indexed.size(); ++i) {
+      Marker marker = this.indexed.get(i);
+      if (this.clustered != null && !(marker instanceof AbstractShapeMarker) && this.clustered.test(marker)
+          && bounds(marker, clusteredBounds, clusteredCount * 4))
+        clusteredBounded[clusteredCount++] = i;
+      else if (bounds(marker, bounds, boundedCount * 4))
+        bounded[boundedCount++] = i;
+      else
+        unbounded[unboundedCount++] = i;
+    }
+    this.bounded = Arrays.copyOf(bounded, boundedCount);
+    this.unbounded = Arrays.copyOf(unbounded, unboundedCount);
+    this.index = new STRTree(Arrays.copyOf(bounds, boundedCount * 4));
+    this.clusteredBounded = Arrays.copyOf(clusteredBounded, clusteredCount);
+    this.clusteredIndex = new STRTree(Arrays.copyOf(clusteredBounds, clusteredCount * 4));
+
+    // the clusters of each zoom are made when first drawn
+    this.zoomClusters.clear();
+    this.zoomClustersIndexes.clear();
+    this.clusters = null;
+    if (clusteredCount > 0) {
+      float[] lats = new float[clusteredCount], lons = new float[clusteredCount];
+      for (int i = 0; i < clusteredCount; ++i) {
+        lats[i] = clusteredBounds[i * 4];
+        lons[i] = clusteredBounds[i * 4 + 1];
+      }
+      this.clusters = new GridClusters(lats, lons);
+      this.zoomClusters.addAll(Collections.nCopies(GridClusters.MAX_ZOOM + 1, null));
+      this.zoomClustersIndexes.addAll(Collections.nCopies(GridClusters.MAX_ZOOM + 1, null));
+    }
+  }
+
+  /*
+   * package private helper method that gets the box of the shown part of the map widened by the margin as
+   * minLat, minLon, maxLat, maxLon, a screen box is a box of locations as the map is of the Mercator projection,
+   * null if the map can't be turned into a box, shared with the RouteLayer
+   * @Param: UnfoldingMap shown, float margin in pixels
+   * */
+  static float[] shownBox(UnfoldingMap map, float margin) {
+    Location topLeft = map.getLocation(-margin, -margin);
+    Location bottomRight = map.getLocation(map.getWidth() + margin, map.getHeight() + margin);
+    if (topLeft == null || bottomRight == null)
+      return null;
+    float[] box = {bottomRight.getLat(), topLeft.getLon(), topLeft.getLat(), bottomRight.getLon()};
+    if (!(box[0] <= box[2]) || !(box[1] <= box[3]))
+      return null;
+    return box;
+  }
+
+  /*
+   * private helper method that puts the box of the marker into the array at the given position
+   * returning false if the marker has no box
+   * @Param: Marker to get its box, float[] to put the box into, int position of the box in the array
+   * */
+  private static boolean bounds(Marker marker, float[] bounds, int at) {
+    if (marker instanceof MultiMarker)
+      return false;
+    List<Location> locations = marker instanceof AbstractShapeMarker
+        ? ((AbstractShapeMarker) marker).getLocations()
+        : Collections.singletonList(marker.getLocation());
+    if (locations == null || locations.isEmpty())
+      return false;
+    bounds[at] = bounds[at + 1] = Float.POSITIVE_INFINITY;
+    bounds[at + 2] = bounds[at + 3] = Float.NEGATIVE_INFINITY;
+    for (Location location : locations) {
+      if (location == null || Float.isNaN(location.getLat()) || Float.isNaN(location.getLon()))
+        return false;
+      bounds[at] = Math.min(bounds[at], location.getLat());
+      bounds[at + 1] = Math.min(bounds[at + 1], location.getLon());
+      bounds[at + 2] = Math.max(bounds[at + 2], location.getLat());
+      bounds[at + 3] = Math.max(bounds[at + 3], location.getLon());
+    }
+    return true;
+  }
+
+  private static boolean intersects(float[] bounds, float[] box) {
+    return bounds[0] <= box[2] && bounds[2] >= box[0] && bounds[1] <= box[3] && bounds[3] >= box[1];
+  }
+}
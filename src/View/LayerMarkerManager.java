@@ -0,0 +1,152 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A marker manager that draws the shapes of its markers (like shaded countries) into a cached layer,
+               painted again only when the map is panned or zoomed or the markers change
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.marker.AbstractShapeMarker;
+import de.fhpotsdam.unfolding.marker.Marker;
+import de.fhpotsdam.unfolding.marker.MarkerManager;
+import de.fhpotsdam.unfolding.marker.MultiMarker;
+import de.fhpotsdam.unfolding.utils.ScreenPosition;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import processing.core.PApplet;
+import processing.core.PConstants;
+import processing.core.PGraphics;
+
+/**
+ * <h1>LayerMarkerManager</h1>
+ * <p>
+ *   Draws the polygons of its shape markers (SimplePolygonMarkers or MultiMarkers holding them, like the countries
+ *   of the life expectancy map) filled with the color given by the fill function into a CachedLayer of the size of the map,
+ *   the polygons are projected and drawn only when the Viewport of the map changes, or after markers are added,
+ *   removed or set or the manager is invalidated, every other frame draws the layer as a single image
+ * </p>
+ * Markers that aren't shapes draw nothing, hidden markers aren't drawn.
+ * Added to its map before any marker so it's the default manager of the map, and the markers added to the map go into it.
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see CachedLayer
+ */
+public final class LayerMarkerManager extends MarkerManager<Marker> {
+
+  private static final int OUTLINE_COLOR = 0xFFFFFFFF;
+
+  private final UnfoldingMap map;
+  private final ToIntFunction<Marker> fill;
+  private final CachedLayer layer;
+
+  /**
+   * Map Constructor. makes an empty manager of the given map drawing on the graphics of the applet
+   * @param map UnfoldingMap the markers are drawn on
+   * @param applet PApplet whose graphics the map is drawn on
+   * @param fill ToIntFunction giving the fill color of the polygons of a marker
+   * @throws IllegalArgumentException if any of the parameters is null
+   */
+  public LayerMarkerManager(UnfoldingMap map, PApplet applet, ToIntFunction<Marker> fill) {
+    if (map == null || applet == null || fill == null)
+      throw new IllegalArgumentException("Map, applet and fill can't be null");
+    this.map = map;
+    this.fill = fill;
+    this.layer = new CachedLayer(applet, (int) Math.ceil(map.getWidth()), (int) Math.ceil(map.getHeight()), this::paint);
+  }
+
+  @Override
+  public boolean addMarker(Marker marker) {
+    this.layer.invalidate();
+    return super.addMarker(marker);
+  }
+
+  @Override
+  public void addMarkers(List<Marker> markers) {
+    this.layer.invalidate();
+    super.addMarkers(markers);
+  }
+
+  @Override
+  public boolean removeMarker(Marker marker) {
+    this.layer.invalidate();
+    return super.removeMarker(marker);
+  }
+
+  @Override
+  public void clearMarkers() {
+    this.layer.invalidate();
+    super.clearMarkers();
+  }
+
+  @Override
+  public void setMarkers(List<Marker> markers) {
+    this.layer.invalidate();
+    super.setMarkers(markers);
+  }
+
+  /**
+   * Makes the markers drawn again on the next frame, used when their colors or hidden state changed
+   */
+  public void invalidate() {
+    this.layer.invalidate();
+  }
+
+  /**
+   * Gets the number of times the markers were drawn into the layer
+   * @return number of paints of the layer
+   */
+  public int getPaintCount() {
+    return this.layer.getPaintCount();
+  }
+
+  /**
+   * Draws the layer of the markers, drawing the markers into it first if the viewport of the map changed
+   */
+  @Override
+  public void draw() {
+    if (!isDrawingEnabled())
+      return;
+    this.layer.draw(0, 0, Viewport.of(this.map));
+  }
+
+  /*
+   * private helper method that paints the polygons of the markers in the order of the list
+   * @Param: PGraphics of the layer
+   * */
+  private void paint(PGraphics pg) {
+    pg.strokeWeight(1);
+    pg.stroke(OUTLINE_COLOR);
+    for (Marker marker : getMarkers()) {
+      if (marker.isHidden())
+        continue;
+      pg.fill(this.fill.applyAsInt(marker));
+      if (marker instanceof MultiMarker) {
+        for (Marker part : ((MultiMarker) marker).getMarkers())
+          paintShape(pg, part);
+      } else {
+        paintShape(pg, marker);
+      }
+    }
+  }
+
+  /*
+   * private helper method that paints the polygon of a shape marker at the screen positions of its locations
+   * @Param: PGraphics of the layer, Marker to paint
+   * */
+  private void paintShape(PGraphics pg, Marker marker) {
+    if (!(marker instanceof AbstractShapeMarker))
+      return;
+    List<Location> locations = ((AbstractShapeMarker) marker).getLocations();
+    if (locations == null || locations.size() < 3)
+      return;
+    pg.beginShape();
+    for (Location location : locations) {
+      ScreenPosition position = this.map.getScreenPosition(location);
+      pg.vertex(position.x, position.y);
+    }
+    pg.endShape(PConstants.CLOSE);
+  }
+}
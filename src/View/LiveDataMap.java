@@ -6,6 +6,7 @@ package view;
 */
 
 import controller.DataUtils;
+import controller.EarthQuakeFeedIngest;
 import controller.EarthQuakeUtils;
 import controller.EarthQuakeUtils.EarthQuakeFilter;
 import controller.MarkerUtils;
@@ -19,10 +20,17 @@ import de.fhpotsdam.unfolding.providers.Microsoft;
 import de.fhpotsdam.unfolding.utils.MapUtils;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.application.Platform;
+import javafx.event.ActionEvent;
 import javafx.beans.binding.Bindings;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
@@ -50,9 +58,18 @@ import javafx.util.Pair;
 import model.marker.AbstractEarthQuakeMarker;
 import model.marker.AirportMarker;
 import model.marker.CityMarker;
+import model.marker.ClusterMarker;
+import model.pojo.AirportRegistry;
+import model.pojo.RouteGraph;
+import model.pojo.RouteNetwork;
+import model.spatial.GeoCircleIndex;
+import model.spatial.GeoKdTree;
 import processing.core.PApplet;
+import processing.core.PGraphics;
 import processing.core.PImage;
 import processing.core.PSurface;
+import processing.event.KeyEvent;
+import processing.event.MouseEvent;
 import processing.javafx.PSurfaceFX;
 
 public class LiveDataMap extends PApplet {
@@ -72,10 +89,22 @@ public class LiveDataMap extends PApplet {
   private UnfoldingMap earthQuakesMap;
   // used earthQuakesMarkers reference (same for any earthquake property, as same data but different coloring)
   private List<Marker> earthQuakesMarkers;
+  // ingest following the live feed of the shown earthquakes, null if the shown earthquakes aren't of a live feed
+  private EarthQuakeFeedIngest liveIngest;
+  // poll of the live feed running away from the draw thread and the ingest it polls, its delta is applied by draw when done
+  private CompletableFuture<EarthQuakeFeedIngest.Delta> pendingPoll;
+  private EarthQuakeFeedIngest pendingPollIngest;
+  private int lastPollMillis;
+  // the live feed is polled every minute, the feeds of USGS are updated every minute
+  private static final int LIVE_POLL_INTERVAL_MILLIS = 60_000;
   // used lifeExpectancyMarkers reference
   private List<Marker> lifeExpectancyMarkers;
   // used City markers reference
   private List<Marker> cityMarkers;
+  // spatial index of the locations of cityMarkers used to find the cities in the threat circle of an earthquake
+  private GeoKdTree cityIndex;
+  // index of the threat circles of the shown earthquakes markers, made again whenever earthQuakesMarkers is changed
+  private GeoCircleIndex<Marker> earthQuakesIndex;
   //LifeExpectancy Map reference
   private UnfoldingMap lifeExpectancyMap;
   // Airports Map reference
@@ -84,8 +113,50 @@ public class LiveDataMap extends PApplet {
   private List<Marker> airportsMarkers;
   // used airportsMarkers reference
   private List<Marker> airportRoutesMarkers;
+  // registry of the airportsMarkers in their order holding their int ids, shared by airportRoutesGraph
+  private AirportRegistry airportRegistry;
+  // graph of the airportRoutesMarkers between the airportsMarkers used to find the routes of a clicked airport
+  private RouteGraph airportRoutesGraph;
+  // layer of the airports map drawing all the routes of airportRoutesGraph as batched lines, off till shown from the menu
+  private RouteLayer routeNetworkLayer;
   // City Map reference
   private UnfoldingMap citiesMap;
+  /*
+   * grids of the screen positions of the markers used to find the marker under the cursor on mouse moves,
+   * each is made again only when the map is panned or zoomed or its markers list is changed
+   * the reach covers the biggest markers, earthquakes of magnitude 10 have a radius of 30 pixels
+   * */
+  private static final float HOVER_REACH = 32;
+  private final ScreenHitGrid earthQuakesHoverGrid = new ScreenHitGrid(HOVER_REACH);
+  private final ScreenHitGrid citiesHoverGrid = new ScreenHitGrid(HOVER_REACH);
+  private final ScreenHitGrid airportsHoverGrid = new ScreenHitGrid(HOVER_REACH);
+  /*
+   * default marker managers of the earthquakes, airports and cities maps that draw only the markers in the shown
+   * part of the map, markers reaching into the map from out of it by up to the hover reach are drawn too
+   * earthquakes and airports are drawn as clusters at low zooms, clustering is off while a selection is shown
+   * markers that look the same on every frame are drawn in batches of the same style on the graphics of this applet
+   * */
+  private CullingMarkerManager earthQuakesMarkerManager;
+  private CullingMarkerManager airportsMarkerManager;
+  private CullingMarkerManager citiesMarkerManager;
+  /*
+   * default marker manager of the life expectancy map that draws the shaded countries into an offscreen layer,
+   * painted again only when the map is panned or zoomed or the countries are changed
+   * */
+  private LayerMarkerManager lifeExpectancyMarkerManager;
+  // offscreen layer of the legend of the shown map, painted again only when another map is shown
+  private CachedLayer legendLayer;
+  // the legend is drawn in this box at the bottom left corner of the window
+  private static final int LEGEND_WIDTH = 200;
+  private static final int LEGEND_HEIGHT = 320;
+  private static final int LEGEND_BOTTOM_MARGIN = 40;
+  /*
+   * the window is drawn only when something changed: input events, menu actions, live data and loading tiles
+   * request frames, and the loop runs while the map moves or pulsing earthquakes are shown, what triggered
+   * the frames and the time spent drawing them are counted in the render metrics
+   * */
+  private final RenderMetrics renderMetrics = new RenderMetrics();
+  private final RedrawScheduler redrawScheduler = new RedrawScheduler(this, this.renderMetrics);
 
 
 
@@ -140,6 +211,7 @@ public class LiveDataMap extends PApplet {
     this.cityMarkerImg = loadImage("data/icon.png");
     this.cityMarkerImg.resize(14, 0);
     initMap();
+    this.renderMetrics.reset(); // the metrics count from the end of loading the data so they show the cost of drawing only
     // un comment if u want to sort and print the data of earthquakes in reverse order
 //    List<AbstractEarthQuakeMarker> data = new ArrayList<>(this.earthQuakesMarkers.size());
 //    this.earthQuakesMarkers.forEach(m -> data.add((AbstractEarthQuakeMarker)m));
@@ -180,6 +252,14 @@ public class LiveDataMap extends PApplet {
     // ======================== Operations Menu ==================
     Menu operationsMenu = new Menu("Operations");  // Operations menu object
     operationsMenu.getItems().add(filterMenu); // adding the FilterMenu to the Operations Menu
+    MenuItem routeNetwork = new MenuItem("Show/Hide Route Network"); // all routes drawn on the airports map
+    routeNetwork.setOnAction(e -> toggleRouteNetwork());
+    operationsMenu.getItems().add(routeNetwork);
+    MenuItem renderMetrics = new MenuItem("Render Metrics"); // what triggered the frames and the time spent drawing them
+    renderMetrics.setOnAction(e -> showRenderMetrics());
+    MenuItem onDemand = new MenuItem("Draw Continuously/On Demand");
+    onDemand.setOnAction(e -> this.redrawScheduler.setOnDemand(!this.redrawScheduler.isOnDemand()));
+    operationsMenu.getItems().addAll(renderMetrics, onDemand);
 
     // ======================= Map Selection Menu ====================
     Menu mapSelectionMenu = new Menu("Maps"); // making the Map Selection Menu
@@ -291,6 +371,9 @@ public class LiveDataMap extends PApplet {
     MenuBar menuBar = new MenuBar(); // makes a menu bar
     menuBar.getMenus().addAll(operationsMenu, mapSelectionMenu, dataSelectionMenu,
         providerMenu); // adds Operation Menu and MapSelection menu
+    // the action events of the items reach their menus, any chosen item may change what's shown so a frame is drawn after it
+    menuBar.getMenus().forEach(menu -> menu.addEventHandler(ActionEvent.ACTION,
+        e -> this.redrawScheduler.request(RedrawScheduler.Trigger.INPUT)));
 
     // ====================== VBox Container ==========================
     VBox container = new VBox(); // main container of FX Application
@@ -313,11 +396,32 @@ public class LiveDataMap extends PApplet {
   // the draw loop, invoked due to any change or loop (determined in backend of Processing library)
   @Override
   public void draw() {
+    long start = System.nanoTime();
+    this.redrawScheduler.frameStarted();
     background(30);
+    pollLiveData();
     this.map.draw();
     writeLocation();
-    addLegend();
+    this.legendLayer.draw(0, height - LEGEND_HEIGHT - LEGEND_BOTTOM_MARGIN, this.usedMap);
     setRestriction();
+    this.renderMetrics.countFrame(System.nanoTime() - start);
+    boolean animating = this.map == this.earthQuakesMap && this.earthQuakesMarkerManager.isAnimating();
+    long pollDelay = this.liveIngest != null && this.pendingPoll == null
+        ? Math.max(0, LIVE_POLL_INTERVAL_MILLIS - (millis() - this.lastPollMillis)) : -1;
+    this.redrawScheduler.frameDrawn(this.map, animating, pollDelay);
+  }
+
+  // input events are handled by the applet and the event dispatcher of the maps, then a frame is drawn for them
+  @Override
+  protected void handleMouseEvent(MouseEvent event) {
+    super.handleMouseEvent(event);
+    this.redrawScheduler.request(RedrawScheduler.Trigger.INPUT);
+  }
+
+  @Override
+  protected void handleKeyEvent(KeyEvent event) {
+    super.handleKeyEvent(event);
+    this.redrawScheduler.request(RedrawScheduler.Trigger.INPUT);
   }
 
   /*
@@ -334,6 +438,13 @@ public class LiveDataMap extends PApplet {
     // =========================================== EarthQuakes Section ====================================
     this.earthQuakesMap = new UnfoldingMap(this, 0, 0, 1920, 1080, DEFAULT_PROVIDER);
     MapUtils.createDefaultEventDispatcher(this, this.earthQuakesMap);
+    // added before any marker so it's the default marker manager holding all the markers of the map
+    this.earthQuakesMarkerManager = new CullingMarkerManager(this.earthQuakesMap, HOVER_REACH, this);
+    this.earthQuakesMarkerManager.setClustered(m -> m instanceof AbstractEarthQuakeMarker);
+    // earthquakes of the past day pulse, the map keeps being drawn while any of them is shown
+    this.earthQuakesMarkerManager.setAnimated(
+        m -> m instanceof AbstractEarthQuakeMarker && ((AbstractEarthQuakeMarker) m).isPastDay());
+    this.earthQuakesMap.addMarkerManager(this.earthQuakesMarkerManager);
     /*
      * if you want to filter the earthquake data, use respected EarthQuakesFilter objects for more info about them
      * check the EarthQuakeUtils static classes in second parameters
@@ -344,9 +455,13 @@ public class LiveDataMap extends PApplet {
      * URL >> live data url
      * */
       // presents Last day's Earthquakes by default, can be changed
-      this.earthQuakesMarkers = DataUtils.makeLastDayEarthQuakesMarkers();
+      this.liveIngest = DataUtils.makeLiveEarthQuakesIngest(DataUtils.LIVE_EARTHQUAKE_DATA_PAST_DAY);
+      this.earthQuakesMarkers = this.liveIngest.getMarkers();
+      this.earthQuakesIndex = MarkerUtils.makeThreatIndex(this.earthQuakesMarkers);
+      this.lastPollMillis = millis();
 //    this.earthQuakesMarkers = DataUtils.makeLocalEarthQuakesMarkers("./data/2.5_week.atom");
     this.cityMarkers = DataUtils.makeCityMarkers();
+    this.cityIndex = MarkerUtils.makeGeoIndex(this.cityMarkers);
 
     this.earthQuakesMap.addMarkers(this.earthQuakesMarkers);
     this.earthQuakesMap.addMarkers(this.cityMarkers);
@@ -359,6 +474,8 @@ public class LiveDataMap extends PApplet {
 
     this.lifeExpectancyMap = new UnfoldingMap(this, 0, 0, 1920, 1080, DEFAULT_PROVIDER);
     MapUtils.createDefaultEventDispatcher(this, this.lifeExpectancyMap);
+    this.lifeExpectancyMarkerManager = new LayerMarkerManager(this.lifeExpectancyMap, this, WorldDataUtils::getShade);
+    this.lifeExpectancyMap.addMarkerManager(this.lifeExpectancyMarkerManager);
     /*
      * change first parameter in makeLifeExpectancyMarkers
      * no 1st parameter >> FileChooser to choose CSV file
@@ -378,11 +495,19 @@ public class LiveDataMap extends PApplet {
     // =========================================== Airports Section ====================================
     this.airportsMap = new UnfoldingMap(this, 0, 0, 1920, 1080, DEFAULT_PROVIDER);
     MapUtils.createDefaultEventDispatcher(this, this.airportsMap);
+    this.airportsMarkerManager = new CullingMarkerManager(this.airportsMap, HOVER_REACH, this);
+    this.airportsMarkerManager.setClustered(m -> m instanceof AirportMarker);
+    this.airportsMap.addMarkerManager(this.airportsMarkerManager);
 
     // makes AirportMarkers
     this.airportsMarkers = DataUtils.makeLocalAirportMarkers("./data/airports.csv");
+    this.airportRegistry = DataUtils.getLastMadeAirports();
     this.airportRoutesMarkers = DataUtils.makeRouteMarkers("./data/routes.csv");
+    this.airportRoutesGraph = DataUtils.getLastMadeRouteGraph();
     this.airportsMap.addMarkers(this.airportsMarkers);
+    this.routeNetworkLayer = new RouteLayer(this.airportsMap, new RouteNetwork(this.airportRoutesGraph), this);
+    this.routeNetworkLayer.disableDrawing();
+    this.airportsMap.addMarkerManager(this.routeNetworkLayer);
     this.airportsMap.zoomToLevel(3);
     this.airportsMap.setZoomRange(3, 20);
     this.airportsMap.setPanningRestriction(this.airportsMap.getCenter(),
@@ -392,6 +517,8 @@ public class LiveDataMap extends PApplet {
     // =========================================== Cities Section ====================================
     this.citiesMap = new UnfoldingMap(this, 0, 0, 1920, 1080, DEFAULT_PROVIDER);
     MapUtils.createDefaultEventDispatcher(this, this.citiesMap);
+    this.citiesMarkerManager = new CullingMarkerManager(this.citiesMap, HOVER_REACH, this);
+    this.citiesMap.addMarkerManager(this.citiesMarkerManager);
 
     // city markers already made in Earthquake section
     this.citiesMap.addMarkers(this.cityMarkers);
@@ -406,6 +533,7 @@ public class LiveDataMap extends PApplet {
 
 
     this.map = this.earthQuakesMap;
+    this.legendLayer = new CachedLayer(this, LEGEND_WIDTH, LEGEND_HEIGHT, this::paintLegend);
 
     /* made for testing purposes only, don't uncomment
     System.out.println("Testing earthquake Marker data");
@@ -438,66 +566,68 @@ public class LiveDataMap extends PApplet {
    * with red shade meaning low life expectancy
    * blue shade meaning high life epxectancy
    * in between is the range from 40 to 90
+   * painted on the graphics of the legend layer only when the shown map changes
+   * @Param: PGraphics of the legend layer
    * */
-  private void addLegend() {
+  private void paintLegend(PGraphics pg) {
 
     switch (this.usedMap) {
       case EARTHQUAKES:
-        fill(color(230));
-        strokeWeight(3);
-        stroke(0);
-        rect(30, height - 350, 150, 300);
-        textSize(13);
-        fill(color(0));
-        textAlign(LEFT, CENTER);
-        text("Earthquakes", 65, height - 400 + 65);
-
-        image(this.cityMarkerImg, 40, height - 400 + 98);
-        text(" City Marker", 60, height - 400 + 100);
-        text("Land-Quake", 60, height - 400 + 125);
-        text("Ocean-Quake", 60, height - 400 + 150);
-        strokeWeight(1);
-        fill(255, 255, 255);
-        stroke(0);
-        ellipse(45, height - 400 + 130, 14, 14);
-        fill(255, 255, 255);
-        rect(38, height - 400 + 145, 14, 14);
-        fill(0);
-        text("Size ~ Magnitude", 50, height - 400 + 175);
-        text(" Shallow", 60, height - 400 + 205);
-        text("Intermediate", 60, height - 400 + 230);
-        text("Deep", 60, height - 400 + 255);
-        text("Past Day ~ Animated", 45, height - 400 + 290);
-        strokeWeight(1);
-        fill(6, 175, 194, 100);
-        stroke(0);
-        ellipse(45, height - 400 + 210, 13, 13);
-        strokeWeight(1);
-        fill(251, 255, 0, 190);
-        stroke(0);
-        ellipse(45, height - 400 + 235, 13, 13);
-        strokeWeight(1);
-        fill(191, 34, 40, 150);
-        stroke(0);
-        ellipse(45, height - 400 + 260, 13, 13);
+        pg.fill(230);
+        pg.strokeWeight(3);
+        pg.stroke(0);
+        pg.rect(30, height - 350, 150, 300);
+        pg.textSize(13);
+        pg.fill(0);
+        pg.textAlign(LEFT, CENTER);
+        pg.text("Earthquakes", 65, height - 400 + 65);
+
+        pg.image(this.cityMarkerImg, 40, height - 400 + 98);
+        pg.text(" City Marker", 60, height - 400 + 100);
+        pg.text("Land-Quake", 60, height - 400 + 125);
+        pg.text("Ocean-Quake", 60, height - 400 + 150);
+        pg.strokeWeight(1);
+        pg.fill(255, 255, 255);
+        pg.stroke(0);
+        pg.ellipse(45, height - 400 + 130, 14, 14);
+        pg.fill(255, 255, 255);
+        pg.rect(38, height - 400 + 145, 14, 14);
+        pg.fill(0);
+        pg.text("Size ~ Magnitude", 50, height - 400 + 175);
+        pg.text(" Shallow", 60, height - 400 + 205);
+        pg.text("Intermediate", 60, height - 400 + 230);
+        pg.text("Deep", 60, height - 400 + 255);
+        pg.text("Past Day ~ Animated", 45, height - 400 + 290);
+        pg.strokeWeight(1);
+        pg.fill(6, 175, 194, 100);
+        pg.stroke(0);
+        pg.ellipse(45, height - 400 + 210, 13, 13);
+        pg.strokeWeight(1);
+        pg.fill(251, 255, 0, 190);
+        pg.stroke(0);
+        pg.ellipse(45, height - 400 + 235, 13, 13);
+        pg.strokeWeight(1);
+        pg.fill(191, 34, 40, 150);
+        pg.stroke(0);
+        pg.ellipse(45, height - 400 + 260, 13, 13);
 
         break;
       case LIFE_EXPECTANCY:
-        fill(color(230));
-        strokeWeight(3);
-        stroke(0);
-        rect(30, height - 350, 150, 300);
-        textSize(13);
-        fill(color(0));
-        textAlign(LEFT, CENTER);
-        noStroke();
-        text("Life Expectancy", 50, height - 350 + 75);
-        text("Low shade", 60, height - 350 + 210);
-        text("High shade", 60, height - 350 + 120);
-        fill(color(255, 0, 0));
-        ellipse(45, height - 350 + 205, 18, 18);
-        fill(color(0, 0, 255));
-        ellipse(45, height - 350 + 115, 18, 18);
+        pg.fill(230);
+        pg.strokeWeight(3);
+        pg.stroke(0);
+        pg.rect(30, height - 350, 150, 300);
+        pg.textSize(13);
+        pg.fill(0);
+        pg.textAlign(LEFT, CENTER);
+        pg.noStroke();
+        pg.text("Life Expectancy", 50, height - 350 + 75);
+        pg.text("Low shade", 60, height - 350 + 210);
+        pg.text("High shade", 60, height - 350 + 120);
+        pg.fill(color(255, 0, 0));
+        pg.ellipse(45, height - 350 + 205, 18, 18);
+        pg.fill(color(0, 0, 255));
+        pg.ellipse(45, height - 350 + 115, 18, 18);
         break;
 
     }
@@ -530,6 +660,19 @@ public class LiveDataMap extends PApplet {
     }
   }
 
+  /*
+   * private helper method that shows the whole route network on the airports map switching to it,
+   * or hides it if it's shown
+   * */
+  private void toggleRouteNetwork() {
+    if (this.routeNetworkLayer.isDrawingEnabled()) {
+      this.routeNetworkLayer.disableDrawing();
+    } else {
+      this.routeNetworkLayer.enableDrawing();
+      swapMap(Map.AIRPORTS);
+    }
+  }
+
   /*
    * private helper method that prompts the user on filtering data before changing the data set
    * by making a custom-made confirmation dialog box,
@@ -561,21 +704,11 @@ public class LiveDataMap extends PApplet {
     try {
       switch (map) {
         case EARTHQUAKES:
-          switch (choice) {
-            case LAST_DAY:
-              this.earthQuakesMarkers = DataUtils.makeLastDayEarthQuakesMarkers(filters);
-
-              break;
-            case LAST_HOUR:
-              this.earthQuakesMarkers = DataUtils.makeLastHourEarthQuakesMarkers(filters);
-              break;
-            case LAST_MONTH:
-              this.earthQuakesMarkers = DataUtils.makeLastMonthEarthQuakesMarkers(filters);
-              break;
-            case LAST_WEEK:
-              this.earthQuakesMarkers = DataUtils.makeLastWeekEarthQuakesMarkers(filters);
-              break;
-          }
+          // the ingest keeps following the chosen feed, draw applies only what changed on each poll
+          this.liveIngest = DataUtils.makeLiveEarthQuakesIngest(getLiveFeed(choice), filters);
+          this.earthQuakesMarkers = this.liveIngest.getMarkers();
+          this.earthQuakesIndex = MarkerUtils.makeThreatIndex(this.earthQuakesMarkers);
+          this.lastPollMillis = millis();
           this.map.getDefaultMarkerManager().clearMarkers();
           this.map.addMarkers(this.earthQuakesMarkers);
           this.map.addMarkers(this.cityMarkers);
@@ -594,6 +727,71 @@ public class LiveDataMap extends PApplet {
     }
   }
 
+  /*
+   * private helper method that gets the URL of the live feed of the given choice
+   * @Param: LiveDatachoice enum to get its feed
+   * */
+  private static URL getLiveFeed(LiveDatachoice choice) {
+    switch (choice) {
+      case LAST_HOUR:
+        return DataUtils.LIVE_EARTHQUAKE_DATA_PAST_HOUR;
+      case LAST_WEEK:
+        return DataUtils.LIVE_EARTHQUAKE_DATA_PAST_7_DAYS;
+      case LAST_MONTH:
+        return DataUtils.LIVE_EARTHQUAKE_DATA_PAST_30_DAYS;
+      case LAST_DAY:
+      default:
+        return DataUtils.LIVE_EARTHQUAKE_DATA_PAST_DAY;
+    }
+  }
+
+  /*
+   * private helper method called by draw that keeps the shown live earthquakes up to date
+   * starts polling the live feed away from the draw thread every LIVE_POLL_INTERVAL_MILLIS, and when a poll is done
+   * applies its delta on the markers of the earthquakes map, removing the markers of the retired and updated earthquakes
+   * and adding the markers of the new and updated ones, the delta of a feed that isn't shown anymore is dropped
+   * */
+  private void pollLiveData() {
+    if (this.pendingPoll != null && this.pendingPoll.isDone()) {
+      try {
+        EarthQuakeFeedIngest.Delta delta = this.pendingPoll.join();
+        if (this.pendingPollIngest == this.liveIngest && !delta.isEmpty())
+          applyDelta(delta);
+      } catch (CompletionException ex) { // the shown markers are kept till the next poll
+        System.err.println("Can't poll the live feed: " + ex.getCause().getMessage());
+      }
+      this.pendingPoll = null;
+      this.pendingPollIngest = null;
+      this.lastPollMillis = millis();
+    }
+    if (this.liveIngest != null && this.pendingPoll == null
+        && millis() - this.lastPollMillis >= LIVE_POLL_INTERVAL_MILLIS) {
+      EarthQuakeFeedIngest ingest = this.pendingPollIngest = this.liveIngest;
+      this.pendingPoll = CompletableFuture.supplyAsync(() -> DataUtils.pollLiveEarthQuakes(ingest));
+      // a frame applies the delta once the poll is done, failed or not
+      this.pendingPoll.whenComplete((delta, ex) -> this.redrawScheduler.request(RedrawScheduler.Trigger.DATA));
+    }
+  }
+
+  /*
+   * private helper method that applies the delta of a poll on the earthquakes markers and the earthquakes map
+   * @Param: Delta of the poll of the live feed
+   * */
+  private void applyDelta(EarthQuakeFeedIngest.Delta delta) {
+    Set<Marker> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+    removed.addAll(delta.getRemoved());
+    for (Marker marker : removed) {
+      this.earthQuakesMap.getDefaultMarkerManager().removeMarker(marker);
+      this.earthQuakesIndex.remove(marker);
+    }
+    List<Marker> markers = new ArrayList<>(this.earthQuakesMarkers);
+    markers.removeIf(removed::contains);
+    markers.addAll(delta.getAdded());
+    this.earthQuakesMarkers = markers;
+    delta.getAdded().forEach(m -> MarkerUtils.addToThreatIndex(this.earthQuakesIndex, m));
+    this.earthQuakesMap.getDefaultMarkerManager().addMarkers(delta.getAdded());
+  }
+
   /*
    * offline version
    * private helper method that changes the dataset of earthquakes used by changing the markers
@@ -608,6 +806,8 @@ public class LiveDataMap extends PApplet {
         // same markers, same case
         case EARTHQUAKES:
           this.earthQuakesMarkers = DataUtils.makeLocalEarthQuakesMarkers(filters);
+          this.earthQuakesIndex = MarkerUtils.makeThreatIndex(this.earthQuakesMarkers);
+          this.liveIngest = null; // shown earthquakes aren't of the live feed anymore
           this.map.getDefaultMarkerManager().clearMarkers();
           this.map.addMarkers(this.earthQuakesMarkers);
           this.map.addMarkers(this.cityMarkers);
@@ -616,6 +816,7 @@ public class LiveDataMap extends PApplet {
           this.lifeExpectancyMarkers = DataUtils
               .makeLocalLifeExpectancyMarkers("./data/API_SP.DYN.LE00.IN_DS2_en_csv_v2_40967.csv",
                   LIFE_EXPECTANCY_YEAR);
+          this.lifeExpectancyMarkerManager.setMarkers(this.lifeExpectancyMarkers);
           break;
       }
       swapMap(map);
@@ -641,6 +842,8 @@ public class LiveDataMap extends PApplet {
         // same markers, same case
         case EARTHQUAKES:
           this.earthQuakesMarkers = DataUtils.makeLocalEarthQuakesMarkers(stage, filters);
+          this.earthQuakesIndex = MarkerUtils.makeThreatIndex(this.earthQuakesMarkers);
+          this.liveIngest = null; // shown earthquakes aren't of the live feed anymore
           this.map.getDefaultMarkerManager().clearMarkers();
           this.map.addMarkers(this.earthQuakesMarkers);
           this.map.addMarkers(this.cityMarkers);
@@ -649,6 +852,7 @@ public class LiveDataMap extends PApplet {
           this.lifeExpectancyMarkers = DataUtils
               .makeLocalLifeExpectancyMarkers("./data/API_SP.DYN.LE00.IN_DS2_en_csv_v2_40967.csv",
                   LIFE_EXPECTANCY_YEAR);
+          this.lifeExpectancyMarkerManager.setMarkers(this.lifeExpectancyMarkers);
           break;
       }
       swapMap(map);
@@ -673,7 +877,9 @@ public class LiveDataMap extends PApplet {
         // same markers, same case
         case EARTHQUAKES:
           markers = DataUtils.filterMarkers(filters);
+          this.liveIngest = null; // shown earthquakes aren't of the live feed anymore
           this.earthQuakesMarkers = markers;
+          this.earthQuakesIndex = MarkerUtils.makeThreatIndex(this.earthQuakesMarkers);
           this.map.getDefaultMarkerManager().clearMarkers();
           this.map.addMarkers(this.earthQuakesMarkers);
           this.map.addMarkers(this.cityMarkers);
@@ -682,6 +888,7 @@ public class LiveDataMap extends PApplet {
           this.lifeExpectancyMarkers = DataUtils
               .makeLocalLifeExpectancyMarkers("./data/API_SP.DYN.LE00.IN_DS2_en_csv_v2_40967.csv",
                   LIFE_EXPECTANCY_YEAR);
+          this.lifeExpectancyMarkerManager.setMarkers(this.lifeExpectancyMarkers);
           break;
       }
       swapMap(map);
@@ -726,6 +933,27 @@ public class LiveDataMap extends PApplet {
     }
   }
 
+  /*
+   * private helper method that shows the render metrics and the number of markers drawn on the last frame
+   * of each marker manager of the shown map, then resets the metrics so each time they're shown
+   * they cover the time since they were last shown (or since the data was loaded)
+   * */
+  private void showRenderMetrics() {
+    StringBuilder text = new StringBuilder("Since the metrics were last shown:\n").append(this.renderMetrics.describe());
+    text.append("Drawing: ").append(this.redrawScheduler.isOnDemand() ? "on demand" : "continuously").append('\n');
+    if (this.map == this.earthQuakesMap)
+      text.append("Drawn markers: ").append(this.earthQuakesMarkerManager.getDrawnCount());
+    else if (this.map == this.airportsMap)
+      text.append("Drawn markers: ").append(this.airportsMarkerManager.getDrawnCount())
+          .append(", drawn routes: ").append(this.routeNetworkLayer.isDrawingEnabled() ? this.routeNetworkLayer.getDrawnCount() : 0);
+    else if (this.map == this.citiesMap)
+      text.append("Drawn markers: ").append(this.citiesMarkerManager.getDrawnCount());
+    else
+      text.append("Paints of the countries layer: ").append(this.lifeExpectancyMarkerManager.getPaintCount());
+    showAlert(AlertType.INFORMATION, "Render Metrics", text.toString());
+    this.renderMetrics.reset();
+  }
+
   /*
    * A private helper method made to show alert with a given type and message
    * @Param: Enum for Type of Alert
@@ -1054,8 +1282,8 @@ public class LiveDataMap extends PApplet {
           hoveredOnMarker = null;
         }
 
-        selectMarkerHover(this.earthQuakesMarkers);
-        selectMarkerHover(this.cityMarkers);
+        selectMarkerHover(this.earthQuakesHoverGrid, hoverable(this.earthQuakesMarkerManager, this.earthQuakesMarkers));
+        selectMarkerHover(this.citiesHoverGrid, this.cityMarkers);
         break;
       case CITIES:
         if (hoveredOnMarker != null) {
@@ -1063,7 +1291,7 @@ public class LiveDataMap extends PApplet {
           hoveredOnMarker = null;
         }
 
-        selectMarkerHover(this.cityMarkers);
+        selectMarkerHover(this.citiesHoverGrid, this.cityMarkers);
 
         break;
       case AIRPORTS:
@@ -1072,7 +1300,7 @@ public class LiveDataMap extends PApplet {
           hoveredOnMarker = null;
         }
 
-        selectMarkerHover(this.airportsMarkers);
+        selectMarkerHover(this.airportsHoverGrid, hoverable(this.airportsMarkerManager, this.airportsMarkers));
         break;
     }
 
@@ -1097,12 +1325,18 @@ public class LiveDataMap extends PApplet {
       if (hoveredOnMarker == null) { // if null then cursor is not inside marker
         this.makeMarkersVisible();
       } else { // if it's not null then cursor is inside the marker
-        if (hoveredOnMarker instanceof AbstractEarthQuakeMarker) {
+        if (hoveredOnMarker instanceof ClusterMarker) {
+          zoomToCluster();
+        } else if (hoveredOnMarker instanceof AbstractEarthQuakeMarker) {
           // a private helper that shows only the selected earthquake marker and cities that
           // are in the threat circle of the earthquake ( if there's one )
           ((AbstractEarthQuakeMarker) hoveredOnMarker).setClicked(true);
+          // its lines to the cities in threat are drawn even when it's panned out of the map
+          this.earthQuakesMarkerManager.pin(hoveredOnMarker);
+          this.earthQuakesMarkerManager.setClustering(false);
           doMouseReleaseEarthQuakeMarker();
         } else if (hoveredOnMarker.getClass() == CityMarker.class) {
+          this.earthQuakesMarkerManager.setClustering(false);
           doMouseReleaseCityMarker();
         }
       }
@@ -1111,9 +1345,14 @@ public class LiveDataMap extends PApplet {
       if (hoveredOnMarker == null) { // if null then cursor is not inside marker
         this.makeMarkersVisible();
       }else{
-        if(hoveredOnMarker instanceof AirportMarker)
+        if(hoveredOnMarker instanceof ClusterMarker)
+        {
+          zoomToCluster();
+        }
+        else if(hoveredOnMarker instanceof AirportMarker)
         {
           // shows routes as lines from source which is the clicked on marker to all destinations
+          this.airportsMarkerManager.setClustering(false);
           doMouseReleaseAirportMarker();
         }
       }
@@ -1127,6 +1366,8 @@ public class LiveDataMap extends PApplet {
   private void writeLocation() {
     Location mouseLoc = this.map.getLocation(mouseX, mouseY);
     fill(0);
+    textSize(13); // the text style the legend left on the applet when it was drawn on it
+    textAlign(LEFT, CENTER);
     text("Latitude: " + mouseLoc.getLat() + ", Longitude: " + mouseLoc.getLon(), mouseX, mouseY);
   }
 
@@ -1139,23 +1380,33 @@ public class LiveDataMap extends PApplet {
   }
 
 
+  /*
+   * private helper method that gets the markers to be hovered of a clustering manager, the clusters drawn
+   * on the last frame if its markers were drawn as clusters or its markers otherwise
+   * @Param: CullingMarkerManager of the map, List<Marker> markers of the manager that are clustered
+   * */
+  private static List<Marker> hoverable(CullingMarkerManager manager, List<Marker> markers) {
+    List<Marker> clusters = manager.getShownClusters();
+    return clusters != null ? clusters : markers;
+  }
+
   /*
    * private helper method that is used in mouse Moved and it's essential
    * for selecting only one marker on hovering when there's multiple markers on screen
    * it selects the first marker found to show text of
-   * by looping on all markers, finding whether the mouseX, mouseY position is inside the location
-   * of the marker
-   * after it being marked that it's selected, the loop breaks and method returns
+   * by finding whether the mouseX, mouseY position is inside the location of the markers
+   * near the cursor using the grid of the screen positions of the markers
+   * after it being marked that it's selected, the method returns
+   * @Param: ScreenHitGrid of the markers
    * @Param:List<Marker> markers to check if any marker is under the mouse cursor
    * */
-  private void selectMarkerHover(List<Marker> markers) {
-    for (Marker m : markers) {
-      if (m.isInside(this.map, mouseX, mouseY) && hoveredOnMarker == null) // making sure nothing is selected as it will be null if nothing is selected
-      {
-        hoveredOnMarker = m;
-        hoveredOnMarker.setSelected(true);
-        return;
-      }
+  private void selectMarkerHover(ScreenHitGrid grid, List<Marker> markers) {
+    if (hoveredOnMarker != null) // making sure nothing is selected as it will be null if nothing is selected
+      return;
+    Marker m = grid.findInside(this.map, markers, mouseX, mouseY);
+    if (m != null) {
+      hoveredOnMarker = m;
+      hoveredOnMarker.setSelected(true);
     }
   }
 
@@ -1173,15 +1424,27 @@ public class LiveDataMap extends PApplet {
         }
       });
       this.cityMarkers.forEach(m -> m.setHidden(false));
+      this.earthQuakesMarkerManager.unpinAll();
+      this.earthQuakesMarkerManager.setClustering(true);
 
     }else if(this.usedMap == Map.AIRPORTS)
     {
       this.map.getDefaultMarkerManager().clearMarkers();
       this.airportsMarkers.forEach(m->m.setHidden(false));
       this.map.addMarkers(this.airportsMarkers);
+      this.airportsMarkerManager.setClustering(true);
     }
   }
 
+  /*
+   * A private helper method that zooms the map into the clicked cluster marker to where it's split
+   * uses the private field hoveredOnMarker as it holds the cluster marker that the cursor is on and clicked on
+   * */
+  private void zoomToCluster() {
+    ClusterMarker cluster = (ClusterMarker) hoveredOnMarker;
+    this.map.zoomAndPanTo(Math.max(cluster.getExpansionZoom(), this.map.getZoomLevel() + 1), cluster.getLocation());
+  }
+
   /*
    * A private helper method that shows only the selected earthquake marker from mouseReleased
    * method along with the city markers that exist in the threat circle of the earthquake if there's one
@@ -1198,20 +1461,25 @@ public class LiveDataMap extends PApplet {
           m.setHidden(true);
       });
       // hides all cities that are not in the threat circle of the earthquake
-      // by getting the distance from the hoveredOnMarker and the city's location
-      // and checking if it's less than the threat circle's radius or equal
+      // the cities near the earthquake are found using the cityIndex then the distance from the hoveredOnMarker
+      // to each found city's location is checked to be less than the threat circle's radius or equal
       // check is made by Double.compare for exact match (slightly not correct)
       // if needed more exactness, use BigDecimals
       // since it's made sure in mouseReleased that it's an earthquake marker, then it's a safe cast
-      this.cityMarkers.forEach(
-          m -> {
-            if (Double.compare(hoveredOnMarker.getDistanceTo(m.getLocation()),
-                ((AbstractEarthQuakeMarker) hoveredOnMarker).getThreatCircle()) > 0) {
-              m.setHidden(true);
-            }else{
-              ((AbstractEarthQuakeMarker)hoveredOnMarker).addCityInThreat(((AbstractMarker)m).getScreenPosition(this.map)); // adds cities in threat
-            }
-          });
+      double threatCircle = ((AbstractEarthQuakeMarker) hoveredOnMarker).getThreatCircle();
+      Location location = hoveredOnMarker.getLocation();
+      boolean[] inThreat = new boolean[this.cityMarkers.size()];
+      for (int i : this.cityIndex.searchWithin(location.getLat(), location.getLon(), threatCircle)) {
+        Marker m = this.cityMarkers.get(i);
+        if (Double.compare(hoveredOnMarker.getDistanceTo(m.getLocation()), threatCircle) <= 0) {
+          inThreat[i] = true;
+          ((AbstractEarthQuakeMarker)hoveredOnMarker).addCityInThreat(((AbstractMarker)m).getScreenPosition(this.map)); // adds cities in threat
+        }
+      }
+      for (int i = 0; i < inThreat.length; ++i) {
+        if (!inThreat[i])
+          this.cityMarkers.get(i).setHidden(true);
+      }
     }
 
   }
@@ -1232,18 +1500,23 @@ public class LiveDataMap extends PApplet {
           m.setHidden(true);
       });
       // hides all earthquakes that the city is not in the threat circle of
-      // by getting the distance from the hoveredOnMarker and the earthQuakes's location
-      // and checking if it's less than the threat circle's radius or equal
+      // the earthquakes whose threat circles may hold the city are found using the earthQuakesIndex
+      // then the distance from the hoveredOnMarker to each found earthQuake's location is checked
+      // to be less than the threat circle's radius or equal
       // check is made by Double.compare for exact match (slightly not correct)
       // if needed more exactness, use BigDecimals
-      // since it's made sure in mouseReleased that it's an earthquake marker, then it's a safe cast
-      this.earthQuakesMarkers.forEach(
-          m -> {
-            if (Double.compare(hoveredOnMarker.getDistanceTo(m.getLocation()),
-                ((AbstractEarthQuakeMarker) m).getThreatCircle()) > 0) {
-              m.setHidden(true);
-            }
-          });
+      // only earthquake markers are in the index, then it's a safe cast
+      Location location = hoveredOnMarker.getLocation();
+      Set<Marker> threatening = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Marker m : this.earthQuakesIndex.searchContaining(location.getLat(), location.getLon())) {
+        if (Double.compare(hoveredOnMarker.getDistanceTo(m.getLocation()),
+            ((AbstractEarthQuakeMarker) m).getThreatCircle()) <= 0)
+          threatening.add(m);
+      }
+      this.earthQuakesMarkers.forEach(m -> {
+        if (!threatening.contains(m))
+          m.setHidden(true);
+      });
     }
 
   }
@@ -1257,19 +1530,17 @@ public class LiveDataMap extends PApplet {
           m.setHidden(true);
       });
 
-      List<Marker> routes = new ArrayList<>();
-      this.airportRoutesMarkers.forEach(
-        m->{
-          if(hoveredOnMarker.getId().equalsIgnoreCase(m.getStringProperty("source")))
-            routes.add(m);
-        });
-
-      for(Marker route : routes)
-      {
-        for(Marker airport : this.airportsMarkers)
-          if(airport.getId().equalsIgnoreCase(route.getStringProperty("destination")))
-            airport.setHidden(false);
-      }
+      // the airport is looked up by its int id in the airportRegistry, then its routes and their destinations
+      // are found using the airportRoutesGraph whose airports and routes are in the order of the airportsMarkers and airportRoutesMarkers
+      int airport = this.airportRegistry.indexOf(((AirportMarker) hoveredOnMarker).getAirportId());
+      if(airport == -1)
+        return;
+      List<Marker> routes = new ArrayList<>(this.airportRoutesGraph.getRoutesCount(airport));
+      for(int route : this.airportRoutesGraph.getRoutes(airport))
+        routes.add(this.airportRoutesMarkers.get(route));
+
+      for(int destination : this.airportRoutesGraph.getDestinations(airport))
+        this.airportsMarkers.get(destination).setHidden(false);
       this.map.addMarkers(routes);
     }
   }
@@ -0,0 +1,155 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : Draws the map window only when something changed instead of on every frame,
+               keeping the CPU idle while nothing on the map moves
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import processing.core.PApplet;
+
+/**
+ * <h1>RedrawScheduler</h1>
+ * <p>
+ *   Stops the draw loop of the applet (noLoop) after a frame that changed nothing, and starts it again
+ *   when a frame is requested by a Trigger: input events, data that changed, or a wake up scheduled by the last frame,
+ *   the loop is started instead of calling redraw as Processing drops a redraw requested while a frame is drawn,
+ *   whether it's stopped again is decided at the end of each frame by frameDrawn:
+ * </p>
+ * <ul>
+ *   <li> the loop keeps running if a frame was requested while the frame was drawn</li>
+ *   <li> the loop keeps running while the Viewport of the map changes from frame to frame (pans, zooms and their easing)</li>
+ *   <li> a frame is drawn every <code>TILES_DELAY_MILLIS</code> while tiles of the map are still loading</li>
+ *   <li> a frame is drawn every <code>ANIMATION_DELAY_MILLIS</code> while animated markers are shown</li>
+ *   <li> otherwise a frame is drawn when the next poll of the live data is due, if there's any</li>
+ * </ul>
+ * In continuous mode the loop always runs, like the applet without a scheduler.
+ * Every redraw is counted in the RenderMetrics by its trigger.
+ * <b>Thread safe</b>, redraws can be requested from any thread, frameStarted and frameDrawn are called by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see RenderMetrics
+ */
+public final class RedrawScheduler {
+
+  /**
+   * Causes of the redraws of the map
+   */
+  public enum Trigger {
+    INPUT, DATA, MOTION, TILES, ANIMATION, POLL
+  }
+
+  private static final long TILES_DELAY_MILLIS = 100;
+  private static final long ANIMATION_DELAY_MILLIS = 50; // 20 frames a second are enough for the pulses of the markers
+
+  private final PApplet applet;
+  private final RenderMetrics metrics;
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(task -> {
+    Thread thread = new Thread(task, "redraw-timer");
+    thread.setDaemon(true); // never keeps the application running
+    return thread;
+  });
+  private volatile boolean onDemand = true;
+  private boolean requested; // a frame was requested since the current frame started
+  private Viewport lastViewport; // viewport of the map on the last frame
+  private ScheduledFuture<?> wakeUp; // redraw scheduled by the last frame, null if none is
+
+  /**
+   * Applet Constructor. makes a scheduler of the redraws of the given applet
+   * @param applet PApplet whose frames are scheduled
+   * @param metrics RenderMetrics counting the redraws
+   * @throws IllegalArgumentException if any of the parameters is null
+   */
+  public RedrawScheduler(PApplet applet, RenderMetrics metrics) {
+    if (applet == null || metrics == null)
+      throw new IllegalArgumentException("Applet and metrics can't be null");
+    this.applet = applet;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Turns drawing on demand on or off, off draws on every frame
+   * @param onDemand True to draw only when something changed, False to draw continuously
+   */
+  public void setOnDemand(boolean onDemand) {
+    this.onDemand = onDemand;
+    this.applet.loop(); // the next frame decides whether the loop is stopped again
+  }
+
+  /**
+   * Checks if the map is drawn on demand
+   * @return True if it's drawn only when something changed, False if it's drawn continuously
+   */
+  public boolean isOnDemand() {
+    return this.onDemand;
+  }
+
+  /**
+   * Requests a frame to be drawn, does nothing more than the running loop if the map is drawn continuously
+   * @param trigger Trigger of the redraw
+   * @throws IllegalArgumentException if the trigger is null
+   */
+  public synchronized void request(Trigger trigger) {
+    if (trigger == null)
+      throw new IllegalArgumentException("Trigger can't be null");
+    this.metrics.countTrigger(trigger);
+    this.requested = true;
+    this.applet.loop();
+  }
+
+  /**
+   * Marks the start of a frame, the requests made before it are drawn by it, called at the start of each frame
+   */
+  public synchronized void frameStarted() {
+    this.requested = false;
+  }
+
+  /**
+   * Decides when the next frame is drawn, called at the end of each frame
+   * @param map UnfoldingMap shown on the frame
+   * @param animating True if animated markers were shown on the frame
+   * @param pollDelayMillis milliseconds till the next poll of the live data is due, negative if no poll is waited for
+   * @throws IllegalArgumentException if the map is null
+   */
+  public synchronized void frameDrawn(UnfoldingMap map, boolean animating, long pollDelayMillis) {
+    if (map == null)
+      throw new IllegalArgumentException("Map can't be null");
+    Viewport viewport = Viewport.of(map);
+    boolean moved = !viewport.equals(this.lastViewport);
+    this.lastViewport = viewport;
+    if (this.wakeUp != null) {
+      this.wakeUp.cancel(false);
+      this.wakeUp = null;
+    }
+    if (!this.onDemand) {
+      this.applet.loop();
+      return;
+    }
+    if (moved) // drawn again till the map stops moving
+      this.metrics.countTrigger(Trigger.MOTION);
+    if (moved || this.requested) { // a request made during the frame may have come after what it changed was drawn
+      this.applet.loop();
+      return;
+    }
+    this.applet.noLoop();
+    if (!map.allTilesLoaded())
+      wakeUp(Trigger.TILES, TILES_DELAY_MILLIS);
+    else if (animating)
+      wakeUp(Trigger.ANIMATION, ANIMATION_DELAY_MILLIS);
+    else if (pollDelayMillis >= 0)
+      wakeUp(Trigger.POLL, pollDelayMillis);
+  }
+
+  /*
+   * private helper method that schedules a redraw of the given trigger after the given delay
+   * @Param: Trigger of the redraw, long delay in milliseconds
+   * */
+  private void wakeUp(Trigger trigger, long delayMillis) {
+    this.wakeUp = this.timer.schedule(() -> request(trigger), delayMillis, TimeUnit.MILLISECONDS);
+  }
+}
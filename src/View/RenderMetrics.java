@@ -0,0 +1,143 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : Counters of the frames drawn by the map window and what triggered them, with the time spent drawing
+               and the CPU used by the process, shown to tell how much an idle window costs
+*/
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <h1>RenderMetrics</h1>
+ * <p>
+ *   Counts the redraws requested by each RedrawScheduler.Trigger and the frames drawn with the time spent drawing them,
+ *   the busy share is the drawing time over the time passed since the metrics were reset, the rest is idle,
+ *   the CPU load of the process is read from the operating system bean of the JVM when it reports it,
+ *   averaged since the reset so an idle window is seen costing next to nothing,
+ *   reset once the data is loaded and after the metrics are shown so loading isn't counted as the cost of drawing
+ * </p>
+ * <b>Thread safe</b>, triggers are counted from the threads requesting redraws and frames from the drawing thread
+ * @author Hisham Maged
+ * @version 1.1
+ * @see RedrawScheduler
+ */
+public final class RenderMetrics {
+
+  private static final RedrawScheduler.Trigger[] TRIGGERS = RedrawScheduler.Trigger.values();
+
+  private final AtomicLongArray triggers = new AtomicLongArray(TRIGGERS.length);
+  private volatile long frames;
+  private volatile long drawNanos;
+  private volatile long resetNanos;
+  private volatile long resetCpuNanos; // cpu time of the process at the reset, -1 if it isn't reported
+
+  /**
+   * Default Constructor. makes metrics counting from now
+   */
+  public RenderMetrics() {
+    reset();
+  }
+
+  /**
+   * Starts counting again from now
+   */
+  public synchronized void reset() {
+    for (int i = 0; i < TRIGGERS.length; ++i)
+      this.triggers.set(i, 0);
+    this.frames = 0;
+    this.drawNanos = 0;
+    this.resetNanos = System.nanoTime();
+    this.resetCpuNanos = processCpuNanos();
+  }
+
+  /**
+   * Counts a redraw requested by the given trigger
+   * @param trigger Trigger of the redraw
+   */
+  public void countTrigger(RedrawScheduler.Trigger trigger) {
+    this.triggers.incrementAndGet(trigger.ordinal());
+  }
+
+  /**
+   * Counts a drawn frame, called by the drawing thread at the end of each frame
+   * @param nanos time spent drawing the frame in nanoseconds
+   */
+  public synchronized void countFrame(long nanos) {
+    ++this.frames;
+    this.drawNanos += nanos;
+  }
+
+  /**
+   * Gets the number of redraws requested by the given trigger since the reset
+   * @param trigger Trigger of the redraws
+   * @return number of requested redraws
+   */
+  public long getTriggerCount(RedrawScheduler.Trigger trigger) {
+    return this.triggers.get(trigger.ordinal());
+  }
+
+  /**
+   * Gets the number of frames drawn since the reset
+   * @return number of frames
+   */
+  public long getFramesCount() {
+    return this.frames;
+  }
+
+  /**
+   * Gets the share of the time since the reset spent drawing frames
+   * @return busy share from 0 to 1
+   */
+  public double getBusyShare() {
+    long passed = System.nanoTime() - this.resetNanos;
+    return passed <= 0 ? 0 : Math.min(1, (double) this.drawNanos / passed);
+  }
+
+  /**
+   * Gets the average CPU load of the process since the reset over all the processors
+   * @return load from 0 to 1, -1 if the JVM doesn't report the cpu time of the process
+   */
+  public double getAverageCpuLoad() {
+    long cpu = processCpuNanos(), passed = System.nanoTime() - this.resetNanos;
+    if (cpu < 0 || this.resetCpuNanos < 0 || passed <= 0)
+      return -1;
+    return Math.min(1, (double) (cpu - this.resetCpuNanos) / passed / Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Describes the metrics as lines of text, made for the metrics dialog and logging
+   * @return String of the metrics
+   */
+  public String describe() {
+    double seconds = (System.nanoTime() - this.resetNanos) / 1e9;
+    StringBuilder text = new StringBuilder();
+    text.append(String.format("Frames: %d in %.1f s (%.1f per second)%n", this.frames, seconds,
+        seconds > 0 ? this.frames / seconds : 0));
+    text.append(String.format("Drawing: %.1f%% busy, %.1f%% idle%n", getBusyShare() * 100, (1 - getBusyShare()) * 100));
+    double cpu = getAverageCpuLoad();
+    text.append(cpu < 0 ? "Process CPU: not reported\n" : String.format("Process CPU: %.1f%% of all cores%n", cpu * 100));
+    text.append("Redraw triggers:\n");
+    for (RedrawScheduler.Trigger trigger : TRIGGERS)
+      text.append(String.format("  %s: %d%n", trigger, getTriggerCount(trigger)));
+    return text.toString();
+  }
+
+  @Override
+  public String toString() {
+    return describe();
+  }
+
+  /*
+   * private helper method that gets the cpu time used by the process in nanoseconds, -1 if the JVM doesn't report it
+   * @Param: none
+   * */
+  private static long processCpuNanos() {
+    OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+    if (bean instanceof com.sun.management.OperatingSystemMXBean)
+      return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+    return -1;
+  }
+}
@@ -0,0 +1,139 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A marker manager drawing the whole route network of the airports as batches of lines,
+               merged into fewer edges at low zooms and culled to the shown part of the map
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.marker.Marker;
+import de.fhpotsdam.unfolding.marker.MarkerManager;
+import de.fhpotsdam.unfolding.utils.ScreenPosition;
+import model.marker.MarkerBatch;
+import model.pojo.RouteNetwork;
+import processing.core.PApplet;
+
+/**
+ * <h1>RouteLayer</h1>
+ * <p>
+ *   Draws the edges of a RouteNetwork as lines between their places instead of a SimpleLinesMarker per route,
+ *   at each frame only the edges of the zoom of the map crossing the shown part of it are drawn (found through the tree
+ *   of the network), at low zooms the edges are the merged edges of the clusters of the airports so the lines
+ *   meet the clusters the airports are drawn as and their count stays small at any zoom
+ * </p>
+ * <p>
+ *   The lines are put in a MarkerBatch per class of weight (the number of routes of an edge, classes of powers of 4)
+ *   drawn from the lightest to the heaviest, heavier classes are thicker and less transparent,
+ *   the batches are filled again only when the viewport of the map changes, so a still map strokes one shape per class,
+ *   an edge crossing the antimeridian is drawn as two lines from its places to the sides of the map
+ * </p>
+ * Holds no markers, added to its map after the manager of the airports so the lines are drawn over the tiles and the airports.
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see RouteNetwork
+ * @see MarkerBatch
+ */
+public final class RouteLayer extends MarkerManager<Marker> {
+
+  // stroke of each class of weight: 1 to 3 routes, 4 to 15, 16 to 63 and 64 routes or more
+  private static final float[] CLASS_WEIGHTS = {0.5f, 1, 1.5f, 2.5f};
+  private static final int[] CLASS_ALPHAS = {50, 80, 120, 170};
+  private static final int LINE_RGB = 0x1446A0;
+
+  private final UnfoldingMap map;
+  private final RouteNetwork network;
+  private final PApplet applet;
+  private final MarkerBatch[] batches = new MarkerBatch[CLASS_WEIGHTS.length];
+  private Viewport filledViewport; // viewport the batches were filled for, null if they weren't
+  private int drawnCount;
+
+  /**
+   * Network Constructor. makes the layer of the given network on the given map
+   * @param map UnfoldingMap the routes are drawn on
+   * @param network RouteNetwork of the routes of the airports of the map
+   * @param applet PApplet whose graphics the map is drawn on
+   * @throws IllegalArgumentException if any of the parameters is null
+   */
+  public RouteLayer(UnfoldingMap map, RouteNetwork network, PApplet applet) {
+    if (map == null || network == null || applet == null)
+      throw new IllegalArgumentException("Map, network and applet can't be null");
+    this.map = map;
+    this.network = network;
+    this.applet = applet;
+    for (int i = 0; i < this.batches.length; ++i)
+      this.batches[i] = MarkerBatch.ofLines(CLASS_ALPHAS[i] << 24 | LINE_RGB, CLASS_WEIGHTS[i]);
+  }
+
+  /**
+   * Gets the number of lines drawn on the last frame the layer was drawn
+   * @return number of drawn edges
+   */
+  public int getDrawnCount() {
+    return this.drawnCount;
+  }
+
+  /**
+   * Draws the edges of the zoom of the map crossing the shown part of it, finding and projecting them first
+   * if the viewport of the map changed
+   */
+  @Override
+  public void draw() {
+    if (!isDrawingEnabled())
+      return;
+    Viewport viewport = Viewport.of(this.map);
+    if (!viewport.equals(this.filledViewport)) {
+      fillBatches(this.map.getZoomLevel());
+      this.filledViewport = viewport;
+    }
+    for (MarkerBatch batch : this.batches)
+      batch.draw(this.applet.g);
+  }
+
+  /*
+   * private helper method that fills the batches with the lines of the edges of the zoom crossing the shown part of the map
+   * @Param: int zoom of the map
+   * */
+  private void fillBatches(int zoom) {
+    for (MarkerBatch batch : this.batches)
+      batch.clear();
+    float[] box = CullingMarkerManager.shownBox(this.map, 0); // a line is in the box of its ends on the Mercator map
+    int[] edges = box != null ? this.network.search(zoom, box[0], box[1], box[2], box[3])
+        : this.network.search(zoom, -90, -180, 90, 180);
+    for (int edge : edges) {
+      MarkerBatch batch = this.batches[weightClass(this.network.getWeight(zoom, edge))];
+      float firstLon = this.network.getFirstLongitude(zoom, edge), secondLon = this.network.getSecondLongitude(zoom, edge);
+      Location first = new Location(this.network.getFirstLatitude(zoom, edge), firstLon);
+      Location second = new Location(this.network.getSecondLatitude(zoom, edge), secondLon);
+      if (!this.network.crossesAntimeridian(zoom, edge)) {
+        addLine(batch, first, second);
+      } else { // a line to each side of the map instead of one across the whole map
+        float lat = this.network.getCrossingLatitude(zoom, edge), side = firstLon >= 0 ? 180 : -180;
+        addLine(batch, first, new Location(lat, side));
+        addLine(batch, new Location(lat, -side), second);
+      }
+    }
+    this.drawnCount = edges.length;
+  }
+
+  /*
+   * private helper method that adds the line between the screen positions of two locations to a batch
+   * @Param: MarkerBatch of the line, Location of each end
+   * */
+  private void addLine(MarkerBatch batch, Location from, Location to) {
+    ScreenPosition first = this.map.getScreenPosition(from), second = this.map.getScreenPosition(to);
+    batch.addLine(first.x, first.y, second.x, second.y);
+  }
+
+  /*
+   * private helper method that gets the class of the weight of an edge, 0 for 1 to 3 routes and one more
+   * for each power of 4 above it till the last class
+   * @Param: int weight of the edge
+   * */
+  private static int weightClass(int weight) {
+    int log4 = (31 - Integer.numberOfLeadingZeros(Math.max(1, weight))) / 2;
+    return Math.min(log4, CLASS_WEIGHTS.length - 1);
+  }
+}
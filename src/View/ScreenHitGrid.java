@@ -0,0 +1,164 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A grid of screen cells holding the markers drawn in each, used to find the marker under the cursor
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import de.fhpotsdam.unfolding.marker.AbstractMarker;
+import de.fhpotsdam.unfolding.marker.Marker;
+import de.fhpotsdam.unfolding.utils.ScreenPosition;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>ScreenHitGrid</h1>
+ * <p>
+ *   Buckets the markers of a list by their screen position into square cells covering the map, so finding the marker
+ *   under the cursor tests only the markers of the cells around the cursor instead of projecting every marker
+ *   on each mouse move, the cost of a hover then follows the markers near the cursor not the count of the markers
+ * </p>
+ * <p>
+ *   The grid is made again only when the viewport of the map changes (pan, zoom or resize) or another list of
+ *   markers (or the same list with another size) is given, markers out of the map by more than the reach are left out
+ *   as the cursor can't be on them, markers that can't be projected (not an AbstractMarker) are always tested,
+ *   the map is expected at the top left of the window like the maps of LiveDataMap
+ * </p>
+ * The cells are kept in flat arrays, the markers of cell <code>c</code> are
+ * <code>markers[cellStarts[c]]</code> to <code>markers[cellStarts[c + 1] - 1]</code> in the order of the list.
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see Viewport
+ */
+public final class ScreenHitGrid {
+
+  private final float reach;
+  private final float cellSize;
+
+  // state the grid was made for
+  private Viewport viewport;
+  private List<? extends Marker> markers;
+  private int markersSize;
+
+  private int columns;
+  private int rows;
+  private int[] cellStarts = new int[0];
+  private int[] cellMarkers = new int[0];
+  private int[] unprojected = new int[0]; // markers that are tested on every search
+
+  /**
+   * Reach Constructor. makes an empty grid that is filled on the first search
+   * @param reach biggest distance in pixels from the screen position of a marker to a point inside it,
+   * a marker reaching farther than that may not be found
+   * @throws IllegalArgumentException if reach isn't positive
+   */
+  public ScreenHitGrid(float reach) {
+    if (!(reach > 0))
+      throw new IllegalArgumentException("Reach should be positive, given: " + reach);
+    this.reach = reach;
+    this.cellSize = 2 * reach; // a search touches at most 2x2 cells
+  }
+
+  /**
+   * Finds the first marker of the list that the given screen point is inside, like testing
+   * <code>isInside(map, x, y)</code> on each marker in order, making the grid again first if it's out of date.
+   * @param map UnfoldingMap the markers are drawn on
+   * @param markers List of markers to search, should be the same list while it isn't changed to keep the grid
+   * @param x float x-coordinate of the point on screen
+   * @param y float y-coordinate of the point on screen
+   * @return Marker found or null if the point isn't inside any marker
+   * @throws IllegalArgumentException if the map or markers is null
+   */
+  public Marker findInside(UnfoldingMap map, List<? extends Marker> markers, float x, float y) {
+    if (map == null || markers == null)
+      throw new IllegalArgumentException("Map and markers can't be null");
+    Viewport current = Viewport.of(map);
+    if (markers != this.markers || markers.size() != this.markersSize || !current.equals(this.viewport))
+      build(map, markers, current);
+
+    int[] candidates = candidates(x, y);
+    for (int i : candidates) {
+      Marker marker = markers.get(i);
+      if (marker.isInside(map, x, y))
+        return marker;
+    }
+    return null;
+  }
+
+  /*
+   * private helper method that gets the indices of the markers of the cells around the point in the order of the list
+   * @Param: float x, y coordinates of the point
+   * */
+  private int[] candidates(float x, float y) {
+    int count = this.unprojected.length;
+    int firstColumn = Math.max(0, cellOf(x - this.reach)), lastColumn = Math.min(this.columns - 1, cellOf(x + this.reach));
+    int firstRow = Math.max(0, cellOf(y - this.reach)), lastRow = Math.min(this.rows - 1, cellOf(y + this.reach));
+    for (int row = firstRow; row <= lastRow; ++row)
+      for (int column = firstColumn; column <= lastColumn; ++column)
+        count += this.cellStarts[cell(row, column) + 1] - this.cellStarts[cell(row, column)];
+    int[] candidates = Arrays.copyOf(this.unprojected, count);
+    int at = this.unprojected.length;
+    for (int row = firstRow; row <= lastRow; ++row)
+      for (int column = firstColumn; column <= lastColumn; ++column) {
+        int start = this.cellStarts[cell(row, column)], end = this.cellStarts[cell(row, column) + 1];
+        System.arraycopy(this.cellMarkers, start, candidates, at, end - start);
+        at += end - start;
+      }
+    Arrays.sort(candidates); // a marker is in a single cell so there are no duplicates
+    return candidates;
+  }
+
+  /*
+   * private helper method that buckets the markers into the cells by their screen positions
+   * @Param: UnfoldingMap the markers are drawn on, List of markers, Viewport of the map now
+   * */
+  private void build(UnfoldingMap map, List<? extends Marker> markers, Viewport viewport) {
+    // cells cover the map widened by the reach on each side, shifted so cell 0 starts at -reach
+    this.columns = Math.max(1, (int) Math.ceil((viewport.getWidth() + 2 * this.reach) / this.cellSize));
+    this.rows = Math.max(1, (int) Math.ceil((viewport.getHeight() + 2 * this.reach) / this.cellSize));
+    int[] cellOfMarker = new int[markers.size()];
+    int[] counts = new int[this.columns * this.rows + 1];
+    int unprojectedCount = 0;
+    for (int i = 0; i < markers.size(); ++i) {
+      Marker marker = markers.get(i);
+      cellOfMarker[i] = -1;
+      if (!(marker instanceof AbstractMarker)) {
+        cellOfMarker[i] = -2;
+        ++unprojectedCount;
+        continue;
+      }
+      ScreenPosition position = ((AbstractMarker) marker).getScreenPosition(map);
+      int column = cellOf(position.x), row = cellOf(position.y);
+      if (column >= 0 && column < this.columns && row >= 0 && row < this.rows) {
+        cellOfMarker[i] = cell(row, column);
+        ++counts[cellOfMarker[i] + 1];
+      }
+    }
+    for (int c = 0; c < this.columns * this.rows; ++c) // counts into starts
+      counts[c + 1] += counts[c];
+    this.cellStarts = counts;
+    this.cellMarkers = new int[counts[counts.length - 1]];
+    this.unprojected = new int[unprojectedCount];
+    int[] next = Arrays.copyOf(counts, counts.length - 1);
+    unprojectedCount = 0;
+    for (int i = 0; i < cellOfMarker.length; ++i) {
+      if (cellOfMarker[i] >= 0)
+        this.cellMarkers[next[cellOfMarker[i]]++] = i;
+      else if (cellOfMarker[i] == -2)
+        this.unprojected[unprojectedCount++] = i;
+    }
+    this.viewport = viewport;
+    this.markers = markers;
+    this.markersSize = markers.size();
+  }
+
+  private int cellOf(float coordinate) {
+    return (int) Math.floor((coordinate + this.reach) / this.cellSize);
+  }
+
+  private int cell(int row, int column) {
+    return row * this.columns + column;
+  }
+}
@@ -0,0 +1,110 @@
+package view;
+/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : The pan and zoom state of a map at a moment, used to know when screen positions of markers changed
+*/
+
+import de.fhpotsdam.unfolding.UnfoldingMap;
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.utils.ScreenPosition;
+
+/**
+ * <h1>Viewport</h1>
+ * <p>
+ *   Holds the zoom of a map, its size and the screen position of a fixed location at the moment it's taken,
+ *   two viewports of the same map are equal only if the map wasn't panned, zoomed or resized between them,
+ *   so anything made of the screen positions of markers can be kept till the viewport of the map changes
+ * </p>
+ * <b>Immutable</b>
+ * @author Hisham Maged
+ * @version 1.1
+ * @see ScreenHitGrid
+ */
+public final class Viewport {
+
+  // any location works as reference as a pan moves it on screen, a zoom around it is told apart by the zoom itself
+  private static final Location REFERENCE = new Location(0, 0);
+
+  private final float zoom;
+  private final float referenceX;
+  private final float referenceY;
+  private final float width;
+  private final float height;
+
+  private Viewport(float zoom, float referenceX, float referenceY, float width, float height) {
+    this.zoom = zoom;
+    this.referenceX = referenceX;
+    this.referenceY = referenceY;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Takes the current viewport of the given map
+   * @param map UnfoldingMap to take its viewport
+   * @return Viewport of the map now
+   * @throws IllegalArgumentException if the map is null
+   */
+  public static Viewport of(UnfoldingMap map) {
+    if (map == null)
+      throw new IllegalArgumentException("Map can't be null");
+    ScreenPosition reference = map.getScreenPosition(REFERENCE);
+    return new Viewport(map.getZoom(), reference.x, reference.y, map.getWidth(), map.getHeight());
+  }
+
+  /**
+   * Gets the width of the map of the viewport
+   * @return width in pixels
+   */
+  public float getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Gets the height of the map of the viewport
+   * @return height in pixels
+   */
+  public float getHeight() {
+    return this.height;
+  }
+
+  /**
+   * checks if two viewports are the same, meaning the markers are at the same screen positions in both
+   * @param o Object holding another Viewport
+   * @return True if the zoom, size and reference position are the same, False otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (o == null || o.getClass() != Viewport.class)
+      return false;
+    Viewport another = (Viewport) o;
+    return Float.compare(this.zoom, another.zoom) == 0 && Float.compare(this.referenceX, another.referenceX) == 0
+        && Float.compare(this.referenceY, another.referenceY) == 0 && Float.compare(this.width, another.width) == 0
+        && Float.compare(this.height, another.height) == 0;
+  }
+
+  /**
+   * Computes the HashCode value matching the equals method
+   * @return Hashcode value of this Viewport
+   */
+  @Override
+  public int hashCode() {
+    int hash = Float.hashCode(this.zoom);
+    hash = hash * 31 + Float.hashCode(this.referenceX);
+    hash = hash * 31 + Float.hashCode(this.referenceY);
+    hash = hash * 31 + Float.hashCode(this.width);
+    return hash * 31 + Float.hashCode(this.height);
+  }
+
+  /**
+   * Represents the Viewport in the form of String, made for logging and debugging
+   * @return String Representation of this Viewport.
+   */
+  @Override
+  public String toString() {
+    return "zoom " + this.zoom + " , reference " + this.referenceX + ", " + this.referenceY + " , size " + this.width + "x" + this.height;
+  }
+}
@@ -9,15 +9,19 @@ import de.fhpotsdam.unfolding.data.PointFeature;
 import de.fhpotsdam.unfolding.data.ShapeFeature;
 import de.fhpotsdam.unfolding.geo.Location;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import model.pojo.AirportEntry;
+import model.pojo.AirportRegistry;
+import model.pojo.RouteGraph;
+import model.parser.MappedCSVReader;
+import model.parser.ParallelCSVReader;
+import model.parser.SnapshotCache;
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 
 /**
@@ -30,6 +34,22 @@ import org.apache.commons.csv.CSVRecord;
  */
 public class AirportUtils {
 
+  // private static final codec that writes the routes into the binary snapshot of the routes file and reads them back
+  private static final SnapshotCache.Codec<ShapeFeature> ROUTE_CODEC = new SnapshotCache.Codec<ShapeFeature>() {
+    @Override
+    public void write(ShapeFeature route, SnapshotCache.Output out) throws IOException
+    {
+      out.writeInt((Integer) route.getProperty("source"));
+      out.writeInt((Integer) route.getProperty("destination"));
+    }
+
+    @Override
+    public ShapeFeature read(SnapshotCache.Input in)
+    {
+      return makeRoute(in.readInt(),in.readInt());
+    }
+  };
+
   private AirportUtils(){}
 
   /**
@@ -48,6 +68,7 @@ public class AirportUtils {
     {
       features.add(tempEntry = new PointFeature(new Location(entry.getLatitude(),entry.getLongitude())));
       tempEntry.setId(Integer.toString(entry.getID()));
+      tempEntry.putProperty("airportId",entry.getID()); // kept as int so the airport is looked up without parsing its id
       tempEntry.putProperty("name",entry.getName());
       tempEntry.putProperty("country",entry.getCountry());
       tempEntry.putProperty("code",entry.getIATA());
@@ -59,29 +80,75 @@ public class AirportUtils {
   }
 
   /**
-   * Makes and Returns a Map that holds the airport Feature ID as key and the Location as value.
-   * @param airportsFeature List holding the PointFeatures of Airports
-   * @return Map holding airport ID as key and location as value.
+   * Makes the registry of the given airports holding their int ids and locations in the order of the entries,
+   * which is the order of the features made by <code>toPointFeatures</code> and of their markers.
+   * @param data parsed Airport entries into POJOs
+   * @return AirportRegistry of the airports
+   * @throws IllegalArgumentException if an airport id is repeated
+   * @see AirportRegistry
    */
-  public static Map<Integer, Location> getAirportsMap(List<PointFeature> airportsFeature)
+  public static AirportRegistry makeAirportRegistry(Iterable<AirportEntry> data)
   {
-    Map<Integer, Location> airports = new HashMap<>();
-    for(PointFeature airport : airportsFeature)
-    {
+    AirportRegistry airports = new AirportRegistry();
+    for(AirportEntry entry : data)
+      airports.add(entry.getID(),(float) entry.getLatitude(),(float) entry.getLongitude());
+    return airports;
+  }
 
-      airports.put(Integer.parseInt(airport.getId()),airport.getLocation());
+  /**
+   * Makes the graph of the given routes between the given airports, used to find the routes leaving an airport
+   * without scanning all the routes and to resolve the airports of each route, the routes are indexed in the order of the list.
+   * the source and destination ids of each route were parsed into int properties when the routes were read
+   * @param airports AirportRegistry of the airports, frozen by the graph
+   * @param routes List holding the route ShapeFeatures with Integer source and destination properties
+   * @return RouteGraph of the routes, routes from or to an airport not in the registry are left out
+   * @see RouteGraph
+   */
+  public static RouteGraph makeRouteGraph(AirportRegistry airports,List<ShapeFeature> routes)
+  {
+    int[] sources = new int[routes.size()], destinations = new int[routes.size()];
+    for(int i = 0 ; i < sources.length ; ++i)
+    {
+      sources[i] = (Integer) routes.get(i).getProperty("source");
+      destinations[i] = (Integer) routes.get(i).getProperty("destination");
     }
-    return airports;
+    return new RouteGraph(airports,sources,destinations);
   }
 
   /**
    * Makes and gets the Routes of Airports as a List of ShapeFeatures.
    * Makes a List of Shape Feature each specifying a route with property source and destination
-   * if not null
+   * if not null, the routes are loaded from the binary snapshot of the file if the file didn't change since it was written
+   * otherwise the file is read memory mapped and the snapshot is written for the next time
    * @param filePath String path of File that holds route data
    * @return List containing Shape Features that has routes from source to destination
+   * @see SnapshotCache
    */
   public static List<ShapeFeature> getAirportRoutes(String filePath)
+  {
+    if(filePath == null || !filePath.toLowerCase().endsWith(".csv") || !new File(filePath).exists())
+      throw new IllegalArgumentException("Given filePath in airport routes isn't correct");
+    File routesFile = new File(filePath);
+    Optional<List<ShapeFeature>> snapshot = SnapshotCache.read(routesFile,"routes",ROUTE_CODEC);
+    if(snapshot.isPresent())
+      return snapshot.get();
+    List<ShapeFeature> routes = AirportUtils.getAirportRoutes(filePath,false);
+    SnapshotCache.write(routesFile,"routes",routes,ROUTE_CODEC);
+    return routes;
+  }
+
+  /**
+   * Makes and gets the Routes of Airports as a List of ShapeFeatures.
+   * Makes a List of Shape Feature each specifying a route with property source and destination
+   * if not null, parsing the file in parallel chunks if wanted giving the same routes in the same order
+   * or reading it record by record from a memory mapped buffer of the file
+   * @param filePath String path of File that holds route data
+   * @param parallel boolean whether to parse the file in parallel chunks using the ParallelCSVReader or record by record using the MappedCSVReader
+   * @return List containing Shape Features that has routes from source to destination
+   * @see ParallelCSVReader
+   * @see MappedCSVReader
+   */
+  public static List<ShapeFeature> getAirportRoutes(String filePath,boolean parallel)
   {
     File routesFile = null;
     // validates the String given
@@ -91,21 +158,20 @@ public class AirportUtils {
     List<ShapeFeature> routes = new ArrayList<>();
 
     try {
-      // makes the CSV Parser to be used
-      CSVParser parser = CSVParser.parse(routesFile, Charset.defaultCharset(), CSVFormat.DEFAULT);
+      if(parallel)
+        return ParallelCSVReader.parse(new FileInputStream(routesFile), Charset.defaultCharset(), CSVFormat.DEFAULT, AirportUtils::toRoute);
+      // reads the file memory mapped, parsing the source and destination ids of kept routes straight from the buffer
+      try(MappedCSVReader reader = MappedCSVReader.open(routesFile, Charset.defaultCharset()))
+      {
         // loops on each record in file
-        for(CSVRecord record : parser.getRecords())
+        while(reader.next())
         {
           // \N specifies Null in the routes data file as specified by openFlights site
           // checked if it has a destination and source before making a route object and adds it
-          if(!record.get(3).equals("\\N") && !record.get(5).equals("\\N"))
-          {
-            ShapeFeature route = new ShapeFeature(Feature.FeatureType.LINES);
-            route.putProperty("source",record.get(3));
-            route.putProperty("destination",record.get(5));
-            routes.add(route);
-          }
+          if(!reader.fieldEquals(3,"\\N") && !reader.fieldEquals(5,"\\N"))
+            routes.add(makeRoute(reader.getInt(3),reader.getInt(5)));
         }
+      }
       return routes;
     }catch(IOException ex)
       {
@@ -114,4 +180,30 @@ public class AirportUtils {
       }
     return routes;
   }
+
+  /*
+   * private helper method that makes the route ShapeFeature of a record of the routes file
+   * \N specifies Null in the routes data file as specified by openFlights site
+   * returns null if the record doesn't have a source or a destination
+   * @Param: CSVRecord of the current route
+   * */
+  private static ShapeFeature toRoute(CSVRecord record)
+  {
+    if(record.get(3).equals("\\N") || record.get(5).equals("\\N"))
+      return null;
+    return makeRoute(Integer.parseInt(record.get(3)),Integer.parseInt(record.get(5)));
+  }
+
+  /*
+   * private helper method that makes the route ShapeFeature with source and destination properties
+   * holding the int ids of the airports
+   * @Param: int id of source airport, int id of destination airport
+   * */
+  private static ShapeFeature makeRoute(int source,int destination)
+  {
+    ShapeFeature route = new ShapeFeature(Feature.FeatureType.LINES);
+    route.putProperty("source",source);
+    route.putProperty("destination",destination);
+    return route;
+  }
 }
@@ -0,0 +1,499 @@
+package controller;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : Benchmarks for the data making hot paths, run using the main method
+*/
+
+import de.fhpotsdam.unfolding.data.Feature;
+import de.fhpotsdam.unfolding.data.PointFeature;
+import de.fhpotsdam.unfolding.data.ShapeFeature;
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.marker.Marker;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import model.parser.AirportParser;
+import model.parser.EarthQuakesParser;
+import model.parser.LifeExpectancyParser;
+import model.pojo.AirportEntry;
+import model.pojo.AirportRegistry;
+import model.pojo.EarthQuakeEntry;
+import model.spatial.GeoKdTree;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import processing.core.PApplet;
+
+/**
+ * <h1>BenchmarkUtils</h1>
+ * Made to measure the hot paths of making the data of the map, each benchmark prints its results to the console
+ * and is run from the main method using the local data files found in ./data
+ * allocations are measured per thread using the HotSpot ThreadMXBean so it needs a HotSpot based JVM
+ * @author Hisham Maged
+ * @version 1.1
+ */
+public class BenchmarkUtils {
+
+  private static final int WARMUP_ROUNDS = 200; // rounds to let the JIT compile the measured code before measuring
+  private static final int MEASURED_ROUNDS = 200; // rounds that are measured and averaged
+  private static final int TIMED_ROUNDS = 15; // rounds of timed benchmarks, the best one is taken
+
+  private BenchmarkUtils(){}
+
+  /**
+   * Measures the bytes allocated per EarthQuakeEntry made from the raw strings of the given atom file,
+   * once using the regex split and BigDecimal way the entries were made before and once using the
+   * single pass scanner of EarthQuakeEntry, the XML parsing isn't measured as it's the same for both
+   * @param filePath String that has the path of the atom file
+   * @throws IllegalArgumentException if the file can't be read or has no entries
+   */
+  public static void benchmarkEarthQuakeEntryAllocations(String filePath)
+  {
+    List<String[]> rawEntries = readRawEarthQuakeEntries(filePath);
+    if(rawEntries.isEmpty())
+      throw new IllegalArgumentException("No entries found in "+filePath);
+    double sink = 0;
+    for(int i = 0 ; i < WARMUP_ROUNDS ; ++i)
+      sink += makeLegacyEntries(rawEntries) + makeScannedEntries(rawEntries);
+
+    long legacyBytes = allocatedBytes();
+    for(int i = 0 ; i < MEASURED_ROUNDS ; ++i)
+      sink += makeLegacyEntries(rawEntries);
+    legacyBytes = allocatedBytes() - legacyBytes;
+
+    long scannedBytes = allocatedBytes();
+    for(int i = 0 ; i < MEASURED_ROUNDS ; ++i)
+      sink += makeScannedEntries(rawEntries);
+    scannedBytes = allocatedBytes() - scannedBytes;
+
+    long made = (long) rawEntries.size() * MEASURED_ROUNDS;
+    System.out.printf("%s (%d entries, checksum %.1f)%n",filePath,rawEntries.size(),sink);
+    System.out.printf("  regex split + BigDecimal : %6d bytes/entry%n",legacyBytes / made);
+    System.out.printf("  single pass scanner      : %6d bytes/entry%n",scannedBytes / made);
+  }
+
+  /**
+   * Measures the time and the allocated bytes of loading the airport routes file using Apache CSV record by record
+   * (the way it was loaded before), the memory mapped reader and the parallel chunks,
+   * checking that all of them give the same routes in the same order
+   * @param filePath String that has the path of the routes csv file
+   * @throws IllegalStateException if a loader gives different routes than the Apache CSV one
+   */
+  public static void benchmarkRoutesIngestion(String filePath)
+  {
+    String[] names = {"apache csv records", "memory mapped", "parallel chunks"};
+    List<Supplier<List<ShapeFeature>>> loaders = Arrays.asList(
+        () -> loadRoutesUsingApacheCSV(filePath),
+        () -> AirportUtils.getAirportRoutes(filePath,false),
+        () -> AirportUtils.getAirportRoutes(filePath,true)
+    );
+    List<ShapeFeature> expected = loadRoutesUsingApacheCSV(filePath);
+    System.out.printf("%s (%d routes, %d cores)%n",filePath,expected.size(),Runtime.getRuntime().availableProcessors());
+    for(int l = 0 ; l < loaders.size() ; ++l)
+    {
+      List<ShapeFeature> routes = null;
+      long bestNanos = Long.MAX_VALUE, bytes = 0;
+      for(int i = 0 ; i < TIMED_ROUNDS ; ++i) // best of the rounds, the first rounds warm up the JIT
+      {
+        long allocated = allocatedBytes(), start = System.nanoTime();
+        routes = loaders.get(l).get();
+        bestNanos = Math.min(bestNanos,System.nanoTime() - start);
+        bytes = allocatedBytes() - allocated; // allocations of the calling thread only
+      }
+      checkSameRoutes(expected,routes,names[l]);
+      System.out.printf("  %-18s : %6.1f ms, %5d bytes/route on calling thread%n",names[l],bestNanos / 1e6,bytes / routes.size());
+    }
+  }
+
+  /**
+   * Measures the time of loading the airports, life expectancy, earthquakes and routes files by parsing their text
+   * and by loading their binary snapshots, the snapshots are written first if they don't match the files
+   * @param airportsPath String that has the path of the airports csv file
+   * @param lifeExpectancyPath String that has the path of the life expectancy csv file
+   * @param earthQuakesPath String that has the path of the earthquakes atom file
+   * @param routesPath String that has the path of the routes csv file
+   * @throws IllegalStateException if a snapshot loads a different number of entries than the text
+   */
+  public static void benchmarkSnapshotLoading(String airportsPath,String lifeExpectancyPath,String earthQuakesPath,String routesPath)
+  {
+    System.out.println("text parsing vs binary snapshot");
+    compareLoading(airportsPath,
+        () -> new AirportParser(airportsPath).mapped().parse().getParsedData().size(),
+        () -> new AirportParser(airportsPath).cached().parse().getParsedData().size());
+    compareLoading(lifeExpectancyPath,
+        () -> new LifeExpectancyParser(lifeExpectancyPath).mapped().parse().getParsedData().size(),
+        () -> new LifeExpectancyParser(lifeExpectancyPath).cached().parse().getParsedData().size());
+    compareLoading(earthQuakesPath,
+        () -> new EarthQuakesParser(earthQuakesPath).streaming().parse().getParsedData().size(),
+        () -> new EarthQuakesParser(earthQuakesPath).cached().parse().getParsedData().size());
+    compareLoading(routesPath,
+        () -> AirportUtils.getAirportRoutes(routesPath,false).size(),
+        () -> AirportUtils.getAirportRoutes(routesPath).size());
+  }
+
+  /**
+   * Measures the time of making the earthquake markers of the given atom file repeated the given number of times,
+   * classifying the earthquakes as land or ocean on one thread and in parallel on fork join pools of 1 thread up to
+   * the number of cores, with the land mask and with the exact polygon test only (mask off), printing the speed up
+   * of each pool over its 1 thread pool, the markers are made by a headless applet reading the files of ./data
+   * @param filePath String that has the path of the atom file
+   * @param copies number of times the earthquakes of the file are repeated to make a large catalog
+   * @throws IllegalStateException if a parallel run makes different markers than the sequential one
+   */
+  public static void benchmarkEarthQuakesClassification(String filePath,int copies)
+  {
+    WorldDataUtils.useApplet(new PApplet(){
+      @Override
+      public InputStream createInput(String fileName) // reads the files without a running sketch
+      {
+        return PApplet.createInput(new File(fileName));
+      }
+    });
+    List<EarthQuakeEntry> entries = DataParserBuilder.buildXMLParser().filePath(filePath).streaming().earthquakes().parse().getParsedData();
+    List<PointFeature> features = new ArrayList<>(entries.size() * copies);
+    for(int c = 0 ; c < copies ; ++c)
+      entries.forEach(e -> features.add(EarthQuakeUtils.toPointFeature(e)));
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%s x %d (%d earthquakes, %d cores)%n",filePath,copies,features.size(),cores);
+    for(int cellsPerDegree : new int[]{0,WorldDataUtils.DEFAULT_LAND_MASK_CELLS_PER_DEGREE})
+    {
+      WorldDataUtils.useLandMask(cellsPerDegree);
+      List<Marker> expected = MarkerUtils.makeEarthQuakesMarkers(features,false); // makes the mask and index before timing
+      long sequentialNanos = Long.MAX_VALUE;
+      for(int i = 0 ; i < TIMED_ROUNDS ; ++i)
+      {
+        long start = System.nanoTime();
+        MarkerUtils.makeEarthQuakesMarkers(features,false);
+        sequentialNanos = Math.min(sequentialNanos,System.nanoTime() - start);
+      }
+      System.out.printf("  %-22s sequential %8.1f ms%n",cellsPerDegree == 0 ? "polygons only" : "land mask "+cellsPerDegree+"/degree",sequentialNanos / 1e6);
+      long oneThreadNanos = 0;
+      for(int threads = 1 ; threads <= cores ; threads = threads < cores && threads * 2 > cores ? cores : threads * 2)
+      {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long bestNanos = Long.MAX_VALUE;
+        try {
+          for(int i = 0 ; i < TIMED_ROUNDS ; ++i)
+          {
+            long start = System.nanoTime();
+            List<Marker> markers = pool.submit(() -> MarkerUtils.makeEarthQuakesMarkers(features,true)).get(); // parallel streams run in the submitting pool
+            bestNanos = Math.min(bestNanos,System.nanoTime() - start);
+            checkSameMarkers(expected,markers,threads);
+          }
+        }catch(InterruptedException | ExecutionException ex)
+        {
+          throw new IllegalStateException("Parallel classification failed: "+ex.getMessage(),ex);
+        }finally
+        {
+          pool.shutdown();
+        }
+        if(threads == 1)
+          oneThreadNanos = bestNanos;
+        System.out.printf("  %-22s %2d threads %8.1f ms, speed up %4.2fx%n","",threads,bestNanos / 1e6,(double)oneThreadNanos / bestNanos);
+      }
+    }
+    WorldDataUtils.useLandMask(WorldDataUtils.DEFAULT_LAND_MASK_CELLS_PER_DEGREE);
+  }
+
+  /**
+   * Measures the time of finding the k nearest airports and the airports within a distance of random locations
+   * using the GeoKdTree of the AirportRegistry and using a linear scan measuring the haversine distance to every airport,
+   * the results of both are checked to be the same before timing
+   * @param airportsPath String that has the path of the airports csv file
+   * @param queries number of random locations searched per round
+   * @param k number of nearest airports found per location
+   * @param radiusKm distance in km of the airports found per location
+   * @throws IllegalStateException if the tree finds different airports than the scan
+   */
+  public static void benchmarkNearestAirports(String airportsPath,int queries,int k,double radiusKm)
+  {
+    List<AirportEntry> entries = DataParserBuilder.buildCSVParser().filePath(airportsPath).mapped().cached().airports().parse().getParsedData();
+    AirportRegistry airports = AirportUtils.makeAirportRegistry(entries);
+    Random random = new Random(42); // same locations every run
+    float[] lats = new float[queries], lons = new float[queries];
+    for(int i = 0 ; i < queries ; ++i)
+    {
+      lats[i] = (float) Math.toDegrees(Math.asin(random.nextDouble() * 2 - 1)); // uniform on the sphere
+      lons[i] = random.nextFloat() * 360 - 180;
+    }
+    for(int i = 0 ; i < queries ; ++i)
+    {
+      checkSameAirports(airports,lats[i],lons[i],scanNearest(airports,lats[i],lons[i],k),airports.nearest(lats[i],lons[i],k),"nearest");
+      checkSameAirports(airports,lats[i],lons[i],scanWithin(airports,lats[i],lons[i],radiusKm),airports.within(lats[i],lons[i],radiusKm),"within");
+    }
+    long scanNearestNanos = Long.MAX_VALUE, treeNearestNanos = Long.MAX_VALUE, scanWithinNanos = Long.MAX_VALUE, treeWithinNanos = Long.MAX_VALUE;
+    long found = 0; // used so the searches aren't removed as dead code
+    for(int round = 0 ; round < TIMED_ROUNDS ; ++round)
+    {
+      long start = System.nanoTime();
+      for(int i = 0 ; i < queries ; ++i)
+        found += scanNearest(airports,lats[i],lons[i],k).length;
+      scanNearestNanos = Math.min(scanNearestNanos,System.nanoTime() - start);
+      start = System.nanoTime();
+      for(int i = 0 ; i < queries ; ++i)
+        found += airports.nearest(lats[i],lons[i],k).length;
+      treeNearestNanos = Math.min(treeNearestNanos,System.nanoTime() - start);
+      start = System.nanoTime();
+      for(int i = 0 ; i < queries ; ++i)
+        found += scanWithin(airports,lats[i],lons[i],radiusKm).length;
+      scanWithinNanos = Math.min(scanWithinNanos,System.nanoTime() - start);
+      start = System.nanoTime();
+      for(int i = 0 ; i < queries ; ++i)
+        found += airports.within(lats[i],lons[i],radiusKm).length;
+      treeWithinNanos = Math.min(treeWithinNanos,System.nanoTime() - start);
+    }
+    System.out.printf("%s (%d airports, %d locations, found %d)%n",airportsPath,airports.size(),queries,found);
+    System.out.printf("  %-18s scan %8.3f us, tree %7.3f us per location, speed up %6.1fx%n","nearest "+k,
+        scanNearestNanos / 1e3 / queries,treeNearestNanos / 1e3 / queries,(double)scanNearestNanos / treeNearestNanos);
+    System.out.printf("  %-18s scan %8.3f us, tree %7.3f us per location, speed up %6.1fx%n","within "+radiusKm+" km",
+        scanWithinNanos / 1e3 / queries,treeWithinNanos / 1e3 / queries,(double)scanWithinNanos / treeWithinNanos);
+  }
+
+  /*
+   * private helper method that finds the k nearest airports by measuring the distance to every airport
+   * @Param: AirportRegistry of the airports, float lat, lon of the location, int k
+   */
+  private static int[] scanNearest(AirportRegistry airports,float lat,float lon,int k)
+  {
+    int[] nearest = new int[Math.min(k,airports.size())];
+    double[] distances = new double[nearest.length];
+    int count = 0;
+    for(int i = 0 ; i < airports.size() ; ++i) // keeps the nearest ones sorted, inserting each nearer airport in place
+    {
+      double distance = GeoKdTree.distanceKm(lat,lon,airports.getLatitude(i),airports.getLongitude(i));
+      if(count == nearest.length && (count == 0 || distance >= distances[count - 1]))
+        continue;
+      int at = count < nearest.length ? count++ : count - 1;
+      for( ; at > 0 && distances[at - 1] > distance ; --at)
+      {
+        distances[at] = distances[at - 1];
+        nearest[at] = nearest[at - 1];
+      }
+      distances[at] = distance;
+      nearest[at] = i;
+    }
+    return nearest;
+  }
+
+  /*
+   * private helper method that finds the airports within the distance by measuring the distance to every airport
+   * @Param: AirportRegistry of the airports, float lat, lon of the location, double distance in km
+   */
+  private static int[] scanWithin(AirportRegistry airports,float lat,float lon,double radiusKm)
+  {
+    int[] found = new int[airports.size()];
+    int count = 0;
+    for(int i = 0 ; i < airports.size() ; ++i)
+      if(GeoKdTree.distanceKm(lat,lon,airports.getLatitude(i),airports.getLongitude(i)) <= radiusKm)
+        found[count++] = i;
+    return Arrays.copyOf(found,count);
+  }
+
+  /*
+   * private helper method that checks that the found airports are at the same distances as the expected ones,
+   * airports at the same distance (up to rounding) can be found in any order
+   * @Param: AirportRegistry of the airports, float lat, lon of the location, int[] expected and found airports, String name of the search
+   */
+  private static void checkSameAirports(AirportRegistry airports,float lat,float lon,int[] expected,int[] found,String name)
+  {
+    if(expected.length != found.length)
+      throw new IllegalStateException(name+" found "+found.length+" airports instead of "+expected.length+" at "+lat+", "+lon);
+    for(int i = 0 ; i < expected.length ; ++i)
+    {
+      double expectedKm = GeoKdTree.distanceKm(lat,lon,airports.getLatitude(expected[i]),airports.getLongitude(expected[i]));
+      double foundKm = GeoKdTree.distanceKm(lat,lon,airports.getLatitude(found[i]),airports.getLongitude(found[i]));
+      if(Math.abs(expectedKm - foundKm) > 1e-6)
+        throw new IllegalStateException(name+" found a different airport at "+i+" near "+lat+", "+lon+": "+foundKm+" km instead of "+expectedKm+" km");
+    }
+  }
+
+  /*
+   * private helper method that checks that the markers are of the same classes at the same locations as the expected ones
+   * @Param: List<Marker> expected markers, List<Marker> markers to check, int threads that made them
+   */
+  private static void checkSameMarkers(List<Marker> expected,List<Marker> markers,int threads)
+  {
+    if(expected.size() != markers.size())
+      throw new IllegalStateException(threads+" threads made "+markers.size()+" markers instead of "+expected.size());
+    for(int i = 0 ; i < expected.size() ; ++i)
+    {
+      if(expected.get(i).getClass() != markers.get(i).getClass() || !expected.get(i).getLocation().equals(markers.get(i).getLocation()))
+        throw new IllegalStateException(threads+" threads made a different marker at "+i+": "+markers.get(i).getLocation());
+    }
+  }
+
+  /*
+   * private helper method that prints the best time of loading a file by parsing its text and by loading its snapshot,
+   * the snapshot loader is used once before timing so the snapshot is written if needed
+   * @Param: String path of the file, Supplier parsing the text returning the count of entries, Supplier loading the snapshot returning the count of entries
+   */
+  private static void compareLoading(String filePath,Supplier<Integer> textLoader,Supplier<Integer> snapshotLoader)
+  {
+    snapshotLoader.get();
+    long textNanos = Long.MAX_VALUE, snapshotNanos = Long.MAX_VALUE;
+    int textCount = 0, snapshotCount = 0;
+    for(int i = 0 ; i < TIMED_ROUNDS ; ++i)
+    {
+      long start = System.nanoTime();
+      textCount = textLoader.get();
+      textNanos = Math.min(textNanos,System.nanoTime() - start);
+      start = System.nanoTime();
+      snapshotCount = snapshotLoader.get();
+      snapshotNanos = Math.min(snapshotNanos,System.nanoTime() - start);
+    }
+    if(textCount != snapshotCount)
+      throw new IllegalStateException("Snapshot of "+filePath+" has "+snapshotCount+" entries instead of "+textCount);
+    System.out.printf("  %-50s : %6d entries, text %7.1f ms, snapshot %6.1f ms%n",filePath,textCount,textNanos / 1e6,snapshotNanos / 1e6);
+  }
+
+  /*
+   * private helper method that checks that the routes are the same as the expected ones in the same order
+   * @Param: List<ShapeFeature> expected routes, List<ShapeFeature> routes to check, String name of the loader
+   */
+  private static void checkSameRoutes(List<ShapeFeature> expected,List<ShapeFeature> routes,String name)
+  {
+    if(expected.size() != routes.size())
+      throw new IllegalStateException(name+" made "+routes.size()+" routes instead of "+expected.size());
+    for(int i = 0 ; i < expected.size() ; ++i)
+    {
+      // the baseline keeps the ids as the Strings of the file while the loaders keep them as ints
+      if(!String.valueOf(expected.get(i).getProperty("source")).equals(String.valueOf(routes.get(i).getProperty("source")))
+          || !String.valueOf(expected.get(i).getProperty("destination")).equals(String.valueOf(routes.get(i).getProperty("destination"))))
+        throw new IllegalStateException(name+" made a different route at "+i);
+    }
+  }
+
+  /*
+   * private helper method that loads the routes the way they were loaded before using Apache CSV getRecords()
+   * to be the baseline of the benchmark
+   * @Param: String path of the routes file
+   */
+  private static List<ShapeFeature> loadRoutesUsingApacheCSV(String filePath)
+  {
+    List<ShapeFeature> routes = new ArrayList<>();
+    try(CSVParser parser = CSVParser.parse(new File(filePath), Charset.defaultCharset(), CSVFormat.DEFAULT))
+    {
+      for(CSVRecord record : parser.getRecords())
+      {
+        if(!record.get(3).equals("\\N") && !record.get(5).equals("\\N"))
+        {
+          ShapeFeature route = new ShapeFeature(Feature.FeatureType.LINES);
+          route.putProperty("source",record.get(3));
+          route.putProperty("destination",record.get(5));
+          routes.add(route);
+        }
+      }
+    }catch(IOException ex)
+    {
+      throw new IllegalArgumentException("Can't read "+filePath+": "+ex.getMessage());
+    }
+    return routes;
+  }
+
+  /*
+   * private helper method that makes EarthQuakeEntries out of the raw strings and sums a value out of each one
+   * so the JIT can't drop making them
+   * @Param: List<String[]> holding title, point, elevation, age of each entry
+   */
+  private static double makeScannedEntries(List<String[]> rawEntries)
+  {
+    double sum = 0;
+    for(String[] raw : rawEntries)
+    {
+      EarthQuakeEntry entry = new EarthQuakeEntry(raw[0],raw[1],raw[2],raw[3]);
+      sum += entry.getMagnitude() + entry.getDepth() + entry.getLatitude() + entry.getLocationTitle().length();
+    }
+    return sum;
+  }
+
+  /*
+   * private helper method that does the same work the EarthQuakeEntry constructor used to do
+   * (regex splits, BigDecimal magnitude and depth, Location object) to be the baseline of the benchmark
+   * @Param: List<String[]> holding title, point, elevation, age of each entry
+   */
+  private static double makeLegacyEntries(List<String[]> rawEntries)
+  {
+    double sum = 0;
+    for(String[] raw : rawEntries)
+    {
+      String[] titleItems = raw[0].split("\\s-\\s");
+      String tempMagnitude = titleItems[0].split("\\s+")[1];
+      BigDecimal exactMagnitude = tempMagnitude.equalsIgnoreCase("?") ? new BigDecimal("0.0") : new BigDecimal(tempMagnitude);
+      double magnitude = tempMagnitude.equalsIgnoreCase("?") ? 0.0 : Double.parseDouble(tempMagnitude);
+      String locationTitle = titleItems[1].trim();
+      String[] points = raw[1].split("\\s+");
+      Location loc = new Location(Float.parseFloat(points[0]),Float.parseFloat(points[1]));
+      BigDecimal tempDepth = new BigDecimal(Math.abs(Double.parseDouble(raw[2])));
+      tempDepth = tempDepth.divide(new BigDecimal("100.0"));
+      BigDecimal exactDepth = tempDepth.divide(new BigDecimal("10.0"));
+      sum += magnitude + exactDepth.doubleValue() + loc.getLat() + locationTitle.length() + exactMagnitude.signum();
+    }
+    return sum;
+  }
+
+  /*
+   * private helper method that reads the title, point, elevation and age strings of each entry of an atom file
+   * @Param: String path of the atom file
+   */
+  private static List<String[]> readRawEarthQuakeEntries(String filePath)
+  {
+    List<String[]> rawEntries = new ArrayList<>();
+    try(InputStream in = new FileInputStream(filePath))
+    {
+      XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+      String[] current = null;
+      while(reader.hasNext())
+      {
+        if(reader.next() != XMLStreamConstants.START_ELEMENT)
+          continue;
+        switch(reader.getLocalName())
+        {
+          case "entry": rawEntries.add(current = new String[4]); break;
+          case "title": if(current != null) current[0] = reader.getElementText(); break;
+          case "point": current[1] = reader.getElementText(); break;
+          case "elev": current[2] = reader.getElementText(); break;
+          case "category": if(current[3] == null) current[3] = reader.getAttributeValue(null,"term"); break;
+          default: break;
+        }
+      }
+      reader.close();
+    }catch(IOException | XMLStreamException ex)
+    {
+      throw new IllegalArgumentException("Can't read "+filePath+": "+ex.getMessage());
+    }
+    return rawEntries;
+  }
+
+  /*
+   * private helper method that gets the bytes allocated by the current thread so far
+   */
+  private static long allocatedBytes()
+  {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  public static void main(String[] args)
+  {
+    benchmarkEarthQuakeEntryAllocations("./data/2.5_week.atom");
+    benchmarkEarthQuakeEntryAllocations("./data/quiz1.atom");
+    benchmarkRoutesIngestion("./data/routes.csv");
+    benchmarkSnapshotLoading("./data/airports.csv","./data/API_SP.DYN.LE00.IN_DS2_en_csv_v2_40967.csv","./data/2.5_week.atom","./data/routes.csv");
+    benchmarkEarthQuakesClassification("./data/2.5_week.atom",30);
+    benchmarkNearestAirports("./data/airports.csv",500,10,250);
+  }
+}
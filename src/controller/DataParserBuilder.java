@@ -210,6 +210,9 @@ public class DataParserBuilder {
     * */
     public static class XMLTypeBuilder extends AbstractTypeBuilder
     {
+      private boolean streaming; // whether the built parser should use the streaming engine or not
+      private boolean cached; // whether the built parser should use a binary snapshot of the file or not
+
       /*
       * private constructor as it should be only instansiated using the XMLBuilder class
       * not on its own, takes a LoadType enum value and assigns it to the private field usedLoad that
@@ -272,15 +275,41 @@ public class DataParserBuilder {
        */
       public EarthQuakesParser earthquakes()
       {
+        EarthQuakesParser parser;
         switch(this.getUsedLoad())
         {
-          case SWING: return new EarthQuakesParser();
-          case FX:    return new EarthQuakesParser(this.getStage());
-          case URL:   return new EarthQuakesParser(this.getUrl());
-          case FILE:  return new EarthQuakesParser(this.getFile());
-          case FILE_PATH: return new EarthQuakesParser(this.getFilePath());
+          case SWING: parser = new EarthQuakesParser(); break;
+          case FX:    parser = new EarthQuakesParser(this.getStage()); break;
+          case URL:   parser = new EarthQuakesParser(this.getUrl()); break;
+          case FILE:  parser = new EarthQuakesParser(this.getFile()); break;
+          case FILE_PATH: parser = new EarthQuakesParser(this.getFilePath()); break;
           default: throw new IllegalArgumentException("This should not happen, happened in XMLTypeBuilder");
         }
+        if(this.cached)
+          parser.cached();
+        return this.streaming ? parser.streaming() : parser;
+      }
+
+      /**
+       * Makes the built parser use the streaming StAX engine instead of building a whole DOM of the file.
+       * recommended for big feeds like the past 30 days feed as entries are made in one forward pass
+       * @return the same XMLTypeBuilder for aggregate operations
+       */
+      public XMLTypeBuilder streaming()
+      {
+        this.streaming = true;
+        return this;
+      }
+
+      /**
+       * Makes the built parser load the entries from a binary snapshot of the file when the file didn't change
+       * since the last parse, only for local files
+       * @return the same XMLTypeBuilder for aggregate operations
+       */
+      public XMLTypeBuilder cached()
+      {
+        this.cached = true;
+        return this;
       }
 
     }
@@ -357,6 +386,10 @@ public class DataParserBuilder {
      * */
     public static class CSVTypeBuilder extends AbstractTypeBuilder
     {
+      private boolean parallel; // whether the built parser should parse in parallel chunks or not
+      private boolean mapped; // whether the built parser should read the file memory mapped or not
+      private boolean cached; // whether the built parser should use a binary snapshot of the file or not
+
       /*
        * private constructor as it should be only instansiated using the XMLBuilder class
        * not on its own, takes a LoadType enum value and assigns it to the private field usedLoad that
@@ -419,15 +452,19 @@ public class DataParserBuilder {
        */
       public LifeExpectancyParser lifeExpectancy()
       {
+        LifeExpectancyParser parser;
         switch(this.getUsedLoad())
         {
-          case SWING: return new LifeExpectancyParser();
-          case FX:    return new LifeExpectancyParser(this.getStage());
-          case URL:   return new LifeExpectancyParser(this.getUrl());
-          case FILE:  return new LifeExpectancyParser(this.getFile());
-          case FILE_PATH: return new LifeExpectancyParser(this.getFilePath());
+          case SWING: parser = new LifeExpectancyParser(); break;
+          case FX:    parser = new LifeExpectancyParser(this.getStage()); break;
+          case URL:   parser = new LifeExpectancyParser(this.getUrl()); break;
+          case FILE:  parser = new LifeExpectancyParser(this.getFile()); break;
+          case FILE_PATH: parser = new LifeExpectancyParser(this.getFilePath()); break;
           default: throw new IllegalArgumentException("This should not happen, happened in CSVTypeBuilder");
         }
+        if(this.cached)
+          parser.cached();
+        return this.mapped ? parser.mapped() : parser;
       }
       /**
        * Makes the AirportParser Using the corresponding Version of CSVTypeBuilder.
@@ -435,15 +472,54 @@ public class DataParserBuilder {
        */
       public AirportParser airports()
       {
+        AirportParser parser;
         switch(this.getUsedLoad())
         {
-          case SWING: return new AirportParser();
-          case FX:    return new AirportParser(this.getStage());
-          case URL:   return new AirportParser(this.getUrl());
-          case FILE:  return new AirportParser(this.getFile());
-          case FILE_PATH: return new AirportParser(this.getFilePath());
+          case SWING: parser = new AirportParser(); break;
+          case FX:    parser = new AirportParser(this.getStage()); break;
+          case URL:   parser = new AirportParser(this.getUrl()); break;
+          case FILE:  parser = new AirportParser(this.getFile()); break;
+          case FILE_PATH: parser = new AirportParser(this.getFilePath()); break;
           default: throw new IllegalArgumentException("This should not happen, happened in CSVTypeBuilder");
         }
+        if(this.mapped)
+          parser.mapped();
+        if(this.cached)
+          parser.cached();
+        return this.parallel ? parser.parallel() : parser;
+      }
+
+      /**
+       * Makes the built parser parse the file in parallel chunks on the fork join pool.
+       * recommended for big files like the openflights airports files, only supported by the AirportParser at the moment
+       * @return the same CSVTypeBuilder for aggregate operations
+       */
+      public CSVTypeBuilder parallel()
+      {
+        this.parallel = true;
+        return this;
+      }
+
+      /**
+       * Makes the built parser read the file from a memory mapped buffer instead of the input stream.
+       * recommended for big local files, Strings are only made for the kept columns
+       * @return the same CSVTypeBuilder for aggregate operations
+       */
+      public CSVTypeBuilder mapped()
+      {
+        this.mapped = true;
+        return this;
+      }
+
+      /**
+       * Makes the built parser load the entries from a binary snapshot of the file when the file didn't change
+       * since the last parse, only for local files
+       * @return the same CSVTypeBuilder for aggregate operations
+       */
+      public CSVTypeBuilder cached()
+      {
+        this.cached = true;
+        return this;
       }
     }
 
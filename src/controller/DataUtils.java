@@ -9,18 +9,26 @@ import controller.EarthQuakeUtils.EarthQuakeFilter;
 import de.fhpotsdam.unfolding.data.Feature;
 import de.fhpotsdam.unfolding.data.PointFeature;
 import de.fhpotsdam.unfolding.data.ShapeFeature;
-import de.fhpotsdam.unfolding.geo.Location;
 import de.fhpotsdam.unfolding.marker.Marker;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javafx.stage.Stage;
 import model.parser.DataParser;
+import model.parser.FeedCache;
 import model.pojo.AirportEntry;
+import model.pojo.AirportRegistry;
 import model.pojo.EarthQuakeEntry;
+import model.pojo.EarthQuakeStore;
 import model.pojo.LifeExpectancyEntry;
+import model.pojo.RouteGraph;
 
 /**
  * <h1>DataUtils</h1>
@@ -77,9 +85,19 @@ public class DataUtils {
   /**
     * Holds unmodefiable list of latest Earthquake entries made.
    */
-  private static Iterable<EarthQuakeEntry> lastMadeEarthQuakesEntries = Collections.EMPTY_LIST; //unmodefiable
+  private static volatile EarthQuakeStore lastMadeEarthQuakes = new EarthQuakeStore(0); // filtered earthquakes of last made markers in columns
 
-  private static List<PointFeature> lastMadeAirportFeatures = null;
+  // ingest whose earthquakes are the last made earthquakes, null if they were made of a file or filtered again
+  private static volatile EarthQuakeFeedIngest lastMadeIngest = null;
+
+  // ids and locations of the last made airport markers in their order, shared by the routes and the search of airports
+  private static volatile AirportRegistry lastMadeAirports = null;
+
+  // graph of the last made route markers between the last made airport markers, null if no routes were made
+  private static volatile RouteGraph lastMadeRouteGraph = null;
+
+  // parsed earthquakes of each fetched live feed by its URL string, reused while the server answers that the feed wasn't modified
+  private static final Map<String,List<EarthQuakeEntry>> lastFetchedFeeds = new HashMap<>();
 
   /*
    * String URLS for live earth quake data
@@ -99,10 +117,10 @@ public class DataUtils {
    * past day
    * past hour
    * */
-  private final static URL LIVE_EARTHQUAKE_DATA_PAST_30_DAYS = makeURL(LIVE_EARTHQUAKE_DATA_PAST_30_DAYS_STRING);
-  private final static URL LIVE_EARTHQUAKE_DATA_PAST_7_DAYS = makeURL(LIVE_EARTHQUAKE_DATA_PAST_7_DAYS_STRING);
-  private final static URL LIVE_EARTHQUAKE_DATA_PAST_DAY = makeURL(LIVE_EARTHQUAKE_DATA_PAST_DAY_STRING);
-  private final static URL LIVE_EARTHQUAKE_DATA_PAST_HOUR = makeURL(LIVE_EARTHQUAKE_DATA_PAST_HOUR_STRING);
+  public final static URL LIVE_EARTHQUAKE_DATA_PAST_30_DAYS = makeURL(LIVE_EARTHQUAKE_DATA_PAST_30_DAYS_STRING);
+  public final static URL LIVE_EARTHQUAKE_DATA_PAST_7_DAYS = makeURL(LIVE_EARTHQUAKE_DATA_PAST_7_DAYS_STRING);
+  public final static URL LIVE_EARTHQUAKE_DATA_PAST_DAY = makeURL(LIVE_EARTHQUAKE_DATA_PAST_DAY_STRING);
+  public final static URL LIVE_EARTHQUAKE_DATA_PAST_HOUR = makeURL(LIVE_EARTHQUAKE_DATA_PAST_HOUR_STRING);
 
   /**
   * Makes the earth quakes markers List<Marker> using a Swing FileChooser to get local data
@@ -111,8 +129,7 @@ public class DataUtils {
    * */
   public static List<Marker> makeLocalEarthQuakesMarkers(EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().swingFileChooser().earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
+    Stream<EarthQuakeEntry> entries = DataParserBuilder.buildXMLParser().swingFileChooser().earthquakes().stream();
     return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
   }
 
@@ -124,21 +141,20 @@ public class DataUtils {
    * */
   public static List<Marker> makeLocalEarthQuakesMarkers(Stage stage, EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().fxFileChooser(stage).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
+    Stream<EarthQuakeEntry> entries = DataParserBuilder.buildXMLParser().fxFileChooser(stage).earthquakes().stream();
     return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
   }
 
   /**
    * Makes the earth quakes markers List<Marker> using a String filePath to get local data
+   * loaded from the binary snapshot of the file if it didn't change since the last run
    * @param filePath String filePath that holds the path of the file on disk
    * @param filters EarthQuakeFilter var args that contains filter instances that will be applied on data
    * @return List Containing Earthquakes Markers
    * */
   public static List<Marker> makeLocalEarthQuakesMarkers(String filePath, EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().filePath(filePath).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
+    Stream<EarthQuakeEntry> entries = DataParserBuilder.buildXMLParser().filePath(filePath).cached().earthquakes().stream();
     return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
   }
 
@@ -150,8 +166,7 @@ public class DataUtils {
    * */
   public static List<Marker> makeLocalEarthQuakesMarkers(File file, EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().file(file).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
+    Stream<EarthQuakeEntry> entries = DataParserBuilder.buildXMLParser().file(file).earthquakes().stream();
     return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
   }
 
@@ -163,9 +178,7 @@ public class DataUtils {
    * */
   public static List<Marker> makeLastHourEarthQuakesMarkers(EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().url(LIVE_EARTHQUAKE_DATA_PAST_HOUR).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
-    return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
+    return DataUtils.makeLiveEarthQuakesMarkers(LIVE_EARTHQUAKE_DATA_PAST_HOUR,filters);
   }
 
   /**
@@ -176,9 +189,7 @@ public class DataUtils {
    * */
   public static List<Marker> makeLastDayEarthQuakesMarkers(EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().url(LIVE_EARTHQUAKE_DATA_PAST_DAY).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
-    return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
+    return DataUtils.makeLiveEarthQuakesMarkers(LIVE_EARTHQUAKE_DATA_PAST_DAY,filters);
   }
 
   /**
@@ -189,9 +200,7 @@ public class DataUtils {
    * */
   public static List<Marker> makeLastWeekEarthQuakesMarkers(EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().url(LIVE_EARTHQUAKE_DATA_PAST_7_DAYS).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
-    return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
+    return DataUtils.makeLiveEarthQuakesMarkers(LIVE_EARTHQUAKE_DATA_PAST_7_DAYS,filters);
   }
 
   /**
@@ -202,9 +211,60 @@ public class DataUtils {
    * */
   public static List<Marker> makeLastMonthEarthQuakesMarkers(EarthQuakeFilter... filters)
   {
-    DataParser<EarthQuakeEntry> parser = DataParserBuilder.buildXMLParser().url(LIVE_EARTHQUAKE_DATA_PAST_30_DAYS).earthquakes().parse();
-    Iterable<EarthQuakeEntry> entries = parser.getParsedData();
-    return DataUtils.getEarthQuakeMarkerFromDataAndFilters(entries,filters);
+    return DataUtils.makeLiveEarthQuakesMarkers(LIVE_EARTHQUAKE_DATA_PAST_30_DAYS,filters);
+  }
+
+  /**
+   * Makes the earth quakes markers List<Marker> using the live earthquakes feed of the given URL
+   * the feed is fetched using the FeedCache, so it's downloaded only if it changed since the last fetch
+   * and the earthquakes parsed the last time are reused if it didn't
+   * @param feed URL of the live earthquakes atom feed
+   * @param filters EarthQuakeFilter var args that contains filter instances that will be applied on data
+   * @return List Containing Earthquakes Markers
+   * @throws IllegalStateException if the feed can't be fetched
+   * @see FeedCache
+   * */
+  public static List<Marker> makeLiveEarthQuakesMarkers(URL feed, EarthQuakeFilter... filters)
+  {
+    return DataUtils.getEarthQuakeMarkerFromDataAndFilters(fetchEarthQuakes(feed).stream(),filters);
+  }
+
+  /**
+   * Makes an ingest following the live earthquakes feed of the given URL and polls it the first time,
+   * the markers of the ingest are the earthquakes of the feed that pass the filters, later polls give only what changed
+   * @param feed URL of the live earthquakes atom feed, one of the LIVE_EARTHQUAKE_DATA URLs
+   * @param filters EarthQuakeFilter var args that contains filter instances that will be applied on data
+   * @return EarthQuakeFeedIngest polled once, its markers are got by <code>getMarkers()</code>
+   * @throws IllegalStateException if the feed can't be fetched
+   * @see EarthQuakeFeedIngest
+   * */
+  public static EarthQuakeFeedIngest makeLiveEarthQuakesIngest(URL feed, EarthQuakeFilter... filters)
+  {
+    EarthQuakeFeedIngest ingest = new EarthQuakeFeedIngest(feed,filters);
+    lastMadeIngest = ingest;
+    DataUtils.pollLiveEarthQuakes(ingest);
+    return ingest;
+  }
+
+  /**
+   * Polls the live earthquakes feed of the ingest applying its changes, if the ingest is the last made one its earthquakes
+   * become the last made earthquakes so filtering the markers later filters the latest earthquakes of the feed.
+   * can be called away from the drawing thread
+   * @param ingest EarthQuakeFeedIngest following a live feed
+   * @return Delta holding the markers added and removed by the poll
+   * @throws IllegalStateException if the feed can't be fetched
+   * */
+  public static EarthQuakeFeedIngest.Delta pollLiveEarthQuakes(EarthQuakeFeedIngest ingest)
+  {
+    try {
+      EarthQuakeFeedIngest.Delta delta = ingest.poll();
+      if(ingest == DataUtils.lastMadeIngest)
+        lastMadeEarthQuakes = ingest.toStore();
+      return delta;
+    }catch(IOException ex)
+    {
+      throw new IllegalStateException("Can't fetch the live feed "+ingest.getFeed()+": "+ex.getMessage(),ex);
+    }
   }
 
   /**
@@ -214,21 +274,60 @@ public class DataUtils {
    */
   public static List<Marker> filterMarkers(EarthQuakeFilter... filters)
   {
-    return getEarthQuakeMarkerFromDataAndFilters(DataUtils.lastMadeEarthQuakesEntries,filters);
+    int[] rows = EarthQuakeUtils.filter(DataUtils.lastMadeEarthQuakes,filters); // scans the columns of last made earthquakes
+    List<PointFeature> features = EarthQuakeUtils.toPointFeatures(DataUtils.lastMadeEarthQuakes,rows);
+    lastMadeIngest = null;
+    lastMadeEarthQuakes = DataUtils.lastMadeEarthQuakes.select(rows);
+    return MarkerUtils.makeEarthQuakesMarkers(features);
   }
   /*
   * a private helper method that does the common code for earthquakes markers for all making earthquake markers methods
-  * @Param:Iterable<EarthQuakeEntry> iterable containing the data of EarthQuakes filled in POJOs
+  * filters and makes features in one pipeline as the entries are pulled from the stream, so the un-filtered data is never held
+  * keeping the filtered earthquakes only in a columnar store as last made earthquakes to be filtered again later
+  * @Param:Stream<EarthQuakeEntry> stream yielding the data of EarthQuakes filled in POJOs
   * @Param: EarthQuakeFilter var args that contains filter instances that will be applied on data
   */
-  private static List<Marker> getEarthQuakeMarkerFromDataAndFilters(Iterable<EarthQuakeEntry> entries,EarthQuakeFilter... filters)
+  private static List<Marker> getEarthQuakeMarkerFromDataAndFilters(Stream<EarthQuakeEntry> entries,EarthQuakeFilter... filters)
   {
-    entries = EarthQuakeUtils.filter(entries,filters); // filters entries
-    lastMadeEarthQuakesEntries = entries;
-    List<PointFeature> features = EarthQuakeUtils.toPointFeatures(entries); // makes features due to filtered entries
+    EarthQuakeStore filteredEarthQuakes = new EarthQuakeStore();
+    List<PointFeature> features = new ArrayList<>();
+    try(Stream<EarthQuakeEntry> filtered = EarthQuakeUtils.filter(entries,filters)) // filters entries
+    {
+      filtered.forEach(entry -> {
+        filteredEarthQuakes.add(entry);
+        features.add(EarthQuakeUtils.toPointFeature(entry)); // makes feature due to filtered entry
+      });
+    }
+    lastMadeIngest = null;
+    lastMadeEarthQuakes = filteredEarthQuakes;
     return MarkerUtils.makeEarthQuakesMarkers(features); // equates last made markers to same reference but as unmoedfiable and returns it
   }
 
+  /*
+   * a private helper method that fetches the live feed and gets its earthquakes, parsing the fetched copy only if
+   * the feed was modified or wasn't parsed before, the fetched copy is parsed using its binary snapshot if it has one
+   * @Param: URL of the live earthquakes feed
+   */
+  private static synchronized List<EarthQuakeEntry> fetchEarthQuakes(URL feed)
+  {
+    try {
+      FeedCache.Fetched fetched = FeedCache.getDefault().fetch(feed);
+      List<EarthQuakeEntry> entries = lastFetchedFeeds.get(feed.toString());
+      if(fetched.isModified() || entries == null)
+      {
+        try(Stream<EarthQuakeEntry> parsed = DataParserBuilder.buildXMLParser().file(fetched.getFile()).streaming().cached().earthquakes().stream())
+        {
+          entries = Collections.unmodifiableList(parsed.collect(Collectors.toList()));
+        }
+        lastFetchedFeeds.put(feed.toString(),entries);
+      }
+      return entries;
+    }catch(IOException ex)
+    {
+      throw new IllegalStateException("Can't fetch the feed "+feed+": "+ex.getMessage(),ex);
+    }
+  }
+
   /**
    * Makes the life expectancy markers List<Marker> using a Swing FileChooser to get local data
    * @param year int that contains the year that you want the global values of
@@ -244,13 +343,14 @@ public class DataUtils {
 
   /**
    * Makes the life expectancy markers List<Marker> using a String filePath to get local data
+   * loaded from the binary snapshot of the file if it didn't change since the last run
    * @param filePath filePath that holds the path of the file on disk
    * @param year int that contains the year that you want the global values of
    * @return List Containing LifeExpectancy Markers
    * */
   public static List<Marker> makeLocalLifeExpectancyMarkers(String filePath, int year)
   {
-    DataParser<LifeExpectancyEntry> parser = DataParserBuilder.buildCSVParser().filePath(filePath).lifeExpectancy().parse();
+    DataParser<LifeExpectancyEntry> parser = DataParserBuilder.buildCSVParser().filePath(filePath).cached().lifeExpectancy().parse();
     Iterable<LifeExpectancyEntry> entries = parser.getParsedData();
     Map<String,Float> mappedValues =WorldDataUtils.toCountryCodeMap(entries,year);
     return getLifeExpectancyFromDataAndFilters(mappedValues);
@@ -325,12 +425,13 @@ public class DataUtils {
 
   /**
    * Makes the Airport markers List<Marker> using a String filePath to get local data
+   * loaded from the binary snapshot of the file if it didn't change since the last run
    * @param filePath String filePath that holds the path of the file on disk
    * @return List Containing Airport Markers
    * */
   public static List<Marker> makeLocalAirportMarkers(String filePath)
   {
-    DataParser<AirportEntry> parser = DataParserBuilder.buildCSVParser().filePath(filePath).airports().parse();
+    DataParser<AirportEntry> parser = DataParserBuilder.buildCSVParser().filePath(filePath).mapped().cached().airports().parse();
     Iterable<AirportEntry> entries = parser.getParsedData();
     return DataUtils.getAirportMarkerFromData(entries);
   }
@@ -342,23 +443,53 @@ public class DataUtils {
   private static List<Marker> getAirportMarkerFromData(Iterable<AirportEntry> entries)
   {
     List<PointFeature> features = AirportUtils.toPointFeatures(entries); // makes features due to filtered entries
-    DataUtils.lastMadeAirportFeatures = features;
+    DataUtils.lastMadeAirports = AirportUtils.makeAirportRegistry(entries);
     return Collections.unmodifiableList(MarkerUtils.makeLocationMarkers(features)); // returns as unmoedfiable and
   }
 
   /**
    * Makes the Route Markers for all airports with source property holding the source airport
    * and destination property holding the destination airport.
+   * also makes the graph of the routes got by <code>getLastMadeRouteGraph()</code>
    * @param filePath filePath holding the routes data
    * @return List of marker whose actual type is SimpleLinesMarker representing routes as lines
    */
   public static List<Marker> makeRouteMarkers(String filePath)
   {
-    if(lastMadeAirportFeatures == null)
+    AirportRegistry airports = DataUtils.lastMadeAirports;
+    if(airports == null)
       throw new UnsupportedOperationException("No Airports made to make routes of");
     List<ShapeFeature> routes = AirportUtils.getAirportRoutes(filePath);
-    Map<Integer, Location> airportsMap = AirportUtils.getAirportsMap(lastMadeAirportFeatures);
-    return MarkerUtils.makeRoutesMarkers(routes,airportsMap);
+    RouteGraph graph = AirportUtils.makeRouteGraph(airports,routes);
+    DataUtils.lastMadeRouteGraph = graph;
+    return MarkerUtils.makeRoutesMarkers(routes,graph);
+  }
+
+  /**
+   * Gets the registry of the last made airport markers, its airports are in the order of the markers
+   * @return AirportRegistry of the last made airports
+   * @throws UnsupportedOperationException if no airport markers were made
+   */
+  public static AirportRegistry getLastMadeAirports()
+  {
+    AirportRegistry airports = DataUtils.lastMadeAirports;
+    if(airports == null)
+      throw new UnsupportedOperationException("No Airports made to get their registry");
+    return airports;
+  }
+
+  /**
+   * Gets the graph of the last made route markers, its airports are in the order of the last made airport markers
+   * and its routes are in the order of the last made route markers, used to find the routes of an airport
+   * @return RouteGraph of the last made routes
+   * @throws UnsupportedOperationException if no route markers were made
+   */
+  public static RouteGraph getLastMadeRouteGraph()
+  {
+    RouteGraph graph = DataUtils.lastMadeRouteGraph;
+    if(graph == null)
+      throw new UnsupportedOperationException("No Routes made to get their graph");
+    return graph;
   }
 
 
@@ -0,0 +1,231 @@
+package controller;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : Polls a live earthquakes feed and keeps its markers up to date applying only the changes of each fetch
+*/
+
+import controller.EarthQuakeUtils.EarthQuakeFilter;
+import de.fhpotsdam.unfolding.data.PointFeature;
+import de.fhpotsdam.unfolding.marker.Marker;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import model.parser.EarthQuakesParser;
+import model.parser.FeedCache;
+import model.pojo.EarthQuakeEntry;
+import model.pojo.EarthQuakeStore;
+
+/**
+ * <h1>EarthQuakeFeedIngest</h1>
+ * <p>
+ *   Polls a live earthquakes atom feed and keeps the markers of its events, keyed by the atom <code>id</code> of each event,
+ *   each poll makes entries and markers only of the events that are new or whose <code>updated</code> time or age changed
+ *   (the age moves from past hour to past day and past week with time, and past day markers are animated),
+ *   retires the events that left the window of the feed and gives the change as a Delta of added and removed markers
+ *   to be applied on the markers already on the map, so the cost of a poll follows the number of changes
+ *   not the size of the feed, and a feed the server didn't modify costs a conditional request only
+ * </p>
+ * <p>
+ *   Events without an id can't be followed across polls so they are ignored, the filters given are applied on
+ *   the changed events only, an event that is filtered out is still followed so it isn't made again on the next poll
+ * </p>
+ * <b>Thread safe</b>, polls are synchronized so a poll can run away from the drawing thread
+ * @author Hisham Maged
+ * @version 1.1
+ * @see FeedCache
+ * @see DataUtils
+ */
+public class EarthQuakeFeedIngest {
+
+  private final URL feed;
+  private final FeedCache cache;
+  private final EarthQuakeFilter[] filters;
+
+  private final Map<String,String> versions = new HashMap<>(); // version (updated time and age) of each event of the feed by its id
+  private final Map<String,EarthQuakeEntry> entries = new LinkedHashMap<>(); // events kept by the filters by their id
+  private final Map<String,Marker> markers = new LinkedHashMap<>(); // marker of each kept event by its id
+  private boolean polled = false;
+
+  /**
+   * Feed Constructor. follows the given feed fetching it using the default FeedCache
+   * @param feed URL of the live earthquakes atom feed
+   * @param filters EarthQuakeFilter var args applied on the events of the feed
+   * @throws IllegalArgumentException if the feed is null
+   */
+  public EarthQuakeFeedIngest(URL feed,EarthQuakeFilter... filters)
+  {
+    this(feed,FeedCache.getDefault(),filters);
+  }
+
+  /**
+   * Feed and Cache Constructor. follows the given feed fetching it using the given FeedCache
+   * @param feed URL of the live earthquakes atom feed
+   * @param cache FeedCache used to fetch the feed
+   * @param filters EarthQuakeFilter var args applied on the events of the feed
+   * @throws IllegalArgumentException if the feed or cache is null
+   */
+  public EarthQuakeFeedIngest(URL feed,FeedCache cache,EarthQuakeFilter... filters)
+  {
+    if(feed == null || cache == null)
+      throw new IllegalArgumentException("Feed and cache can't be null");
+    this.feed = feed;
+    this.cache = cache;
+    this.filters = filters == null ? new EarthQuakeFilter[0] : filters.clone();
+  }
+
+  /**
+   * Fetches the feed and applies its changes since the last poll, the first poll adds all the events of the feed.
+   * <p>
+   *   only the entries whose id is new or whose updated time or age changed are made, filtered and classified into markers,
+   *   the old marker of an updated event and the markers of the events no longer in the feed are given as removed
+   * </p>
+   * @return Delta holding the added and removed markers, empty if the feed wasn't modified
+   * @throws IOException if the feed can't be fetched
+   * @throws IllegalStateException if the fetched feed is malformed
+   */
+  public synchronized Delta poll() throws IOException
+  {
+    FeedCache.Fetched fetched = this.cache.fetch(this.feed);
+    if(this.polled && !fetched.isModified())
+      return new Delta(Collections.<Marker>emptyList(),Collections.<Marker>emptyList());
+
+    Set<String> seen = new HashSet<>();
+    List<EarthQuakeEntry> changed;
+    try(Stream<EarthQuakeEntry> parsed = DataParserBuilder.buildXMLParser().file(fetched.getFile()).earthquakes()
+        .streamChanged((id,version) -> id != null && seen.add(id)
+            && (!this.versions.containsKey(id) || !Objects.equals(this.versions.get(id),version))))
+    {
+      changed = parsed.collect(Collectors.toList());
+    }
+
+    List<Marker> removed = new ArrayList<>();
+    // retires the events that left the window of the feed
+    for(Iterator<String> ids = this.versions.keySet().iterator() ; ids.hasNext() ; )
+    {
+      String id = ids.next();
+      if(!seen.contains(id))
+      {
+        ids.remove();
+        retire(id,removed);
+      }
+    }
+    // replaces the updated events and adds the new ones, only the changed events are filtered and classified
+    for(EarthQuakeEntry entry : changed)
+    {
+      this.versions.put(entry.getId(),EarthQuakesParser.versionOf(entry.getUpdated(),entry.getAge()));
+      retire(entry.getId(),removed);
+    }
+    List<EarthQuakeEntry> kept;
+    try(Stream<EarthQuakeEntry> filtered = EarthQuakeUtils.filter(changed.stream(),this.filters))
+    {
+      kept = filtered.collect(Collectors.toList());
+    }
+    List<PointFeature> features = new ArrayList<>(kept.size());
+    for(EarthQuakeEntry entry : kept)
+      features.add(EarthQuakeUtils.toPointFeature(entry));
+    List<Marker> added = MarkerUtils.makeEarthQuakesMarkers(features); // same order of the features
+    for(int i = 0 ; i < kept.size() ; ++i)
+    {
+      this.entries.put(kept.get(i).getId(),kept.get(i));
+      this.markers.put(kept.get(i).getId(),added.get(i));
+    }
+    this.polled = true;
+    return new Delta(added,removed);
+  }
+
+  /**
+   * Gets the markers of the kept events of the feed after the last poll
+   * @return List of markers in the order the events were added
+   */
+  public synchronized List<Marker> getMarkers()
+  {
+    return new ArrayList<>(this.markers.values());
+  }
+
+  /**
+   * Makes a columnar store of the kept events of the feed after the last poll, used for filtering them again
+   * @return EarthQuakeStore holding the kept events in the same order of <code>getMarkers()</code>
+   */
+  public synchronized EarthQuakeStore toStore()
+  {
+    EarthQuakeStore store = new EarthQuakeStore(this.entries.size());
+    for(EarthQuakeEntry entry : this.entries.values())
+      store.add(entry);
+    return store;
+  }
+
+  /**
+   * Gets the URL of the followed feed
+   * @return URL of the feed
+   */
+  public URL getFeed()
+  {
+    return this.feed;
+  }
+
+  /*
+   * private helper method that forgets the kept event of the given id adding its marker to the removed markers if it had one
+   * @Param: String id of the event, List of removed markers
+   * */
+  private void retire(String id,List<Marker> removed)
+  {
+    this.entries.remove(id);
+    Marker marker = this.markers.remove(id);
+    if(marker != null)
+      removed.add(marker);
+  }
+
+  /**
+   * <h1>Delta</h1>
+   * The markers added and removed by a poll of the feed, to be applied on the markers already on the map
+   */
+  public static final class Delta
+  {
+    private final List<Marker> added;
+    private final List<Marker> removed;
+
+    private Delta(List<Marker> added,List<Marker> removed)
+    {
+      this.added = Collections.unmodifiableList(added);
+      this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * Gets the markers of the new and updated events
+     * @return unmodifiable List of markers to be added to the map
+     */
+    public List<Marker> getAdded()
+    {
+      return this.added;
+    }
+
+    /**
+     * Gets the markers of the events that left the feed and the old markers of the updated events
+     * @return unmodifiable List of markers to be removed from the map
+     */
+    public List<Marker> getRemoved()
+    {
+      return this.removed;
+    }
+
+    /**
+     * Checks whether the poll changed any marker
+     * @return True if no marker was added or removed
+     */
+    public boolean isEmpty()
+    {
+      return this.added.isEmpty() && this.removed.isEmpty();
+    }
+  }
+}
@@ -6,13 +6,16 @@ package controller;/*
 
 import de.fhpotsdam.unfolding.marker.Marker;
 import model.pojo.EarthQuakeEntry;
+import model.pojo.EarthQuakeStore;
 import model.pojo.DataEntry;
 import de.fhpotsdam.unfolding.data.PointFeature;
 import de.fhpotsdam.unfolding.geo.Location;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * <h1>EarthQuakeUtils</h1>
@@ -64,7 +67,32 @@ public class EarthQuakeUtils {
    * @see DepthRangeFilter
    * @see #filter
    * */
-  public interface EarthQuakeFilter extends Predicate<EarthQuakeEntry> {}
+  public interface EarthQuakeFilter extends Predicate<EarthQuakeEntry>
+  {
+  }
+
+  /**
+   * <h1>
+   *   StoredEarthQuakeFilter
+   * </h1>
+   * An EarthQuakeFilter that can also test the magnitude and depth of an earthquake held in the columns
+   * of an EarthQuakeStore without making an EarthQuakeEntry of it, all the filters of <code>EarthQuakeUtils</code> are ones,
+   * other filters are tested by <code>filter</code> on the entries of the stored earthquakes
+   * @see EarthQuakeStore
+   * @see #filter(EarthQuakeStore, EarthQuakeFilter...)
+   * */
+  public interface StoredEarthQuakeFilter extends EarthQuakeFilter
+  {
+    /**
+     * Tests the magnitude and depth of an earthquake held in the columns of an EarthQuakeStore,
+     * comparisons are done on float values as they're stored in the columns
+     * @param magnitude magnitude of the earthquake
+     * @param depth depth of the earthquake
+     * @return True if the earthquake is applicable to the filter, false otherwise
+     * @see EarthQuakeStore
+     */
+    boolean test(float magnitude,float depth);
+  }
 
   /* ===============================================  Magnitude Filters Section  =========================================*/
   /**
@@ -78,7 +106,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class ExactMagnitudeFilter implements EarthQuakeFilter
+  public static class ExactMagnitudeFilter implements StoredEarthQuakeFilter
   {
     private String magnitude;
 
@@ -114,6 +142,18 @@ public class EarthQuakeUtils {
     {
       return entry.getExactMagnitude().compareTo(new BigDecimal(this.magnitude)) == 0 ;
     }
+
+    /**
+     * Tests whether the given magnitude of instance is equal to given stored magnitude in float precision
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the stored magnitude is equal to given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return Float.compare(magnitude,Float.parseFloat(this.magnitude)) == 0;
+    }
   }
 
   /**
@@ -126,7 +166,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class MagnitudeLessThanFilter implements EarthQuakeFilter{
+  public static class MagnitudeLessThanFilter implements StoredEarthQuakeFilter{
 
     private double upperLimitMagnitude;
     private boolean inclusive;
@@ -158,6 +198,20 @@ public class EarthQuakeUtils {
           Double.compare(entry.getMagnitude(),upperLimitMagnitude) < 0;
     }
 
+    /**
+     * Tests whether the given magnitude of instance is less than or (equal based on inclusive boolean) to given stored magnitude
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore, not used
+     * @return True if the magnitude is less than given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return inclusive ?
+          Float.compare(magnitude,(float) upperLimitMagnitude) <= 0 :
+          Float.compare(magnitude,(float) upperLimitMagnitude) < 0;
+    }
+
   }
 
   /** <h1>MagnitudeMoreThanFilter</h1>
@@ -170,7 +224,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class MagnitudeMoreThanFilter implements EarthQuakeFilter{
+  public static class MagnitudeMoreThanFilter implements StoredEarthQuakeFilter{
 
     private double lowerLimitMagnitude;
     private boolean inclusive;
@@ -202,6 +256,20 @@ public class EarthQuakeUtils {
           Double.compare(entry.getMagnitude(),lowerLimitMagnitude) > 0;
     }
 
+    /**
+     * Tests whether the given magnitude of instance is more than or (equal based on inclusive boolean) to given stored magnitude
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore, not used
+     * @return True if the magnitude is more than given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return inclusive ?
+          Float.compare(magnitude,(float) lowerLimitMagnitude) >= 0 :
+          Float.compare(magnitude,(float) lowerLimitMagnitude) > 0;
+    }
+
   }
 
   /**
@@ -216,7 +284,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class MagnitudeRangeFilter implements EarthQuakeFilter
+  public static class MagnitudeRangeFilter implements StoredEarthQuakeFilter
   {
     private double lowerLimit, upperLimit;
     private boolean lowerInclusive, upperInclusive;
@@ -259,6 +327,21 @@ public class EarthQuakeUtils {
       else
         return Double.compare(entry.getMagnitude(),lowerLimit) > 0 && Double.compare(entry.getMagnitude(),upperLimit) < 0;
     }
+
+    /**
+     * Tests whether the given stored magnitude is more than or (equal based on inclusive boolean) to lower limit
+     * and less than or (equal based on inclusive boolean) to upper limit
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the magnitude is less than upper limit and more than lower limit given, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      int lower = Float.compare(magnitude,(float) lowerLimit);
+      int upper = Float.compare(magnitude,(float) upperLimit);
+      return (lowerInclusive ? lower >= 0 : lower > 0) && (upperInclusive ? upper <= 0 : upper < 0);
+    }
   }
 
 
@@ -274,7 +357,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class ExactDepthFilter implements EarthQuakeFilter
+  public static class ExactDepthFilter implements StoredEarthQuakeFilter
   {
     private String depth;
     /**
@@ -309,6 +392,18 @@ public class EarthQuakeUtils {
     {
       return entry.getExactDepth().compareTo(new BigDecimal(this.depth)) == 0 ;
     }
+
+    /**
+     * Tests whether the given depth of instance is equal to given stored depth in float precision
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the stored depth is equal to given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return Float.compare(depth,Float.parseFloat(this.depth)) == 0;
+    }
   }
 
   /**
@@ -322,7 +417,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class DepthLessThanFilter implements EarthQuakeFilter{
+  public static class DepthLessThanFilter implements StoredEarthQuakeFilter{
 
     private double upperLimitDepth;
     private boolean inclusive;
@@ -352,6 +447,20 @@ public class EarthQuakeUtils {
           Double.compare(entry.getDepth(),upperLimitDepth) < 0;
     }
 
+    /**
+     * Tests whether the given depth of instance is less than or (equal based on inclusive boolean) to given stored depth
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore, not used
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the depth is less than given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return inclusive ?
+          Float.compare(depth,(float) upperLimitDepth) <= 0 :
+          Float.compare(depth,(float) upperLimitDepth) < 0;
+    }
+
   }
 
   /** <h1>DepthMoreThanFilter</h1>
@@ -364,7 +473,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class DepthMoreThanFilter implements EarthQuakeFilter{
+  public static class DepthMoreThanFilter implements StoredEarthQuakeFilter{
 
     private double lowerLimitDepth;
     private boolean inclusive;
@@ -395,6 +504,20 @@ public class EarthQuakeUtils {
           Double.compare(entry.getDepth(),lowerLimitDepth) > 0;
     }
 
+    /**
+     * Tests whether the given depth of instance is more than or (equal based on inclusive boolean) to given stored depth
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore, not used
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the depth is more than given one, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      return inclusive ?
+          Float.compare(depth,(float) lowerLimitDepth) >= 0 :
+          Float.compare(depth,(float) lowerLimitDepth) > 0;
+    }
+
   }
 
   /**
@@ -410,7 +533,7 @@ public class EarthQuakeUtils {
    * @version 1.1
    * @since 21/7/2019
    * */
-  public static class DepthRangeFilter implements EarthQuakeFilter
+  public static class DepthRangeFilter implements StoredEarthQuakeFilter
   {
     private double lowerLimit, upperLimit;
     private boolean lowerInclusive, upperInclusive;
@@ -453,6 +576,21 @@ public class EarthQuakeUtils {
       else
         return Double.compare(entry.getDepth(),lowerLimit) > 0 && Double.compare(entry.getDepth(),upperLimit) < 0;
     }
+
+    /**
+     * Tests whether the given stored depth is more than or (equal based on inclusive boolean) to lower limit
+     * and less than or (equal based on inclusive boolean) to upper limit
+     * @param magnitude float magnitude of an earthquake in an EarthQuakeStore
+     * @param depth float depth of an earthquake in an EarthQuakeStore
+     * @return True if the depth is less than upper limit and more than lower limit given, false otherwise
+     */
+    @Override
+    public boolean test(float magnitude,float depth)
+    {
+      int lower = Float.compare(depth,(float) lowerLimit);
+      int upper = Float.compare(depth,(float) upperLimit);
+      return (lowerInclusive ? lower >= 0 : lower > 0) && (upperInclusive ? upper <= 0 : upper < 0);
+    }
   }
 
 
@@ -487,6 +625,60 @@ public class EarthQuakeUtils {
     return filteredEntries;
   }
 
+  /**
+   * Filters a Stream of EarthQuakes according to EarthQuakeFilters var args lazily.
+   * the filters are applied as each entry passes through the stream so no list is made out of the data
+   * and it can be fused with making of features in the same pipeline
+   * @param data Stream<EarthQuakeEntry> made by the EarthQuakesParser using .stream()
+   * @param filters EarthQuakeFilter var arg that holds any number of filters and all of them will be applied
+   * @return Stream containing EarthQuakeEntries that are applicable to given filters, same stream if no filters
+   */
+  public static Stream<EarthQuakeEntry> filter(Stream<EarthQuakeEntry> data,EarthQuakeFilter... filters)
+  {
+    if(data == null)
+      throw new IllegalArgumentException("please check your input, and if Live data >> check internet connection");
+    if(filters == null || filters.length == 0) // if no filters, return the same stream given without any operation
+      return data;
+    return data.filter(entry -> EarthQuakeUtils.isApplicable(entry,filters));
+  }
+
+  /**
+   * Filters EarthQuakes held in an EarthQuakeStore according to EarthQuakeFilters var args.
+   * scans the magnitude and depth columns of the store filter by filter, each filter only scanning the rows
+   * the filters before it accepted, without making any object per earthquake,
+   * filters that aren't StoredEarthQuakeFilters are tested on an EarthQuakeEntry made of each scanned row
+   * @param data EarthQuakeStore that holds the earthquake data in columns
+   * @param filters EarthQuakeFilter var arg that holds any number of filters and all of them will be applied, null filters are skipped
+   * @return int array of the rows of the store that are applicable to given filters in ascending order, all rows if no filters
+   */
+  public static int[] filter(EarthQuakeStore data,EarthQuakeFilter... filters)
+  {
+    if(data == null)
+      throw new IllegalArgumentException("please check your input, and if Live data >> check internet connection");
+    int[] rows = new int[data.size()];
+    for(int row = 0 ; row < rows.length ; ++row)
+      rows[row] = row;
+    if(filters == null || filters.length == 0) // if no filters, all the rows are applicable
+      return rows;
+
+    int count = rows.length;
+    for(EarthQuakeFilter f : filters)
+    {
+      if(f == null) continue; // made for API reason in GUI
+      StoredEarthQuakeFilter stored = f instanceof StoredEarthQuakeFilter ? (StoredEarthQuakeFilter) f : null;
+      int kept = 0;
+      for(int i = 0 ; i < count ; ++i)
+      {
+        boolean applicable = stored != null ? stored.test(data.getMagnitude(rows[i]),data.getDepth(rows[i]))
+            : f.test(data.getEntry(rows[i]));
+        if(applicable)
+          rows[kept++] = rows[i];
+      }
+      count = kept;
+    }
+    return Arrays.copyOf(rows,count);
+  }
+
   /*
    * A private helper method is made for returning boolean if all filters are accepted on entries
    * as if the filters loop is made inside the entry loop, and continue keyword is used, it will continue itself
@@ -522,19 +714,53 @@ public class EarthQuakeUtils {
   public static List<PointFeature> toPointFeatures(Iterable<EarthQuakeEntry> data)
   {
     List<PointFeature> parsedFeatures = new ArrayList<>();
-    PointFeature tempPoint = null;
     for(EarthQuakeEntry e : data)
     {
-      parsedFeatures.add((tempPoint = new PointFeature(new Location(e.getLatitude(),e.getLongitude()))));
-      tempPoint.putProperty("magnitude",e.getExactMagnitude().doubleValue());
-      tempPoint.putProperty("depth",e.getExactDepth().doubleValue());
-      tempPoint.putProperty("title",e.getLocationTitle());
-      tempPoint.putProperty("age",e.getAge());
+      parsedFeatures.add(EarthQuakeUtils.toPointFeature(e));
     }
 
     return parsedFeatures;
   }
 
+  /**
+   * Makes List of PointFeature for the given rows of an EarthQuakeStore for markers on map.
+   * putting magnitude,depth,title,age properties in the HashMap of each pointFeature as its properties
+   * @param data EarthQuakeStore holding the earthquake data in columns
+   * @param rows int array of the rows to make features of, as returned by the store filter method
+   * @return List of PointFeatures in the order of the given rows to be used with UnfoldingMap API
+   */
+  public static List<PointFeature> toPointFeatures(EarthQuakeStore data,int[] rows)
+  {
+    List<PointFeature> parsedFeatures = new ArrayList<>(rows.length);
+    for(int row : rows)
+    {
+      PointFeature point = new PointFeature(new Location(data.getLatitude(row),data.getLongitude(row)));
+      point.putProperty("magnitude",data.getMagnitude(row));
+      point.putProperty("depth",data.getDepth(row));
+      point.putProperty("title",data.getLocationTitle(row));
+      point.putProperty("age",data.getAge(row));
+      parsedFeatures.add(point);
+    }
+    return parsedFeatures;
+  }
+
+  /**
+   * Makes the PointFeature of a single Earthquake entry for markers on map.
+   * putting magnitude,depth,title,age properties in the HashMap of the pointFeature as its properties
+   * used by toPointFeatures and by stream pipelines that make features while parsing
+   * @param e EarthQuakeEntry to make the feature of
+   * @return PointFeature corresponding to given EarthQuakeEntry to be used with UnfoldingMap API
+   */
+  public static PointFeature toPointFeature(EarthQuakeEntry e)
+  {
+    PointFeature point = new PointFeature(new Location(e.getLatitude(),e.getLongitude()));
+    point.putProperty("magnitude",e.getMagnitude());
+    point.putProperty("depth",e.getDepth());
+    point.putProperty("title",e.getLocationTitle());
+    point.putProperty("age",e.getAge());
+    return point;
+  }
+
 
 
 
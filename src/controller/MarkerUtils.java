@@ -13,6 +13,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import model.marker.AbstractEarthQuakeMarker;
@@ -21,8 +23,12 @@ import model.marker.AirportMarker;
 import model.marker.CityMarker;
 import model.marker.LandEarthQuakeMarker;
 import model.marker.OceanEarthQuakeMarker;
+import model.pojo.AirportRegistry;
 import model.pojo.EarthQuakeEntry;
 import model.pojo.DataEntry;
+import model.pojo.RouteGraph;
+import model.spatial.GeoCircleIndex;
+import model.spatial.GeoKdTree;
 
 /**
  * <h1>MarkerUtils</h1>
@@ -60,11 +66,15 @@ public class MarkerUtils {
   private static final Predicate<Feature> locationMarkersPredicate = pf -> WorldDataUtils.isAirport(pf);
 
 
-  //private static final Function whose implementation is used in making of earthquakesMarkers for each point feature
-  // returning a type if it satisfies the predicate implementation and returns another one if not
-  private static final Function<PointFeature, AbstractEarthQuakeMarker> earthQuakesMarkersFunction = pf -> earthQuakeMarkersPredicate.test(pf)?
+  //private static final BiFunction whose implementation makes the earthquake marker of a point feature given the result of the predicate
+  // returning a type if it satisfied the predicate implementation and returns another one if not
+  private static final BiFunction<PointFeature, Boolean, AbstractEarthQuakeMarker> earthQuakesMarkersMaker = (pf, satisfied) -> satisfied ?
                                                                                                          new LandEarthQuakeMarker(pf) :
                                                                                                          new OceanEarthQuakeMarker(pf);
+  //private static final Function whose implementation is used in making of earthquakesMarkers for each point feature
+  // testing the predicate then making the marker due to its result
+  private static final Function<PointFeature, AbstractEarthQuakeMarker> earthQuakesMarkersFunction = pf -> earthQuakesMarkersMaker.apply(pf,earthQuakeMarkersPredicate.test(pf));
+
   //private static final Function whose implementation is used in making of Location Markers for each point feature
   // returning a type if it satisfies the predicate implementation and returns another one if not
   // makes city | airportt markers atm
@@ -84,6 +94,40 @@ public class MarkerUtils {
   * */
   public static List<Marker> makeEarthQuakesMarkers(List<PointFeature> locations)
   {
+    return MarkerUtils.makeEarthQuakesMarkers(locations,false);
+  }
+
+  /**
+   * Makes the List<Marker> of the earthquakes like <code>makeEarthQuakesMarkers(List)</code> choosing whether the
+   * land or ocean test of the earthquakes is done in parallel.
+   * <p>
+   *   in parallel mode the predicate (the land test of WorldDataUtils.isLand) is tested for all the point features on the
+   *   common fork join pool (or the pool the method is called from) then the markers are made one after the other
+   *   in the order of the point features, so the returned list is the same as the sequential mode,
+   *   the parallel mode is only used when asked for, as its speed up depends on the cores of the machine and
+   *   the size of the catalog, measure it with <code>BenchmarkUtils.benchmarkEarthQuakesClassification</code> first
+   * </p>
+   * @param locations List of PointFeature containing the locations of the earthquakes, should be a random access list
+   * @param parallel True to test the features in parallel, false to make the markers one by one in the current thread
+   * @return A List of Markers due to given Point Features in the same order
+   * */
+  public static List<Marker> makeEarthQuakesMarkers(List<PointFeature> locations,boolean parallel)
+  {
+    if(parallel)
+    {
+      boolean[] satisfied = new boolean[locations.size()];
+      IntStream.range(0,satisfied.length).parallel().forEach(i -> satisfied[i] = earthQuakeMarkersPredicate.test(locations.get(i)));
+      List<Marker> earthQuakeMarkers = new ArrayList<>(satisfied.length);
+      for(int i = 0 ; i < satisfied.length ; ++i)
+      {
+        PointFeature pf = locations.get(i);
+        AbstractEarthQuakeMarker tempMarker = MarkerUtils.earthQuakesMarkersMaker.apply(pf,satisfied[i]);
+        tempMarker.setLocation(pf.getLocation());
+        tempMarker.setProperties(pf.getProperties());
+        earthQuakeMarkers.add(tempMarker);
+      }
+      return earthQuakeMarkers;
+    }
     List<Marker> earthQuakeMarkers = new ArrayList<>();
     AbstractEarthQuakeMarker tempMarker = null;
     for(PointFeature pf : locations)
@@ -134,23 +178,28 @@ public class MarkerUtils {
   }
 
   /**
-   * Makes routes Markers depending on the routeFeature list and airport Maps made from AirportUtils.
-   * @param routeFeatures List containing shape features of routes
-   * @param airportsMap Map containing Airport ID as key and Location as value
+   * Makes routes Markers depending on the routeFeature list and the route graph made from AirportUtils.
+   * the airports of each route are resolved by the graph as indices of the registry so no id is parsed or looked up again,
+   * a route from or to an unknown airport gets no locations
+   * @param routeFeatures List containing shape features of routes, in the order the graph was made of
+   * @param routeGraph RouteGraph of the routes holding the source and destination airport of each route
    * @return List of route Markers made by simple Line Markers.
    */
-  public static List<Marker> makeRoutesMarkers(List<ShapeFeature> routeFeatures, Map<Integer, Location> airportsMap)
+  public static List<Marker> makeRoutesMarkers(List<ShapeFeature> routeFeatures, RouteGraph routeGraph)
   {
-    List<Marker> routesMarkers = new ArrayList<>();
-    for(ShapeFeature routeFeature : routeFeatures)
+    AirportRegistry airports = routeGraph.getAirports();
+    Location[] locations = new Location[airports.size()]; // location of each airport made once and shared by its routes
+    List<Marker> routesMarkers = new ArrayList<>(routeFeatures.size());
+    for(int route = 0 ; route < routeFeatures.size() ; ++route)
     {
-      int source = Integer.parseInt((String) routeFeature.getProperty("source"));
-      int dest = Integer.parseInt((String) routeFeature.getProperty("destination"));
+      ShapeFeature routeFeature = routeFeatures.get(route);
+      int source = routeGraph.getSource(route);
+      int dest = routeGraph.getDestination(route);
 
-      if(airportsMap.containsKey(source) && airportsMap.containsKey(dest))
+      if(source != -1 && dest != -1)
       {
-        routeFeature.addLocation(airportsMap.get(source));
-        routeFeature.addLocation(airportsMap.get(dest));
+        routeFeature.addLocation(airportLocation(airports,locations,source));
+        routeFeature.addLocation(airportLocation(airports,locations,dest));
       }
       SimpleLinesMarker line = new SimpleLinesMarker(routeFeature.getLocations(),routeFeature.getProperties());
 
@@ -159,4 +208,64 @@ public class MarkerUtils {
     return routesMarkers;
   }
 
+  /*
+   * private helper method that gets the location of the airport making it the first time it's needed
+   * @Param: AirportRegistry of the airports, Location[] of the made locations, int index of the airport
+   * */
+  private static Location airportLocation(AirportRegistry airports,Location[] locations,int airport)
+  {
+    if(locations[airport] == null)
+      locations[airport] = new Location(airports.getLatitude(airport),airports.getLongitude(airport));
+    return locations[airport];
+  }
+
+  /**
+   * Makes a spatial index of the locations of the given markers, used to find the markers within a distance of a location
+   * without measuring the distance to every marker, the indices the index gives are the indices of the markers in the list
+   * @param markers List of markers to be indexed, the index should be made again if the list changes
+   * @return GeoKdTree of the locations of the markers in the order of the list
+   * @see GeoKdTree
+   */
+  public static GeoKdTree makeGeoIndex(List<? extends Marker> markers)
+  {
+    float[] lats = new float[markers.size()], lons = new float[markers.size()];
+    for(int i = 0 ; i < markers.size() ; ++i)
+    {
+      Location location = markers.get(i).getLocation();
+      lats[i] = location.getLat();
+      lons[i] = location.getLon();
+    }
+    return new GeoKdTree(lats,lons);
+  }
+
+  /**
+   * Makes an index of the threat circles of the earthquake markers in the given markers, used to find the earthquakes
+   * that a location is in the threat circle of without measuring the distance to every earthquake,
+   * markers that aren't earthquake markers are skipped, markers can be added to and removed from the index later
+   * @param markers List of markers holding the earthquake markers to be indexed
+   * @return GeoCircleIndex of the earthquake markers with their threat circles
+   * @see GeoCircleIndex
+   */
+  public static GeoCircleIndex<Marker> makeThreatIndex(List<? extends Marker> markers)
+  {
+    GeoCircleIndex<Marker> index = new GeoCircleIndex<>();
+    for(Marker marker : markers)
+      addToThreatIndex(index,marker);
+    return index;
+  }
+
+  /**
+   * Adds the marker with its threat circle to the given index if it's an earthquake marker
+   * @param index GeoCircleIndex of threat circles made by <code>makeThreatIndex</code>
+   * @param marker Marker to be added
+   */
+  public static void addToThreatIndex(GeoCircleIndex<Marker> index,Marker marker)
+  {
+    if(marker instanceof AbstractEarthQuakeMarker)
+    {
+      Location location = marker.getLocation();
+      index.add(marker,location.getLat(),location.getLon(),((AbstractEarthQuakeMarker)marker).getThreatCircle());
+    }
+  }
+
 }
@@ -8,8 +8,13 @@ import de.fhpotsdam.unfolding.data.PointFeature;
 import de.fhpotsdam.unfolding.geo.Location;
 import de.fhpotsdam.unfolding.marker.AbstractShapeMarker;
 import de.fhpotsdam.unfolding.marker.MultiMarker;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import model.pojo.WorldData;
+import model.parser.SnapshotCache;
+import model.spatial.LandMask;
+import model.spatial.STRTree;
 import de.fhpotsdam.unfolding.data.Feature;
 import de.fhpotsdam.unfolding.data.GeoJSONReader;
 import de.fhpotsdam.unfolding.marker.Marker;
@@ -44,18 +49,44 @@ public class WorldDataUtils {
 
   private static PImage cityMarkerImg;
 
+  /*
+   * the lazily made data below is volatile and made once under the lock of the class (double checked) as the markers
+   * can be made on many threads at once (see MarkerUtils.makeEarthQuakesMarkers), so each is made once and seen fully made
+   * */
   // holds the countryFeature data got from the geoReader should be accessed by its getter only to handle errors
-  private static List<Feature> countryFeatures;
+  private static volatile List<Feature> countryFeatures;
   // holds the CityFeature data from the geoReader should be accessed by its getter only to handle errors
-  private static List<Feature> cityFeatures;
+  private static volatile List<Feature> cityFeatures;
 
   // holds the countryFeature data got from the geoReader should be accessed by its getter only to handle errors
-  private static List<Marker> countryMarkers;
+  private static volatile List<Marker> countryMarkers;
   // holds the CityFeature data from the geoReader should be accessed by its getter only to handle errors
-  private static List<Marker> cityMarkers;
+  private static volatile List<Marker> cityMarkers;
+
+  // polygons of all country markers in the order of the countries, each MultiMarker country gives a polygon per part
+  private static AbstractShapeMarker[] countryShapes;
+  // country marker of each polygon in countryShapes
+  private static Marker[] countryOfShape;
+  // R-tree over the bounding boxes of countryShapes made once, should be accessed by its getter only
+  // written after countryShapes and countryOfShape so reading it first makes them visible
+  private static volatile STRTree countryShapesIndex;
+
+  /**
+   * Default resolution of the land mask used by isLand, cells of a quarter degree
+   */
+  public static final int DEFAULT_LAND_MASK_CELLS_PER_DEGREE = 4;
+  private static final String COUNTRIES_FILE_PATH = "./data/countries.geo.json";
+  // property of the country markers holding their shade, so it's known to what draws them off the markers (see getShade)
+  private static final String SHADE_PROPERTY = "shade";
+  // shade of countries that have no value
+  private static final int NO_DATA_SHADE = 0xFF969696;
+  // resolution of the land mask, 0 if isLand doesn't use a mask
+  private static volatile int landMaskCellsPerDegree = DEFAULT_LAND_MASK_CELLS_PER_DEGREE;
+  // raster of countryShapes made or loaded once, should be accessed by its getter only
+  private static volatile LandMask landMask;
 
   // holds the current applet used, needed in order for the whole class to work correctly
-  private static PApplet currentApplet;
+  private static volatile PApplet currentApplet;
 
   /**
    * Makes the Class use the Applet of UnfoldingMap, Should be first method to be invoked.
@@ -73,23 +104,25 @@ public class WorldDataUtils {
    * Takes the Iterable of WorldData Records and uses it to output a Map<String,Float>.  where key is Country Code
    * and Value is Life Expectancy for given year parameter that will be used by the Map
    * with Geographical locations to make a map out of it with needed value is values for the given year
+   * countries without a recorded value for that year aren't put in the map so they're shaded as no data
    * @param data Iterable holding type of WorldData holding data of each record in the parsed CSV file
-   * @param year needed for the values, must be valid year between 1960 to 2017 inclusive
+   * @param year needed for the values, must be in the range of years of the records
    * @throws UnsupportedOperationException if No Applet is used by the class or data given is null
-   * @throws IllegalArgumentException if year isn't between 1960 to 2017
+   * @throws IllegalArgumentException if no record has a value for the given year
    * @return Map containing Country Code as its key and needed Value as it's value
    * */
   public static Map<String,Float> toCountryCodeMap(Iterable<? extends WorldData> data, int year)
   {
     if(data == null )
       throw new UnsupportedOperationException("Can't use this method unless records are loaded");
-    if(!isValidInput(year))
-      throw new IllegalArgumentException("Year input must be between 1960 to 2017 inclusive, given year: "+year);
     Map<String,Float> lifeExpectancyMap = new HashMap<>();
     for(WorldData record : data)
     {
-      lifeExpectancyMap.put(record.getCountryCode(),record.getCertainYearValue(year));
+      if(record.hasYearValue(year))
+        lifeExpectancyMap.put(record.getCountryCode(),record.getYearValue(year));
     }
+    if(lifeExpectancyMap.isEmpty())
+      throw new IllegalArgumentException("No values were recorded for the given year: "+year);
 
     return lifeExpectancyMap;
   }
@@ -159,13 +192,33 @@ public class WorldDataUtils {
             inputRangeEnd,
             10,
             255);
-        m.setColor(currentApplet.color(255-colorShade,100,colorShade));
+        int shade = currentApplet.color(255-colorShade,100,colorShade);
+        m.setColor(shade);
+        m.setProperty(SHADE_PROPERTY,shade);
 
       }else
-        m.setColor(currentApplet.color(150));
+      {
+        m.setColor(NO_DATA_SHADE);
+        m.setProperty(SHADE_PROPERTY,NO_DATA_SHADE);
+      }
     }
   }
 
+  /**
+   * Gets the color a country marker made by makeWorldDataMarkers is shaded with, used to draw the countries
+   * away from the markers (see view.LayerMarkerManager)
+   * @param country Marker of a country made by makeWorldDataMarkers
+   * @return int color of the shade of the country, the shade of no data if it wasn't shaded
+   * @throws IllegalArgumentException if the marker is null
+   */
+  public static int getShade(Marker country)
+  {
+    if(country == null)
+      throw new IllegalArgumentException("Country marker can't be null");
+    Object shade = country.getProperty(SHADE_PROPERTY);
+    return shade instanceof Integer ? (Integer) shade : NO_DATA_SHADE;
+  }
+
   /*
    * this private static helper method takes an input value in a certain range to map it to other value in
    * another range
@@ -185,16 +238,6 @@ public class WorldDataUtils {
     return (int)output;
   }
 
-  /*
-   * validates that year is in between 1960 to 2017 inclusive as world bank data that we have
-   * is from 1960 to 2017 only
-   * @PARAM year needed to get life expectancy map containing all countries and their life expectancy value for that year
-   * */
-  private static boolean isValidInput(int year)
-  {
-    return year >= 1960 && year <=2017;
-  }
-
   /**
   * Loads the data of country json into countryFeatures private field only once, then returns the same list each time.
   * returns an unmodefiable list of features so it becomes secure in case of reference sharing, the currentApplet object must be made first using the useApplet method
@@ -204,10 +247,15 @@ public class WorldDataUtils {
   public static List<Feature> getCountryFeatures()
   {
     isAppletMade();
-    if(WorldDataUtils.countryFeatures == null)
-      return WorldDataUtils.countryFeatures = Collections.unmodifiableList(GeoJSONReader.loadData(currentApplet,"./data/countries.geo.json"));
-    else
+    List<Feature> features = WorldDataUtils.countryFeatures;
+    if(features != null)
+      return features;
+    synchronized(WorldDataUtils.class)
+    {
+      if(WorldDataUtils.countryFeatures == null)
+        WorldDataUtils.countryFeatures = Collections.unmodifiableList(GeoJSONReader.loadData(currentApplet,COUNTRIES_FILE_PATH));
       return WorldDataUtils.countryFeatures;
+    }
   }
   /**
    * Loads the data of city json into countryFeatures then returns the same unmodefiable list each time and it has a type property to specify that it's a city.
@@ -218,10 +266,15 @@ public class WorldDataUtils {
   public static List<Feature> getCityFeatures()
   {
     isAppletMade();
-    if(WorldDataUtils.cityFeatures == null)
-      return WorldDataUtils.cityFeatures = Collections.unmodifiableList(putCityType(GeoJSONReader.loadData(currentApplet,"./data/city-data.json")));
-    else
+    List<Feature> features = WorldDataUtils.cityFeatures;
+    if(features != null)
+      return features;
+    synchronized(WorldDataUtils.class)
+    {
+      if(WorldDataUtils.cityFeatures == null)
+        WorldDataUtils.cityFeatures = Collections.unmodifiableList(putCityType(GeoJSONReader.loadData(currentApplet,"./data/city-data.json")));
       return WorldDataUtils.cityFeatures;
+    }
   }
 
   /**
@@ -242,10 +295,15 @@ public class WorldDataUtils {
    * */
   public static List<Marker> getCountryMarkers()
   {
-    if(WorldDataUtils.countryMarkers == null)
-      return WorldDataUtils.countryMarkers = Collections.unmodifiableList(MapUtils.createSimpleMarkers(WorldDataUtils.getCountryFeatures()));
-    else
+    List<Marker> markers = WorldDataUtils.countryMarkers;
+    if(markers != null)
+      return markers;
+    synchronized(WorldDataUtils.class)
+    {
+      if(WorldDataUtils.countryMarkers == null)
+        WorldDataUtils.countryMarkers = Collections.unmodifiableList(MapUtils.createSimpleMarkers(WorldDataUtils.getCountryFeatures()));
       return WorldDataUtils.countryMarkers;
+    }
   }
 
   /**
@@ -255,11 +313,15 @@ public class WorldDataUtils {
    * */
   public static List<Marker> getCityMarkers()
   {
-
-    if(WorldDataUtils.cityMarkers == null)
-      return WorldDataUtils.cityMarkers = Collections.unmodifiableList(MapUtils.createSimpleMarkers(WorldDataUtils.getCityFeatures()));
-    else
+    List<Marker> markers = WorldDataUtils.cityMarkers;
+    if(markers != null)
+      return markers;
+    synchronized(WorldDataUtils.class)
+    {
+      if(WorldDataUtils.cityMarkers == null)
+        WorldDataUtils.cityMarkers = Collections.unmodifiableList(MapUtils.createSimpleMarkers(WorldDataUtils.getCityFeatures()));
       return WorldDataUtils.cityMarkers;
+    }
   }
 
   /**
@@ -268,76 +330,177 @@ public class WorldDataUtils {
    * we have a List<Feature> representing countries locations as features
    * so we can use it, to determine that an earthquake which is represented as a pointfeature
    * is in a country or not, returning true or false
-   * note that some countries are made into multimarkers (markrers represented on a big area and some are made )
+   * note that some countries are made into multimarkers (markers represented on a big area and some are made )
    * into simplePolygon markers that represents also an area
-   * this is implemented in UnfoldingMap API for ease of use
-   * so we have to check if the feature is in a marker country
-   * and a marker country can be multimarker or simple polygon marker
-   * so we have to check for both, note: multimarker holds markers and u can get it
-   * using .getMarkers(), note that AbstractShape Marker is the superclass of polygon marker
-   * countries markers are made of SimplePolygonMarker or MultiMarkers
-   * a MultiMarker in case of the countries marker , holds logically grouped
-   * markers for a certain country, so basically multimarker is a container of logical related markers
-   * a country can be implemented using a multimarker holding simple polygon shape marker
-   * or a direct simple polygon shape marker due to the country features being a simplePolygonFeature or a MultiFeature
-   * due to geoJSON implementation in unfolding map List<FEature> can hold both
-   * loops over the country markers made by the List<Feature> of countries from geoReader checking if one of them returns true
-   * to that location, this is done by looping over each marker in the countryMarkers and checking if the location is inside the marker location
-   * using the isInCountry private method
+   * countries markers are made of SimplePolygonMarker or MultiMarkers holding SimplePolygonMarkers
+   * so the cell of the location is looked up first in a land mask raster of the country polygons (see getLandMask)
+   * answering ocean or the country directly, only locations in cells crossed by a border are tested exactly:
+   * the polygons of all countries are indexed once in an R-tree of their bounding boxes (see getCountryShapesIndex)
+   * and only the few polygons whose boxes hold the location are tested using isInsideByLocation
+   * instead of testing every polygon of every country, the candidates are tested in the order of the countries
+   * so the country found is the same as looping over all the country markers
+   * if found, the name of the country is put for the pointfeature as the country property
    * @param location PointFeature of location
+   * @throws UnsupportedOperationException if no Applet is used by class
    * @return True if PointFeature is on land, false otherwise
    * */
   public static boolean isLand(PointFeature location)
   {
-
-    for(Marker m : WorldDataUtils.getCountryMarkers())
+    Location currLocation = location.getLocation();
+    LandMask mask = WorldDataUtils.getLandMask();
+    int cell = mask == null ? LandMask.MIXED : mask.lookup(currLocation.getLat(),currLocation.getLon());
+    if(cell == LandMask.OCEAN)
+      return false;
+    if(cell != LandMask.MIXED) // the whole cell is inside that polygon and no polygon before it
+    {
+      location.addProperty("country",WorldDataUtils.countryOfShape[cell].getProperty("name"));
+      return true;
+    }
+    for(int shape : WorldDataUtils.getCountryShapesIndex().search(currLocation.getLat(),currLocation.getLon()))
     {
-      if(isInCountry(location,m))
+      if(WorldDataUtils.countryShapes[shape].isInsideByLocation(currLocation))
+      {
+        location.addProperty("country",WorldDataUtils.countryOfShape[shape].getProperty("name"));
         return true;
+      }
     }
-
     return false;
   }
 
   /*
-   * checks if the given location pointfeature exist in a given country marker
-   * gets the location of the pointfeature sent to it, then checks the marker type of the marker sent to it
-   * in our case, the marker type is of country and it's implemented as a MultiMarker (container of Markers) or a AbstractShapeMarker
-   * of type SimplePolygonMarker
-   * in the case of it being a MultiMarker, the marker is down casted to a multimarker then using the .getMarkers() method a loop is done
-   * over all the markers of the multimarker checking if one of them is inside the location of the point feature given using the AbstractShapeMarker
-   * down cast and using the isInsideByLocation method taking the currLocation of pointFeature (as multimarker holds a type of AbstractShapeMarker)
-   * in the case of it being not a multi marker, the previous step is done on it for check
-   * and if found that a marker is in the same location as point feature, it gets the name of country and puts it for the pointfeature as property
-   * and returns true
-   * @Param: PointFeature location to be checked whether it's in a country or not
-   * @Param: marker representing the country from the List<Marker> made by MapUtils.(List<feature> of geoJsonReader)
+   * private helper method that makes the R-tree of the country polygons only once, then returns the same tree each time
+   * flattens the country markers into their polygons, a MultiMarker country gives all the polygons it holds
+   * and a polygon country gives itself, then packs the bounding boxes of the polygons locations into the tree
    * */
-  private static boolean isInCountry(PointFeature location, Marker country)
+  private static STRTree getCountryShapesIndex()
   {
-    Location currLocation = location.getLocation();
+    STRTree index = WorldDataUtils.countryShapesIndex;
+    if(index != null)
+      return index;
+    synchronized(WorldDataUtils.class)
+    {
+      if(WorldDataUtils.countryShapesIndex == null)
+        WorldDataUtils.countryShapesIndex = makeCountryShapesIndex();
+      return WorldDataUtils.countryShapesIndex;
+    }
+  }
 
-    if(country.getClass() == MultiMarker.class)
+  /*
+   * private helper method that makes the R-tree of the country polygons setting countryShapes and countryOfShape
+   * should be called holding the lock of the class
+   * */
+  private static STRTree makeCountryShapesIndex()
+  {
+    List<AbstractShapeMarker> shapes = new ArrayList<>();
+    List<Marker> countries = new ArrayList<>();
+    for(Marker country : WorldDataUtils.getCountryMarkers())
     {
-      for(Marker m : ((MultiMarker)country).getMarkers())
+      if(country.getClass() == MultiMarker.class)
       {
-        if(((AbstractShapeMarker)m).isInsideByLocation(currLocation))
+        for(Marker m : ((MultiMarker)country).getMarkers())
         {
-          location.addProperty("country",country.getProperty("name"));
-          return true;
+          shapes.add((AbstractShapeMarker)m);
+          countries.add(country);
         }
       }
+      else
+      {
+        shapes.add((AbstractShapeMarker)country);
+        countries.add(country);
+      }
     }
-    else if(((AbstractShapeMarker)country).isInsideByLocation(currLocation))
+    float[] bounds = new float[shapes.size() * 4];
+    for(int i = 0 ; i < shapes.size() ; ++i)
+      putBounds(shapes.get(i).getLocations(),bounds,i);
+    WorldDataUtils.countryShapes = shapes.toArray(new AbstractShapeMarker[0]);
+    WorldDataUtils.countryOfShape = countries.toArray(new Marker[0]);
+    return new STRTree(bounds);
+  }
+
+  /**
+   * Sets the resolution of the land mask used by isLand to answer most locations without a polygon test.
+   * the mask is made on the next isLand call and cached on disk next to the countries file, so it's made once per resolution
+   * @param cellsPerDegree number of cells per degree from 1 to LandMask.MAX_CELLS_PER_DEGREE, 0 to test all locations against the polygons
+   * @throws IllegalArgumentException if cellsPerDegree is out of range
+   */
+  public static synchronized void useLandMask(int cellsPerDegree)
+  {
+    if(cellsPerDegree < 0 || cellsPerDegree > LandMask.MAX_CELLS_PER_DEGREE)
+      throw new IllegalArgumentException("Cells per degree should be from 0 to "+LandMask.MAX_CELLS_PER_DEGREE+", given: "+cellsPerDegree);
+    WorldDataUtils.landMaskCellsPerDegree = cellsPerDegree;
+    WorldDataUtils.landMask = null;
+  }
+
+  /*
+   * private helper method that gets the land mask of the country polygons, null if no mask is used
+   * loads it from its snapshot of the countries file if there is one made of the same polygons, otherwise makes it
+   * from the polygons of getCountryShapesIndex and saves its snapshot
+   * */
+  private static LandMask getLandMask()
+  {
+    LandMask mask = WorldDataUtils.landMask;
+    if(mask != null || WorldDataUtils.landMaskCellsPerDegree == 0)
+      return mask;
+    return loadLandMask();
+  }
+
+  /*
+   * private helper method that loads or makes the land mask of the current resolution once, getLandMask should be used instead
+   * */
+  private static synchronized LandMask loadLandMask()
+  {
+    if(WorldDataUtils.landMask != null || WorldDataUtils.landMaskCellsPerDegree == 0)
+      return WorldDataUtils.landMask;
+    WorldDataUtils.getCountryShapesIndex(); // makes countryShapes
+    int cellsPerDegree = WorldDataUtils.landMaskCellsPerDegree, polygons = WorldDataUtils.countryShapes.length;
+    File source = new File(COUNTRIES_FILE_PATH);
+    String kind = "LandMask" + cellsPerDegree;
+    LandMask mask = SnapshotCache.read(source,kind,LandMask.SNAPSHOT_CODEC)
+        .filter(l -> l.size() == 1 && l.get(0).getPolygonCount() == polygons && l.get(0).getCellsPerDegree() == cellsPerDegree)
+        .map(l -> l.get(0))
+        .orElse(null);
+    if(mask == null)
     {
-      location.addProperty("country",country.getProperty("name"));
-      return true;
+      List<float[]> shapes = new ArrayList<>(polygons);
+      for(AbstractShapeMarker shape : WorldDataUtils.countryShapes)
+      {
+        List<Location> locations = shape.getLocations();
+        float[] latLon = new float[locations.size() * 2];
+        for(int i = 0 ; i < locations.size() ; ++i)
+        {
+          latLon[i * 2] = locations.get(i).getLat();
+          latLon[i * 2 + 1] = locations.get(i).getLon();
+        }
+        shapes.add(latLon);
+      }
+      mask = LandMask.build(shapes,cellsPerDegree);
+      SnapshotCache.write(source,kind,Collections.singletonList(mask),LandMask.SNAPSHOT_CODEC);
     }
-    else
-      return false;
-
+    return WorldDataUtils.landMask = mask;
+  }
 
-    return false;
+  /*
+   * private helper method that puts the bounding box of the locations of a polygon as minLat, minLon, maxLat, maxLon
+   * a polygon without locations gets an empty box that no location is in
+   * @Param: List of Location of the polygon, float[] of bounds, int index of the polygon
+   * */
+  private static void putBounds(List<Location> locations,float[] bounds,int i)
+  {
+    float minLat = Float.POSITIVE_INFINITY, minLon = Float.POSITIVE_INFINITY;
+    float maxLat = Float.NEGATIVE_INFINITY, maxLon = Float.NEGATIVE_INFINITY;
+    for(Location l : locations)
+    {
+      minLat = Math.min(minLat,l.getLat());
+      minLon = Math.min(minLon,l.getLon());
+      maxLat = Math.max(maxLat,l.getLat());
+      maxLon = Math.max(maxLon,l.getLon());
+    }
+    if(minLat > maxLat) // no locations, a box at a latitude no location can have
+      minLat = maxLat = minLon = maxLon = 1000;
+    bounds[i * 4] = minLat;
+    bounds[i * 4 + 1] = minLon;
+    bounds[i * 4 + 2] = maxLat;
+    bounds[i * 4 + 3] = maxLon;
   }
 
   /**
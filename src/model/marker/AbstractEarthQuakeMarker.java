@@ -26,18 +26,23 @@ import processing.core.PGraphics;
  * @see LandEarthQuakeMarker
  * @see OceanEarthQuakeMarker
  * @see CustomizedMarker
+ * @see BatchedMarker
  */
-public abstract class AbstractEarthQuakeMarker extends SimplePointMarker implements CustomizedMarker, Comparable<AbstractEarthQuakeMarker>{
+public abstract class AbstractEarthQuakeMarker extends SimplePointMarker implements CustomizedMarker, BatchedMarker, Comparable<AbstractEarthQuakeMarker>{
 
   // shows whether the earthquake marker is on land or on ocean
   private boolean onLand;
   private float tempRadius; // used if age is past day to make animation
   private boolean pastDay = false; // to check if past day or not (including pastHour)
+  private long radiusNanos; // time of the last step of the animation, 0 before the first one
+  private static final long RADIUS_STEP_NANOS = 1_000_000_000L / 60; // a step each sixtieth of a second whatever the frame rate
+  private static final int MAX_RADIUS_STEPS = 10; // steps made at most by a frame after a long pause
   private List<ScreenPosition> citiesInThreatCircle; // holds cities in close promixity of threat circle
   {
     this.citiesInThreatCircle = new ArrayList<>(); // initializes it to be an empty array list
   }
   private boolean clicked;
+  private final double threatCircle; // radius of the threat circle in km, made once as the magnitude doesn't change
 
   /*
    * Light earthQuake value : 4.0
@@ -115,6 +120,10 @@ public abstract class AbstractEarthQuakeMarker extends SimplePointMarker impleme
     // setting value of radius of this marker based on magnitude
     this.radius = 3F*Math.abs(magnitude);
     this.tempRadius = radius; // used in animating of marker if it's from the past day (including past hour earthquakes)
+    // an equation taken from the internet to measure the threat circle's radius
+    // from an earthquake marker
+    double miles = 20.0 * Math.pow(1.8, 2*magnitude-5); // gets radius on miles
+    this.threatCircle = miles * 1.6; // the radius in km
     String tempAge = null;
     // gets the age of the earthquake and if it's in the past day or past hour then makes pastDay to be true
     if((tempAge=getStringProperty("age")).equalsIgnoreCase("past day") || tempAge.equalsIgnoreCase("past hour"))
@@ -234,23 +243,71 @@ public abstract class AbstractEarthQuakeMarker extends SimplePointMarker impleme
     return this.onLand;
   }
   /*
-  *
+  * private helper method that sets the stroke of the marker based on depth
+  * @Param: PGraphics to set its stroke
   * */
   private void determineColor(PGraphics pg)
+  {
+    pg.strokeWeight(getDepthWeight());
+    pg.stroke(getDepthColor());
+  }
+
+  /**
+   * Gets the stroke color of the marker based on depth
+   * @return int color of the outline of the marker
+   */
+  protected int getDepthColor()
   {
     float depth = this.getDepth();
     if(depth >= MODERATE_DEPTH && depth < INTENSE_DEPTH)
-    {
-      pg.strokeWeight(9);
-      pg.stroke(MODERATE_EARTHQUAKE_COLOR);
-    }else if(depth >= LIGHT_DEPTH && depth < MODERATE_DEPTH)
-    {
-      pg.strokeWeight(7);
-      pg.stroke(LIGHT_EARTHQUAKE_COLOR);
-    }else{
-      pg.strokeWeight(11);
-      pg.stroke(INTENSE_EARTHQUAKE_COLOR);
-    }
+      return MODERATE_EARTHQUAKE_COLOR;
+    else if(depth >= LIGHT_DEPTH && depth < MODERATE_DEPTH)
+      return LIGHT_EARTHQUAKE_COLOR;
+    return INTENSE_EARTHQUAKE_COLOR;
+  }
+
+  /**
+   * Gets the stroke weight of the marker based on depth
+   * @return float weight of the outline of the marker
+   */
+  protected float getDepthWeight()
+  {
+    float depth = this.getDepth();
+    if(depth >= MODERATE_DEPTH && depth < INTENSE_DEPTH)
+      return 9;
+    else if(depth >= LIGHT_DEPTH && depth < MODERATE_DEPTH)
+      return 7;
+    return 11;
+  }
+
+  /**
+   * Checks if the marker is drawn in its batch now, earthquakes of the past day are animated so they're drawn on their own
+   * @return True if it's not hidden, selected, clicked or of the past day
+   */
+  @Override
+  public boolean isBatched()
+  {
+    return !hidden && !isSelected() && !this.clicked && !this.pastDay;
+  }
+
+  /**
+   * Gets the key of the batch of the marker, the color of its outline
+   * @return Integer of the depth color
+   */
+  @Override
+  public Object getBatchKey()
+  {
+    return getDepthColor();
+  }
+
+  /**
+   * Makes an empty batch of the color of the outline of the marker
+   * @return MarkerBatch of the depth color
+   */
+  @Override
+  public MarkerBatch makeBatch()
+  {
+    return MarkerBatch.ofColor(getDepthColor());
   }
 
   /**
@@ -261,30 +318,47 @@ public abstract class AbstractEarthQuakeMarker extends SimplePointMarker impleme
   {
     this.onLand = onLand;
   }
+  /**
+   * Checks if the earthquake is of the past day (including past hour), these markers are animated
+   * @return True if it's of the past day, false otherwise.
+   */
+  public boolean isPastDay()
+  {
+    return this.pastDay;
+  }
+
   /*
    * private helper method
-   * made to change radius ot produce an animation for earthquakes
+   * made to change radius ot produce an animation for earthquakes,
+   * by the steps due since the last frame so the pulse keeps its speed when frames are drawn less often
    */
   private void changeRadius()
   {
-    if((int)tempRadius == (int)this.radius)
-      this.radius = 0;
-    else
-      this.radius+=0.4;
+    long now = System.nanoTime();
+    int steps = this.radiusNanos == 0 ? 1 : (int) Math.min(MAX_RADIUS_STEPS,(now - this.radiusNanos) / RADIUS_STEP_NANOS);
+    if(steps == 0)
+      return;
+    // a long pause drops the steps it missed instead of catching up on them
+    this.radiusNanos = this.radiusNanos == 0 || steps == MAX_RADIUS_STEPS ? now : this.radiusNanos + steps * RADIUS_STEP_NANOS;
+    for(int i = 0 ; i < steps ; ++i)
+    {
+      if((int)tempRadius == (int)this.radius)
+        this.radius = 0;
+      else
+        this.radius+=0.4;
+    }
   }
 
   /**
   * Gets the threat circle's radius of the earthquake represented by that marker
   * DISCLAIMER: this formula is for illustration only, not intended
   * to be used for safety-critical or predictive applications.
+  * the radius is computed once when the marker is made
   * @return The raidus of the Threat Circle in KM
    * */
   public double getThreatCircle()
   {
-    // an equation taken from the internet to measure the threat circle's radius
-    // from an earthquake marker
-    double miles = 20.0 * Math.pow(1.8, 2*getMagnitude()-5); // gets radius on miles
-    return (miles * 1.6); // return the radius in km
+    return this.threatCircle;
   }
 
   /**
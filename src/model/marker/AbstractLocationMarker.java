@@ -20,8 +20,9 @@ import processing.core.PGraphics;
  * @version 1.1
  * @see CityMarker
  * @see CustomizedMarker
+ * @see BatchedMarker
  */
-public abstract class AbstractLocationMarker extends SimplePointMarker implements CustomizedMarker{
+public abstract class AbstractLocationMarker extends SimplePointMarker implements CustomizedMarker, BatchedMarker{
 
 
   /**
@@ -64,6 +65,16 @@ public abstract class AbstractLocationMarker extends SimplePointMarker implement
     }
   }
 
+  /**
+   * Checks if the marker is drawn in its batch now
+   * @return True if it's not hidden or selected
+   */
+  @Override
+  public boolean isBatched()
+  {
+    return !hidden && !isSelected();
+  }
+
   /**
    * Get city name of this city Marker
    * @return String of City Name
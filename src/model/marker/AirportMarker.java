@@ -24,6 +24,8 @@ import processing.core.PGraphics;
  */
 public class AirportMarker extends AbstractLocationMarker {
 
+  private static final int AIRPORT_COLOR = 0xFFFF0000; // opaque red, same as fill(255,0,0)
+  private int airportId = -1; // int id of the airport, -1 if the marker wasn't made of an airport feature
 
   /**
    * Location constructor that makes initializes the simplePointMarker implementation using super
@@ -45,6 +47,17 @@ public class AirportMarker extends AbstractLocationMarker {
   public AirportMarker(Feature place) {
     super(place);
     this.setId(place.getId());
+    Object airportId = place.getProperty("airportId");
+    if(airportId instanceof Integer)
+      this.airportId = (Integer) airportId;
+  }
+
+  /**
+   * Gets the int id of the airport of the marker, used to look the airport up in an AirportRegistry
+   * @return id of the airport, -1 if the marker wasn't made of an airport feature
+   */
+  public int getAirportId() {
+    return this.airportId;
   }
 
   /**
@@ -61,6 +74,35 @@ public class AirportMarker extends AbstractLocationMarker {
     pg.circle(x,y,5);
   }
 
+  /**
+   * Gets the key of the batch of the marker, all airports are drawn the same
+   * @return Integer of the color of the airports
+   */
+  @Override
+  public Object getBatchKey() {
+    return AIRPORT_COLOR;
+  }
+
+  /**
+   * Makes an empty batch of the color of the airports
+   * @return MarkerBatch of the airports color
+   */
+  @Override
+  public MarkerBatch makeBatch() {
+    return MarkerBatch.ofColor(AIRPORT_COLOR);
+  }
+
+  /**
+   * Adds the dot of the marker to the batch, the same as drawMarker draws
+   * @param batch MarkerBatch of the airports color
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  @Override
+  public void addToBatch(MarkerBatch batch, float x, float y) {
+    batch.addRoundedBand(x, y, 2.5f, 2.5f, -2.5f, 0);
+  }
+
   /**
    * Draws the Title of the Marker, showing information about it
    *
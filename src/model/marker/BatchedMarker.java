@@ -0,0 +1,43 @@
+package model.marker;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : An interface of markers that can be drawn in a batch with the markers of the same style
+*/
+
+import de.fhpotsdam.unfolding.marker.Marker;
+
+/**
+ * <h1>BatchedMarker</h1>
+ * <p>
+ * An interface of markers whose plain look can be added to a MarkerBatch, so many markers of the same
+ * style are drawn at once, while the marker is drawn on its own (selected, clicked or animated) it's drawn
+ * by its own draw method
+ * </p>
+ * @author Hisham Maged
+ * @version 1.1
+ * @see MarkerBatch
+ */
+public interface BatchedMarker extends Marker {
+  /**
+   * Checks if the marker is drawn in its batch now
+   * @return True if it looks the same in every frame till its state changes, False if it's hidden or drawn on its own
+   */
+  public boolean isBatched();
+  /**
+   * Gets the key of the batch of the marker, markers of equal keys are drawn in the same batch
+   * @return Object key of the batch, an Integer color for colored batches or the PImage for image batches
+   */
+  public Object getBatchKey();
+  /**
+   * Makes an empty batch of the key of the marker
+   * @return MarkerBatch of the style of the marker
+   */
+  public MarkerBatch makeBatch();
+  /**
+   * Adds the look of the marker at the given screen position to the batch
+   * @param batch MarkerBatch made by makeBatch of a marker of the same key
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  public void addToBatch(MarkerBatch batch, float x, float y);
+}
@@ -60,6 +60,38 @@ public class CityMarker extends AbstractLocationMarker {
     pg.imageMode(PConstants.CORNER);
     pg.image(img,x-15,y-37);
   }
+  /**
+   * Gets the key of the batch of the marker, the image it's drawn as
+   * @return PImage of the marker
+   */
+  @Override
+  public Object getBatchKey()
+  {
+    return this.img;
+  }
+
+  /**
+   * Makes an empty batch of the image of the marker
+   * @return MarkerBatch of the image
+   */
+  @Override
+  public MarkerBatch makeBatch()
+  {
+    return MarkerBatch.ofImage(this.img);
+  }
+
+  /**
+   * Adds the image of the marker to the batch, at the same position drawMarker draws it
+   * @param batch MarkerBatch of the image
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  @Override
+  public void addToBatch(MarkerBatch batch, float x, float y)
+  {
+    batch.addImage(x-15,y-37);
+  }
+
   /**
    * Shows the city, country, population of a city marker
    * @param pg PGraphics that is used for rendering
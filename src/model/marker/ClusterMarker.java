@@ -0,0 +1,121 @@
+package model.marker;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A marker standing for many markers that would be drawn over each other at the zoom of the map
+*/
+
+import static processing.core.PConstants.CENTER;
+import static processing.core.PConstants.CORNER;
+import static processing.core.PConstants.LEFT;
+
+import de.fhpotsdam.unfolding.geo.Location;
+import de.fhpotsdam.unfolding.marker.SimplePointMarker;
+import processing.core.PGraphics;
+
+/**
+ * <h1>Cluster Marker</h1>
+ * <p>
+ *   Defines the behaviour of a Cluster Marker of the map, drawn at the mean location of the markers it stands for
+ *   as a circle growing with their count and showing the count, clicking it zooms to where it's split
+ * </p>
+ * @author Hisham Maged
+ * @version 1.1
+ * @see CustomizedMarker
+ * @see model.spatial.GridClusters
+ */
+public class ClusterMarker extends SimplePointMarker implements CustomizedMarker {
+
+  private static final float MAX_RADIUS = 30; // same as earthquakes of magnitude 10 so it's in the hover reach
+  private final int count;
+  private final int expansionZoom;
+
+  /**
+   * Cluster constructor that initializes the simplePointMarker implementation using super constructor
+   * and sizes the marker by the count
+   * @param location Location of the mean location of the markers
+   * @param count number of markers the cluster stands for
+   * @param expansionZoom zoom the cluster is split at
+   * @throws IllegalArgumentException if count is less than 2
+   */
+  public ClusterMarker(Location location, int count, int expansionZoom) {
+    super(location);
+    if (count < 2)
+      throw new IllegalArgumentException("A cluster should stand for more than one marker, given count: " + count);
+    this.count = count;
+    this.expansionZoom = expansionZoom;
+    this.radius = Math.min(MAX_RADIUS, 8 + 6 * (float) Math.log10(count));
+  }
+
+  /**
+   * draws the cluster marker using a customized draw method
+   * @param pg PGraphics to draw marker
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  @Override
+  public void draw(PGraphics pg, float x, float y) {
+    if (!hidden) { // draws only if marker is not hidden from interactivity
+      pg.pushStyle();
+      this.drawMarker(pg, x, y);
+      if (isSelected()) {
+        this.showTitle(pg, x, y);
+      }
+      pg.popStyle();
+    }
+  }
+
+  /**
+   * Draws the Custom shape of the marker, a circle holding the count
+   *
+   * @param pg PGraphics for rendering the marker shape
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  @Override
+  public void drawMarker(PGraphics pg, float x, float y) {
+    pg.fill(40, 90, 160, 200);
+    pg.stroke(255);
+    pg.strokeWeight(2);
+    pg.ellipse(x, y, this.radius * 2, this.radius * 2);
+    pg.fill(255);
+    pg.textSize(11);
+    pg.textAlign(CENTER, CENTER);
+    pg.text(this.count, x, y);
+  }
+
+  /**
+   * Draws the Title of the Marker, showing the count of markers
+   *
+   * @param pg PGraphics for rendering the Title
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   */
+  @Override
+  public void showTitle(PGraphics pg, float x, float y) {
+    pg.fill(245, 240, 208);
+    pg.noStroke();
+    pg.rectMode(CORNER);
+    pg.textSize(12);
+    String desc = this.count + " markers , click to zoom in";
+    pg.rect(x, y - this.radius - 20, pg.textWidth(desc) + 10, 20);
+    pg.textAlign(LEFT);
+    pg.fill(0);
+    pg.text(desc, x + 5, y - this.radius - 7);
+  }
+
+  /**
+   * Gets the number of markers the cluster stands for
+   * @return count of markers
+   */
+  public int getCount() {
+    return this.count;
+  }
+
+  /**
+   * Gets the zoom at which the cluster is split into smaller clusters or its markers
+   * @return zoom level
+   */
+  public int getExpansionZoom() {
+    return this.expansionZoom;
+  }
+}
@@ -44,6 +44,19 @@ public class LandEarthQuakeMarker extends AbstractEarthQuakeMarker{
 
   }
 
+  /**
+   * Adds the outline of the circle of the marker to the batch, the same as the stroke drawMarker draws
+   * @param batch MarkerBatch of the depth color
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   * */
+  @Override
+  public void addToBatch(MarkerBatch batch, float x, float y)
+  {
+    float weight = getDepthWeight();
+    batch.addRoundedBand(x,y,this.radius,this.radius,-weight/2,weight/2);
+  }
+
   /**
    * Gets the country that the earthquake is in
    * @return The Country name that the earthquake occurred in
@@ -0,0 +1,334 @@
+package model.marker;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : The geometry of many markers or lines of the same style kept to be drawn at once
+*/
+
+import static processing.core.PConstants.CLOSE;
+import static processing.core.PConstants.CORNER;
+import static processing.core.PConstants.GROUP;
+
+import java.util.Arrays;
+import processing.core.PGraphics;
+import processing.core.PImage;
+import processing.core.PShape;
+
+/**
+ * <h1>MarkerBatch</h1>
+ * <p>
+ *   Holds the screen geometry of the markers (or lines) of a single style so they're drawn by one call instead of each marker
+ *   saving the style, setting it and drawing its own shape, a batch is either:
+ * </p>
+ * <ul>
+ *   <li> a colored batch, outlines of a single fill color drawn as a single shape whose contours are the outlines,
+ *   the outlines of holes wind the other way so the shape is filled by one call of the renderer, a single path
+ *   for FX2D and JAVA2D, a PShape tessellated once on the first draw after they change for the OpenGL renderers,
+ *   a translucent color is filled shape by shape (a shape per added band) under the style set once, as overlapping
+ *   contours of one path are filled once and would lose the stacking of the alpha of overlapping markers</li>
+ *   <li> an image batch, the positions an image is drawn at, drawn under a single style</li>
+ *   <li> a lines batch, lines of a single stroke color and weight drawn as a single shape whose contours are the lines
+ *   like the outlines of a colored batch, so many lines (like the routes between airports) are stroked at once</li>
+ * </ul>
+ * <p>
+ *   The geometry is in screen coordinates so a batch is cleared and filled again when the markers or the
+ *   projection of the map change, and only drawn while they don't
+ * </p>
+ * <b>Not thread safe</b>, used by the drawing thread only
+ * @author Hisham Maged
+ * @version 1.1
+ * @see BatchedMarker
+ */
+public final class MarkerBatch {
+
+  private static final int SEGMENTS_PER_CORNER = 6; // a circle is drawn as 24 segments
+
+  private final int color;
+  private final PImage image;
+  private final float strokeWeight; // weight of the lines of a lines batch, 0 for the other batches
+  private float[] vertices = new float[64]; // x, y of the outlines or of the image positions
+  private int verticesSize;
+  private int[] contours = new int[16]; // start of each outline in vertices
+  private int contoursSize;
+  private int[] shapes = new int[16]; // first contour of each band of a colored batch
+  private int shapesSize;
+  private PShape shape; // outlines made into a shape for OpenGL renderers, null till drawn after they change
+
+  private MarkerBatch(int color, PImage image, float strokeWeight) {
+    this.color = color;
+    this.image = image;
+    this.strokeWeight = strokeWeight;
+  }
+
+  /**
+   * Makes an empty batch of outlines filled with the given color
+   * @param color int color of the outlines as made by the color method of PApplet
+   * @return MarkerBatch of colored outlines
+   */
+  public static MarkerBatch ofColor(int color) {
+    return new MarkerBatch(color, null, 0);
+  }
+
+  /**
+   * Makes an empty batch of the given image
+   * @param image PImage drawn at each position
+   * @return MarkerBatch of image positions
+   * @throws IllegalArgumentException if the image is null
+   */
+  public static MarkerBatch ofImage(PImage image) {
+    if (image == null)
+      throw new IllegalArgumentException("Image can't be null");
+    return new MarkerBatch(0, image, 0);
+  }
+
+  /**
+   * Makes an empty batch of lines of the given stroke
+   * @param color int color of the lines as made by the color method of PApplet
+   * @param strokeWeight weight of the lines in pixels
+   * @return MarkerBatch of lines
+   * @throws IllegalArgumentException if the weight isn't positive
+   */
+  public static MarkerBatch ofLines(int color, float strokeWeight) {
+    if (!(strokeWeight > 0))
+      throw new IllegalArgumentException("Weight of the lines should be positive, given: " + strokeWeight);
+    return new MarkerBatch(color, null, strokeWeight);
+  }
+
+  /**
+   * Adds the band between two outlines of a square with rounded corners centered at the given point
+   * like the stroke of a rounded rect or a circle, or the inside of it when the inner outline is collapsed
+   * @param x float x-coordinate of the center
+   * @param y float y-coordinate of the center
+   * @param halfSize half of the width of the square
+   * @param corner radius of its corners, halfSize for a circle
+   * @param inner distance of the inner outline from the outline of the square, negative inside it
+   * @param outer distance of the outer outline from the outline of the square, negative inside it
+   * @throws UnsupportedOperationException if it isn't a colored batch
+   */
+  public void addRoundedBand(float x, float y, float halfSize, float corner, float inner, float outer) {
+    if (this.image != null || this.strokeWeight > 0)
+      throw new UnsupportedOperationException("Shapes can be added to a colored batch only");
+    float[] out = outline(halfSize, corner, outer), in = outline(halfSize, corner, inner);
+    if (out == null) // nothing to draw
+      return;
+    if (this.shapesSize == this.shapes.length)
+      this.shapes = Arrays.copyOf(this.shapes, this.shapesSize * 2);
+    this.shapes[this.shapesSize++] = this.contoursSize;
+    addContour(x, y, out, false);
+    if (in != null) // the hole of the band
+      addContour(x, y, in, true);
+    this.shape = null;
+  }
+
+  /**
+   * Adds a position the image is drawn at
+   * @param x float x-coordinate of the left of the image
+   * @param y float y-coordinate of the top of the image
+   * @throws UnsupportedOperationException if it isn't an image batch
+   */
+  public void addImage(float x, float y) {
+    if (this.image == null)
+      throw new UnsupportedOperationException("Images can be added to an image batch only");
+    ensureCapacity(2);
+    add(x, y);
+    this.shape = null;
+  }
+
+  /**
+   * Adds a line between the given points
+   * @param x1 float x-coordinate of the start of the line
+   * @param y1 float y-coordinate of the start of the line
+   * @param x2 float x-coordinate of the end of the line
+   * @param y2 float y-coordinate of the end of the line
+   * @throws UnsupportedOperationException if it isn't a lines batch
+   */
+  public void addLine(float x1, float y1, float x2, float y2) {
+    if (!(this.strokeWeight > 0))
+      throw new UnsupportedOperationException("Lines can be added to a lines batch only");
+    if (this.contoursSize == this.contours.length)
+      this.contours = Arrays.copyOf(this.contours, this.contoursSize * 2);
+    this.contours[this.contoursSize++] = this.verticesSize;
+    ensureCapacity(4);
+    add(x1, y1);
+    add(x2, y2);
+    this.shape = null;
+  }
+
+  /**
+   * Removes all the geometry of the batch
+   */
+  public void clear() {
+    this.verticesSize = 0;
+    this.contoursSize = 0;
+    this.shapesSize = 0;
+    this.shape = null;
+  }
+
+  /**
+   * Checks if the batch has no geometry
+   * @return True if nothing was added since made or cleared
+   */
+  public boolean isEmpty() {
+    return this.verticesSize == 0;
+  }
+
+  /**
+   * Draws the whole batch
+   * @param pg PGraphics to render the batch
+   */
+  public void draw(PGraphics pg) {
+    if (isEmpty())
+      return;
+    pg.pushStyle();
+    if (this.image != null) {
+      pg.imageMode(CORNER);
+      for (int i = 0; i < this.verticesSize; i += 2)
+        pg.image(this.image, this.vertices[i], this.vertices[i + 1]);
+    } else {
+      boolean translucent = this.strokeWeight == 0 && (this.color >>> 24) < 0xFF;
+      if (!pg.isGL()) { // the vertices are drawn as a single path, shapes of many contours aren't drawn right by them
+        setStyle(pg, null);
+        if (!translucent) {
+          pg.beginShape();
+          addVertices(pg, null, 0, this.contoursSize);
+          pg.endShape(CLOSE);
+        } else {
+          for (int s = 0; s < this.shapesSize; ++s) {
+            pg.beginShape();
+            addVertices(pg, null, this.shapes[s], s + 1 < this.shapesSize ? this.shapes[s + 1] : this.contoursSize);
+            pg.endShape(CLOSE);
+          }
+        }
+      } else {
+        if (this.shape == null) // tessellated once and kept on the GPU till the batch changes
+          this.shape = translucent ? makeGroupShape(pg) : makeShape(pg, 0, this.contoursSize);
+        pg.shape(this.shape);
+      }
+    }
+    pg.popStyle();
+  }
+
+  /*
+   * private helper method that makes a shape of the given contours for the OpenGL renderers
+   * @Param: PGraphics making the shape, int first contour, int end contour (exclusive)
+   * */
+  private PShape makeShape(PGraphics pg, int from, int to) {
+    PShape shape = pg.createShape();
+    shape.beginShape();
+    setStyle(null, shape);
+    addVertices(null, shape, from, to);
+    shape.endShape(CLOSE);
+    return shape;
+  }
+
+  /*
+   * private helper method that makes a group of a shape per band for the OpenGL renderers, so the bands are blended one by one
+   * @Param: PGraphics making the shape
+   * */
+  private PShape makeGroupShape(PGraphics pg) {
+    PShape group = pg.createShape(GROUP);
+    for (int s = 0; s < this.shapesSize; ++s)
+      group.addChild(makeShape(pg, this.shapes[s], s + 1 < this.shapesSize ? this.shapes[s + 1] : this.contoursSize));
+    return group;
+  }
+
+  /*
+   * private helper method that sets the style of the outlines or the lines on the graphics or the shape being made
+   * @Param: PGraphics drawing the shape or null, PShape being made or null
+   * */
+  private void setStyle(PGraphics pg, PShape shape) {
+    if (this.strokeWeight > 0) { // lines are stroked only, the closed contour of a line is the line drawn back
+      if (pg != null) {
+        pg.noFill();
+        pg.stroke(this.color);
+        pg.strokeWeight(this.strokeWeight);
+      } else {
+        shape.noFill();
+        shape.stroke(this.color);
+        shape.strokeWeight(this.strokeWeight);
+      }
+    } else {
+      if (pg != null) {
+        pg.noStroke();
+        pg.fill(this.color);
+      } else {
+        shape.noStroke();
+        shape.fill(this.color);
+      }
+    }
+  }
+
+  /*
+   * private helper method that gives the outlines of the given contours to the graphics or the shape being made,
+   * the first outline is the shape and the others are its contours
+   * @Param: PGraphics drawing the shape or null, PShape being made or null, int first contour, int end contour (exclusive)
+   * */
+  private void addVertices(PGraphics pg, PShape shape, int from, int to) {
+    for (int c = from; c < to; ++c) {
+      int end = c + 1 < this.contoursSize ? this.contours[c + 1] : this.verticesSize;
+      if (c > from) {
+        if (pg != null) pg.beginContour(); else shape.beginContour();
+      }
+      for (int i = this.contours[c]; i < end; i += 2) {
+        if (pg != null) pg.vertex(this.vertices[i], this.vertices[i + 1]); else shape.vertex(this.vertices[i], this.vertices[i + 1]);
+      }
+      if (c > from) {
+        if (pg != null) pg.endContour(); else shape.endContour();
+      }
+    }
+  }
+
+  /*
+   * private helper method that gets the points of the outline of a rounded square offset by the given distance
+   * centered at 0, 0 as x, y pairs, SEGMENTS_PER_CORNER + 1 points per corner, null if it's collapsed to the center
+   * @Param: float half of the width of the square, radius of its corners, distance of the outline from it
+   * */
+  private static float[] outline(float halfSize, float corner, float offset) {
+    corner = Math.max(0, Math.min(corner, halfSize));
+    float centers = halfSize - corner, radius = corner + offset;
+    if (radius < 0) { // the inner outline of a band thicker than the corners has sharp corners
+      centers = Math.max(0, halfSize + offset);
+      radius = 0;
+    }
+    if (centers == 0 && radius == 0)
+      return null;
+    float[] points = new float[4 * (SEGMENTS_PER_CORNER + 1) * 2];
+    int at = 0;
+    for (int quarter = 0; quarter < 4; ++quarter) {
+      float centerX = quarter == 0 || quarter == 3 ? centers : -centers;
+      float centerY = quarter < 2 ? centers : -centers;
+      for (int s = 0; s <= SEGMENTS_PER_CORNER; ++s) {
+        double angle = (quarter + (double) s / SEGMENTS_PER_CORNER) * Math.PI / 2;
+        points[at++] = centerX + radius * (float) Math.cos(angle);
+        points[at++] = centerY + radius * (float) Math.sin(angle);
+      }
+    }
+    return points;
+  }
+
+  /*
+   * private helper method that adds the outline moved to the given center as a contour, holes are added in reverse
+   * so they wind the other way of the outlines holding them
+   * @Param: float x, y of the center, float[] points of the outline, boolean whether it's a hole
+   * */
+  private void addContour(float x, float y, float[] outline, boolean hole) {
+    if (this.contoursSize == this.contours.length)
+      this.contours = Arrays.copyOf(this.contours, this.contoursSize * 2);
+    this.contours[this.contoursSize++] = this.verticesSize;
+    ensureCapacity(outline.length);
+    int points = outline.length / 2;
+    for (int p = 0; p < points; ++p) {
+      int at = hole ? points - 1 - p : p;
+      add(x + outline[at * 2], y + outline[at * 2 + 1]);
+    }
+  }
+
+  private void ensureCapacity(int more) {
+    if (this.verticesSize + more > this.vertices.length)
+      this.vertices = Arrays.copyOf(this.vertices, Math.max(this.vertices.length * 2, this.verticesSize + more));
+  }
+
+  private void add(float x, float y) {
+    this.vertices[this.verticesSize++] = x;
+    this.vertices[this.verticesSize++] = y;
+  }
+}
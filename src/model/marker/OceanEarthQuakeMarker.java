@@ -44,5 +44,18 @@ public class OceanEarthQuakeMarker extends AbstractEarthQuakeMarker {
     pg.rect(x,y,this.radius*2,this.radius*2,10);
   }
 
+  /**
+   * Adds the outline of the rounded square of the marker to the batch, the same as the stroke drawMarker draws
+   * @param batch MarkerBatch of the depth color
+   * @param x float x-coordinate
+   * @param y float y-coordinate
+   * */
+  @Override
+  public void addToBatch(MarkerBatch batch, float x, float y)
+  {
+    float weight = getDepthWeight();
+    batch.addRoundedBand(x,y,this.radius,10,-weight/2,weight/2);
+  }
+
 
 }
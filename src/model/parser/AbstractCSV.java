@@ -5,9 +5,18 @@ package model.parser;/*
 */
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.charset.Charset;
 import java.nio.file.Paths;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javafx.stage.Stage;
 import model.pojo.DataEntry;
 
@@ -36,6 +45,9 @@ public abstract class AbstractCSV<T extends DataEntry & Comparable<? super T>> e
   // a private static final pattern that holds the regex validator of file
   private static final Pattern FILE_PATTERN = Pattern.compile(".*\\.csv"); // captures .atom or .xml for lower case filename
 
+  // whether the file is read from a memory mapped buffer instead of the input stream, input stream by default
+  private boolean mapped = false;
+
   /**
    * Swing Filechooser constructor that opens up a Swing JFilechooser.
    * <p>
@@ -92,4 +104,84 @@ public abstract class AbstractCSV<T extends DataEntry & Comparable<? super T>> e
   public AbstractCSV(URL url, Pattern urlValidator) {
     super(url, urlValidator);
   }
+
+  /**
+   * Makes the parser read the file from a memory mapped buffer using MappedCSVReader instead of the input stream.
+   * <p>
+   *   fields are tokenized directly from the mapped file and Strings are only made for the kept columns,
+   *   only for local files, parsers from a URL can't be mapped
+   * </p>
+   * @return Same parser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   * @see MappedCSVReader
+   */
+  public AbstractCSV<T> mapped()
+  {
+    if(!this.getSourceFile().isPresent())
+      throw new UnsupportedOperationException("Only local files can be memory mapped");
+    this.mapped = true;
+    return this;
+  }
+
+  /**
+   * Checks whether the parser reads the file from a memory mapped buffer or not
+   * @return True if the file is memory mapped, false if the input stream is used
+   */
+  public boolean isMapped()
+  {
+    return this.mapped;
+  }
+
+  /**
+   * Opens a MappedCSVReader on the source file for the sub-classes to parse from when <code>mapped()</code> was used,
+   * closing the input stream that won't be used anymore
+   * @return MappedCSVReader positioned before the first record, should be closed after use
+   * @throws IOException if the file can't be mapped
+   * @throws UnsupportedOperationException if the source is a URL
+   */
+  protected MappedCSVReader openMapped() throws IOException
+  {
+    File file = this.getSourceFile().orElseThrow(() -> new UnsupportedOperationException("Only local files can be memory mapped"));
+    this.getSource().close();
+    return MappedCSVReader.open(file,Charset.defaultCharset());
+  }
+
+  /**
+   * Streams the entries made of each record of the memory mapped file using the given mapper,
+   * a common implementation of <code>stream()</code> for the sub-classes when <code>mapped()</code> was used
+   * @param mapper Function making the entry of the current record of the reader
+   * @param headerReader Consumer given the reader positioned on the first record if it's a header, null if the file has no header
+   * @return Stream of entries in the same order of the file, closes the reader when closed
+   * @throws UncheckedIOException if the file can't be mapped
+   */
+  protected Stream<T> streamMapped(Function<MappedCSVReader, ? extends T> mapper,Consumer<MappedCSVReader> headerReader)
+  {
+    try {
+      MappedCSVReader reader = this.openMapped();
+      if(headerReader != null && reader.next())
+        headerReader.accept(reader);
+      Spliterator<T> entries = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,Spliterator.ORDERED | Spliterator.NONNULL)
+      {
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action)
+        {
+          if(!reader.next())
+            return false;
+          action.accept(mapper.apply(reader));
+          return true;
+        }
+      };
+      return StreamSupport.stream(entries,false).onClose(() -> {
+        try {
+          reader.close();
+        }catch(IOException ex)
+        {
+          System.err.println(ex.getMessage());
+        }
+      });
+    }catch(IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+  }
 }
@@ -3,6 +3,7 @@ package model.parser;/*
   Date : 7/21/2019
   Class Name : Provides the common behaviour and constructors of the DataParser interface
 */
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
@@ -39,6 +41,9 @@ public abstract class AbstractDataParser<T extends DataEntry & Comparable<? supe
 
   private List<T> entries; // the List that will hold the Pojo objects that implements DataEntry and Comparable
   private InputStream inputSource; // the input source of the data
+  private File sourceFile; // the file of the input source, null if the source is a URL
+  private boolean cached = false; // whether the entries are loaded from and saved into a binary snapshot of the source file
+  private boolean parsed = false; // whether the source was parsed or loaded from its snapshot successfully, even into no entries
 
   {
     this.entries = new ArrayList<>();
@@ -119,18 +124,53 @@ public abstract class AbstractDataParser<T extends DataEntry & Comparable<? supe
     init(url);
   }
   /**
-  * Gets the Parsed Data from the input source,
-  * @throws UnsupportedOperationException if <code>parse()</code> was not yet used
+  * Gets the Parsed Data from the input source, empty if the source has no entries
+  * @throws UnsupportedOperationException if <code>parse()</code> was not yet used successfully
   * @return The parsed Data in an unmodefiable container so can't be added to
   * */
   @Override
   public List<T> getParsedData()
   {
-    if(this.entries == null || this.entries.isEmpty())
+    if(!this.parsed)
       throw new UnsupportedOperationException("Can't use getParsedData() before using parse method");
     return Collections.unmodifiableList(this.entries);
   }
 
+  /**
+   * Gets the Parsed Data as a Stream, parsing the whole source first if it wasn't parsed yet.
+   * <p>
+   *   A common implementation that materializes the data, sub-classes that can read entries one by one
+   *   override it to yield the entries while parsing
+   * </p>
+   * @return Stream of the parsed data, empty if nothing was parsed
+   */
+  @Override
+  public Stream<T> stream()
+  {
+    if(!this.isParsed())
+      this.parse();
+    return Collections.unmodifiableList(this.entries).stream();
+  }
+
+  /**
+   * Checks whether the source was already parsed successfully or not, a source of no entries is parsed too.
+   * made for the lower hierarchy levels to know if the input source was already consumed
+   * @return True if the source was parsed or loaded from its snapshot, false otherwise
+   */
+  protected boolean isParsed()
+  {
+    return this.parsed;
+  }
+
+  /**
+   * Marks the source as parsed, made for the lower hierarchy levels to call when <code>parse()</code> succeeds
+   * so the consumed source isn't read again
+   */
+  protected void setParsed()
+  {
+    this.parsed = true;
+  }
+
   /**
   * Gets the input source of the Data
   * @return The input source used after converted from file to inputstream or from url to inputStream
@@ -141,6 +181,74 @@ public abstract class AbstractDataParser<T extends DataEntry & Comparable<? supe
     return this.inputSource;
   }
 
+  /**
+   * Gets the file the input source reads from, made for the lower hierarchy levels that can read files
+   * in a better way than the input stream
+   * @return Nullable Optional holding the File of the input source, not present if the source is a URL
+   */
+  protected Optional<File> getSourceFile()
+  {
+    return Optional.ofNullable(this.sourceFile);
+  }
+
+  /**
+   * Makes the parser load the entries from a binary snapshot of the source file if it didn't change since the snapshot
+   * was written, skipping the parsing of the text, otherwise the file is parsed and the snapshot is written for the next time.
+   * only for local files, parsers from a URL can't be cached
+   * @return Same parser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   * @see SnapshotCache
+   */
+  public AbstractDataParser<T> cached()
+  {
+    if(!this.getSourceFile().isPresent())
+      throw new UnsupportedOperationException("Only local files can be cached");
+    this.cached = true;
+    return this;
+  }
+
+  /**
+   * Checks whether the parser uses a binary snapshot of the source file or not
+   * @return True if the entries are loaded from and saved into a snapshot, false otherwise
+   */
+  public boolean isCached()
+  {
+    return this.cached;
+  }
+
+  /**
+   * Loads the entries from the snapshot of the source file made by the sub-class, made for the lower hierarchy levels
+   * to use before parsing when <code>cached()</code> was used, the input source is closed if the entries were loaded
+   * @param codec Codec reading the entries of the sub-class from the snapshot
+   * @return True if the entries were loaded from the snapshot, false if there is no snapshot matching the source file
+   */
+  protected boolean loadSnapshot(SnapshotCache.Codec<T> codec)
+  {
+    Optional<List<T>> snapshot = SnapshotCache.read(this.sourceFile,getClass().getSimpleName(),codec);
+    if(!snapshot.isPresent())
+      return false;
+    this.entries.addAll(snapshot.get());
+    this.parsed = true;
+    try {
+      this.inputSource.close();
+    }catch(IOException ex)
+    {
+      System.err.println(ex.getMessage());
+    }
+    return true;
+  }
+
+  /**
+   * Saves the parsed entries into the snapshot of the source file, made for the lower hierarchy levels
+   * to use after parsing when <code>cached()</code> was used
+   * @param codec Codec writing the entries of the sub-class into the snapshot
+   * @return True if the snapshot was written, false otherwise
+   */
+  protected boolean saveSnapshot(SnapshotCache.Codec<T> codec)
+  {
+    return SnapshotCache.write(this.sourceFile,getClass().getSimpleName(),this.entries,codec);
+  }
+
   /**
   * Adds a POJO object of same type as the hierarchy.
    * <p>
@@ -166,7 +274,8 @@ public abstract class AbstractDataParser<T extends DataEntry & Comparable<? supe
   private void init(Optional<File> fileOptional)
   {
     try {
-      this.inputSource = new FileInputStream(validateOptional(fileOptional)); // gets an inputStream from File as FileInputStream
+      this.sourceFile = validateOptional(fileOptional);
+      this.inputSource = new BufferedInputStream(new FileInputStream(this.sourceFile)); // gets a buffered inputStream from File as FileInputStream
 
     }catch(IOException ex) // Should not happen, if so print the stack trace and terminate the program
     {
@@ -183,7 +292,8 @@ public abstract class AbstractDataParser<T extends DataEntry & Comparable<? supe
   private void init(File file)
   {
     try {
-      this.inputSource = new FileInputStream(file); // gets an inputStream from File as FileInputStream
+      this.sourceFile = file;
+      this.inputSource = new BufferedInputStream(new FileInputStream(file)); // gets a buffered inputStream from File as FileInputStream
 
     }catch(IOException ex) // Should not happen, if so print the stack trace and terminate the program
     {
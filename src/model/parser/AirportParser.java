@@ -5,9 +5,12 @@ package model.parser;/*
 */
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javafx.stage.Stage;
 import model.pojo.AirportEntry;
 import controller.DataParserBuilder;
@@ -32,6 +35,34 @@ import org.apache.commons.csv.CSVRecord;
 public class AirportParser extends AbstractCSV<AirportEntry>{
 
   private static final Pattern URL_VALIDATOR= null; //TODO: find Live Data if u want
+
+  // private static final codec that writes the airports into the binary snapshot of the file and reads them back
+  private static final SnapshotCache.Codec<AirportEntry> SNAPSHOT_CODEC = new SnapshotCache.Codec<AirportEntry>() {
+    @Override
+    public void write(AirportEntry entry, SnapshotCache.Output out) throws IOException
+    {
+      out.writeInt(entry.getID());
+      out.writeString(entry.getName());
+      out.writeString(entry.getCountry());
+      out.writeString(entry.getIATA());
+      out.writeString(entry.getICAO());
+      out.writeDouble(entry.getLatitude());
+      out.writeDouble(entry.getLongitude());
+      out.writeDouble(entry.getAltitude());
+      out.writeString(entry.getTimeZone());
+    }
+
+    @Override
+    public AirportEntry read(SnapshotCache.Input in)
+    {
+      return new AirportEntry(in.readInt(),in.readString(),in.readString(),in.readString(),in.readString(),
+          in.readDouble(),in.readDouble(),in.readDouble(),in.readString());
+    }
+  };
+
+  // whether the file is parsed in parallel chunks instead of record by record, sequential by default
+  private boolean parallel = false;
+
   /**
    * Swing Filechooser constructor that opens up a Swing JFilechooser.
    * <p>
@@ -96,6 +127,57 @@ public class AirportParser extends AbstractCSV<AirportEntry>{
     super(url, URL_VALIDATOR);
   }
 
+  /**
+   * Makes the parser parse the file in parallel chunks on the fork join pool instead of record by record.
+   * <p>
+   *   the file is split at line ends into chunks that are parsed in parallel and merged in the order
+   *   of the file, so the parsed entries are the same as the sequential parsing
+   * </p>
+   * @return Same AirportParser object used for API Flexibility to use Aggregate Operations
+   * @see ParallelCSVReader
+   */
+  public AirportParser parallel()
+  {
+    this.parallel = true;
+    return this;
+  }
+
+  /**
+   * Makes the parser read the file from a memory mapped buffer, making Strings only for the kept columns.
+   * parallel parsing is used instead if <code>parallel()</code> was also used
+   * @return Same AirportParser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   */
+  @Override
+  public AirportParser mapped()
+  {
+    super.mapped();
+    return this;
+  }
+
+  /**
+   * Makes the parser load the airports from a binary snapshot of the file if the file didn't change,
+   * otherwise the file is parsed and the snapshot is written for the next time
+   * @return Same AirportParser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   * @see SnapshotCache
+   */
+  @Override
+  public AirportParser cached()
+  {
+    super.cached();
+    return this;
+  }
+
+  /**
+   * Checks whether the parser parses the file in parallel chunks or not
+   * @return True if parsing is done in parallel chunks, false if sequential
+   */
+  public boolean isParallel()
+  {
+    return this.parallel;
+  }
+
   /**
    * Parses CSVFile and should be first method to get called.
    * using the Apache csv parser and Apache CSV format classes
@@ -106,31 +188,57 @@ public class AirportParser extends AbstractCSV<AirportEntry>{
    * and it uses the entries List made by AbstractDataParser and it's of type AirportEntry
    * as you extended the AbstractCSV with AirportEntry type parameter
    * also that's why addPojo accepts AirPortEntry
+   * if <code>parallel()</code> was used, the file is parsed in parallel chunks using ParallelCSVReader
+   * or if <code>mapped()</code> was used, the file is read from a memory mapped buffer using MappedCSVReader
+   * if <code>cached()</code> was used, the airports are loaded from the snapshot of the file instead if it matches the file
    * @throws IllegalArgumentException if a null element was parsed
    * @return Same AirportParser object used for API Flexibility to use Aggregate Operations, null if an un-handled exception happens
    * */
   @Override
   public DataParser<AirportEntry> parse() {
+    if(this.isParsed()) // the source was consumed by the first parse
+      return this;
+    if(this.isCached() && this.loadSnapshot(SNAPSHOT_CODEC))
+      return this;
+    DataParser<AirportEntry> parsed = parseSource();
+    if(parsed != null)
+    {
+      this.setParsed();
+      if(this.isCached())
+        this.saveSnapshot(SNAPSHOT_CODEC);
+    }
+    return parsed;
+  }
+
+  /*
+   * parses the airports from the text of the source using the chosen way of parse()
+   * returns this if parsed successfully, null if an exception happened
+   * */
+  private DataParser<AirportEntry> parseSource() {
     try {
       System.out.println("getting Airport data");
+      if(this.parallel)
+      {
+        for(AirportEntry entry : ParallelCSVReader.parse(this.getSource(), Charset.defaultCharset(), CSVFormat.DEFAULT, AirportParser::toEntry))
+          this.addPojo(entry);
+        return this;
+      }
+      if(this.isMapped())
+      {
+        try(MappedCSVReader reader = this.openMapped())
+        {
+          while(reader.next())
+            this.addPojo(toEntry(reader));
+        }
+        return this;
+      }
       CSVParser parser = CSVParser.parse(this.getSource(), Charset.defaultCharset(),
           CSVFormat.DEFAULT);
-      for (CSVRecord record : parser.getRecords())
+      for (CSVRecord record : parser)
       {
         System.out.print(".");
-        this.addPojo(new AirportEntry(
-            record.get(0), // id
-            record.get(1), // name
-            record.get(3), // country name
-            record.get(4), // 3 letter code
-            record.get(5), // ICAO code
-            record.get(6), // latitude
-            record.get(7), // longitude
-            record.get(8), // altitude
-            record.get(9) //timezone
-        ));
-
-    }
+        this.addPojo(toEntry(record));
+      }
       System.out.println();
     return this;
     }catch(IOException ex)
@@ -143,4 +251,74 @@ public class AirportParser extends AbstractCSV<AirportEntry>{
     }
     return null;
   }
+
+  /**
+   * Streams the Airport entries while reading the CSV file record by record.
+   * if <code>parse()</code> was already used or <code>cached()</code> was used, the parsed entries are streamed instead
+   * @throws UncheckedIOException if the source can't be read
+   * @return Stream of AirportEntry in the same order of the file, closes the CSV parser when closed
+   */
+  @Override
+  public Stream<AirportEntry> stream()
+  {
+    if(this.isParsed() || this.isCached())
+      return super.stream();
+    if(this.isMapped())
+      return this.streamMapped(AirportParser::toEntry,null);
+    try {
+      CSVParser parser = CSVParser.parse(this.getSource(), Charset.defaultCharset(), CSVFormat.DEFAULT);
+      return StreamSupport.stream(parser.spliterator(),false)
+          .map(AirportParser::toEntry)
+          .onClose(() -> {
+            try {
+              parser.close();
+            }catch(IOException ex)
+            {
+              System.err.println(ex.getMessage());
+            }
+          });
+    }catch(IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /*
+   * private helper method that makes the AirportEntry POJO out of a record of the openflights airports file
+   * @Param: CSVRecord of the current airport
+   * */
+  private static AirportEntry toEntry(CSVRecord record)
+  {
+    return new AirportEntry(
+        record.get(0), // id
+        record.get(1), // name
+        record.get(3), // country name
+        record.get(4), // 3 letter code
+        record.get(5), // ICAO code
+        record.get(6), // latitude
+        record.get(7), // longitude
+        record.get(8), // altitude
+        record.get(9) //timezone
+    );
+  }
+
+  /*
+   * private helper method that makes the AirportEntry POJO out of the current record of the memory mapped file
+   * making Strings only of the kept columns
+   * @Param: MappedCSVReader positioned on the current airport
+   * */
+  private static AirportEntry toEntry(MappedCSVReader record)
+  {
+    return new AirportEntry(
+        record.get(0), // id
+        record.get(1), // name
+        record.get(3), // country name
+        record.get(4), // 3 letter code
+        record.get(5), // ICAO code
+        record.get(6), // latitude
+        record.get(7), // longitude
+        record.get(8), // altitude
+        record.get(9) //timezone
+    );
+  }
 }
@@ -6,6 +6,7 @@ package model.parser;/*
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 import model.pojo.DataEntry;
 
 /**
@@ -31,6 +32,16 @@ public interface DataParser<T extends DataEntry & Comparable<? super T>> {
    */
   public List<T> getParsedData(); // returns the record in any form of iterable
 
+  /**
+   * Gets the Data as a lazy Stream that yields entries while the source is being parsed.
+   * <p>
+   *   the source can be consumed only once so either <code>parse()</code> or <code>stream()</code> is used
+   *   not both, if <code>parse()</code> was already used, the parsed data is streamed instead
+   * </p>
+   * @return Stream of the POJOs in the same order they have in the source, should be closed after use
+   */
+  public Stream<T> stream(); // yields the records while parsing
+
   /**
    * Gets the Source of Data.
    * @return The source of input as an InputStream.
@@ -4,10 +4,21 @@ package model.parser;/*
   Class Desc : a Sub-class of AbstractXML that defines the behaviour of parsing of RSS feed of XML format hence extending AbstractXML  from local file or UCSG website
 */
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javafx.stage.Stage;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import model.pojo.EarthQuakeEntry;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -36,6 +47,35 @@ public class EarthQuakesParser extends AbstractXML<EarthQuakeEntry>{
   // because in hierarchy, it converts the url to lower case
   private static final Pattern URL_VALIDATOR = Pattern.compile(".*earthquake.usgs.gov/earthquakes/feed/v1.0/summary.*\\.atom");
 
+  // a private static final factory for the StAX readers, factories are thread safe once configured so one instance is shared
+  private static final XMLInputFactory STAX_FACTORY = makeStAXFactory();
+
+  // private static final codec that writes the earthquakes into the binary snapshot of the file and reads them back
+  private static final SnapshotCache.Codec<EarthQuakeEntry> SNAPSHOT_CODEC = new SnapshotCache.Codec<EarthQuakeEntry>() {
+    @Override
+    public void write(EarthQuakeEntry entry, SnapshotCache.Output out) throws IOException
+    {
+      out.writeString(entry.getId());
+      out.writeString(entry.getUpdated());
+      out.writeString(entry.getTitle());
+      out.writeString(entry.getLocationTitle());
+      out.writeFloat(entry.getLatitude());
+      out.writeFloat(entry.getLongitude());
+      out.writeDouble(entry.getMagnitude());
+      out.writeDouble(entry.getDepth());
+      out.writeString(entry.getAge());
+    }
+
+    @Override
+    public EarthQuakeEntry read(SnapshotCache.Input in)
+    {
+      return new EarthQuakeEntry(in.readString(),in.readString(),in.readString(),in.readString(),in.readFloat(),in.readFloat(),in.readDouble(),in.readDouble(),in.readString());
+    }
+  };
+
+  // whether the streaming StAX engine is used instead of building a whole DOM, DOM by default
+  private boolean streaming = false;
+
   /**
   * Swing File Chooser constructor. that will use the AbstractXML constructor to get the
   * Correct File format of XML or ATOM files using a SWing File Chooser
@@ -84,20 +124,79 @@ public class EarthQuakesParser extends AbstractXML<EarthQuakeEntry>{
     super(url, URL_VALIDATOR);
   }
 
+  /**
+   * Makes the parser use the streaming <b>StAX</b> engine instead of building a whole DOM of the feed.
+   * <p>
+   *   the streaming engine builds each EarthQuakeEntry in one forward pass over the feed
+   *   holding only the current entry's fields in memory, and skips the html <code>summary</code> blobs
+   * </p>
+   * @return Same EarthQuakesParser object used for API Flexibility to use Aggregate Operations
+   */
+  public EarthQuakesParser streaming()
+  {
+    this.streaming = true;
+    return this;
+  }
+
+  /**
+   * Makes the parser load the earthquakes from a binary snapshot of the file if the file didn't change,
+   * otherwise the file is parsed and the snapshot is written for the next time
+   * @return Same EarthQuakesParser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   * @see SnapshotCache
+   */
+  @Override
+  public EarthQuakesParser cached()
+  {
+    super.cached();
+    return this;
+  }
+
+  /**
+   * Checks whether the parser uses the streaming StAX engine or not
+   * @return True if the streaming StAX engine is used, false if the DOM engine is used
+   */
+  public boolean isStreaming()
+  {
+    return this.streaming;
+  }
+
   /**
    *  parses the RSS FEED and should be the first method to be used.
    * in the class, uses the input source made in initialization and parses it
    * using the public inherited method <code>.getSource()</code>, using <b>Xerces</b> XML Parser
+   * or the streaming <b>StAX</b> engine if <code>streaming()</code> was used
    * Makes a Node element of entry (which is the main Node that holds all the info of each line or input in file)
    * and using that Entry node, gets the title,location,depth,Age using their respected tag names in the RSS feed file
    * and makes a EarthQuakeEntry Pojo Object using these data
    * putting each one in a List of entries that is inhertied from hierarchy using the inherited
    * using the method <code>.addPojo(T pojo)</code>, T in that case is EarthQuakeEntry because we extend the AbstractXML<EarthQuakeEntry>
+   * if <code>cached()</code> was used, the earthquakes are loaded from the snapshot of the file instead if it matches the file
    * @throws IllegalArgumentException if null is sent to it.
    * @return Same EarthQuakesParser object used for API Flexibility to use Aggregate Operations, null if an un-handled exception happens
    * */
   @Override
   public EarthQuakesParser parse()
+  {
+    if(this.isParsed()) // the source was consumed by the first parse
+      return this;
+    if(this.isCached() && this.loadSnapshot(SNAPSHOT_CODEC))
+      return this;
+    EarthQuakesParser parsed = this.streaming ? parseStAX() : parseDOM();
+    if(parsed != null)
+    {
+      this.setParsed();
+      if(this.isCached())
+        this.saveSnapshot(SNAPSHOT_CODEC);
+    }
+    return parsed;
+  }
+
+  /*
+   * DOM engine of parse(), builds the whole document of the feed then walks each entry element
+   * returns this if parsed successfully, null if an exception happened
+   * */
+  private EarthQuakesParser parseDOM()
   {
     try {
       System.out.println("Using InputStream: "+this.getSource().toString());
@@ -115,6 +214,8 @@ public class EarthQuakesParser extends AbstractXML<EarthQuakeEntry>{
         if (tempEntry.getNodeType() == Node.ELEMENT_NODE) {
           tempElement = (Element) tempEntry;
           this.addPojo(new EarthQuakeEntry(
+              getTextContent(tempElement,"id"), // gets the atom id of the event as it's in id tag
+              getTextContent(tempElement,"updated"), // gets the last time the event was revised as it's in updated tag
               tempElement.getElementsByTagName("title").item(0).getTextContent(), // gets Title of earthQuake as it's in title tag
               tempElement.getElementsByTagName("georss:point").item(0).getTextContent(), // gets location of earthQuake as it's in georss:point tag
               tempElement.getElementsByTagName("georss:elev").item(0).getTextContent(), //// gets Depth of earthQuake as it's in georess:elev tag
@@ -131,4 +232,255 @@ public class EarthQuakesParser extends AbstractXML<EarthQuakeEntry>{
     }
     return null; // returns false if an exception occured
   }
+
+  /**
+   * Streams the earthquake entries of the feed while reading it, using the StAX engine regardless of <code>streaming()</code>.
+   * <p>
+   *   each entry is made only when the stream pulls it, so filters and feature making applied on the stream
+   *   run as one pipeline without holding the whole feed in memory, the reader is closed when the stream is closed
+   *   if <code>parse()</code> was already used or <code>cached()</code> was used, the parsed entries are streamed instead
+   * </p>
+   * @throws IllegalStateException if the feed is malformed while being streamed
+   * @return Stream of EarthQuakeEntry in the same order of the feed
+   */
+  @Override
+  public Stream<EarthQuakeEntry> stream()
+  {
+    if(this.isParsed() || this.isCached())
+      return super.stream();
+    final XMLStreamReader reader;
+    try {
+      reader = STAX_FACTORY.createXMLStreamReader(this.getSource());
+    }catch(XMLStreamException ex)
+    {
+      throw new IllegalStateException("Can't read the earthquakes feed: "+ex.getMessage(),ex);
+    }
+    Spliterator<EarthQuakeEntry> entries = new Spliterators.AbstractSpliterator<EarthQuakeEntry>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super EarthQuakeEntry> action)
+      {
+        try {
+          EarthQuakeEntry entry = readNextEntry(reader);
+          if(entry == null)
+            return false;
+          action.accept(entry);
+          return true;
+        }catch(XMLStreamException ex)
+        {
+          throw new IllegalStateException("Malformed earthquakes feed: "+ex.getMessage(),ex);
+        }
+      }
+    };
+    return StreamSupport.stream(entries,false).onClose(() -> closeQuietly(reader));
+  }
+
+  /*
+   * StAX engine of parse(), reads the feed in one forward pass using readNextEntry
+   * making an EarthQuakeEntry for each entry tag as soon as its end tag is reached
+   * returns this if parsed successfully, null if an exception happened
+   * */
+  private EarthQuakesParser parseStAX()
+  {
+    XMLStreamReader reader = null;
+    try {
+      System.out.println("Using InputStream: "+this.getSource().toString());
+      System.out.println("getting EarthQuake data (streaming)");
+      reader = STAX_FACTORY.createXMLStreamReader(this.getSource());
+      EarthQuakeEntry entry = null;
+      while((entry = readNextEntry(reader)) != null)
+        this.addPojo(entry);
+      return this;
+    }catch(Exception ex)
+    {
+      ex.printStackTrace();
+      System.err.println(ex.getMessage());
+    }finally
+    {
+      closeQuietly(reader);
+    }
+    return null;
+  }
+
+  /**
+   * Streams only the earthquake entries of the feed that the given predicate accepts by their atom id and version.
+   * <p>
+   *   the predicate is tested with the id and version (see <code>versionOf</code>) of every entry of the feed in the order of the feed,
+   *   and an EarthQuakeEntry is made only of the entries it accepts, so a caller that already has an event
+   *   can skip it while knowing it's still in the feed, used for applying only the changes of a feed that is polled
+   *   the reader is closed when the stream is closed
+   * </p>
+   * @param changed BiPredicate taking the id and version of an entry (null id if the entry doesn't have one), true if the entry is needed
+   * @throws IllegalStateException if the feed is malformed while being streamed
+   * @throws IllegalArgumentException if the predicate is null
+   * @return Stream of the accepted EarthQuakeEntry in the same order of the feed
+   */
+  public Stream<EarthQuakeEntry> streamChanged(BiPredicate<String,String> changed)
+  {
+    if(changed == null)
+      throw new IllegalArgumentException("Predicate can't be null");
+    final XMLStreamReader reader;
+    try {
+      reader = STAX_FACTORY.createXMLStreamReader(this.getSource());
+    }catch(XMLStreamException ex)
+    {
+      throw new IllegalStateException("Can't read the earthquakes feed: "+ex.getMessage(),ex);
+    }
+    Spliterator<EarthQuakeEntry> entries = new Spliterators.AbstractSpliterator<EarthQuakeEntry>(Long.MAX_VALUE,
+        Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super EarthQuakeEntry> action)
+      {
+        try {
+          EarthQuakeEntry entry = readNextEntry(reader,changed);
+          if(entry == null)
+            return false;
+          action.accept(entry);
+          return true;
+        }catch(XMLStreamException ex)
+        {
+          throw new IllegalStateException("Malformed earthquakes feed: "+ex.getMessage(),ex);
+        }
+      }
+    };
+    return StreamSupport.stream(entries,false).onClose(() -> closeQuietly(reader));
+  }
+
+  /**
+   * Gets the version of an entry of the feed, which changes when the event is revised (its updated time)
+   * or when it gets older (its age category, from past hour to past day to past week and so on) as the age of
+   * an event changes with time while its updated time stays the same
+   * @param updated String of the updated time of the entry, may be null
+   * @param age String of the age of the entry, may be null
+   * @return String of the version of the entry
+   */
+  public static String versionOf(String updated,String age)
+  {
+    return updated + "|" + age;
+  }
+
+  /*
+   * Moves the reader forward to the next entry tag and reads it till its end tag
+   * same as readNextEntry(XMLStreamReader,BiPredicate) accepting all entries
+   * @Param: XMLStreamReader reading the feed
+   * */
+  private static EarthQuakeEntry readNextEntry(XMLStreamReader reader) throws XMLStreamException
+  {
+    return readNextEntry(reader,null);
+  }
+
+  /*
+   * Moves the reader forward to the next entry tag and reads it till its end tag
+   * keeping only the id, updated, title, georss:point, georss:elev texts and the term attribute of the first category
+   * the summary tag (html blob) and any other tag in the entry are skipped without reading their text
+   * entries that the predicate doesn't accept by their id and version are skipped without making them
+   * returns the EarthQuakeEntry made from the next accepted entry or null if the end of the feed is reached
+   * @Param: XMLStreamReader reading the feed
+   * @Param: BiPredicate of id and version accepting the entries to be made, null to accept all entries
+   * */
+  private static EarthQuakeEntry readNextEntry(XMLStreamReader reader,BiPredicate<String,String> accepted) throws XMLStreamException
+  {
+    while(true)
+    {
+      // moves to the start of the next entry
+      while(reader.hasNext())
+      {
+        if(reader.next() == XMLStreamConstants.START_ELEMENT && "entry".equals(reader.getLocalName()))
+          break;
+      }
+      if(!reader.hasNext())
+        return null;
+      String[] fields = readEntryFields(reader);
+      if(fields == null)
+        return null; // un-closed entry tag at end of feed
+      if(accepted == null || accepted.test(fields[0],versionOf(fields[1],fields[5])))
+        return new EarthQuakeEntry(fields[0],fields[1],fields[2],fields[3],fields[4],fields[5]);
+    }
+  }
+
+  /*
+   * reads the fields of the entry the reader is in till its end tag
+   * returns id, updated, title, point, elevation, age or null if the feed ended before the end of the entry
+   * @Param: XMLStreamReader positioned inside an entry tag
+   * */
+  private static String[] readEntryFields(XMLStreamReader reader) throws XMLStreamException
+  {
+    String id = null, updated = null, title = null, point = null, elevation = null, age = null;
+    while(reader.hasNext())
+    {
+      int event = reader.next();
+      if(event == XMLStreamConstants.END_ELEMENT && "entry".equals(reader.getLocalName()))
+        return new String[]{id,updated,title,point,elevation,age};
+      if(event != XMLStreamConstants.START_ELEMENT)
+        continue;
+      switch(reader.getLocalName())
+      {
+        case "id": if(id == null) id = reader.getElementText(); break;
+        case "updated": if(updated == null) updated = reader.getElementText(); break;
+        case "title": if(title == null) title = reader.getElementText(); break;
+        case "point": if(point == null) point = reader.getElementText(); break;
+        case "elev": if(elevation == null) elevation = reader.getElementText(); break;
+        case "category": if(age == null) age = reader.getAttributeValue(null,"term"); break;
+        default: skipElement(reader); // summary and the rest of tags are not needed
+      }
+    }
+    return null;
+  }
+
+  /*
+   * gets the text of the first tag of the given name inside the element, null if there is no such tag
+   * @Param: Element of the entry, String tag name
+   * */
+  private static String getTextContent(Element element,String tagName)
+  {
+    Node node = element.getElementsByTagName(tagName).item(0);
+    return node == null ? null : node.getTextContent();
+  }
+
+  /*
+   * skips the element the reader is currently at including all of its children
+   * by counting the depth of start and end tags till the end tag of that element is reached
+   * @Param: XMLStreamReader positioned at a START_ELEMENT
+   * */
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException
+  {
+    int depth = 1;
+    while(depth > 0 && reader.hasNext())
+    {
+      int event = reader.next();
+      if(event == XMLStreamConstants.START_ELEMENT)
+        ++depth;
+      else if(event == XMLStreamConstants.END_ELEMENT)
+        --depth;
+    }
+  }
+
+  /*
+   * closes the reader ignoring any exception as it's used in finally blocks only
+   * */
+  private static void closeQuietly(XMLStreamReader reader)
+  {
+    if(reader == null)
+      return;
+    try {
+      reader.close();
+    }catch(XMLStreamException ex)
+    {
+      System.err.println(ex.getMessage());
+    }
+  }
+
+  /*
+   * makes the StAX factory used by all streaming parsers, namespace aware so georss:point is read as local name point
+   * and doesn't support DTDs or external entities as feeds never need them
+   * */
+  private static XMLInputFactory makeStAXFactory()
+  {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    return factory;
+  }
 }
@@ -0,0 +1,277 @@
+package model.parser;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Description : Fetches live feeds over HTTP using conditional requests, keeping the last fetched copy of each feed on disk
+*/
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <h1>FeedCache</h1>
+ * <p>
+ *   Fetches feeds like the live USGS earthquakes feeds over HTTP keeping the body of the last response of each feed
+ *   in a cache directory on disk along with its <code>ETag</code> and <code>Last-Modified</code> headers,
+ *   the next fetch of the feed sends them back as <code>If-None-Match</code> and <code>If-Modified-Since</code>
+ *   so the server answers with <code>304 Not Modified</code> and no body when the feed didn't change
+ *   and the cached copy is used instead of downloading the feed again
+ * </p>
+ * <p>
+ *   The feed is asked for gzip compressed and is decompressed while being written to the cache,
+ *   a body is written into a temporary file first then moved over the old copy so a half downloaded feed is never used
+ * </p>
+ * Each feed is cached as two files named by the CRC32 of its URL and the last part of its path:
+ * the body file and a properties file holding the URL and the validator headers
+ * @author Hisham Maged
+ * @version 1.1
+ * @see SnapshotCache
+ */
+public final class FeedCache {
+
+  private static final String DEFAULT_DIRECTORY = "./data/.cache/feeds";
+  private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+  private static final int READ_TIMEOUT_MILLIS = 30_000;
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+
+  // private static final default cache used for the live feeds of the application
+  private static final FeedCache DEFAULT = new FeedCache(new File(DEFAULT_DIRECTORY));
+
+  private final File directory;
+
+  /**
+   * Directory Constructor. makes a cache keeping the fetched feeds in the given directory, made if it doesn't exist on first fetch
+   * @param directory File of the cache directory
+   * @throws IllegalArgumentException if null is given
+   */
+  public FeedCache(File directory)
+  {
+    if(directory == null)
+      throw new IllegalArgumentException("Cache directory can't be null");
+    this.directory = directory;
+  }
+
+  /**
+   * Gets the default cache of the application that keeps the feeds in ./data/.cache/feeds
+   * @return the default FeedCache
+   */
+  public static FeedCache getDefault()
+  {
+    return DEFAULT;
+  }
+
+  /**
+   * Fetches the feed of the given URL, asking the server only for a feed that changed since the cached copy was fetched.
+   * @param url URL of the feed, should be an http or https URL
+   * @return Fetched holding the file of the feed on disk and whether it changed since the last fetch
+   * @throws IOException if the feed can't be fetched or the server answers with an error status
+   * @throws IllegalArgumentException if the url is null or isn't an http URL
+   */
+  public synchronized Fetched fetch(URL url) throws IOException
+  {
+    if(url == null)
+      throw new IllegalArgumentException("Feed URL can't be null");
+    URLConnection urlConnection = url.openConnection();
+    if(!(urlConnection instanceof HttpURLConnection))
+      throw new IllegalArgumentException("Only http feeds can be cached, given url: "+url);
+    HttpURLConnection connection = (HttpURLConnection) urlConnection;
+    File body = getBodyFile(url), metadata = getMetadataFile(url);
+    Properties validators = body.isFile() ? readMetadata(metadata) : new Properties(); // no validators without a cached copy to fall back to
+    try {
+      connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+      connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+      connection.setUseCaches(false);
+      connection.setRequestProperty("Accept-Encoding","gzip");
+      if(validators.getProperty(ETAG) != null)
+        connection.setRequestProperty("If-None-Match",validators.getProperty(ETAG));
+      if(validators.getProperty(LAST_MODIFIED) != null)
+        connection.setRequestProperty("If-Modified-Since",validators.getProperty(LAST_MODIFIED));
+
+      int status = connection.getResponseCode();
+      if(status == HttpURLConnection.HTTP_NOT_MODIFIED && body.isFile())
+        return new Fetched(body,false);
+      if(status != HttpURLConnection.HTTP_OK)
+        throw new IOException("Server answered "+status+" "+connection.getResponseMessage()+" for "+url);
+
+      writeBody(connection,body);
+      Properties newValidators = new Properties();
+      newValidators.setProperty("url",url.toString());
+      if(connection.getHeaderField("ETag") != null)
+        newValidators.setProperty(ETAG,connection.getHeaderField("ETag"));
+      if(connection.getHeaderField("Last-Modified") != null)
+        newValidators.setProperty(LAST_MODIFIED,connection.getHeaderField("Last-Modified"));
+      writeMetadata(newValidators,metadata);
+      return new Fetched(body,true);
+    }finally
+    {
+      connection.disconnect();
+    }
+  }
+
+  /**
+   * Gets the file that the body of the feed is cached in, it may not exist if the feed wasn't fetched yet
+   * @param url URL of the feed
+   * @return File of the cached body of the feed
+   */
+  public File getBodyFile(URL url)
+  {
+    String path = url.getPath();
+    String name = path.substring(path.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9._-]","_");
+    return new File(this.directory,getKey(url)+"-"+(name.isEmpty() ? "feed" : name));
+  }
+
+  /*
+   * private helper method that gets the file holding the validator headers of the feed
+   * @Param: URL of the feed
+   * */
+  private File getMetadataFile(URL url)
+  {
+    return new File(this.directory,getKey(url)+".properties");
+  }
+
+  /*
+   * private helper method that makes a key of the URL that is used as the start of its cached files names
+   * @Param: URL of the feed
+   * */
+  private static String getKey(URL url)
+  {
+    CRC32 crc = new CRC32();
+    crc.update(url.toString().getBytes(StandardCharsets.UTF_8));
+    return String.format("%08x",crc.getValue());
+  }
+
+  /*
+   * private helper method that writes the body of the response into the cached body file, decompressing it if it's gzip
+   * @Param: HttpURLConnection with a 200 response, File of the cached body
+   * */
+  private void writeBody(HttpURLConnection connection,File body) throws IOException
+  {
+    if(!this.directory.isDirectory() && !this.directory.mkdirs())
+      throw new IOException("Can't make the directory "+this.directory);
+    File temp = File.createTempFile(body.getName(),".tmp",this.directory);
+    try {
+      try(InputStream in = openBody(connection); OutputStream out = new FileOutputStream(temp))
+      {
+        byte[] buffer = new byte[64 * 1024];
+        for(int read ; (read = in.read(buffer)) != -1 ; )
+          out.write(buffer,0,read);
+      }
+      move(temp,body);
+    }finally
+    {
+      temp.delete(); // does nothing if it was moved
+    }
+  }
+
+  /*
+   * private helper method that opens the body of the response, decompressing it if the server sent it gzip compressed
+   * @Param: HttpURLConnection with a 200 response
+   * */
+  private static InputStream openBody(HttpURLConnection connection) throws IOException
+  {
+    InputStream in = new BufferedInputStream(connection.getInputStream());
+    return "gzip".equalsIgnoreCase(connection.getContentEncoding()) ? new GZIPInputStream(in) : in;
+  }
+
+  /*
+   * private helper method that reads the validator headers of the feed, empty if there are none
+   * @Param: File holding the validators
+   * */
+  private static Properties readMetadata(File metadata)
+  {
+    Properties validators = new Properties();
+    if(!metadata.isFile())
+      return validators;
+    try(InputStream in = new FileInputStream(metadata))
+    {
+      validators.load(in);
+    }catch(IOException | IllegalArgumentException ex) // un-readable validators only cost a full download
+    {
+      System.err.println("Can't read "+metadata+": "+ex.getMessage());
+      validators.clear();
+    }
+    return validators;
+  }
+
+  /*
+   * private helper method that writes the validator headers of the feed
+   * @Param: Properties holding the validators, File to write them into
+   * */
+  private void writeMetadata(Properties validators,File metadata) throws IOException
+  {
+    File temp = File.createTempFile(metadata.getName(),".tmp",this.directory);
+    try {
+      try(OutputStream out = new FileOutputStream(temp))
+      {
+        validators.store(out,"validators of the cached feed");
+      }
+      move(temp,metadata);
+    }finally
+    {
+      temp.delete();
+    }
+  }
+
+  /*
+   * private helper method that moves the file over the target atomically if the file system supports it
+   * @Param: File to be moved, File target
+   * */
+  private static void move(File from,File to) throws IOException
+  {
+    try {
+      Files.move(from.toPath(),to.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+    }catch(AtomicMoveNotSupportedException ex)
+    {
+      Files.move(from.toPath(),to.toPath(),StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * <h1>Fetched</h1>
+   * The result of fetching a feed, the file on disk holding the feed and whether it changed since the last fetch
+   */
+  public static final class Fetched
+  {
+    private final File file;
+    private final boolean modified;
+
+    private Fetched(File file,boolean modified)
+    {
+      this.file = file;
+      this.modified = modified;
+    }
+
+    /**
+     * Gets the file holding the fetched feed
+     * @return File of the cached body of the feed
+     */
+    public File getFile()
+    {
+      return this.file;
+    }
+
+    /**
+     * Checks whether the feed was downloaded or the server answered that it wasn't modified
+     * @return True if a new copy of the feed was downloaded, false if the cached copy is still the latest
+     */
+    public boolean isModified()
+    {
+      return this.modified;
+    }
+  }
+}
@@ -6,11 +6,15 @@ package model.parser;/*
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javafx.stage.Stage;
 import model.pojo.LifeExpectancyEntry;
 import org.apache.commons.csv.CSVFormat;
@@ -22,7 +26,7 @@ import org.apache.commons.csv.CSVRecord;
  * */
 /**
  * <h1>LifeExpectancyParser</h1> parses the CSV format files of World bank data site
- * that makes statistics about Life expectancy from 1960 to 2017 inclusive
+ * that makes statistics about Life expectancy for a range of years read from the header of the file (1960 to 2018 in the bundled file)
  * <b> Should be instansiated using DataParserBuilder class only </b>
  * @author Hisham Maged
  * @version 1.1
@@ -38,6 +42,37 @@ public class LifeExpectancyParser extends AbstractCSV<LifeExpectancyEntry> {
   // because in hierarchy, it converts the url to lower case
   //TODO: Find the suitable URL for the LifeExpectancy Values
   private static final Pattern URL_VALIDATOR = Pattern.compile("");
+  // private static final pattern of header names that are years
+  private static final Pattern YEAR_PATTERN = Pattern.compile("\\d{4}");
+
+  // private static final codec that writes the countries into the binary snapshot of the file and reads them back
+  private static final SnapshotCache.Codec<LifeExpectancyEntry> SNAPSHOT_CODEC = new SnapshotCache.Codec<LifeExpectancyEntry>() {
+    @Override
+    public void write(LifeExpectancyEntry entry, SnapshotCache.Output out) throws IOException
+    {
+      out.writeString(entry.getCountryName());
+      out.writeString(entry.getCountryCode());
+      out.writeInt(entry.getFirstYear());
+      out.writeInt(entry.getLastYear() - entry.getFirstYear() + 1);
+      for(int year = entry.getFirstYear() ; year <= entry.getLastYear() ; ++year)
+        out.writeFloat(entry.getYearValue(year));
+    }
+
+    @Override
+    public LifeExpectancyEntry read(SnapshotCache.Input in)
+    {
+      String countryName = in.readString(), countryCode = in.readString();
+      int firstYear = in.readInt();
+      float[] yearValues = new float[in.readLength(4)];
+      for(int i = 0 ; i < yearValues.length ; ++i)
+        yearValues[i] = in.readFloat();
+      return new LifeExpectancyEntry(countryName,countryCode,firstYear,yearValues);
+    }
+  };
+
+  private int firstYear; // first year of the range of years read from the header
+  private int[] yearColumns; // column index of each year of the range indexed by year - firstYear, -1 if the year has no column
+  private int countryCodeColumn; // column index of the country code read from the header
 
   /**
    * Swing File Chooser constructor. that will use the AbstactCSV constructor to get the
@@ -87,6 +122,32 @@ public class LifeExpectancyParser extends AbstractCSV<LifeExpectancyEntry> {
     super(url, URL_VALIDATOR);
   }
 
+  /**
+   * Makes the parser read the file from a memory mapped buffer using MappedCSVReader instead of the input stream
+   * @return Same LifeExpectancyParser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   */
+  @Override
+  public LifeExpectancyParser mapped()
+  {
+    super.mapped();
+    return this;
+  }
+
+  /**
+   * Makes the parser load the countries from a binary snapshot of the file if the file didn't change,
+   * otherwise the file is parsed and the snapshot is written for the next time
+   * @return Same LifeExpectancyParser object used for API Flexibility to use Aggregate Operations
+   * @throws UnsupportedOperationException if the source is a URL
+   * @see SnapshotCache
+   */
+  @Override
+  public LifeExpectancyParser cached()
+  {
+    super.cached();
+    return this;
+  }
+
   /**
    * Parses CSVFile and should be first method to get called.
    * using the Apache csv parser and Apache CSV format classes
@@ -98,23 +159,53 @@ public class LifeExpectancyParser extends AbstractCSV<LifeExpectancyEntry> {
    * and it uses the entries List made by AbstractDataParser and it's of type LifeExpectancyEntry
    * as you extended the AbstractCSV with LifeExpectancyEntry type parameter
    * also that's why addPojo accepts LifeExpectancyEntry
+   * if <code>cached()</code> was used, the countries are loaded from the snapshot of the file instead if it matches the file
    * @throws IllegalArgumentException if a null element was parsed
    * @return Same LifeExpectancyParser object used for API Flexibility to use Aggregate Operations, null if an un-handled exception happens
    * */
   @Override
   public LifeExpectancyParser parse()
+  {
+    if(this.isParsed()) // the source was consumed by the first parse
+      return this;
+    if(this.isCached() && this.loadSnapshot(SNAPSHOT_CODEC))
+      return this;
+    LifeExpectancyParser parsed = parseSource();
+    if(parsed != null)
+    {
+      this.setParsed();
+      if(this.isCached())
+        this.saveSnapshot(SNAPSHOT_CODEC);
+    }
+    return parsed;
+  }
+
+  /*
+   * parses the countries from the text of the source, memory mapped if mapped() was used
+   * returns this if parsed successfully, null if an exception happened
+   * */
+  private LifeExpectancyParser parseSource()
   {
     try {
         System.out.print("getting Life expectancy data");
+      if(this.isMapped())
+      {
+        try(MappedCSVReader reader = this.openMapped())
+        {
+          if(reader.next())
+            readHeaderColumns(reader); // reads the country code and the years from the header
+          while(reader.next())
+            this.addPojo(toEntry(reader));
+        }
+        System.out.println();
+        return this;
+      }
       CSVParser parser = CSVParser.parse(this.getSource(), Charset.defaultCharset(), CSVFormat.DEFAULT.withFirstRecordAsHeader());
-      for(CSVRecord record : parser.getRecords())
+      readHeaderColumns(parser.getHeaderMap());
+      for(CSVRecord record : parser)
       {
         System.out.print(".");
-        this.addPojo(new LifeExpectancyEntry(
-            record.get(0), // using the name for country name doesn't work // TODO: figure out why
-            record.get("Country Code"),
-            fillMap(new HashMap<>(57),record) // makes a Map of initialy capacity 57 holding 57 year data, Integer as key for year and float for lifeexpectancy value
-        ));
+        this.addPojo(toEntry(record));
       }
       System.out.println();
     return this; // returns true since the loop finished without exceptions
@@ -130,21 +221,133 @@ public class LifeExpectancyParser extends AbstractCSV<LifeExpectancyEntry> {
     return null; // if reached here in code then an exception happened
   }
 
+  /**
+   * Streams the Life expectancy entries while reading the CSV file record by record.
+   * if <code>parse()</code> was already used or <code>cached()</code> was used, the parsed entries are streamed instead
+   * @throws UncheckedIOException if the source can't be read
+   * @return Stream of LifeExpectancyEntry in the same order of the file, closes the CSV parser when closed
+   */
+  @Override
+  public Stream<LifeExpectancyEntry> stream()
+  {
+    if(this.isParsed() || this.isCached())
+      return super.stream();
+    if(this.isMapped())
+      return this.streamMapped(this::toEntry,this::readHeaderColumns);
+    try {
+      CSVParser parser = CSVParser.parse(this.getSource(), Charset.defaultCharset(), CSVFormat.DEFAULT.withFirstRecordAsHeader());
+      readHeaderColumns(parser.getHeaderMap());
+      return StreamSupport.stream(parser.spliterator(),false)
+          .map(this::toEntry)
+          .onClose(() -> {
+            try {
+              parser.close();
+            }catch(IOException ex)
+            {
+              System.err.println(ex.getMessage());
+            }
+          });
+    }catch(IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /*
+   * private helper method that makes the LifeExpectancyEntry POJO out of a record of the world bank file
+   * @Param: CSVRecord of the current country
+   * */
+  private LifeExpectancyEntry toEntry(CSVRecord record)
+  {
+    float[] yearValues = new float[this.yearColumns.length];
+    for(int i = 0 ; i < yearValues.length ; ++i)
+      yearValues[i] = toYearValue(this.yearColumns[i] >= 0 && this.yearColumns[i] < record.size() ? record.get(this.yearColumns[i]) : "");
+    return new LifeExpectancyEntry(
+        record.get(0), // using the name for country name doesn't work as the file starts with a byte order mark
+        record.get("Country Code"),
+        this.firstYear,
+        yearValues
+    );
+  }
+
+  /*
+   * private helper method that makes the LifeExpectancyEntry POJO out of the current record of the memory mapped file
+   * @Param: MappedCSVReader positioned on the current country
+   * */
+  private LifeExpectancyEntry toEntry(MappedCSVReader record)
+  {
+    float[] yearValues = new float[this.yearColumns.length];
+    for(int i = 0 ; i < yearValues.length ; ++i)
+      yearValues[i] = toYearValue(this.yearColumns[i] >= 0 && this.yearColumns[i] < record.getFieldCount() ? record.get(this.yearColumns[i]) : "");
+    return new LifeExpectancyEntry(
+        record.get(0),
+        this.countryCodeColumn < record.getFieldCount() ? record.get(this.countryCodeColumn) : "",
+        this.firstYear,
+        yearValues
+    );
+  }
+
+  /*
+   * private helper method that converts the value of a year column, NaN if empty (no life expectancy value recorded for the year at hand)
+   * @Param: String value of the column
+   * */
+  private static float toYearValue(String value)
+  {
+    return value.isEmpty() ? Float.NaN : Float.parseFloat(value);
+  }
+
+  /*
+   * private helper method that reads the country code column and the range of years from the header of the memory mapped file
+   * @Param: MappedCSVReader positioned on the header record
+   * */
+  private void readHeaderColumns(MappedCSVReader header)
+  {
+    Map<String,Integer> headerMap = new HashMap<>();
+    for(int i = 0 ; i < header.getFieldCount() ; ++i)
+      headerMap.put(header.get(i),i);
+    readHeaderColumns(headerMap);
+  }
+
   /*
-   * Private helper method that fills the map with years as keys and their respected life expectancy value for each record
-   * in csv file being parsed
-   * @PARAM Map<Integer,Float> that will be given to POJO object
-   * @PARAM current record being parsed in CSV file
+   * private helper method that finds the country code column and the columns whose name is a year in the header,
+   * the range of years is from the smallest year to the biggest year found and a year without a column in that range
+   * has -1 as its column
+   * @Param: Map of the header names and their column index
    * */
-  private Map<Integer,Float> fillMap(Map<Integer,Float> yearMap,CSVRecord currentRecord)
+  private void readHeaderColumns(Map<String,Integer> headerMap)
   {
-    for(int i = 1960 ; i <= 2017 ; ++i)
+    Integer countryCode = headerMap.get("Country Code");
+    if(countryCode == null)
+      throw new IllegalArgumentException("No Country Code column was found in the header of the file");
+    int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+    for(String name : headerMap.keySet())
+    {
+      if(isYear(name))
+      {
+        first = Math.min(first,Integer.parseInt(name));
+        last = Math.max(last,Integer.parseInt(name));
+      }
+    }
+    if(first > last)
+      throw new IllegalArgumentException("No year columns were found in the header of the file");
+    int[] columns = new int[last - first + 1];
+    Arrays.fill(columns,-1);
+    for(Map.Entry<String,Integer> column : headerMap.entrySet())
     {
-      if(!currentRecord.get(i-1956).isEmpty())
-        yearMap.put(i,Float.valueOf(currentRecord.get(i-1956))); // because years columns start from 4 so 1960-1956 is 4 and so on till 57
-      else
-        yearMap.put(i,0.0F); // 0 as value if empty string (no life expectancy value recorded for the year at hand)
+      if(isYear(column.getKey()))
+        columns[Integer.parseInt(column.getKey()) - first] = column.getValue();
     }
-    return yearMap;
+    this.countryCodeColumn = countryCode;
+    this.firstYear = first;
+    this.yearColumns = columns;
+  }
+
+  /*
+   * private helper method that checks if a header name is a year
+   * @Param: String header name
+   * */
+  private static boolean isYear(String name)
+  {
+    return YEAR_PATTERN.matcher(name).matches();
   }
 }
@@ -0,0 +1,283 @@
+package model.parser;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Description : A CSV reader that tokenizes a memory mapped file and makes Strings only of the fields asked for
+*/
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * <h1>MappedCSVReader</h1>
+ * <p>
+ *   Reads a CSV file record by record from a memory mapped buffer of the file using <code>FileChannel.map</code>
+ *   so the file isn't copied into java buffers, each record is tokenized into the start and end positions of its fields
+ *   in the mapped buffer and a String is made only for the fields asked for using <code>get(int)</code>
+ * </p>
+ * <p>
+ *   Supports the RFC 4180 format used by <code>CSVFormat.DEFAULT</code>: comma separated fields, fields quoted
+ *   with double quotes that can hold commas, line breaks and escaped quotes (""), records ending with LF, CRLF or CR
+ *   and empty lines are ignored
+ * </p>
+ * <b>Not thread safe</b>
+ * @author Hisham Maged
+ * @version 1.1
+ * @see AbstractCSV
+ */
+public final class MappedCSVReader implements Closeable {
+
+  private static final byte DELIMITER = ',';
+  private static final byte QUOTE = '"';
+  private static final byte CR = '\r';
+  private static final byte LF = '\n';
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Charset charset;
+  private int position; // position of the next record in the buffer
+
+  // the fields of the current record, reused for all records
+  private int fieldCount;
+  private int[] fieldStarts = new int[16];
+  private int[] fieldEnds = new int[16];
+  private boolean[] escapedQuotes = new boolean[16]; // whether the quoted field has "" that need to be un-escaped
+  private byte[] decodeBuffer = new byte[64]; // bytes of a field are copied here to be decoded into a String
+
+  /*
+   * private constructor, should be made using the static open method
+   * @Param: FileChannel of the file, MappedByteBuffer of the whole file, Charset of the file
+   * */
+  private MappedCSVReader(FileChannel channel,MappedByteBuffer buffer,Charset charset)
+  {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.charset = charset;
+  }
+
+  /**
+   * Opens the file and maps it read only into memory.
+   * @param file File holding the CSV data
+   * @param charset Charset of the file
+   * @return MappedCSVReader positioned before the first record
+   * @throws IOException if the file can't be opened or mapped
+   * @throws IllegalArgumentException if an argument is null or the file is bigger than 2 GB
+   */
+  public static MappedCSVReader open(File file,Charset charset) throws IOException
+  {
+    if(file == null || charset == null)
+      throw new IllegalArgumentException("File and charset can't be null");
+    FileChannel channel = new RandomAccessFile(file,"r").getChannel(); // closing the channel closes the file
+    try {
+      if(channel.size() > Integer.MAX_VALUE)
+        throw new IllegalArgumentException("Can't map files bigger than 2 GB, given file: "+file);
+      return new MappedCSVReader(channel,channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size()),charset);
+    }catch(IOException | RuntimeException ex)
+    {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Advances to the next record of the file, tokenizing its fields.
+   * @return True if a record was read, false if the end of file was reached
+   */
+  public boolean next()
+  {
+    int limit = this.buffer.limit();
+    int i = this.position;
+    while(i < limit && (this.buffer.get(i) == LF || this.buffer.get(i) == CR)) // empty lines are ignored like CSVFormat.DEFAULT
+      ++i;
+    if(i >= limit)
+    {
+      this.position = limit;
+      return false;
+    }
+    this.fieldCount = 0;
+    while(true)
+    {
+      boolean quoted = i < limit && this.buffer.get(i) == QUOTE;
+      boolean escaped = false;
+      int start, end;
+      if(quoted)
+      {
+        start = ++i;
+        while(true) // finds the closing quote, "" is an escaped quote inside the field
+        {
+          if(i >= limit)
+            throw new IllegalStateException("Quoted field isn't closed before end of file at position: "+start);
+          if(this.buffer.get(i) == QUOTE)
+          {
+            if(i + 1 < limit && this.buffer.get(i + 1) == QUOTE)
+            {
+              escaped = true;
+              i += 2;
+              continue;
+            }
+            break;
+          }
+          ++i;
+        }
+        end = i++;
+        while(i < limit && !isFieldEnd(this.buffer.get(i))) // skips what follows the closing quote till the field end
+          ++i;
+      }else
+      {
+        start = i;
+        while(i < limit && !isFieldEnd(this.buffer.get(i)))
+          ++i;
+        end = i;
+      }
+      addField(start,end,escaped);
+      if(i >= limit)
+      {
+        this.position = limit;
+        return true;
+      }
+      byte b = this.buffer.get(i);
+      if(b == DELIMITER)
+      {
+        ++i;
+        continue;
+      }
+      // end of record, CRLF counts as one line break
+      this.position = (b == CR && i + 1 < limit && this.buffer.get(i + 1) == LF) ? i + 2 : i + 1;
+      return true;
+    }
+  }
+
+  /**
+   * Gets the number of fields of the current record
+   * @return number of fields
+   */
+  public int getFieldCount()
+  {
+    return this.fieldCount;
+  }
+
+  /**
+   * Gets the field at the given column of the current record, making a String of it.
+   * @param column index of the column starting from 0
+   * @return String value of the field without its quotes
+   * @throws IndexOutOfBoundsException if the record doesn't have that column
+   */
+  public String get(int column)
+  {
+    checkColumn(column);
+    int start = this.fieldStarts[column], length = this.fieldEnds[column] - start;
+    if(length > this.decodeBuffer.length)
+      this.decodeBuffer = new byte[Math.max(length,this.decodeBuffer.length * 2)];
+    int kept = 0;
+    for(int i = 0 ; i < length ; ++i)
+    {
+      byte b = this.buffer.get(start + i);
+      this.decodeBuffer[kept++] = b;
+      if(b == QUOTE && this.escapedQuotes[column]) // keeps one quote of each ""
+        ++i;
+    }
+    return new String(this.decodeBuffer,0,kept,this.charset);
+  }
+
+  /**
+   * Checks whether the field at the given column of the current record is equal to the given ASCII text
+   * without making a String of the field.
+   * @param column index of the column starting from 0
+   * @param ascii text holding only ASCII characters to compare with
+   * @return True if the field is equal to the text, false otherwise
+   * @throws IndexOutOfBoundsException if the record doesn't have that column
+   */
+  public boolean fieldEquals(int column,String ascii)
+  {
+    checkColumn(column);
+    int start = this.fieldStarts[column];
+    if(this.escapedQuotes[column] || this.fieldEnds[column] - start != ascii.length())
+      return this.escapedQuotes[column] && get(column).equals(ascii);
+    for(int i = 0 ; i < ascii.length() ; ++i)
+    {
+      if(this.buffer.get(start + i) != ascii.charAt(i))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Gets the field at the given column of the current record as an int without making a String of the field.
+   * @param column index of the column starting from 0
+   * @return int value of the field, an optional leading minus followed by decimal digits
+   * @throws IndexOutOfBoundsException if the record doesn't have that column
+   * @throws NumberFormatException if the field isn't a decimal int
+   */
+  public int getInt(int column)
+  {
+    checkColumn(column);
+    int start = this.fieldStarts[column], end = this.fieldEnds[column];
+    boolean negative = start < end && this.buffer.get(start) == '-';
+    int i = negative ? start + 1 : start;
+    if(this.escapedQuotes[column] || i == end || end - i > 10)
+      return Integer.parseInt(get(column)); // rare fields are parsed the slow way for its checks and message
+    long value = 0;
+    for(; i < end ; ++i)
+    {
+      byte b = this.buffer.get(i);
+      if(b < '0' || b > '9')
+        return Integer.parseInt(get(column));
+      value = value * 10 + (b - '0');
+    }
+    value = negative ? -value : value;
+    if(value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+      return Integer.parseInt(get(column));
+    return (int) value;
+  }
+
+  /**
+   * Closes the file, the mapped memory is released when the reader is garbage collected.
+   * @throws IOException if the file can't be closed
+   */
+  @Override
+  public void close() throws IOException
+  {
+    this.channel.close();
+  }
+
+  /*
+   * private helper method that checks if the byte ends a field
+   * @Param: byte to check
+   * */
+  private static boolean isFieldEnd(byte b)
+  {
+    return b == DELIMITER || b == LF || b == CR;
+  }
+
+  /*
+   * private helper method that adds the positions of a field of the current record, growing the arrays if needed
+   * @Param: int start position, int end position (exclusive), boolean whether it has escaped quotes
+   * */
+  private void addField(int start,int end,boolean escaped)
+  {
+    if(this.fieldCount == this.fieldStarts.length)
+    {
+      this.fieldStarts = Arrays.copyOf(this.fieldStarts,this.fieldCount * 2);
+      this.fieldEnds = Arrays.copyOf(this.fieldEnds,this.fieldCount * 2);
+      this.escapedQuotes = Arrays.copyOf(this.escapedQuotes,this.fieldCount * 2);
+    }
+    this.fieldStarts[this.fieldCount] = start;
+    this.fieldEnds[this.fieldCount] = end;
+    this.escapedQuotes[this.fieldCount++] = escaped;
+  }
+
+  /*
+   * private helper method that checks that the current record has the given column
+   * @Param: int column index
+   * */
+  private void checkColumn(int column)
+  {
+    if(column < 0 || column >= this.fieldCount)
+      throw new IndexOutOfBoundsException("Column: "+column+", Fields: "+this.fieldCount);
+  }
+}
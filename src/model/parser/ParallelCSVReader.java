@@ -0,0 +1,148 @@
+package model.parser;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Description : A utility class that parses CSV data in chunks in parallel on the fork join pool
+*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * <h1>ParallelCSVReader</h1>
+ * <p>
+ *   Parses a whole CSV source in parallel, the source is read once and split into chunks at line ends
+ *   that are not inside a quoted field, so a chunk always holds complete records,
+ *   each chunk is parsed by its own Apache CSVParser on the common fork join pool
+ *   and the results of the chunks are merged in the order of the file, giving the same result as parsing it sequentially
+ * </p>
+ * <p>
+ *   Only for CSV formats without a header record, as the header is only in the first chunk
+ * </p>
+ * @author Hisham Maged
+ * @version 1.1
+ * @see AirportParser
+ */
+public final class ParallelCSVReader {
+
+  private static final int CHUNKS_PER_THREAD = 4; // more chunks than threads so threads finishing early steal more work
+  private static final int MIN_CHUNK_LENGTH = 64 * 1024; // smaller chunks aren't worth a task of their own
+
+  private ParallelCSVReader(){}
+
+  /**
+   * Parses the whole source in parallel chunks and maps each record using the given mapper.
+   * @param source InputStream of CSV data, read fully and closed
+   * @param charset Charset of the source
+   * @param format CSVFormat without a header record
+   * @param mapper Function that maps each record into its result, records mapped into null are dropped
+   * @param <R> the type records are mapped into
+   * @return List holding the mapped results in the same order of the records in the source
+   * @throws IOException if the source can't be read or a chunk can't be parsed
+   * @throws IllegalArgumentException if the format has a header or an argument is null
+   */
+  public static <R> List<R> parse(InputStream source, Charset charset, CSVFormat format, Function<CSVRecord, ? extends R> mapper) throws IOException
+  {
+    if(source == null || charset == null || format == null || mapper == null)
+      throw new IllegalArgumentException("Arguments can't be null");
+    if(format.getHeader() != null || format.getSkipHeaderRecord())
+      throw new IllegalArgumentException("Parallel parsing doesn't support CSV formats with a header");
+
+    String data = new String(readFully(source),charset);
+    int[] cuts = findChunkCuts(data,format.getQuoteCharacter(),ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+    try {
+      List<List<R>> chunks = IntStream.range(0,cuts.length - 1)
+          .parallel()
+          .mapToObj(i -> ParallelCSVReader.<R>parseChunk(data.substring(cuts[i],cuts[i + 1]),format,mapper))
+          .collect(Collectors.toList()); // collecting an ordered stream keeps the order of chunks
+      List<R> results = new ArrayList<>();
+      for(List<R> chunk : chunks)
+        results.addAll(chunk);
+      return results;
+    }catch(UncheckedIOException ex)
+    {
+      throw ex.getCause();
+    }
+  }
+
+  /*
+   * private helper method that parses a single chunk holding complete records
+   * @Param: String chunk, CSVFormat of the data, Function mapper of records
+   * */
+  private static <R> List<R> parseChunk(String chunk, CSVFormat format, Function<CSVRecord, ? extends R> mapper)
+  {
+    List<R> results = new ArrayList<>();
+    try(CSVParser parser = CSVParser.parse(chunk,format))
+    {
+      for(CSVRecord record : parser)
+      {
+        R result = mapper.apply(record);
+        if(result != null)
+          results.add(result);
+      }
+    }catch(IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+    return results;
+  }
+
+  /*
+   * private helper method that finds the indices where the data is cut into chunks, always after a line feed
+   * that isn't inside a quoted field, an escaped quote ("") toggles the quoted state twice so it's left as is
+   * returns the cuts including 0 and the data length
+   * @Param: String data, Character quote of the format or null, int wanted number of chunks
+   * */
+  private static int[] findChunkCuts(String data, Character quote, int wantedChunks)
+  {
+    int chunkLength = Math.max(MIN_CHUNK_LENGTH,data.length() / Math.max(1,wantedChunks));
+    List<Integer> cuts = new ArrayList<>();
+    cuts.add(0);
+    char quoteChar = quote == null ? '\0' : quote;
+    boolean quoted = false;
+    int nextCut = chunkLength;
+    for(int i = 0 ; i < data.length() ; ++i)
+    {
+      char c = data.charAt(i);
+      if(c == quoteChar && quote != null)
+        quoted = !quoted;
+      else if(c == '\n' && !quoted && i + 1 >= nextCut && i + 1 < data.length())
+      {
+        cuts.add(i + 1);
+        nextCut = i + 1 + chunkLength;
+      }
+    }
+    cuts.add(data.length());
+    int[] result = new int[cuts.size()];
+    for(int i = 0 ; i < result.length ; ++i)
+      result[i] = cuts.get(i);
+    return result;
+  }
+
+  /*
+   * private helper method that reads all the bytes of the stream and closes it
+   * @Param: InputStream to be read
+   * */
+  private static byte[] readFully(InputStream source) throws IOException
+  {
+    try(InputStream in = source)
+    {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(8192,in.available()));
+      byte[] buffer = new byte[8192];
+      for(int read ; (read = in.read(buffer)) != -1 ; )
+        out.write(buffer,0,read);
+      return out.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,311 @@
+package model.parser;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Description : A utility class that saves parsed data into binary snapshot files and loads them back memory mapped
+*/
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * <h1>SnapshotCache</h1>
+ * <p>
+ *   Saves the values parsed from a source file into a compact binary snapshot file after the first parse,
+ *   so later runs load the values from the snapshot instead of parsing the text of the source again,
+ *   snapshots are kept in a <code>.cache</code> directory next to the source file
+ * </p>
+ * <p>
+ *   A snapshot is keyed by the size, last modified time and CRC32 of the source file at the time it was written,
+ *   a snapshot whose key doesn't match the source anymore (or that is corrupt or of an older format) is ignored
+ *   and written again after the source is parsed, the snapshot is read from a memory mapped buffer of the file
+ * </p>
+ * Snapshot layout: magic, format version, kind, source size, source last modified, source CRC32, count of values
+ * then the values written by the Codec of the kind one after the other
+ * @author Hisham Maged
+ * @version 1.1
+ * @see AbstractDataParser
+ */
+public final class SnapshotCache {
+
+  private static final int MAGIC = 0x4C444D53; // "LDMS" live data map snapshot
+  private static final int FORMAT_VERSION = 3; // should be increased whenever a Codec changes what it writes
+  private static final String CACHE_DIRECTORY = ".cache";
+  private static final String EXTENSION = ".snapshot";
+
+  private SnapshotCache(){}
+
+  /**
+   * <h1>Codec</h1>
+   * Writes a value into a snapshot and reads it back, reading should read exactly what was written in the same order
+   * @param <T> type of the values of the snapshot
+   */
+  public interface Codec<T>
+  {
+    /**
+     * Writes the value into the snapshot
+     * @param value value to be written
+     * @param out Output of the snapshot
+     * @throws IOException if the snapshot can't be written
+     */
+    public void write(T value,Output out) throws IOException;
+
+    /**
+     * Reads a value from the snapshot, lengths of arrays should be read using <code>Input.readLength(int)</code>
+     * @param in Input of the snapshot positioned at the value
+     * @return value made of what was read
+     * @throws IllegalArgumentException if what was read isn't valid as the snapshot is corrupt
+     */
+    public T read(Input in);
+  }
+
+  /**
+   * Loads the values of the source file from its snapshot of the given kind if the snapshot matches the source.
+   * @param source File that the values were parsed from
+   * @param kind String naming what was parsed from the source, a source can have a snapshot of each kind
+   * @param codec Codec reading the values of that kind
+   * @param <T> type of the values
+   * @return Optional holding the values in the order they were written, not present if there is no matching snapshot
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public static <T> Optional<List<T>> read(File source,String kind,Codec<T> codec)
+  {
+    if(source == null || kind == null || codec == null)
+      throw new IllegalArgumentException("Arguments can't be null");
+    File snapshot = getSnapshotFile(source,kind);
+    if(!snapshot.isFile() || !source.isFile())
+      return Optional.empty();
+    try(FileChannel channel = new RandomAccessFile(snapshot,"r").getChannel())
+    {
+      Input in = new Input(channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size()));
+      if(in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !kind.equals(in.readString())
+          || in.readLong() != source.length() || in.readLong() != source.lastModified() || in.readLong() != checksum(source))
+        return Optional.empty(); // the source changed since the snapshot was written
+      int count = in.readLength(1); // every value takes a byte at least
+      List<T> values = new ArrayList<>(count);
+      for(int i = 0 ; i < count ; ++i)
+        values.add(codec.read(in));
+      return Optional.of(values);
+    }catch(IOException | RuntimeException ex) // un-readable or corrupt snapshot is parsed again
+    {
+      System.err.println("Can't read snapshot "+snapshot+": "+ex);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Writes the values parsed from the source file into its snapshot of the given kind, keyed by the current state of the source.
+   * the snapshot is written into a temporary file first then moved over the old snapshot so a half written snapshot is never read
+   * @param source File that the values were parsed from
+   * @param kind String naming what was parsed from the source
+   * @param values List of the parsed values
+   * @param codec Codec writing the values of that kind
+   * @param <T> type of the values
+   * @return True if the snapshot was written, false if it couldn't be written
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public static <T> boolean write(File source,String kind,List<? extends T> values,Codec<T> codec)
+  {
+    if(source == null || kind == null || values == null || codec == null)
+      throw new IllegalArgumentException("Arguments can't be null");
+    File snapshot = getSnapshotFile(source,kind);
+    File temp = null;
+    try {
+      File directory = snapshot.getParentFile();
+      if(!directory.isDirectory() && !directory.mkdirs())
+        throw new IOException("Can't make the directory "+directory);
+      temp = File.createTempFile(snapshot.getName(),".tmp",directory);
+      try(Output out = new Output(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp),64 * 1024))))
+      {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeString(kind);
+        out.writeLong(source.length());
+        out.writeLong(source.lastModified());
+        out.writeLong(checksum(source));
+        out.writeInt(values.size());
+        for(T value : values)
+          codec.write(value,out);
+      }
+      try {
+        Files.move(temp.toPath(),snapshot.toPath(),StandardCopyOption.REPLACE_EXISTING,StandardCopyOption.ATOMIC_MOVE);
+      }catch(AtomicMoveNotSupportedException ex)
+      {
+        Files.move(temp.toPath(),snapshot.toPath(),StandardCopyOption.REPLACE_EXISTING);
+      }
+      return true;
+    }catch(IOException ex)
+    {
+      System.err.println("Can't write snapshot "+snapshot+": "+ex.getMessage());
+      if(temp != null)
+        temp.delete();
+      return false;
+    }
+  }
+
+  /**
+   * Gets the snapshot file of the given kind of the source file, it may not exist
+   * @param source File that the values are parsed from
+   * @param kind String naming what is parsed from the source
+   * @return File of the snapshot in the .cache directory next to the source
+   */
+  public static File getSnapshotFile(File source,String kind)
+  {
+    File directory = new File(source.getAbsoluteFile().getParentFile(),CACHE_DIRECTORY);
+    return new File(directory,source.getName()+"."+kind+EXTENSION);
+  }
+
+  /*
+   * private helper method that computes the CRC32 of the whole file reading it memory mapped
+   * @Param: File to compute its checksum
+   * */
+  private static long checksum(File file) throws IOException
+  {
+    try(FileChannel channel = new RandomAccessFile(file,"r").getChannel())
+    {
+      CRC32 crc = new CRC32();
+      crc.update(channel.map(FileChannel.MapMode.READ_ONLY,0,channel.size()));
+      return crc.getValue();
+    }
+  }
+
+  /**
+   * <h1>Input</h1>
+   * Reads the primitive values and Strings of a snapshot from its memory mapped buffer.
+   * <b>Not thread safe</b>
+   */
+  public static final class Input
+  {
+    private final MappedByteBuffer buffer;
+    private byte[] stringBuffer = new byte[64]; // bytes of a String are copied here to be decoded
+
+    private Input(MappedByteBuffer buffer)
+    {
+      this.buffer = buffer;
+    }
+
+    public int readInt()
+    {
+      return this.buffer.getInt();
+    }
+
+    public long readLong()
+    {
+      return this.buffer.getLong();
+    }
+
+    public float readFloat()
+    {
+      return this.buffer.getFloat();
+    }
+
+    public double readDouble()
+    {
+      return this.buffer.getDouble();
+    }
+
+    /**
+     * Reads the length of an array or of a list of values written by <code>Output.writeInt(int)</code> checking it
+     * against the bytes left in the snapshot, so a corrupt length can't make a negative or huge array
+     * @param elementBytes least number of bytes each element takes in the snapshot
+     * @return the length read
+     * @throws IllegalArgumentException if the length is negative or its elements can't fit in the rest of the snapshot
+     */
+    public int readLength(int elementBytes)
+    {
+      int length = this.buffer.getInt();
+      if(length < 0 || (long) length * Math.max(1,elementBytes) > this.buffer.remaining())
+        throw new IllegalArgumentException("Corrupt length: "+length);
+      return length;
+    }
+
+    /**
+     * Reads a String written by <code>Output.writeString(String)</code>
+     * @return the String read, can be null if null was written
+     * @throws IllegalArgumentException if the length read isn't valid as the snapshot is corrupt
+     */
+    public String readString()
+    {
+      int length = this.buffer.getInt();
+      if(length == -1)
+        return null;
+      if(length < 0 || length > this.buffer.remaining())
+        throw new IllegalArgumentException("Corrupt String length: "+length);
+      if(length > this.stringBuffer.length)
+        this.stringBuffer = new byte[Math.max(length,this.stringBuffer.length * 2)];
+      this.buffer.get(this.stringBuffer,0,length);
+      return new String(this.stringBuffer,0,length,StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * <h1>Output</h1>
+   * Writes the primitive values and Strings of a snapshot into its file, all in big endian as <code>ByteBuffer</code> reads them.
+   * <b>Not thread safe</b>
+   */
+  public static final class Output implements AutoCloseable
+  {
+    private final DataOutputStream out;
+
+    private Output(DataOutputStream out)
+    {
+      this.out = out;
+    }
+
+    public void writeInt(int value) throws IOException
+    {
+      this.out.writeInt(value);
+    }
+
+    public void writeLong(long value) throws IOException
+    {
+      this.out.writeLong(value);
+    }
+
+    public void writeFloat(float value) throws IOException
+    {
+      this.out.writeFloat(value);
+    }
+
+    public void writeDouble(double value) throws IOException
+    {
+      this.out.writeDouble(value);
+    }
+
+    /**
+     * Writes the String as its length in bytes followed by its UTF-8 bytes, -1 as length for null
+     * @param value String to be written, can be null
+     * @throws IOException if the snapshot can't be written
+     */
+    public void writeString(String value) throws IOException
+    {
+      if(value == null)
+      {
+        this.out.writeInt(-1);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      this.out.writeInt(bytes.length);
+      this.out.write(bytes);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      this.out.close();
+    }
+  }
+}
@@ -72,6 +72,31 @@ public class AirportEntry implements DataEntry, Comparable<AirportEntry> {
     }
   }
 
+  /**
+   * Values Constructor that takes the already parsed values of an Airport, used when loading airports from a binary snapshot.
+   * @param id ID of Airport
+   * @param name Name of Airport
+   * @param country Country that the Airport is in
+   * @param IATA 3-Letter code of Airport, can be null if not assigned
+   * @param ICAO ICAO Code of Airport, can be null if not assigned
+   * @param latitude Latitude position of Airport
+   * @param longitude longitude position of Airport
+   * @param altitude altitude of Airport in feet
+   * @param timeZone Time Zone that the Airport is in
+   */
+  public AirportEntry(int id, String name, String country, String IATA, String ICAO, double latitude, double longitude, double altitude, String timeZone)
+  {
+    this.id = id;
+    this.name = name;
+    this.country = country;
+    this.IATA = IATA;
+    this.ICAO = ICAO;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.altitude = altitude;
+    this.timeZone = timeZone;
+  }
+
   /**
    * Gets the Unique ID of the Airport
    * @return Unique ID of Airport
@@ -0,0 +1,275 @@
+package model.pojo;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A registry of airports by their int ids in primitive arrays, shared by airports, routes and search
+*/
+
+import java.util.Arrays;
+import model.spatial.GeoKdTree;
+
+/**
+ * AirportRegistry holds the ids and locations of airports column by column, each airport is an index
+ * in the order it was added (the order of the airport markers), and finds the index of an airport id using
+ * an open addressing hash table of ints:
+ * <ul>
+ *   <li> <code>ids</code>, <code>latitudes</code> and <code>longitudes</code> hold the id and location of each airport</li>
+ *   <li> <code>slots</code> holds index + 1 of the airport whose id hashes to it (or probed past it), 0 for an empty slot,
+ *   linear probing is used and the table is kept at most half full</li>
+ * </ul>
+ * <p>
+ *   so ids are kept as ints from parsing to lookup, a lookup boxes nothing and allocates nothing,
+ *   and routes are resolved to airport indices then to locations without any <code>Integer</code> or map entry
+ * </p>
+ * <p>
+ *   The nearest airports to a location and the airports within a distance of it are found using a GeoKdTree
+ *   of the airports made on the first search after airports are added
+ * </p>
+ * <b>Not thread safe</b> while airports are added, once it's frozen (as a RouteGraph of it does) no airport can be added
+ * and it's immutable and safe to read by many threads
+ * @author  Hisham Maged
+ * @version 1.1
+ * @see AirportEntry
+ * @see RouteGraph
+ * @see GeoKdTree
+ */
+public class AirportRegistry {
+
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private int size;
+  private int[] ids;
+  private float[] latitudes;
+  private float[] longitudes;
+  private int[] slots;
+  private volatile GeoKdTree index; // tree of the locations of the airports, null till a search needs it
+  private volatile boolean frozen;
+
+  /**
+   * Default Constructor. makes an empty registry with the default capacity
+   */
+  public AirportRegistry()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Capacity Constructor. makes an empty registry that can hold the given number of airports before growing
+   * @param initialCapacity expected number of airports
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  public AirportRegistry(int initialCapacity)
+  {
+    if(initialCapacity < 0)
+      throw new IllegalArgumentException("Capacity can't be negative, given value: "+initialCapacity);
+    this.ids = new int[initialCapacity];
+    this.latitudes = new float[initialCapacity];
+    this.longitudes = new float[initialCapacity];
+    this.slots = new int[tableSize(initialCapacity)];
+  }
+
+  /**
+   * Adds an airport to the registry.
+   * @param id unique id of the airport
+   * @param latitude latitude of the airport
+   * @param longitude longitude of the airport
+   * @return the index of the added airport
+   * @throws IllegalArgumentException if an airport of the same id was added
+   * @throws IllegalStateException if the registry is frozen
+   */
+  public int add(int id,float latitude,float longitude)
+  {
+    if(this.frozen)
+      throw new IllegalStateException("Can't add airport "+id+" to a frozen registry");
+    if(indexOf(id) != -1)
+      throw new IllegalArgumentException("Repeated airport id: "+id);
+    if(this.size == this.ids.length)
+    {
+      int capacity = Math.max(DEFAULT_CAPACITY,this.ids.length * 2);
+      this.ids = Arrays.copyOf(this.ids,capacity);
+      this.latitudes = Arrays.copyOf(this.latitudes,capacity);
+      this.longitudes = Arrays.copyOf(this.longitudes,capacity);
+    }
+    if((this.size + 1) * 2 > this.slots.length)
+      rehash(tableSize(this.size + 1));
+    this.ids[this.size] = id;
+    this.latitudes[this.size] = latitude;
+    this.longitudes[this.size] = longitude;
+    insert(this.size);
+    this.index = null;
+    return this.size++;
+  }
+
+  /**
+   * Freezes the registry so no airport can be added anymore, used by the structures made of its airport indices
+   */
+  public void freeze()
+  {
+    this.frozen = true;
+  }
+
+  /**
+   * Checks if the registry is frozen
+   * @return True if no airport can be added, false otherwise
+   */
+  public boolean isFrozen()
+  {
+    return this.frozen;
+  }
+
+  /**
+   * Gets the index of the airport of the given id
+   * @param id id of the airport
+   * @return index of the airport, -1 if no airport of that id was added
+   */
+  public int indexOf(int id)
+  {
+    int mask = this.slots.length - 1;
+    for(int slot = hash(id) & mask ; this.slots[slot] != 0 ; slot = (slot + 1) & mask)
+      if(this.ids[this.slots[slot] - 1] == id)
+        return this.slots[slot] - 1;
+    return -1;
+  }
+
+  /**
+   * Finds the nearest airports to the given location by great circle distance.
+   * @param latitude latitude of the location
+   * @param longitude longitude of the location
+   * @param k number of airports to find
+   * @return int[] of the indices of the nearest airports from the nearest, all the airports if they are less than k
+   * @throws IllegalArgumentException if k is negative
+   */
+  public int[] nearest(float latitude,float longitude,int k)
+  {
+    return getIndex().nearest(latitude,longitude,k);
+  }
+
+  /**
+   * Finds the airports within the given great circle distance of the given location, borders included.
+   * @param latitude latitude of the location
+   * @param longitude longitude of the location
+   * @param radiusKm distance in km
+   * @return int[] of the indices of the found airports in ascending order
+   * @throws IllegalArgumentException if the radius is negative or NaN
+   */
+  public int[] within(float latitude,float longitude,double radiusKm)
+  {
+    int[] candidates = getIndex().searchWithin(latitude,longitude,radiusKm);
+    int count = 0;
+    for(int airport : candidates) // the tree may give airports out of the distance by rounding errors
+      if(GeoKdTree.distanceKm(latitude,longitude,this.latitudes[airport],this.longitudes[airport]) <= radiusKm)
+        candidates[count++] = airport;
+    return Arrays.copyOf(candidates,count);
+  }
+
+  /**
+   * Gets the number of airports in the registry
+   * @return number of airports
+   */
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Gets the id of the airport at the given index
+   * @param index index of the airport
+   * @return id of the airport
+   */
+  public int getId(int index)
+  {
+    checkIndex(index);
+    return this.ids[index];
+  }
+
+  /**
+   * Gets the latitude of the airport at the given index
+   * @param index index of the airport
+   * @return latitude of the airport
+   */
+  public float getLatitude(int index)
+  {
+    checkIndex(index);
+    return this.latitudes[index];
+  }
+
+  /**
+   * Gets the longitude of the airport at the given index
+   * @param index index of the airport
+   * @return longitude of the airport
+   */
+  public float getLongitude(int index)
+  {
+    checkIndex(index);
+    return this.longitudes[index];
+  }
+
+  /*
+   * private helper method that gets the tree of the locations of the airports, making it if airports were added since
+   * @Param: none
+   * */
+  private GeoKdTree getIndex()
+  {
+    GeoKdTree tree = this.index;
+    if(tree == null)
+    {
+      synchronized(this)
+      {
+        if((tree = this.index) == null)
+          this.index = tree = new GeoKdTree(Arrays.copyOf(this.latitudes,this.size),Arrays.copyOf(this.longitudes,this.size));
+      }
+    }
+    return tree;
+  }
+
+  /*
+   * private helper method that puts the airport of the given index into the first free slot of the probing of its id
+   * @Param: int index of the airport
+   * */
+  private void insert(int index)
+  {
+    int mask = this.slots.length - 1;
+    int slot = hash(this.ids[index]) & mask;
+    while(this.slots[slot] != 0)
+      slot = (slot + 1) & mask;
+    this.slots[slot] = index + 1;
+  }
+
+  /*
+   * private helper method that makes a new table of the given size and puts all the airports into it
+   * @Param: int size of the new table, a power of two
+   * */
+  private void rehash(int tableSize)
+  {
+    this.slots = new int[tableSize];
+    for(int index = 0 ; index < this.size ; ++index)
+      insert(index);
+  }
+
+  /*
+   * private helper method that mixes the bits of the id so close ids (as airport ids are) spread over the table
+   * @Param: int id of an airport
+   * */
+  private static int hash(int id)
+  {
+    int h = id * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /*
+   * private helper method that gets the smallest power of two table size keeping the given count at most half full
+   * @Param: int count of airports
+   * */
+  private static int tableSize(int count)
+  {
+    int size = 16;
+    while(size < count * 2)
+      size <<= 1;
+    return size;
+  }
+
+  private void checkIndex(int index)
+  {
+    if(index < 0 || index >= this.size)
+      throw new IndexOutOfBoundsException("Index: "+index+", Size: "+this.size);
+  }
+}
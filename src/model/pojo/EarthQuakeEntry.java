@@ -4,7 +4,6 @@ package model.pojo;/*
   Project Name : An Entry representation of RSS Feed of earthquakes from UCSG (Pojo)
 */
 
-import de.fhpotsdam.unfolding.geo.Location;
 import java.math.BigDecimal;
 
 /**
@@ -32,62 +31,210 @@ import java.math.BigDecimal;
  */
 public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
 
-  private final Location loc;// immutable location field
+  // largest mantissa that a double holds exactly, and the powers of ten that are exact doubles
+  // used by the fast path of number scanning so the result is the same as Double.parseDouble
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  private static final double[] EXACT_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final float latitude;// immutable latitude
+  private final float longitude;// immutable longitude
   private final double magnitude;// immutable magnitude
   private final double depth;// immutable depth
   private final String locationTitle; // immutable text location
   private final String age; // immutable age
   private final String title; // immutable whole rss title
-  private final BigDecimal exactMagnitude; // immutable bigDecimal object representing exact magnitude
-  private final BigDecimal exactDepth; // immutable bigDecimal object representing exact Depth
+  private final String id; // immutable atom id of the event, null if not known
+  private final String updated; // immutable atom updated time of the event, null if not known
+  private BigDecimal exactMagnitude; // bigDecimal object representing exact magnitude, made lazily on first request
+  private BigDecimal exactDepth; // bigDecimal object representing exact Depth, made lazily on first request
 
   /**
   * Sole Constructor for the POJO class to initialize all final fields (Immutable).
-  * takes info string which contains the magnitude and location in text and splits them and use the
-  * respected split values into their correct fields with the required operations
+  * takes info string which contains the magnitude and location in text and scans them in a single pass
+  * into their correct fields without splitting the string,
   * takes the elevation and computes it into depth, age
-  * and Locations, split into latitude, longitude, Location object is made with them
+  * and Locations, scanned into latitude, longitude
+  * the exact BigDecimal values are not made here, only when asked for using <code>getExactMagnitude()</code> or <code>getExactDepth()</code>
   *
    * @param info  The string representation of the earthquake from the RSS feed
    * @param locationPoints  The String representation of latitude, longitude
    * @param elevation The string representation of elevation that will be used to compute depth
    * @param age The string representation of the age of the earthquake
+   * @throws IllegalArgumentException if the title or location points are not in the RSS feed format
    * */
   public EarthQuakeEntry(String info,String locationPoints, String elevation,String age)
   {
+    this(null,null,info,locationPoints,elevation,age);
+  }
+
+  /**
+   * Feed Constructor that takes the atom id and updated time of the event along with the strings of the earthquake,
+   * the strings are scanned the same as the sole constructor.
+   * the id identifies the event across fetches of the feed and the updated time changes whenever the event is revised
+   * @param id The atom id of the event for eg. "urn:earthquake-usgs-gov:ci:38695658", can be null
+   * @param updated The atom updated time of the event, can be null
+   * @param info  The string representation of the earthquake from the RSS feed
+   * @param locationPoints  The String representation of latitude, longitude
+   * @param elevation The string representation of elevation that will be used to compute depth
+   * @param age The string representation of the age of the earthquake
+   * @throws IllegalArgumentException if the title or location points are not in the RSS feed format
+   */
+  public EarthQuakeEntry(String id,String updated,String info,String locationPoints, String elevation,String age)
+  {
+    this.id = id;
+    this.updated = updated;
     this.title = info;
-    String[] titleItems = info.split("\\s-\\s");
     /*
-    * this is for when this happens (two minuses)
+    * the title is "M <magnitude> - <location>", the separator is a minus surrounded with whitespaces both sides
+    * because of when this happens (two minuses)
     * M -0.3 - 50km ESE of Beatty, Nevada
     * M 1.2 - 17km S of Trona, CA
-    * more than one case, so in regex, made sure that minus surrounded with whitespaces both sides
     * */
-    // extracts the String magnitude, made into a local variable because used twice, for big decimal and for magnitude
-    String tempMagnitude = titleItems[0]
-        .split("\\s+")[1];
-    if(!tempMagnitude.equalsIgnoreCase("?")) {
-      this.exactMagnitude = new BigDecimal(tempMagnitude);
-      this.magnitude = Double.parseDouble(tempMagnitude);
-    }else
+    int separator = indexOfSeparator(info,0);
+    if(separator < 0)
+      throw new IllegalArgumentException("Invalid earthquake title: "+info);
+    // magnitude is the second token before the separator, "?" when not measured yet
+    int magnitudeStart = skipSpaces(info,skipToken(info,0,separator),separator);
+    int magnitudeEnd = skipToken(info,magnitudeStart,separator);
+    if(magnitudeStart == magnitudeEnd)
+      throw new IllegalArgumentException("Invalid earthquake title: "+info);
+    if(magnitudeEnd - magnitudeStart == 1 && info.charAt(magnitudeStart) == '?')
+      this.magnitude = 0.0;
+    else
+      this.magnitude = scanDouble(info,magnitudeStart,magnitudeEnd);
+    // text location ends at the next separator if any
+    int locationEnd = indexOfSeparator(info,separator + 3);
+    this.locationTitle = info.substring(separator + 3,locationEnd < 0 ? info.length() : locationEnd).trim();
+
+    int latitudeStart = skipSpaces(locationPoints,0,locationPoints.length());
+    int latitudeEnd = skipToken(locationPoints,latitudeStart,locationPoints.length());
+    int longitudeStart = skipSpaces(locationPoints,latitudeEnd,locationPoints.length());
+    int longitudeEnd = skipToken(locationPoints,longitudeStart,locationPoints.length());
+    if(latitudeStart == latitudeEnd || longitudeStart == longitudeEnd)
+      throw new IllegalArgumentException("Invalid earthquake location: "+locationPoints);
+    this.latitude = (float) scanDouble(locationPoints,latitudeStart,latitudeEnd);
+    this.longitude = (float) scanDouble(locationPoints,longitudeStart,longitudeEnd);
+    this.age = age;
+    // depth in km from the elevation in meters
+    int elevationStart = skipSpaces(elevation,0,elevation.length());
+    int elevationEnd = skipToken(elevation,elevationStart,elevation.length());
+    this.depth = Math.abs(scanDouble(elevation,elevationStart,elevationEnd)) / 1000.0;
+
+  }
+
+  /**
+   * Values Constructor that takes the already scanned values of an earthquake, used when loading earthquakes from a binary snapshot.
+   * @param id The atom id of the event, can be null
+   * @param updated The atom updated time of the event, can be null
+   * @param title The whole RSS title of the earthquake
+   * @param locationTitle The descriptive location of the earthquake
+   * @param latitude latitude of the earthquake
+   * @param longitude longitude of the earthquake
+   * @param magnitude magnitude of the earthquake
+   * @param depth depth of the earthquake in km
+   * @param age The string representation of the age of the earthquake
+   */
+  public EarthQuakeEntry(String id,String updated,String title,String locationTitle,float latitude,float longitude,double magnitude,double depth,String age)
+  {
+    this.id = id;
+    this.updated = updated;
+    this.title = title;
+    this.locationTitle = locationTitle;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.magnitude = magnitude;
+    this.depth = depth;
+    this.age = age;
+  }
+
+  /*
+   * private helper method that finds the index of the whitespace before a minus surrounded with whitespaces both sides
+   * @Param: String to search in
+   * @Param: int index to start searching from
+   * returns -1 if not found
+   * */
+  private static int indexOfSeparator(String text,int from)
+  {
+    for(int i = text.indexOf('-',from + 1) ; i > 0 && i < text.length() - 1 ; i = text.indexOf('-',i + 1))
     {
-      this.exactMagnitude = new BigDecimal("0.0");
-      this.magnitude = Double.parseDouble("0.0");
+      if(isSpace(text.charAt(i - 1)) && isSpace(text.charAt(i + 1)))
+        return i - 1;
     }
+    return -1;
+  }
 
-      this.locationTitle = titleItems[1].trim();
-    String[] points = locationPoints.split("\\s+");
-    this.loc = new Location(Float.parseFloat(points[0]),Float.parseFloat(points[1]));
-    this.age = age;
-    // next series of steps is to get the depth value from elevation
-    // the most accurate division that can be accomplished to get the exact depth
-    BigDecimal tempDepth = new BigDecimal(Math.abs(Double.parseDouble(elevation)));
-    tempDepth = tempDepth.divide(new BigDecimal("100.0"));
-    this.exactDepth = tempDepth.divide(new BigDecimal("10.0"));
-    // double representation of depth
-    this.depth = this.exactDepth.doubleValue();
+  /*
+   * private helper method that returns the index of the first non whitespace character starting from the given index
+   * @Param: String to scan, int start index, int end index (exclusive)
+   * */
+  private static int skipSpaces(String text,int from,int to)
+  {
+    while(from < to && isSpace(text.charAt(from)))
+      ++from;
+    return from;
+  }
+
+  /*
+   * private helper method that returns the index of the first whitespace character starting from the given index
+   * @Param: String to scan, int start index, int end index (exclusive)
+   * */
+  private static int skipToken(String text,int from,int to)
+  {
+    while(from < to && !isSpace(text.charAt(from)))
+      ++from;
+    return from;
+  }
 
+  /*
+   * private helper method that matches whitespaces the same as the regex \s
+   * @Param: char to check
+   * */
+  private static boolean isSpace(char c)
+  {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+  }
+
+  /*
+   * private helper method that scans a plain decimal number (sign, digits and a fraction) between the two indices
+   * without making a substring, the mantissa and the power of ten are both exact doubles so the division
+   * is rounded once and gives the same value as Double.parseDouble
+   * falls back to Double.parseDouble for any other format (exponents, too many digits)
+   * @Param: String holding the number, int start index, int end index (exclusive)
+   * */
+  private static double scanDouble(String text,int from,int to)
+  {
+    int i = from;
+    boolean negative = false;
+    if(i < to && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+      negative = text.charAt(i++) == '-';
+    long mantissa = 0;
+    int scale = -1; // -1 until the decimal point is met
+    int digits = 0;
+    for( ; i < to ; ++i)
+    {
+      char c = text.charAt(i);
+      if(c >= '0' && c <= '9')
+      {
+        mantissa = mantissa * 10 + (c - '0');
+        ++digits;
+        if(scale >= 0)
+          ++scale;
+        if(mantissa >= MAX_EXACT_MANTISSA)
+          break;
+      }else if(c == '.' && scale < 0)
+        scale = 0;
+      else
+        break;
+    }
+    if(i < to || digits == 0 || mantissa >= MAX_EXACT_MANTISSA || scale >= EXACT_POWERS_OF_TEN.length)
+      return Double.parseDouble(text.substring(from,to));
+    double value = scale > 0 ? mantissa / EXACT_POWERS_OF_TEN[scale] : mantissa;
+    return negative ? -value : value;
   }
+
   /**
    * Gets the descriptive location of the earthquake.
    * @return  String representation of location of earthquake along with its magnitude for eg. "M 4.6 - 36 km north of Alexandria"
@@ -106,6 +253,24 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
     return this.title;
   }
 
+  /**
+   * Gets the atom id of the event that stays the same across fetches of the feed.
+   * @return String id of the event, null if the entry wasn't made from a feed entry with an id
+   */
+  public String getId()
+  {
+    return this.id;
+  }
+
+  /**
+   * Gets the atom updated time of the event that changes whenever the event is revised.
+   * @return String updated time as written in the feed, null if not known
+   */
+  public String getUpdated()
+  {
+    return this.updated;
+  }
+
   /**
    * Gets the magnitude of the earthquake.
    * @return magnitude of the earthquake in double form
@@ -121,7 +286,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
    */
   public float getLongitude()
   {
-    return this.loc.getLon();
+    return this.longitude;
   }
 
   /**
@@ -135,20 +300,28 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
 
   /**
    * Gets the exact magnitude of the earthquake for exact double comparisons.
+   * made on first call from the scanned magnitude and kept for later calls
    * @return The BigDecimal object holding the exact magnitude of the earthquake
    */
   public BigDecimal getExactMagnitude()
   {
-    return this.exactMagnitude;
+    BigDecimal exact = this.exactMagnitude;
+    if(exact == null)
+      this.exactMagnitude = exact = BigDecimal.valueOf(this.magnitude);
+    return exact;
   }
 
   /**
    * Gets the exact depth of the earthquake for exact double comparisons.
+   * made on first call from the scanned depth and kept for later calls
    * @return The BigDecimal object holding the exact depth of the earthquake
    */
   public BigDecimal getExactDepth()
   {
-    return this.exactDepth;
+    BigDecimal exact = this.exactDepth;
+    if(exact == null)
+      this.exactDepth = exact = BigDecimal.valueOf(this.depth);
+    return exact;
   }
 
   /**
@@ -166,7 +339,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
    */
   public float getLatitude()
   {
-    return this.loc.getLat();
+    return this.latitude;
   }
 
   /**
@@ -184,7 +357,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
     EarthQuakeEntry anotherQuake = (EarthQuakeEntry) o;
     return this.locationTitle.equals(anotherQuake.getLocationTitle())
           &&
-          this.exactMagnitude.compareTo(anotherQuake.getExactMagnitude()) == 0;
+          this.magnitude == anotherQuake.getMagnitude();
   }
 
   /**
@@ -194,7 +367,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
   @Override
   public int hashCode()
   {
-    return ( this.locationTitle.hashCode() + this.exactMagnitude.hashCode() ) * 31;
+    return ( this.locationTitle.hashCode() + Double.hashCode(this.magnitude + 0.0) ) * 31; // + 0.0 so -0.0 hashes as 0.0 matching equals
   }
 
   /**
@@ -205,7 +378,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
   @Override
   public int compareTo(EarthQuakeEntry anotherQuake)
   {
-    return anotherQuake.getExactMagnitude().compareTo(this.exactMagnitude); // Descending order by reverse parameters
+    return Double.compare(anotherQuake.getMagnitude() + 0.0,this.magnitude + 0.0); // Descending order by reverse parameters
   }
 
   /**
@@ -219,7 +392,7 @@ public class EarthQuakeEntry implements DataEntry,Comparable<EarthQuakeEntry>{
   @Override
   public String toString()
   {
-    return "Title : "+ this.locationTitle + " , lat, lon : " +this.loc.getLat()+", "+this.loc.getLon()+" , Magnitude: "+this.magnitude +", Depth: "+this.depth+" , Age: "+this.age;
+    return "Title : "+ this.locationTitle + " , lat, lon : " +this.latitude+", "+this.longitude+" , Magnitude: "+this.magnitude +", Depth: "+this.depth+" , Age: "+this.age;
   }
 
 
@@ -0,0 +1,313 @@
+package model.pojo;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A columnar store holding many earthquakes in primitive arrays instead of an object per earthquake
+*/
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * EarthQuakeStore holds the data of many Earthquake events column by column (struct of arrays)
+ * instead of an <code>EarthQuakeEntry</code> object per event, each earthquake is a row index and its state is:
+ * <ul>
+ *   <li> The latitude, longitude, magnitude and depth of the earthquake in <code>float[]</code> columns</li>
+ *   <li> The age of the earthquake as a <code>byte</code> code into a small dictionary of ages ("Past Hour", "Past Day",..)</li>
+ *   <li> The descriptive location of the earthquake as an <code>int</code> code into a dictionary of titles</li>
+ * </ul>
+ * <p>
+ *   so scanning a column for filtering touches only the primitive values needed, and repeated titles and ages
+ *   are stored once, columns grow by doubling as rows are added
+ * </p>
+ * <b>Not thread safe</b>, made to be filled by a single parsing pipeline then read
+ * @author  Hisham Maged
+ * @version 1.1
+ * @see EarthQuakeEntry
+ */
+public class EarthQuakeStore {
+
+  private static final int DEFAULT_CAPACITY = 64;
+  private static final int MAX_AGES = 256; // as age codes are bytes
+
+  private int size;
+  private float[] latitudes;
+  private float[] longitudes;
+  private float[] magnitudes;
+  private float[] depths;
+  private byte[] ageCodes;
+  private int[] titleCodes;
+
+  // dictionaries, shared between a store and the stores selected from it as they only grow
+  private final Dictionary ages;
+  private final Dictionary titles;
+
+  /**
+   * Default Constructor. makes an empty store with the default capacity
+   */
+  public EarthQuakeStore()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Capacity Constructor. makes an empty store whose columns can hold the given number of rows before growing
+   * @param initialCapacity expected number of earthquakes
+   * @throws IllegalArgumentException if capacity is negative
+   */
+  public EarthQuakeStore(int initialCapacity)
+  {
+    this(initialCapacity,new Dictionary(),new Dictionary());
+  }
+
+  /*
+   * private constructor used for selecting rows into a new store that shares the dictionaries
+   * @Param: int capacity, Dictionary of ages, Dictionary of titles
+   * */
+  private EarthQuakeStore(int initialCapacity,Dictionary ages,Dictionary titles)
+  {
+    if(initialCapacity < 0)
+      throw new IllegalArgumentException("Capacity can't be negative, given value: "+initialCapacity);
+    this.latitudes = new float[initialCapacity];
+    this.longitudes = new float[initialCapacity];
+    this.magnitudes = new float[initialCapacity];
+    this.depths = new float[initialCapacity];
+    this.ageCodes = new byte[initialCapacity];
+    this.titleCodes = new int[initialCapacity];
+    this.ages = ages;
+    this.titles = titles;
+  }
+
+  /**
+   * Adds an earthquake as a new row at the end of the store.
+   * @param entry EarthQuakeEntry to be added
+   * @return the row index of the added earthquake
+   * @throws IllegalArgumentException if null is given
+   */
+  public int add(EarthQuakeEntry entry)
+  {
+    if(entry == null)
+      throw new IllegalArgumentException("Can't add a null entry");
+    return add(entry.getLatitude(),entry.getLongitude(),(float) entry.getMagnitude(),(float) entry.getDepth(),entry.getLocationTitle(),entry.getAge());
+  }
+
+  /**
+   * Adds an earthquake as a new row at the end of the store.
+   * @param latitude latitude of the earthquake
+   * @param longitude longitude of the earthquake
+   * @param magnitude magnitude of the earthquake
+   * @param depth depth of the earthquake in km
+   * @param locationTitle descriptive location of the earthquake
+   * @param age age of the earthquake
+   * @return the row index of the added earthquake
+   * @throws IllegalStateException if more than 256 different ages are added
+   */
+  public int add(float latitude,float longitude,float magnitude,float depth,String locationTitle,String age)
+  {
+    int ageCode = this.ages.encode(age);
+    if(ageCode >= MAX_AGES)
+      throw new IllegalStateException("Can't hold more than "+MAX_AGES+" different ages, given age: "+age);
+    ensureCapacity(this.size + 1);
+    this.latitudes[size] = latitude;
+    this.longitudes[size] = longitude;
+    this.magnitudes[size] = magnitude;
+    this.depths[size] = depth;
+    this.ageCodes[size] = (byte) ageCode;
+    this.titleCodes[size] = this.titles.encode(locationTitle);
+    return this.size++;
+  }
+
+  /**
+   * Makes a new store holding only the given rows of this store in the given order,
+   * the new store shares the titles and ages dictionaries with this store.
+   * @param rows int array of row indices of this store
+   * @return EarthQuakeStore holding the selected rows
+   * @throws IndexOutOfBoundsException if a row isn't in the store
+   */
+  public EarthQuakeStore select(int[] rows)
+  {
+    EarthQuakeStore selected = new EarthQuakeStore(rows.length,this.ages,this.titles);
+    for(int row : rows)
+    {
+      checkRow(row);
+      int i = selected.size++;
+      selected.latitudes[i] = this.latitudes[row];
+      selected.longitudes[i] = this.longitudes[row];
+      selected.magnitudes[i] = this.magnitudes[row];
+      selected.depths[i] = this.depths[row];
+      selected.ageCodes[i] = this.ageCodes[row];
+      selected.titleCodes[i] = this.titleCodes[row];
+    }
+    return selected;
+  }
+
+  /**
+   * Gets the number of earthquakes in the store
+   * @return number of rows
+   */
+  public int size()
+  {
+    return this.size;
+  }
+
+  /**
+   * Gets the latitude of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return latitude of the earthquake
+   */
+  public float getLatitude(int row)
+  {
+    checkRow(row);
+    return this.latitudes[row];
+  }
+
+  /**
+   * Gets the longitude of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return longitude of the earthquake
+   */
+  public float getLongitude(int row)
+  {
+    checkRow(row);
+    return this.longitudes[row];
+  }
+
+  /**
+   * Gets the magnitude of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return magnitude of the earthquake
+   */
+  public float getMagnitude(int row)
+  {
+    checkRow(row);
+    return this.magnitudes[row];
+  }
+
+  /**
+   * Gets the depth of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return depth of the earthquake in km
+   */
+  public float getDepth(int row)
+  {
+    checkRow(row);
+    return this.depths[row];
+  }
+
+  /**
+   * Gets the descriptive location of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return String representation of location of earthquake for eg. "36 km north of Alexandria"
+   */
+  public String getLocationTitle(int row)
+  {
+    checkRow(row);
+    return this.titles.decode(this.titleCodes[row]);
+  }
+
+  /**
+   * Gets the age of the earthquake at the given row
+   * @param row row index of the earthquake
+   * @return The String representation of the age of earthquake
+   */
+  public String getAge(int row)
+  {
+    checkRow(row);
+    return this.ages.decode(this.ageCodes[row] & 0xFF);
+  }
+
+  /**
+   * Gets the code of the age of the earthquake at the given row in the ages dictionary,
+   * earthquakes of the same age have the same code
+   * @param row row index of the earthquake
+   * @return age code from 0 to 255
+   */
+  public int getAgeCode(int row)
+  {
+    checkRow(row);
+    return this.ageCodes[row] & 0xFF;
+  }
+
+  /**
+   * Makes an EarthQuakeEntry of the earthquake at the given row, used to test filters that can only test entries,
+   * the store doesn't hold the atom id and updated time so they are null, the title is made of the magnitude and location
+   * @param row row index of the earthquake
+   * @return EarthQuakeEntry holding the stored values of the earthquake
+   */
+  public EarthQuakeEntry getEntry(int row)
+  {
+    checkRow(row);
+    String locationTitle = getLocationTitle(row);
+    return new EarthQuakeEntry(null,null,"M "+this.magnitudes[row]+" - "+locationTitle,locationTitle,
+        this.latitudes[row],this.longitudes[row],this.magnitudes[row],this.depths[row],getAge(row));
+  }
+
+  /**
+   * Gets the String representation of the store for debugging and logging
+   * @return the number of earthquakes and the size of the dictionaries
+   */
+  @Override
+  public String toString()
+  {
+    return "EarthQuakeStore : "+this.size+" earthquakes, "+this.titles.size()+" titles, "+this.ages.size()+" ages";
+  }
+
+  /*
+   * private helper method that grows all the columns by doubling to hold at least the given number of rows
+   * @Param: int minimum capacity needed
+   * */
+  private void ensureCapacity(int minCapacity)
+  {
+    if(minCapacity <= this.latitudes.length)
+      return;
+    int capacity = Math.max(minCapacity,Math.max(DEFAULT_CAPACITY,this.latitudes.length * 2));
+    this.latitudes = Arrays.copyOf(this.latitudes,capacity);
+    this.longitudes = Arrays.copyOf(this.longitudes,capacity);
+    this.magnitudes = Arrays.copyOf(this.magnitudes,capacity);
+    this.depths = Arrays.copyOf(this.depths,capacity);
+    this.ageCodes = Arrays.copyOf(this.ageCodes,capacity);
+    this.titleCodes = Arrays.copyOf(this.titleCodes,capacity);
+  }
+
+  /*
+   * private helper method that checks that the row is in the store as columns may be bigger than size
+   * @Param: int row index
+   * */
+  private void checkRow(int row)
+  {
+    if(row < 0 || row >= this.size)
+      throw new IndexOutOfBoundsException("Row: "+row+", Size: "+this.size);
+  }
+
+  /*
+   * private static nested class that encodes Strings into int codes in order of first appearance and decodes them back
+   * */
+  private static class Dictionary
+  {
+    private final Map<String,Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+
+    private int encode(String value)
+    {
+      Integer code = this.codes.get(value);
+      if(code != null)
+        return code;
+      int newCode = this.codes.size();
+      if(newCode == this.values.length)
+        this.values = Arrays.copyOf(this.values,newCode * 2);
+      this.values[newCode] = value;
+      this.codes.put(value,newCode);
+      return newCode;
+    }
+
+    private String decode(int code)
+    {
+      return this.values[code];
+    }
+
+    private int size()
+    {
+      return this.codes.size();
+    }
+  }
+}
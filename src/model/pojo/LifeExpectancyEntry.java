@@ -4,8 +4,7 @@ package model.pojo;/*
   Project Name : A Pojo object for holding each of the Life Expectancy Records in the being parsed CSV file
 */
 
-import java.util.Collections;
-import java.util.Map;
+import java.util.Arrays;
 /**
  * LifeExpectancyEntry is a POJO class that consumes all the data about a single Life Expectancy Survey for a country
  * which is used by the rest of the program.
@@ -14,7 +13,8 @@ import java.util.Map;
  * <ul>
  *   <li> The country name that the entry is about</li>
  *   <li> The country code that the entry is about</li>
- *   <li> A Mapping between the years from 1960 to 2017 and their life expectancy value for the country</li>
+ *   <li> The life expectancy values of the country for a range of years, in a primitive float array indexed by year - first year
+ *   with <code>Float.NaN</code> for years without a recorded value</li>
  * </ul>
  * <p>
  *   Overrides the <code>equals()</code> , <code>hashCode()</code>, <code>toString()</code> methods
@@ -27,21 +27,27 @@ public class LifeExpectancyEntry implements DataEntry, WorldData, Comparable<Lif
 
   private final String countryName; // private immutable (final for added security and readablity) country Name in record
   private final String countryCode; // private immutable (final for added security and readablity) country code in record
-  private final Map<Integer,Float> yearLifeExpectancyMap; // map immutable and unmodefiable that holds the year and its respected life expectancy value for current record (used in feedparser)_
+  private final int firstYear; // private immutable first year of the values of the record
+  private final float[] yearValues; // private array of life expectancy values indexed by year - firstYear, NaN if missing, never shared by reference
 
   /**
    * Sole Constructor for the POJO class to initialize all final fields (Immutable).
    * takes country name string which the POJO represents, takes country code of the country being represented
-   * takes the Mapping of years to life expectancy values
+   * takes the life expectancy values of a continuous range of years starting from the first year
    * @param countryName  The string representation of the Country Name from the data feed
    * @param countryCode  The String representation of Country
-   * @param yearLifeExpectancyMap A Mapping of Years to Life expectancy value for the country of that entry from 1960 to 2017
+   * @param firstYear The year of the first value in the values array
+   * @param yearValues Life expectancy values of the country from the first year onwards, Float.NaN for missing values, copied
+   * @throws IllegalArgumentException if yearValues is null
    * */
-  public LifeExpectancyEntry(String countryName,String countryCode,Map<Integer,Float> yearLifeExpectancyMap)
+  public LifeExpectancyEntry(String countryName,String countryCode,int firstYear,float[] yearValues)
   {
+    if(yearValues == null)
+      throw new IllegalArgumentException("Year values can't be null");
     this.countryName = countryName;
     this.countryCode = countryCode;
-    this.yearLifeExpectancyMap = yearLifeExpectancyMap;
+    this.firstYear = firstYear;
+    this.yearValues = yearValues.clone();
   }
 
   /**
@@ -63,25 +69,37 @@ public class LifeExpectancyEntry implements DataEntry, WorldData, Comparable<Lif
   }
 
   /**
-   * Gets the mapping map as a unmodefiable Map so can't be changed by reference sharing and it holds year and life expectancy values for
-   * current record, could be used for something ( unused for now ).
-   * @return  UnmodefiableMap containing the Mapping of Years to Life expectancy values for the Pojo Object from 1960 to 2017
+   * Gets the first year that the entry has a value slot for
+   * @return first year of the range of years of the entry
    */
-  public Map<Integer,Float> getMap()
+  @Override
+  public int getFirstYear()
   {
-    return Collections.unmodifiableMap(this.yearLifeExpectancyMap);
+    return this.firstYear;
   }
+
+  /**
+   * Gets the last year that the entry has a value slot for
+   * @return last year of the range of years of the entry inclusive
+   */
+  @Override
+  public int getLastYear()
+  {
+    return this.firstYear + this.yearValues.length - 1;
+  }
+
   /**
    * Gets the float value (life expectancy value) for a given year in entry.
    * @param year The int representation of a certain year in the entry
-   * @throws IllegalArgumentException  if year input is not between 1960 and 2017.
-   * @return The Life Expectancy value for the given year input
+   * @throws IllegalArgumentException  if year input is not between first year and last year of the entry.
+   * @return The Life Expectancy value for the given year input, Float.NaN if no value was recorded for that year
    * */
-  public Float getCertainYearValue(int year)
+  @Override
+  public float getYearValue(int year)
   {
-    if(year < 1960 || year >2017)
-      throw new IllegalArgumentException("year must range from 1960 to 2017 inclusive");
-    return this.yearLifeExpectancyMap.get(year);
+    if(year < this.firstYear || year > getLastYear())
+      throw new IllegalArgumentException("year must range from "+this.firstYear+" to "+getLastYear()+" inclusive, given year: "+year);
+    return this.yearValues[year - this.firstYear];
   }
 
   /**
@@ -140,12 +158,12 @@ public class LifeExpectancyEntry implements DataEntry, WorldData, Comparable<Lif
   /**
    * Represents String containing information about the POJO object.
    * is called implicitly on System.out.println and represents
-   * the country name, country code and mapping of years and their life expectancy values
+   * the country name, country code and range of years and their life expectancy values
    * @return String representation of the POJO object
    * */
   @Override
   public String toString()
   {
-    return "Country Name: " + this.countryName + " , Country Code : " + this.countryCode + "\nMap: " + this.yearLifeExpectancyMap ;
+    return "Country Name: " + this.countryName + " , Country Code : " + this.countryCode + "\nYears: " + this.firstYear + "-" + getLastYear() + " " + Arrays.toString(this.yearValues) ;
   }
 }
@@ -0,0 +1,182 @@
+package model.pojo;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : The routes between airports kept as adjacency arrays, used to find the routes leaving an airport
+*/
+
+import java.util.Arrays;
+
+/**
+ * RouteGraph holds the routes between airports as a directed graph in compressed sparse row form,
+ * each airport is a node index (its index in the AirportRegistry) and each route is an edge of its index in the routes list:
+ * <ul>
+ *   <li> <code>offsets[airport]</code> to <code>offsets[airport + 1]</code> is the range of the routes leaving the airport</li>
+ *   <li> <code>destinations</code> holds the destination airport of each route of the ranges</li>
+ *   <li> <code>routes</code> holds the index in the routes list of each route of the ranges</li>
+ * </ul>
+ * <p>
+ *   so the routes leaving an airport are found in the time of their count instead of scanning all the routes,
+ *   the routes of each airport keep the order of the routes list, routes from or to an unknown airport are left out,
+ *   the source and destination airport of each route of the list are kept too so route markers are made without
+ *   looking the ids up again
+ * </p>
+ * <b>Immutable and thread safe</b> after it's made, the registry it's made of is frozen by it so its airports can't change
+ * @author  Hisham Maged
+ * @version 1.1
+ * @see AirportRegistry
+ */
+public final class RouteGraph {
+
+  private final AirportRegistry airports;
+  private final int[] routeSources; // source airport of each route of the routes list, -1 if unknown
+  private final int[] routeDestinations; // destination airport of each route of the routes list, -1 if unknown
+  private final int[] offsets;
+  private final int[] destinations;
+  private final int[] routes;
+
+  /**
+   * Routes Constructor. makes the graph of the given routes
+   * @param airports AirportRegistry of the airports, should be filled already as the graph is made of its airports,
+   * it's frozen so no airport can be added after
+   * @param sourceIds int[] holding the source airport id of each route in the order of the routes list
+   * @param destinationIds int[] holding the destination airport id of each route in the order of the routes list
+   * @throws IllegalArgumentException if an argument is null or the routes arrays aren't of the same length
+   */
+  public RouteGraph(AirportRegistry airports,int[] sourceIds,int[] destinationIds)
+  {
+    if(airports == null || sourceIds == null || destinationIds == null || sourceIds.length != destinationIds.length)
+      throw new IllegalArgumentException("Airports and the source and destination of each route should be given");
+    airports.freeze();
+    this.airports = airports;
+    int airportsCount = airports.size();
+
+    // counts the routes of each source then turns the counts into offsets and places the routes in order
+    int[] sources = this.routeSources = new int[sourceIds.length];
+    int[] destinations = this.routeDestinations = new int[destinationIds.length];
+    this.offsets = new int[airportsCount + 1];
+    for(int route = 0 ; route < sources.length ; ++route)
+    {
+      sources[route] = indexOf(sourceIds[route]);
+      destinations[route] = indexOf(destinationIds[route]);
+      if(sources[route] != -1 && destinations[route] != -1)
+        ++this.offsets[sources[route] + 1];
+    }
+    for(int airport = 0 ; airport < airportsCount ; ++airport)
+      this.offsets[airport + 1] += this.offsets[airport];
+    this.destinations = new int[this.offsets[airportsCount]];
+    this.routes = new int[this.offsets[airportsCount]];
+    int[] next = Arrays.copyOf(this.offsets,airportsCount);
+    for(int route = 0 ; route < sources.length ; ++route)
+    {
+      if(sources[route] == -1 || destinations[route] == -1)
+        continue;
+      int edge = next[sources[route]]++;
+      this.destinations[edge] = destinations[route];
+      this.routes[edge] = route;
+    }
+  }
+
+  /**
+   * Gets the airport index of the given airport id
+   * @param airportId id of the airport
+   * @return index of the airport in the airports list, -1 if the id isn't of an airport of the graph
+   */
+  public int indexOf(int airportId)
+  {
+    return this.airports.indexOf(airportId);
+  }
+
+  /**
+   * Gets the id of the airport of the given index
+   * @param airport index of the airport
+   * @return id of the airport
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int getAirportId(int airport)
+  {
+    return this.airports.getId(airport);
+  }
+
+  /**
+   * Gets the airports of the graph
+   * @return AirportRegistry the graph was made of
+   */
+  public AirportRegistry getAirports()
+  {
+    return this.airports;
+  }
+
+  /**
+   * Gets the source airport of the given route of the routes list
+   * @param route index of the route in the routes list
+   * @return index of the source airport, -1 if the route is from or to an unknown airport
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int getSource(int route)
+  {
+    return this.routeSources[route] == -1 || this.routeDestinations[route] == -1 ? -1 : this.routeSources[route];
+  }
+
+  /**
+   * Gets the destination airport of the given route of the routes list
+   * @param route index of the route in the routes list
+   * @return index of the destination airport, -1 if the route is from or to an unknown airport
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int getDestination(int route)
+  {
+    return this.routeSources[route] == -1 || this.routeDestinations[route] == -1 ? -1 : this.routeDestinations[route];
+  }
+
+  /**
+   * Gets the number of routes leaving the given airport
+   * @param airport index of the airport
+   * @return number of routes of the airport as source
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int getRoutesCount(int airport)
+  {
+    return this.offsets[airport + 1] - this.offsets[airport];
+  }
+
+  /**
+   * Gets the destinations of the routes leaving the given airport
+   * @param airport index of the airport
+   * @return int[] of the destination airport index of each route, in the order of <code>getRoutes</code>
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int[] getDestinations(int airport)
+  {
+    return Arrays.copyOfRange(this.destinations,this.offsets[airport],this.offsets[airport + 1]);
+  }
+
+  /**
+   * Gets the routes leaving the given airport
+   * @param airport index of the airport
+   * @return int[] of the index of each route in the routes list in ascending order
+   * @throws IndexOutOfBoundsException if the index is out of range
+   */
+  public int[] getRoutes(int airport)
+  {
+    return Arrays.copyOfRange(this.routes,this.offsets[airport],this.offsets[airport + 1]);
+  }
+
+  /**
+   * Gets the number of airports of the graph
+   * @return number of airports
+   */
+  public int getAirportsCount()
+  {
+    return this.airports.size();
+  }
+
+  /**
+   * Gets the number of routes of the graph, routes from or to an unknown airport aren't counted
+   * <code>getSource</code> and <code>getDestination</code> take any route of the routes list the graph was made of
+   * @return number of routes
+   */
+  public int getRoutesCount()
+  {
+    return this.routes.length;
+  }
+}
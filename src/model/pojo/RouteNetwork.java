@@ -0,0 +1,399 @@
+package model.pojo;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : The routes between airports merged into weighted edges for each zoom level, used to draw the whole network
+*/
+
+import java.util.Arrays;
+import model.spatial.GridClusters;
+import model.spatial.STRTree;
+
+/**
+ * RouteNetwork holds the routes of a RouteGraph as undirected edges between places, an edge stands for all the routes
+ * between its two places in both directions and its weight is their count, an edge is kept for each zoom level:
+ * <ul>
+ *   <li> at zooms up to <code>GridClusters.MAX_ZOOM</code> the places are the clusters of the airports at that zoom
+ *   (the same clusters the airport markers are drawn as), the edges of the airports of two clusters are merged into
+ *   one edge between the clusters, routes inside a cluster are left out</li>
+ *   <li> at higher zooms the places are the airports</li>
+ * </ul>
+ * <p>
+ *   The edges of each level are kept in primitive arrays of the two places and the weight of each edge and the places
+ *   in arrays of their latitudes and longitudes, with an STRTree of the boxes of the edges of each level so only
+ *   the edges crossing the shown part of the map are found, the tree of a level is made when it's first searched
+ *   as only the zooms the map is shown at are searched, a level holds at most the distinct routes of the graph
+ *   however many airlines fly them, far fewer at low zooms
+ * </p>
+ * <p>
+ *   An edge goes the shorter way around the world, so an edge whose places are more than 180 degrees of longitude apart
+ *   crosses the antimeridian, it's split there into two parts meeting at its crossing latitude, each part having its
+ *   own box in the tree instead of a box spanning nearly every longitude, and drawn as two lines ending at the sides of the map
+ * </p>
+ * <b>Thread safe</b>, the edges are immutable after it's made and the trees are made under the lock of the network
+ * @author  Hisham Maged
+ * @version 1.1
+ * @see RouteGraph
+ * @see GridClusters
+ */
+public final class RouteNetwork {
+
+  private static final int AIRPORTS_LEVEL = GridClusters.MAX_ZOOM + 1; // level of the edges between the airports
+
+  private final int routesCount;
+  private final float[][] lats; // latitude of each place of each level
+  private final float[][] lons; // longitude of each place of each level
+  private final int[][] firsts; // first place of each edge of each level
+  private final int[][] seconds; // second place of each edge of each level
+  private final int[][] weights; // number of routes of each edge of each level
+  private final STRTree[] indexes; // tree of the boxes of the edges of each level, null till the level is first searched
+  private final int[][] crossings; // edges crossing the antimeridian of each level, whose second parts follow the edges in the tree
+
+  /**
+   * Graph Constructor. makes the edges of all the levels of the routes of the given graph
+   * @param graph RouteGraph of the routes, routes from or to an unknown airport aren't in it so they're left out
+   * @throws IllegalArgumentException if the graph is null
+   */
+  public RouteNetwork(RouteGraph graph)
+  {
+    if(graph == null)
+      throw new IllegalArgumentException("Route graph can't be null");
+    AirportRegistry airports = graph.getAirports();
+    int airportsCount = graph.getAirportsCount();
+    this.routesCount = graph.getRoutesCount();
+    int levels = AIRPORTS_LEVEL + 1;
+    this.lats = new float[levels][];
+    this.lons = new float[levels][];
+    this.firsts = new int[levels][];
+    this.seconds = new int[levels][];
+    this.weights = new int[levels][];
+    this.indexes = new STRTree[levels];
+    this.crossings = new int[levels][];
+
+    // every route is an edge of weight 1 between its airports, merged into the edges of the airports level
+    int[] sources = new int[this.routesCount], destinations = new int[this.routesCount], ones = new int[this.routesCount];
+    int route = 0;
+    for(int airport = 0 ; airport < airportsCount ; ++airport)
+    {
+      for(int destination : graph.getDestinations(airport))
+      {
+        sources[route] = airport;
+        destinations[route] = destination;
+        ones[route++] = 1;
+      }
+    }
+    this.lats[AIRPORTS_LEVEL] = new float[airportsCount];
+    this.lons[AIRPORTS_LEVEL] = new float[airportsCount];
+    for(int airport = 0 ; airport < airportsCount ; ++airport)
+    {
+      this.lats[AIRPORTS_LEVEL][airport] = airports.getLatitude(airport);
+      this.lons[AIRPORTS_LEVEL][airport] = airports.getLongitude(airport);
+    }
+    setLevel(AIRPORTS_LEVEL,sources,destinations,ones,null,airportsCount);
+
+    // edges of each zoom are the edges of the airports merged by the clusters of their airports at that zoom
+    GridClusters clusters = new GridClusters(this.lats[AIRPORTS_LEVEL],this.lons[AIRPORTS_LEVEL]);
+    int[] airportFirsts = this.firsts[AIRPORTS_LEVEL], airportSeconds = this.seconds[AIRPORTS_LEVEL];
+    int[] airportWeights = this.weights[AIRPORTS_LEVEL];
+    for(int zoom = 0 ; zoom <= GridClusters.MAX_ZOOM ; ++zoom)
+    {
+      int count = clusters.getClustersCount(zoom);
+      this.lats[zoom] = new float[count];
+      this.lons[zoom] = new float[count];
+      for(int cluster = 0 ; cluster < count ; ++cluster)
+      {
+        this.lats[zoom][cluster] = clusters.getLatitude(zoom,cluster);
+        this.lons[zoom][cluster] = clusters.getLongitude(zoom,cluster);
+      }
+      setLevel(zoom,airportFirsts,airportSeconds,airportWeights,clusters.getClustersOf(zoom),count);
+    }
+  }
+
+  /**
+   * Gets the number of edges drawn at the given zoom
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @return number of edges
+   * @throws IllegalArgumentException if the zoom is negative
+   */
+  public int getEdgesCount(int zoom)
+  {
+    return this.weights[level(zoom)].length;
+  }
+
+  /**
+   * Finds the edges of the given zoom whose boxes intersect the given box, so the edges crossing the shown part of the map
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param minLat minimum latitude of the box
+   * @param minLon minimum longitude of the box
+   * @param maxLat maximum latitude of the box
+   * @param maxLon maximum longitude of the box
+   * @return int[] holding the indices of the found edges in ascending order
+   * @throws IllegalArgumentException if the zoom is negative
+   */
+  public int[] search(int zoom,float minLat,float minLon,float maxLat,float maxLon)
+  {
+    int level = level(zoom), edgesCount = this.weights[level].length;
+    int[] found = index(level).search(minLat,minLon,maxLat,maxLon);
+    int[] crossing = this.crossings[level];
+    int count = 0;
+    boolean secondParts = false;
+    for(int item : found) // items after the edges are the second parts of the edges crossing the antimeridian
+    {
+      secondParts |= item >= edgesCount;
+      found[count++] = item < edgesCount ? item : crossing[item - edgesCount];
+    }
+    if(!secondParts)
+      return found;
+    Arrays.sort(found);
+    count = 0;
+    for(int i = 0 ; i < found.length ; ++i) // an edge whose both parts were found is given once
+      if(i == 0 || found[i] != found[i - 1])
+        found[count++] = found[i];
+    return Arrays.copyOf(found,count);
+  }
+
+  /**
+   * Checks if the given edge crosses the antimeridian, its places being more than 180 degrees of longitude apart
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return True if the edge is drawn as two parts meeting at the antimeridian, False if it's drawn as one line
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public boolean crossesAntimeridian(int zoom,int edge)
+  {
+    return crosses(getFirstLongitude(zoom,edge),getSecondLongitude(zoom,edge));
+  }
+
+  /**
+   * Gets the latitude the given edge crosses the antimeridian at, where its first part ends at the longitude of the side
+   * of the first place (180 or -180) and its second part starts at the other side
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return latitude of the crossing, NaN if the edge doesn't cross the antimeridian
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public float getCrossingLatitude(int zoom,int edge)
+  {
+    return crossingLatitude(getFirstLatitude(zoom,edge),getFirstLongitude(zoom,edge),
+        getSecondLatitude(zoom,edge),getSecondLongitude(zoom,edge));
+  }
+
+  /**
+   * Gets the latitude of the first place of the given edge
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return latitude of the first place
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public float getFirstLatitude(int zoom,int edge)
+  {
+    int level = level(zoom);
+    return this.lats[level][this.firsts[level][edge]];
+  }
+
+  /**
+   * Gets the longitude of the first place of the given edge
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return longitude of the first place
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public float getFirstLongitude(int zoom,int edge)
+  {
+    int level = level(zoom);
+    return this.lons[level][this.firsts[level][edge]];
+  }
+
+  /**
+   * Gets the latitude of the second place of the given edge
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return latitude of the second place
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public float getSecondLatitude(int zoom,int edge)
+  {
+    int level = level(zoom);
+    return this.lats[level][this.seconds[level][edge]];
+  }
+
+  /**
+   * Gets the longitude of the second place of the given edge
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return longitude of the second place
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public float getSecondLongitude(int zoom,int edge)
+  {
+    int level = level(zoom);
+    return this.lons[level][this.seconds[level][edge]];
+  }
+
+  /**
+   * Gets the number of routes the given edge stands for
+   * @param zoom zoom level of the map, zooms above GridClusters.MAX_ZOOM have the edges of the airports
+   * @param edge index of the edge in the zoom
+   * @return number of routes of the edge, in both directions
+   * @throws IllegalArgumentException if the zoom is negative
+   * @throws IndexOutOfBoundsException if the edge is out of range
+   */
+  public int getWeight(int zoom,int edge)
+  {
+    return this.weights[level(zoom)][edge];
+  }
+
+  /**
+   * Gets the number of routes the network was made of
+   * @return number of routes of the graph
+   */
+  public int getRoutesCount()
+  {
+    return this.routesCount;
+  }
+
+  /*
+   * private helper method that merges the given weighted edges into the edges of a level, the edges between the same
+   * two places in either direction become one edge of the summed weight and edges from a place to itself are left out,
+   * the edges are grouped by their lower place like the routes of RouteGraph, then each group is merged through
+   * the last edge seen to each other place so no sort is needed
+   * @Param: int level, int[] first and second place and weight of each given edge, int[] place of the level of each
+   * place of the edges or null if they're the places of the level, int number of places of the level
+   * */
+  private void setLevel(int level,int[] firsts,int[] seconds,int[] weights,int[] placeOf,int placesCount)
+  {
+    int[] offsets = new int[placesCount + 1];
+    for(int edge = 0 ; edge < firsts.length ; ++edge)
+    {
+      int first = place(placeOf,firsts[edge]), second = place(placeOf,seconds[edge]);
+      if(first != second)
+        ++offsets[Math.min(first,second) + 1];
+    }
+    for(int place = 0 ; place < placesCount ; ++place)
+      offsets[place + 1] += offsets[place];
+    int[] others = new int[offsets[placesCount]], othersWeights = new int[offsets[placesCount]];
+    int[] next = new int[placesCount];
+    System.arraycopy(offsets,0,next,0,placesCount);
+    for(int edge = 0 ; edge < firsts.length ; ++edge)
+    {
+      int first = place(placeOf,firsts[edge]), second = place(placeOf,seconds[edge]);
+      if(first == second)
+        continue;
+      int at = next[Math.min(first,second)]++;
+      others[at] = Math.max(first,second);
+      othersWeights[at] = weights[edge];
+    }
+
+    int[] mergedFirsts = new int[others.length], mergedSeconds = new int[others.length], mergedWeights = new int[others.length];
+    int[] lastGroup = new int[placesCount], lastEdge = new int[placesCount];
+    Arrays.fill(lastGroup,-1);
+    int count = 0;
+    for(int place = 0 ; place < placesCount ; ++place)
+    {
+      for(int at = offsets[place] ; at < offsets[place + 1] ; ++at)
+      {
+        int other = others[at];
+        if(lastGroup[other] != place) // first edge of this group to the other place
+        {
+          lastGroup[other] = place;
+          lastEdge[other] = count;
+          mergedFirsts[count] = place;
+          mergedSeconds[count] = other;
+          ++count;
+        }
+        mergedWeights[lastEdge[other]] += othersWeights[at];
+      }
+    }
+
+    this.firsts[level] = Arrays.copyOf(mergedFirsts,count);
+    this.seconds[level] = Arrays.copyOf(mergedSeconds,count);
+    this.weights[level] = Arrays.copyOf(mergedWeights,count);
+  }
+
+  /*
+   * private helper method that gets the tree of the boxes of the edges of a level, making it the first time it's needed,
+   * an edge crossing the antimeridian has the box of its first part at its index and the box of its second part
+   * after the boxes of the edges
+   * @Param: int level
+   * */
+  private synchronized STRTree index(int level)
+  {
+    if(this.indexes[level] == null)
+    {
+      int[] firsts = this.firsts[level], seconds = this.seconds[level];
+      float[] lats = this.lats[level], lons = this.lons[level];
+      int[] crossing = new int[firsts.length];
+      int crossingCount = 0;
+      for(int edge = 0 ; edge < firsts.length ; ++edge)
+        if(crosses(lons[firsts[edge]],lons[seconds[edge]]))
+          crossing[crossingCount++] = edge;
+      float[] bounds = new float[(firsts.length + crossingCount) * 4];
+      for(int edge = 0 ; edge < firsts.length ; ++edge)
+        setBox(bounds,edge,lats[firsts[edge]],lons[firsts[edge]],lats[seconds[edge]],lons[seconds[edge]]);
+      for(int i = 0 ; i < crossingCount ; ++i)
+      {
+        int first = firsts[crossing[i]], second = seconds[crossing[i]];
+        float side = lons[first] >= 0 ? 180 : -180; // side of the map the first part ends at
+        float lat = crossingLatitude(lats[first],lons[first],lats[second],lons[second]);
+        setBox(bounds,crossing[i],lats[first],lons[first],lat,side);
+        setBox(bounds,firsts.length + i,lat,-side,lats[second],lons[second]);
+      }
+      this.crossings[level] = Arrays.copyOf(crossing,crossingCount);
+      this.indexes[level] = new STRTree(bounds);
+    }
+    return this.indexes[level];
+  }
+
+  /*
+   * private helper method that sets the box of the given item to the box of the line between two points
+   * @Param: float[] bounds of the items, int item, float latitude and longitude of each end of the line
+   * */
+  private static void setBox(float[] bounds,int item,float lat1,float lon1,float lat2,float lon2)
+  {
+    bounds[item * 4] = Math.min(lat1,lat2);
+    bounds[item * 4 + 1] = Math.min(lon1,lon2);
+    bounds[item * 4 + 2] = Math.max(lat1,lat2);
+    bounds[item * 4 + 3] = Math.max(lon1,lon2);
+  }
+
+  /*
+   * private helper method that checks if the shorter way between two longitudes crosses the antimeridian
+   * @Param: float longitude of each end
+   * */
+  private static boolean crosses(float lon1,float lon2)
+  {
+    return Math.abs(lon2 - lon1) > 180;
+  }
+
+  /*
+   * private helper method that finds the latitude the shorter way between two points crosses the antimeridian at,
+   * going from the first to the second along the straight line between them with the second longitude taken
+   * around the world to the side of the first
+   * @Param: float latitude and longitude of each end
+   * */
+  private static float crossingLatitude(float lat1,float lon1,float lat2,float lon2)
+  {
+    if(!crosses(lon1,lon2))
+      return Float.NaN;
+    float side = lon1 >= 0 ? 180 : -180;
+    float around = lon2 + 2 * side; // the second longitude past the side of the first
+    return lat1 + (lat2 - lat1) * (side - lon1) / (around - lon1);
+  }
+
+  private static int place(int[] placeOf,int place)
+  {
+    return placeOf == null ? place : placeOf[place];
+  }
+
+  private static int level(int zoom)
+  {
+    if(zoom < 0)
+      throw new IllegalArgumentException("Zoom can't be negative, given: "+zoom);
+    return Math.min(zoom,AIRPORTS_LEVEL);
+  }
+}
@@ -1,6 +1,8 @@
 package model.pojo;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
 /*
 * @Author: Hisham Maged
@@ -11,31 +13,78 @@ import java.util.Map;
 
 /**
  * An interface that points out that certain classes are <b>POJO</b> classes
- * of <b>World Data Bank</b> giving global data, have a map for each pojo object
+ * of <b>World Data Bank</b> giving global data, have a series of yearly values for each pojo object
+ * <p>
+ *   the values are of a continuous range of years from <code>getFirstYear()</code> to <code>getLastYear()</code>
+ *   and a missing value of a year in that range is <code>Float.NaN</code>
+ * </p>
  * @author Hisham Maged
  * @version 1.1
  * @since 21/7/2019
  * @see LifeExpectancyEntry
  */
 public interface WorldData {
+
+  /**
+   * Gets the Country Code for the entry represented by the POJO
+   * @return The country code of the Country
+   */
+  public String getCountryCode();
+
+  /**
+   * Gets the first year that the entry has a value slot for
+   * @return first year of the range of years of the entry
+   */
+  public int getFirstYear();
+
   /**
-   * Gets the mapping map as a unmodefiable Map so can't be changed by reference sharing and it holds year and life expectancy values for
-   * current record, could be used for something ( unused for now ).
-   * @return  UnmodefiableMap containing the Mapping of Years to values for the Pojo Object from 1960 to 2017
+   * Gets the last year that the entry has a value slot for
+   * @return last year of the range of years of the entry inclusive
    */
-  public Map<Integer,Float> getMap();
+  public int getLastYear();
 
   /**
    * Gets the float value for a given year in entry.
    * @param year The int representation of a certain year in the entry
-   * @throws IllegalArgumentException  if year input is not between 1960 and 2017.
-   * @return The value for the given year input
+   * @throws IllegalArgumentException if year input is not between first year and last year of the entry
+   * @return The value for the given year input, Float.NaN if no value was recorded for that year
    * */
-  public String getCountryCode();
+  public float getYearValue(int year);
 
   /**
-   * Gets the Country Code for the entry represented by the POJO
-   * @return The country code of the Country
+   * Checks whether the entry has a recorded value for the given year.
+   * @param year The int representation of a certain year
+   * @return True if the year is in the range of the entry and its value isn't missing, false otherwise
+   */
+  public default boolean hasYearValue(int year)
+  {
+    return year >= getFirstYear() && year <= getLastYear() && !Float.isNaN(getYearValue(year));
+  }
+
+  /**
+   * Gets the float value for a given year in entry as a Float object.
+   * @param year The int representation of a certain year in the entry
+   * @throws IllegalArgumentException if year input is not between first year and last year of the entry
+   * @return The value for the given year input, NaN if no value was recorded for that year
+   * */
+  public default Float getCertainYearValue(int year)
+  {
+    return getYearValue(year);
+  }
+
+  /**
+   * Makes a Map of the years and their values as a copy, could be used for something ( unused for now ).
+   * years without a recorded value aren't in the map
+   * @return UnmodefiableMap containing the Mapping of Years to values for the Pojo Object
    */
-  public Float getCertainYearValue(int year);
+  public default Map<Integer,Float> getMap()
+  {
+    Map<Integer,Float> yearValues = new TreeMap<>();
+    for(int year = getFirstYear() ; year <= getLastYear() ; ++year)
+    {
+      if(hasYearValue(year))
+        yearValues.put(year,getYearValue(year));
+    }
+    return Collections.unmodifiableMap(yearValues);
+  }
 }
@@ -0,0 +1,216 @@
+package model.spatial;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : An index of items having a circle on the earth that items can be added to and removed from,
+               used to find the items whose circles hold a location
+*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>GeoCircleIndex</h1>
+ * <p>
+ *   Keeps items each with the center and radius of its circle (like earthquakes with their threat circles) and finds
+ *   the items whose circles hold a location, without measuring the distance to every item
+ * </p>
+ * <p>
+ *   As a GeoKdTree is made once, the items are kept in blocks each being a tree made of its items (the logarithmic method),
+ *   an added item makes a block of its own that is merged with the blocks not bigger than it into a single new block,
+ *   so the blocks have sizes of distinct powers of two, there are at most a logarithmic number of them and each item
+ *   is put into a new tree a logarithmic number of times as the index grows
+ * </p>
+ * <p>
+ *   A removed item is only forgotten, its entry is skipped by the searches and dropped when its block is merged,
+ *   all the blocks are made again into one when the skipped entries become more than the kept items
+ * </p>
+ * Items are compared by reference, an item can be in the index once.
+ * <b>Not thread safe</b>
+ * @param <T> type of the items
+ * @author Hisham Maged
+ * @version 1.1
+ * @see GeoKdTree
+ */
+public final class GeoCircleIndex<T> {
+
+  private final List<Block<T>> blocks = new ArrayList<>(); // in descending order of size
+  private final Map<T,Long> sequences = new IdentityHashMap<>(); // sequence of the entry of each kept item
+  private long nextSequence = 0;
+  private int entries = 0; // entries of all the blocks, including the removed ones
+
+  /**
+   * Adds the item with its circle to the index.
+   * @param item item to be added
+   * @param lat latitude of the center of the circle
+   * @param lon longitude of the center of the circle
+   * @param radiusKm radius of the circle in km
+   * @throws IllegalArgumentException if the item is null, already in the index or the radius is negative
+   */
+  public void add(T item,float lat,float lon,double radiusKm)
+  {
+    if(item == null || this.sequences.containsKey(item))
+      throw new IllegalArgumentException("Item should be given and not be in the index already");
+    if(!(radiusKm >= 0))
+      throw new IllegalArgumentException("Radius should be positive, given: "+radiusKm);
+    List<Block<T>> merged = new ArrayList<>();
+    merged.add(new Block<>(item,lat,lon,radiusKm,this.nextSequence));
+    int size = 1;
+    // merges the smallest blocks while they aren't bigger than the block being made
+    while(!this.blocks.isEmpty() && this.blocks.get(this.blocks.size() - 1).size() <= size)
+    {
+      Block<T> last = this.blocks.remove(this.blocks.size() - 1);
+      merged.add(last);
+      size += last.size();
+    }
+    this.sequences.put(item,this.nextSequence++);
+    this.entries -= size - 1;
+    this.entries += merge(merged);
+  }
+
+  /**
+   * Removes the item from the index.
+   * @param item item to be removed
+   * @return True if the item was in the index
+   */
+  public boolean remove(T item)
+  {
+    if(this.sequences.remove(item) == null)
+      return false;
+    if(this.entries > 2 * this.sequences.size()) // more removed entries than kept items
+    {
+      List<Block<T>> all = new ArrayList<>(this.blocks);
+      this.blocks.clear();
+      this.entries = all.isEmpty() ? 0 : merge(all);
+    }
+    return true;
+  }
+
+  /**
+   * Finds the items whose circles hold the given location, borders included.
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @return List of the found items in the order they were added, may hold circles that the location is
+   * slightly out of by rounding errors only, so callers measuring the distance another way should check them again
+   */
+  public List<T> searchContaining(float lat,float lon)
+  {
+    List<T> found = new ArrayList<>();
+    long[] foundSequences = new long[8];
+    for(Block<T> block : this.blocks)
+    {
+      for(int i : block.tree.searchContaining(lat,lon))
+      {
+        if(!block.isKept(i,this.sequences))
+          continue;
+        if(found.size() == foundSequences.length)
+          foundSequences = Arrays.copyOf(foundSequences,found.size() * 2);
+        foundSequences[found.size()] = block.sequences[i];
+        found.add(block.items.get(i));
+      }
+    }
+    // blocks hold entries of different times, the found items are put back in the order they were added
+    long[] order = foundSequences;
+    Integer[] indices = new Integer[found.size()];
+    for(int i = 0 ; i < indices.length ; ++i)
+      indices[i] = i;
+    Arrays.sort(indices,(x,y) -> Long.compare(order[x],order[y]));
+    List<T> result = new ArrayList<>(indices.length);
+    for(int i : indices)
+      result.add(found.get(i));
+    return result;
+  }
+
+  /**
+   * Gets the number of items in the index
+   * @return number of kept items
+   */
+  public int size()
+  {
+    return this.sequences.size();
+  }
+
+  /*
+   * private helper method that makes a single block of the kept entries of the given blocks and adds it to the blocks
+   * returning the number of its entries, blocks are always merged from the smallest so it stays in descending order
+   * @Param: List of blocks to be merged
+   * */
+  private int merge(List<Block<T>> merged)
+  {
+    int size = 0;
+    for(Block<T> block : merged)
+      size += block.size();
+    List<T> items = new ArrayList<>(size);
+    float[] lats = new float[size], lons = new float[size];
+    double[] radii = new double[size];
+    long[] sequences = new long[size];
+    int count = 0;
+    for(Block<T> block : merged)
+    {
+      for(int i = 0 ; i < block.size() ; ++i)
+      {
+        if(!block.isKept(i,this.sequences))
+          continue;
+        items.add(block.items.get(i));
+        lats[count] = block.lats[i];
+        lons[count] = block.lons[i];
+        radii[count] = block.radii[i];
+        sequences[count++] = block.sequences[i];
+      }
+    }
+    if(count == 0)
+      return 0;
+    Block<T> block = new Block<>(items,Arrays.copyOf(lats,count),Arrays.copyOf(lons,count),Arrays.copyOf(radii,count),Arrays.copyOf(sequences,count));
+    int at = this.blocks.size();
+    while(at > 0 && this.blocks.get(at - 1).size() < count)
+      --at;
+    this.blocks.add(at,block);
+    return count;
+  }
+
+  /*
+   * A block of entries made into a GeoKdTree once, the entry of each index of the tree is at the same index of the arrays
+   * */
+  private static final class Block<T>
+  {
+    private final List<T> items;
+    private final float[] lats;
+    private final float[] lons;
+    private final double[] radii;
+    private final long[] sequences; // sequence given to each entry when its item was added
+    private final GeoKdTree tree;
+
+    private Block(T item,float lat,float lon,double radiusKm,long sequence)
+    {
+      this(new ArrayList<>(Arrays.asList(item)),new float[]{lat},new float[]{lon},new double[]{radiusKm},new long[]{sequence});
+    }
+
+    private Block(List<T> items,float[] lats,float[] lons,double[] radii,long[] sequences)
+    {
+      this.items = items;
+      this.lats = lats;
+      this.lons = lons;
+      this.radii = radii;
+      this.sequences = sequences;
+      this.tree = new GeoKdTree(lats,lons,radii);
+    }
+
+    private int size()
+    {
+      return this.sequences.length;
+    }
+
+    /*
+     * private helper method that checks whether the entry is of a kept item, an item removed then added again
+     * has a new entry so its old entry isn't kept
+     * @Param: int index of the entry, Map of the sequences of the kept items
+     * */
+    private boolean isKept(int i,Map<T,Long> kept)
+    {
+      Long sequence = kept.get(this.items.get(i));
+      return sequence != null && sequence == this.sequences[i];
+    }
+  }
+}
@@ -0,0 +1,471 @@
+package model.spatial;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A k-d tree of locations on the unit sphere, used to find the locations within a distance of a location,
+               the nearest locations to a location or the locations whose own circles hold a location
+*/
+
+import java.util.Arrays;
+
+/**
+ * <h1>GeoKdTree</h1>
+ * <p>
+ *   A balanced k-d tree over locations given by their index, each location is turned into its x, y, z point on the
+ *   unit sphere so the straight line (chord) distance between two points grows with their great circle distance,
+ *   a search for the locations within a great circle distance searches for the points within the matching chord
+ *   distance, descending only into the halves of the tree whose splitting plane is closer than that distance
+ * </p>
+ * <p>
+ *   so finding the few locations near a location costs a logarithmic number of steps plus the locations found instead of
+ *   measuring the distance to every location, and it works the same near the poles and across the 180 longitude,
+ *   a search for the k nearest locations keeps the nearest ones found so far in a bounded heap and skips the halves
+ *   whose splitting plane is farther than the farthest of them
+ * </p>
+ * <p>
+ *   Locations can be given a circle radius each (like the threat circle of an earthquake), each node then keeps the
+ *   biggest chord radius of its subtree so a search for the circles holding a location skips the halves whose
+ *   splitting plane is farther from the location than the biggest circle in them
+ * </p>
+ * The tree is kept implicitly in arrays: the location of each node is the median of its range of the arrays, split on
+ * the axis the range spreads most on, with the lower half before it and the upper half after it.
+ * <b>Immutable and thread safe</b> after it's made
+ * @author Hisham Maged
+ * @version 1.1
+ * @see STRTree
+ */
+public final class GeoKdTree {
+
+  /**
+   * Radius of the earth in km used to turn distances into angles, the one used by the distances of the markers
+   */
+  public static final double EARTH_RADIUS_KM = 6371.01;
+
+  // searched radius is widened by this ratio so locations exactly on the distance aren't lost to rounding
+  private static final double RADIUS_SLACK = 1e-6;
+
+  private final int[] items; // index of the location of each node
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] zs;
+  private final byte[] axes; // splitting axis of each node, 0 for x, 1 for y, 2 for z
+  private final double[] chords; // chord radius of the circle of each node, null if the locations have no circles
+  private final double[] maxChords; // biggest chord radius of the subtree of each node, null if the locations have no circles
+
+  /**
+   * Locations Constructor. makes the tree of the given locations, the item of each location is its index
+   * @param lats float[] of latitudes of the locations
+   * @param lons float[] of longitudes of the locations
+   * @throws IllegalArgumentException if an array is null or the arrays aren't of the same length
+   */
+  public GeoKdTree(float[] lats,float[] lons)
+  {
+    this(lats,lons,null);
+  }
+
+  /**
+   * Circles Constructor. makes the tree of the given locations each with the radius of its circle, used to find the
+   * circles holding a location, the item of each location is its index
+   * @param lats float[] of latitudes of the locations
+   * @param lons float[] of longitudes of the locations
+   * @param radiiKm double[] of the radius in km of the circle of each location, null if the locations have no circles
+   * @throws IllegalArgumentException if an array is null, the arrays aren't of the same length or a radius is negative
+   */
+  public GeoKdTree(float[] lats,float[] lons,double[] radiiKm)
+  {
+    if(lats == null || lons == null || lats.length != lons.length || (radiiKm != null && radiiKm.length != lats.length))
+      throw new IllegalArgumentException("Latitudes and longitudes (and radii if given) should be given for each location");
+    int size = lats.length;
+    this.items = new int[size];
+    this.xs = new double[size];
+    this.ys = new double[size];
+    this.zs = new double[size];
+    this.axes = new byte[size];
+    this.chords = radiiKm == null ? null : new double[size];
+    this.maxChords = radiiKm == null ? null : new double[size];
+    for(int i = 0 ; i < size ; ++i)
+    {
+      double lat = Math.toRadians(lats[i]), lon = Math.toRadians(lons[i]);
+      this.items[i] = i;
+      this.xs[i] = Math.cos(lat) * Math.cos(lon);
+      this.ys[i] = Math.cos(lat) * Math.sin(lon);
+      this.zs[i] = Math.sin(lat);
+      if(radiiKm != null)
+      {
+        if(!(radiiKm[i] >= 0))
+          throw new IllegalArgumentException("Radius should be positive, given: "+radiiKm[i]+" of location "+i);
+        this.chords[i] = toChord(radiiKm[i]);
+      }
+    }
+    build(0,size);
+    if(this.chords != null)
+      putMaxChords(0,size);
+  }
+
+  /**
+   * Finds the locations within the given great circle distance of a location, borders included.
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @param radiusKm distance in km on a sphere of EARTH_RADIUS_KM
+   * @return int[] of the indices of the found locations in ascending order, may hold locations farther than the distance
+   * by rounding errors only, so callers measuring the distance another way should check the found locations again
+   * @throws IllegalArgumentException if the radius is negative or NaN
+   */
+  public int[] searchWithin(float lat,float lon,double radiusKm)
+  {
+    if(!(radiusKm >= 0))
+      throw new IllegalArgumentException("Radius should be positive, given: "+radiusKm);
+    double chord = toChord(radiusKm);
+    double[] point = toPoint(lat,lon);
+    int[] found = new int[8];
+    int count = 0;
+    // stack of pending ranges as pairs of start and end (exclusive)
+    int[] stack = new int[128];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = this.items.length;
+    while(top > 0)
+    {
+      int end = stack[--top], start = stack[--top];
+      if(start >= end)
+        continue;
+      int node = (start + end) >>> 1;
+      double dx = point[0] - this.xs[node], dy = point[1] - this.ys[node], dz = point[2] - this.zs[node];
+      if(dx * dx + dy * dy + dz * dz <= chord * chord)
+      {
+        if(count == found.length)
+          found = Arrays.copyOf(found,count * 2);
+        found[count++] = this.items[node];
+      }
+      double offset = point[this.axes[node]] - coordinate(this.axes[node],node); // distance to the splitting plane
+      if(top + 4 > stack.length)
+        stack = Arrays.copyOf(stack,stack.length * 2);
+      if(offset - chord <= 0) // the ball reaches the lower half
+      {
+        stack[top++] = start;
+        stack[top++] = node;
+      }
+      if(offset + chord >= 0) // the ball reaches the upper half
+      {
+        stack[top++] = node + 1;
+        stack[top++] = end;
+      }
+    }
+    int[] result = Arrays.copyOf(found,count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Finds the locations whose circles hold the given location, borders included.
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @return int[] of the indices of the found locations in ascending order, may hold circles that the location is
+   * slightly out of by rounding errors only, so callers measuring the distance another way should check them again
+   * @throws UnsupportedOperationException if the tree was made without circles
+   */
+  public int[] searchContaining(float lat,float lon)
+  {
+    if(this.chords == null)
+      throw new UnsupportedOperationException("The tree was made without circles");
+    double[] point = toPoint(lat,lon);
+    int[] found = new int[8];
+    int count = 0;
+    int[] stack = new int[128];
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = this.items.length;
+    while(top > 0)
+    {
+      int end = stack[--top], start = stack[--top];
+      if(start >= end)
+        continue;
+      int node = (start + end) >>> 1;
+      double dx = point[0] - this.xs[node], dy = point[1] - this.ys[node], dz = point[2] - this.zs[node];
+      if(dx * dx + dy * dy + dz * dz <= this.chords[node] * this.chords[node])
+      {
+        if(count == found.length)
+          found = Arrays.copyOf(found,count * 2);
+        found[count++] = this.items[node];
+      }
+      // a circle holds the location only if its center is within its radius of the location, so a half whose
+      // splitting plane is farther from the location than the biggest radius of the subtree can't hold it
+      double maxChord = this.maxChords[node];
+      double offset = point[this.axes[node]] - coordinate(this.axes[node],node);
+      if(top + 4 > stack.length)
+        stack = Arrays.copyOf(stack,stack.length * 2);
+      if(offset - maxChord <= 0)
+      {
+        stack[top++] = start;
+        stack[top++] = node;
+      }
+      if(offset + maxChord >= 0)
+      {
+        stack[top++] = node + 1;
+        stack[top++] = end;
+      }
+    }
+    int[] result = Arrays.copyOf(found,count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Finds the k nearest locations to a location by great circle distance.
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @param k number of locations to find
+   * @return int[] of the indices of the nearest locations from the nearest, locations at the same distance are in
+   * ascending order of index, holds all the locations if they are less than k
+   * @throws IllegalArgumentException if k is negative
+   */
+  public int[] nearest(float lat,float lon,int k)
+  {
+    if(k < 0)
+      throw new IllegalArgumentException("Number of locations can't be negative, given: "+k);
+    k = Math.min(k,this.items.length);
+    double[] distances = new double[k]; // max heap of the squared chords of the nearest locations found so far
+    int[] found = new int[k];
+    int count = nearest(0,this.items.length,toPoint(lat,lon),distances,found,0);
+    int[] result = new int[count];
+    for(int last = count - 1 ; last >= 0 ; --last) // takes the farthest out of the heap each time
+    {
+      result[last] = found[0];
+      distances[0] = distances[last];
+      found[0] = found[last];
+      siftDown(distances,found,last);
+    }
+    return result;
+  }
+
+  /**
+   * Measures the great circle distance between two locations using the haversine formula on a sphere of EARTH_RADIUS_KM,
+   * the same distance the tree orders and searches the locations by
+   * @param lat1 latitude of the first location
+   * @param lon1 longitude of the first location
+   * @param lat2 latitude of the second location
+   * @param lon2 longitude of the second location
+   * @return distance in km
+   */
+  public static double distanceKm(float lat1,float lon1,float lat2,float lon2)
+  {
+    double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2), sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+    double h = sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1,Math.sqrt(h)));
+  }
+
+  /**
+   * Gets the number of locations in the tree
+   * @return number of locations the tree was made of
+   */
+  public int size()
+  {
+    return this.items.length;
+  }
+
+  /*
+   * private helper method that builds the range of the arrays into a subtree, putting the median on the axis the range
+   * spreads most on at the middle of the range, the lower half before it and the upper half after it
+   * @Param: int start and end (exclusive) of the range
+   * */
+  private void build(int start,int end)
+  {
+    // ranges are built from a stack so deep trees don't overflow the call stack
+    int[] stack = new int[128];
+    int top = 0;
+    stack[top++] = start;
+    stack[top++] = end;
+    while(top > 0)
+    {
+      int rangeEnd = stack[--top], rangeStart = stack[--top];
+      if(rangeEnd - rangeStart < 1)
+        continue;
+      byte axis = widestAxis(rangeStart,rangeEnd);
+      int median = (rangeStart + rangeEnd) >>> 1;
+      select(rangeStart,rangeEnd - 1,median,axis);
+      this.axes[median] = axis;
+      if(top + 4 > stack.length)
+        stack = Arrays.copyOf(stack,stack.length * 2);
+      stack[top++] = rangeStart;
+      stack[top++] = median;
+      stack[top++] = median + 1;
+      stack[top++] = rangeEnd;
+    }
+  }
+
+  /*
+   * private helper method that gets the axis that the points of the range spread most on
+   * @Param: int start and end (exclusive) of the range
+   * */
+  private byte widestAxis(int start,int end)
+  {
+    byte widest = 0;
+    double widestSpread = -1;
+    for(byte axis = 0 ; axis < 3 ; ++axis)
+    {
+      double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+      for(int i = start ; i < end ; ++i)
+      {
+        min = Math.min(min,coordinate(axis,i));
+        max = Math.max(max,coordinate(axis,i));
+      }
+      if(max - min > widestSpread)
+      {
+        widestSpread = max - min;
+        widest = axis;
+      }
+    }
+    return widest;
+  }
+
+  /*
+   * private helper method that reorders the range so the point at k is the one that would be there if the range was
+   * sorted on the axis, with smaller or equal points before it and bigger or equal after it (quick select)
+   * @Param: int first and last (inclusive) of the range, int k position to select, byte axis
+   * */
+  private void select(int first,int last,int k,byte axis)
+  {
+    while(first < last)
+    {
+      double pivot = coordinate(axis,(first + last) >>> 1);
+      int i = first, j = last;
+      while(i <= j)
+      {
+        while(coordinate(axis,i) < pivot)
+          ++i;
+        while(coordinate(axis,j) > pivot)
+          --j;
+        if(i <= j)
+          swap(i++,j--);
+      }
+      if(k <= j)
+        last = j;
+      else if(k >= i)
+        first = i;
+      else
+        return;
+    }
+  }
+
+  /*
+   * private helper method that searches the range for locations nearer than the farthest of the heap, descending
+   * into the half of the location first so the heap gets near locations early and the other half is often skipped
+   * returning the new count of the heap, recursion depth is the depth of the tree
+   * @Param: int start and end (exclusive) of the range, double[] point of the location, heap of squared chords and items, int count of the heap
+   * */
+  private int nearest(int start,int end,double[] point,double[] distances,int[] found,int count)
+  {
+    if(start >= end || found.length == 0)
+      return count;
+    int node = (start + end) >>> 1;
+    double dx = point[0] - this.xs[node], dy = point[1] - this.ys[node], dz = point[2] - this.zs[node];
+    count = offer(distances,found,count,dx * dx + dy * dy + dz * dz,this.items[node]);
+    double offset = point[this.axes[node]] - coordinate(this.axes[node],node);
+    boolean lowerFirst = offset <= 0;
+    count = lowerFirst ? nearest(start,node,point,distances,found,count) : nearest(node + 1,end,point,distances,found,count);
+    // the other half can hold a nearer location only if its splitting plane is nearer than the farthest of the heap
+    if(count < found.length || offset * offset <= distances[0])
+      count = lowerFirst ? nearest(node + 1,end,point,distances,found,count) : nearest(start,node,point,distances,found,count);
+    return count;
+  }
+
+  /*
+   * private helper method that offers a location to the bounded max heap, replacing the farthest if the heap is full
+   * and the location is nearer, returning the new count of the heap
+   * @Param: heap of squared chords and items, int count of the heap, double squared chord and int item of the location
+   * */
+  private static int offer(double[] distances,int[] found,int count,double distance,int item)
+  {
+    if(count < found.length)
+    {
+      int i = count++;
+      while(i > 0 && isFarther(distance,item,distances[(i - 1) / 2],found[(i - 1) / 2])) // sifts up
+      {
+        distances[i] = distances[(i - 1) / 2];
+        found[i] = found[(i - 1) / 2];
+        i = (i - 1) / 2;
+      }
+      distances[i] = distance;
+      found[i] = item;
+    }else if(isFarther(distances[0],found[0],distance,item))
+    {
+      distances[0] = distance;
+      found[0] = item;
+      siftDown(distances,found,count);
+    }
+    return count;
+  }
+
+  private static void siftDown(double[] distances,int[] found,int count)
+  {
+    int i = 0;
+    while(true)
+    {
+      int farthest = i, left = 2 * i + 1, right = left + 1;
+      if(left < count && isFarther(distances[left],found[left],distances[farthest],found[farthest]))
+        farthest = left;
+      if(right < count && isFarther(distances[right],found[right],distances[farthest],found[farthest]))
+        farthest = right;
+      if(farthest == i)
+        return;
+      double distance = distances[i]; distances[i] = distances[farthest]; distances[farthest] = distance;
+      int item = found[i]; found[i] = found[farthest]; found[farthest] = item;
+      i = farthest;
+    }
+  }
+
+  // orders locations by distance then by index so equally far locations are found the same way every time
+  private static boolean isFarther(double distance,int item,double anotherDistance,int anotherItem)
+  {
+    return distance > anotherDistance || (distance == anotherDistance && item > anotherItem);
+  }
+
+  /*
+   * private helper method that puts the biggest chord radius of the subtree of each node of the range
+   * returning the biggest one of the range, recursion depth is the depth of the tree
+   * @Param: int start and end (exclusive) of the range
+   * */
+  private double putMaxChords(int start,int end)
+  {
+    if(start >= end)
+      return 0;
+    int node = (start + end) >>> 1;
+    double max = Math.max(this.chords[node],Math.max(putMaxChords(start,node),putMaxChords(node + 1,end)));
+    return this.maxChords[node] = max;
+  }
+
+  /*
+   * private helper method that turns a great circle distance into the chord distance between the unit sphere points,
+   * widened by RADIUS_SLACK so locations exactly on the distance aren't lost to rounding
+   * @Param: double distance in km
+   * */
+  private static double toChord(double radiusKm)
+  {
+    double angle = Math.min(Math.PI,radiusKm / EARTH_RADIUS_KM * (1 + RADIUS_SLACK) + RADIUS_SLACK);
+    return 2 * Math.sin(angle / 2);
+  }
+
+  private static double[] toPoint(float lat,float lon)
+  {
+    double latRad = Math.toRadians(lat), lonRad = Math.toRadians(lon);
+    return new double[]{Math.cos(latRad) * Math.cos(lonRad), Math.cos(latRad) * Math.sin(lonRad), Math.sin(latRad)};
+  }
+
+  private double coordinate(byte axis,int i)
+  {
+    return axis == 0 ? this.xs[i] : axis == 1 ? this.ys[i] : this.zs[i];
+  }
+
+  private void swap(int i,int j)
+  {
+    int item = this.items[i];
+    this.items[i] = this.items[j];
+    this.items[j] = item;
+    double t = this.xs[i]; this.xs[i] = this.xs[j]; this.xs[j] = t;
+    t = this.ys[i]; this.ys[i] = this.ys[j]; this.ys[j] = t;
+    t = this.zs[i]; this.zs[i] = this.zs[j]; this.zs[j] = t;
+    if(this.chords != null)
+    {
+      t = this.chords[i]; this.chords[i] = this.chords[j]; this.chords[j] = t;
+    }
+  }
+}
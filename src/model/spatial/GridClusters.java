@@ -0,0 +1,289 @@
+package model.spatial;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : Clusters of locations for each zoom level of the map made once, used to draw a cluster instead of
+               the many markers that would overlap at low zooms
+*/
+
+import java.util.Arrays;
+
+/**
+ * <h1>GridClusters</h1>
+ * <p>
+ *   Groups locations into clusters for each zoom level from 0 to <code>MAX_ZOOM</code> by the square cells of
+ *   <code>CELL_PIXELS</code> pixels of the Web Mercator map at that zoom, the locations in the same cell are a cluster,
+ *   so at each zoom a cluster stands for the locations whose markers would be drawn over each other
+ * </p>
+ * <p>
+ *   The cells of a zoom are split into four cells at the next zoom, so the locations are sorted once by the
+ *   interleaved bits of their cell at <code>MAX_ZOOM</code> (Morton order) and the locations of any cluster of any zoom
+ *   are a range of that order, the clusters of a zoom are made of the clusters of the zoom above it:
+ * </p>
+ * <ul>
+ *   <li> <code>starts[zoom][cluster]</code> to <code>starts[zoom][cluster + 1]</code> is the range of the cluster</li>
+ *   <li> <code>lats[zoom][cluster]</code> and <code>lons[zoom][cluster]</code> hold the mean location of the cluster</li>
+ * </ul>
+ * the zoom a cluster splits at is where the cells of the first and last locations of its range differ.
+ * <b>Immutable and thread safe</b> after it's made
+ * @author Hisham Maged
+ * @version 1.1
+ */
+public final class GridClusters {
+
+  /**
+   * Highest zoom clusters are made for, locations closer than a cell at this zoom (about 2.4 km at the equator)
+   * aren't split
+   */
+  public static final int MAX_ZOOM = 14;
+  /**
+   * Width and height in pixels of the cells of each zoom on a map of 256 pixels tiles
+   */
+  public static final int CELL_PIXELS = 64;
+  private static final int CELL_BITS = MAX_ZOOM + 2; // bits of a cell coordinate at MAX_ZOOM, 256 / CELL_PIXELS = 2^2 cells at zoom 0
+  private static final double MAX_LATITUDE = 85.05112878; // latitude of the border of the Web Mercator map
+
+  private final int[] order; // items in the order of their cells
+  private final long[] keys; // cell at MAX_ZOOM of each item of the order
+  private final int[][] starts;
+  private final float[][] lats;
+  private final float[][] lons;
+
+  /**
+   * Locations Constructor. makes the clusters of all the zooms of the given locations, the item of each location is its index
+   * @param lats float[] holding the latitude of each location
+   * @param lons float[] holding the longitude of each location
+   * @throws IllegalArgumentException if an array is null, they aren't of the same length or a location is NaN
+   */
+  public GridClusters(float[] lats,float[] lons)
+  {
+    if(lats == null || lons == null || lats.length != lons.length)
+      throw new IllegalArgumentException("Latitudes and longitudes should be given for every location");
+    int size = lats.length;
+    long[] sorted = new long[size];
+    for(int i = 0 ; i < size ; ++i)
+    {
+      if(Float.isNaN(lats[i]) || Float.isNaN(lons[i]))
+        throw new IllegalArgumentException("Invalid location of item "+i+": "+lats[i]+", "+lons[i]);
+      sorted[i] = cellKey(lats[i],lons[i]) << 31 | i; // key in the high bits, index in the low 31 bits
+    }
+    Arrays.sort(sorted);
+    this.order = new int[size];
+    this.keys = new long[size];
+    for(int i = 0 ; i < size ; ++i)
+    {
+      this.order[i] = (int) (sorted[i] & Integer.MAX_VALUE);
+      this.keys[i] = sorted[i] >>> 31;
+    }
+
+    this.starts = new int[MAX_ZOOM + 1][];
+    this.lats = new float[MAX_ZOOM + 1][];
+    this.lons = new float[MAX_ZOOM + 1][];
+    // clusters of MAX_ZOOM are the runs of the same cell, the mean locations are summed in double
+    int count = 0;
+    int[] starts = new int[size + 1];
+    double[] latSums = new double[size], lonSums = new double[size];
+    for(int i = 0 ; i < size ; ++i)
+    {
+      if(i == 0 || this.keys[i] != this.keys[i - 1])
+        starts[count++] = i;
+      latSums[count - 1] += lats[this.order[i]];
+      lonSums[count - 1] += lons[this.order[i]];
+    }
+    starts[count] = size;
+    setLevel(MAX_ZOOM,starts,count,latSums,lonSums);
+
+    // clusters of each lower zoom are the runs of clusters of the zoom above whose cells share the same parent cell
+    for(int zoom = MAX_ZOOM - 1 ; zoom >= 0 ; --zoom)
+    {
+      int[] above = this.starts[zoom + 1];
+      int aboveCount = above.length - 1, shift = 2 * (MAX_ZOOM - zoom);
+      count = 0;
+      for(int cluster = 0 ; cluster < aboveCount ; ++cluster)
+      {
+        int weight = above[cluster + 1] - above[cluster];
+        if(cluster == 0 || this.keys[above[cluster]] >>> shift != this.keys[above[cluster - 1]] >>> shift)
+        {
+          starts[count] = above[cluster];
+          latSums[count] = lonSums[count] = 0;
+          ++count;
+        }
+        latSums[count - 1] += (double) this.lats[zoom + 1][cluster] * weight;
+        lonSums[count - 1] += (double) this.lons[zoom + 1][cluster] * weight;
+      }
+      starts[count] = size;
+      setLevel(zoom,starts,count,latSums,lonSums);
+    }
+  }
+
+  /**
+   * Gets the number of clusters of the given zoom
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @return number of clusters
+   * @throws IllegalArgumentException if the zoom is out of range
+   */
+  public int getClustersCount(int zoom)
+  {
+    checkZoom(zoom);
+    return this.starts[zoom].length - 1;
+  }
+
+  /**
+   * Gets the number of locations in the given cluster
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @param cluster index of the cluster in the zoom
+   * @return number of locations of the cluster
+   * @throws IllegalArgumentException if the zoom is out of range
+   * @throws IndexOutOfBoundsException if the cluster is out of range
+   */
+  public int getCount(int zoom,int cluster)
+  {
+    checkZoom(zoom);
+    return this.starts[zoom][cluster + 1] - this.starts[zoom][cluster];
+  }
+
+  /**
+   * Gets the latitude of the mean location of the given cluster
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @param cluster index of the cluster in the zoom
+   * @return latitude of the cluster
+   * @throws IllegalArgumentException if the zoom is out of range
+   * @throws IndexOutOfBoundsException if the cluster is out of range
+   */
+  public float getLatitude(int zoom,int cluster)
+  {
+    checkZoom(zoom);
+    return this.lats[zoom][cluster];
+  }
+
+  /**
+   * Gets the longitude of the mean location of the given cluster
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @param cluster index of the cluster in the zoom
+   * @return longitude of the cluster
+   * @throws IllegalArgumentException if the zoom is out of range
+   * @throws IndexOutOfBoundsException if the cluster is out of range
+   */
+  public float getLongitude(int zoom,int cluster)
+  {
+    checkZoom(zoom);
+    return this.lons[zoom][cluster];
+  }
+
+  /**
+   * Gets the items of the locations of the given cluster
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @param cluster index of the cluster in the zoom
+   * @return int[] of the indices of the locations in ascending order
+   * @throws IllegalArgumentException if the zoom is out of range
+   * @throws IndexOutOfBoundsException if the cluster is out of range
+   */
+  public int[] getItems(int zoom,int cluster)
+  {
+    checkZoom(zoom);
+    int[] items = Arrays.copyOfRange(this.order,this.starts[zoom][cluster],this.starts[zoom][cluster + 1]);
+    Arrays.sort(items);
+    return items;
+  }
+
+  /**
+   * Gets the cluster of each location at the given zoom
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @return int[] holding the index of the cluster of each location in the order of the locations
+   * @throws IllegalArgumentException if the zoom is out of range
+   */
+  public int[] getClustersOf(int zoom)
+  {
+    checkZoom(zoom);
+    int[] clustersOf = new int[this.order.length];
+    int[] starts = this.starts[zoom];
+    for(int cluster = 0 ; cluster < starts.length - 1 ; ++cluster)
+      for(int i = starts[cluster] ; i < starts[cluster + 1] ; ++i)
+        clustersOf[this.order[i]] = cluster;
+    return clustersOf;
+  }
+
+  /**
+   * Gets the lowest zoom at which the given cluster is split into more than one cluster
+   * @param zoom zoom level from 0 to MAX_ZOOM
+   * @param cluster index of the cluster in the zoom
+   * @return zoom the cluster splits at, the given zoom if it has a single location,
+   * MAX_ZOOM + 1 if its locations are in the same cell of MAX_ZOOM
+   * @throws IllegalArgumentException if the zoom is out of range
+   * @throws IndexOutOfBoundsException if the cluster is out of range
+   */
+  public int getExpansionZoom(int zoom,int cluster)
+  {
+    checkZoom(zoom);
+    int first = this.starts[zoom][cluster], last = this.starts[zoom][cluster + 1] - 1;
+    if(first == last)
+      return zoom;
+    long differing = this.keys[first] ^ this.keys[last]; // the range is sorted so its ends differ at the highest differing cell
+    if(differing == 0)
+      return MAX_ZOOM + 1;
+    int bit = 63 - Long.numberOfLeadingZeros(differing);
+    return MAX_ZOOM - bit / 2;
+  }
+
+  /**
+   * Gets the number of locations the clusters were made of
+   * @return number of locations
+   */
+  public int size()
+  {
+    return this.order.length;
+  }
+
+  /*
+   * private helper method that keeps the clusters of a zoom made of the summed locations
+   * @Param: int zoom, int[] starts of the clusters, int count of the clusters, double[] sums of the latitudes and longitudes
+   * */
+  private void setLevel(int zoom,int[] starts,int count,double[] latSums,double[] lonSums)
+  {
+    this.starts[zoom] = Arrays.copyOf(starts,count + 1);
+    this.lats[zoom] = new float[count];
+    this.lons[zoom] = new float[count];
+    for(int cluster = 0 ; cluster < count ; ++cluster)
+    {
+      int weight = starts[cluster + 1] - starts[cluster];
+      this.lats[zoom][cluster] = (float) (latSums[cluster] / weight);
+      this.lons[zoom][cluster] = (float) (lonSums[cluster] / weight);
+    }
+  }
+
+  /*
+   * private helper method that gets the interleaved bits of the x and y of the cell of the location at MAX_ZOOM,
+   * x in the even bits and y in the odd bits so the key of a cell at a lower zoom is a prefix of it
+   * @Param: float lat, lon of the location
+   * */
+  private static long cellKey(float lat,float lon)
+  {
+    int cells = 1 << CELL_BITS;
+    double latRadians = Math.toRadians(Math.max(-MAX_LATITUDE,Math.min(MAX_LATITUDE,lat)));
+    double x = (lon + 180.0) / 360.0;
+    double y = (1 - Math.log(Math.tan(latRadians) + 1 / Math.cos(latRadians)) / Math.PI) / 2;
+    int cellX = (int) Math.max(0,Math.min(cells - 1,Math.floor(x * cells)));
+    int cellY = (int) Math.max(0,Math.min(cells - 1,Math.floor(y * cells)));
+    return spread(cellX) | spread(cellY) << 1;
+  }
+
+  /*
+   * private helper method that puts the bits of the value in the even bits of the result
+   * @Param: int value of CELL_BITS bits
+   * */
+  private static long spread(int value)
+  {
+    long bits = value & 0xFFFFFFFFL;
+    bits = (bits | bits << 16) & 0x0000FFFF0000FFFFL;
+    bits = (bits | bits << 8) & 0x00FF00FF00FF00FFL;
+    bits = (bits | bits << 4) & 0x0F0F0F0F0F0F0F0FL;
+    bits = (bits | bits << 2) & 0x3333333333333333L;
+    bits = (bits | bits << 1) & 0x5555555555555555L;
+    return bits;
+  }
+
+  private static void checkZoom(int zoom)
+  {
+    if(zoom < 0 || zoom > MAX_ZOOM)
+      throw new IllegalArgumentException("Zoom should be from 0 to "+MAX_ZOOM+", given: "+zoom);
+  }
+}
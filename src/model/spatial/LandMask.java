@@ -0,0 +1,293 @@
+package model.spatial;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A raster of the world telling for each cell whether it's ocean, inside a single polygon or on a polygon border
+*/
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import model.parser.SnapshotCache;
+
+/**
+ * <h1>LandMask</h1>
+ * <p>
+ *   A raster of the whole world (latitudes -90 to 90 and longitudes -180 to 180) cut into square cells of
+ *   <code>1 / cellsPerDegree</code> degrees, made once from polygons given in order, each cell holds:
+ * </p>
+ * <ul>
+ *   <li><code>OCEAN</code> if no polygon touches the cell</li>
+ *   <li>the index of a polygon if the whole cell is inside it and no polygon before it touches the cell,
+ *   so it's the first polygon holding any location of the cell</li>
+ *   <li><code>MIXED</code> otherwise, the cell is crossed by a polygon border so its locations need the exact polygon test</li>
+ * </ul>
+ * <p>
+ *   so looking up a location costs an array access, and only locations in the few border cells are tested exactly,
+ *   the borders are drawn into the cells using a supercover walk of each polygon edge (every cell the edge touches
+ *   is marked) and the inside of each polygon is filled row by row with an even-odd scanline at the centers of the cells
+ * </p>
+ * A polygon is its outer ring of locations only, like <code>AbstractShapeMarker.isInsideByLocation</code> tests it.
+ * <b>Immutable and thread safe</b> after it's made
+ * @author Hisham Maged
+ * @version 1.1
+ * @see STRTree
+ */
+public final class LandMask {
+
+  /**
+   * Cell value of cells that no polygon touches
+   */
+  public static final int OCEAN = -1;
+  /**
+   * Cell value of cells crossed by a polygon border, their locations should be tested against the polygons
+   */
+  public static final int MIXED = -2;
+
+  /**
+   * Finest supported resolution, cells of 1/16 degree make a mask of about 16.6 million cells
+   */
+  public static final int MAX_CELLS_PER_DEGREE = 16;
+
+  private static final double EPSILON = 1e-4; // in cells, edges this close to a cell are counted as touching it
+
+  /**
+   * Codec writing the mask into a snapshot as runs of equal cells row after row, used to cache the mask on disk
+   * @see SnapshotCache
+   */
+  public static final SnapshotCache.Codec<LandMask> SNAPSHOT_CODEC = new SnapshotCache.Codec<LandMask>()
+  {
+    @Override
+    public void write(LandMask mask,SnapshotCache.Output out) throws IOException
+    {
+      out.writeInt(mask.cellsPerDegree);
+      out.writeInt(mask.polygonCount);
+      int runs = 0;
+      for(int i = 0 ; i < mask.cells.length ; ++i)
+        if(i == 0 || mask.cells[i] != mask.cells[i - 1])
+          ++runs;
+      out.writeInt(runs);
+      for(int start = 0 ; start < mask.cells.length ; )
+      {
+        int end = start;
+        while(end < mask.cells.length && mask.cells[end] == mask.cells[start])
+          ++end;
+        out.writeInt(mask.cells[start]);
+        out.writeInt(end - start);
+        start = end;
+      }
+    }
+
+    @Override
+    public LandMask read(SnapshotCache.Input in)
+    {
+      int cellsPerDegree = in.readInt(), polygonCount = in.readInt(), runs = in.readLength(8); // a value and a length each
+      checkCellsPerDegree(cellsPerDegree);
+      short[] cells = new short[180 * cellsPerDegree * 360 * cellsPerDegree];
+      int position = 0;
+      for(int run = 0 ; run < runs ; ++run)
+      {
+        int value = in.readInt(), length = in.readInt();
+        if(value < MIXED || value >= polygonCount || length < 0 || length > cells.length - position)
+          throw new IllegalArgumentException("Corrupt land mask run: "+value+" x "+length);
+        Arrays.fill(cells,position,position += length,(short)value);
+      }
+      if(position != cells.length)
+        throw new IllegalArgumentException("Land mask holds "+position+" cells instead of "+cells.length);
+      return new LandMask(cells,cellsPerDegree,polygonCount);
+    }
+  };
+
+  private final short[] cells; // row by row from latitude -90, each row from longitude -180
+  private final int cellsPerDegree;
+  private final int columns;
+  private final int rows;
+  private final int polygonCount;
+
+  /*
+   * private constructor, should be made using the static build method or read from a snapshot
+   * @Param: short[] of cells, int cells per degree, int number of polygons the mask was made of
+   * */
+  private LandMask(short[] cells,int cellsPerDegree,int polygonCount)
+  {
+    this.cells = cells;
+    this.cellsPerDegree = cellsPerDegree;
+    this.columns = 360 * cellsPerDegree;
+    this.rows = 180 * cellsPerDegree;
+    this.polygonCount = polygonCount;
+  }
+
+  /**
+   * Makes the mask of the given polygons at the given resolution.
+   * @param polygons List of float[] each holding the lat, lon of the locations of a polygon one after the other
+   * @param cellsPerDegree number of cells per degree, 4 makes cells of a quarter degree (about 28 km at the equator)
+   * @return LandMask of the polygons
+   * @throws IllegalArgumentException if polygons is null, holds more than Short.MAX_VALUE polygons or cellsPerDegree isn't in 1 to 16
+   */
+  public static LandMask build(List<float[]> polygons,int cellsPerDegree)
+  {
+    if(polygons == null || polygons.size() > Short.MAX_VALUE)
+      throw new IllegalArgumentException("Polygons should be given and be at most "+Short.MAX_VALUE);
+    checkCellsPerDegree(cellsPerDegree);
+    LandMask mask = new LandMask(new short[180 * cellsPerDegree * 360 * cellsPerDegree],cellsPerDegree,polygons.size());
+    Arrays.fill(mask.cells,(short)OCEAN);
+    int[] bordersStamp = new int[mask.cells.length]; // polygon index + 1 of the last polygon whose border touched the cell
+    for(int polygon = 0 ; polygon < polygons.size() ; ++polygon)
+    {
+      float[] locations = polygons.get(polygon);
+      if(locations == null || locations.length < 6) // less than 3 locations has no inside
+        continue;
+      mask.markBorders(locations,polygon,bordersStamp);
+      mask.fillInside(locations,polygon,bordersStamp);
+    }
+    return mask;
+  }
+
+  /**
+   * Looks up the cell of the given location.
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @return OCEAN, MIXED or the index of the first polygon holding the location, MIXED for locations outside the world range
+   */
+  public int lookup(float lat,float lon)
+  {
+    if(!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180))
+      return MIXED;
+    int column = Math.min(this.columns - 1,(int)((lon + 180.0) * this.cellsPerDegree));
+    int row = Math.min(this.rows - 1,(int)((lat + 90.0) * this.cellsPerDegree));
+    return this.cells[row * this.columns + column];
+  }
+
+  /**
+   * Gets the resolution of the mask
+   * @return number of cells per degree
+   */
+  public int getCellsPerDegree()
+  {
+    return this.cellsPerDegree;
+  }
+
+  /**
+   * Gets the number of polygons the mask was made of, a mask read from disk is only valid for the same polygons
+   * @return number of polygons
+   */
+  public int getPolygonCount()
+  {
+    return this.polygonCount;
+  }
+
+  /*
+   * private helper method that marks every cell touched by an edge of the polygon, walking each edge column by column
+   * a cell that was ocean becomes mixed, a cell that is inside an earlier polygon is left as it is
+   * @Param: float[] of the polygon locations, int index of the polygon, int[] stamp of the cells touched by the borders
+   * */
+  private void markBorders(float[] locations,int polygon,int[] bordersStamp)
+  {
+    int count = locations.length / 2;
+    for(int i = 0 ; i < count ; ++i)
+    {
+      int j = (i + 1) % count; // the ring is closed from the last location to the first
+      double x1 = toColumn(locations[i * 2 + 1]), y1 = toRow(locations[i * 2]);
+      double x2 = toColumn(locations[j * 2 + 1]), y2 = toRow(locations[j * 2]);
+      if(x1 > x2)
+      {
+        double tx = x1, ty = y1;
+        x1 = x2; y1 = y2;
+        x2 = tx; y2 = ty;
+      }
+      int firstColumn = clamp((int)Math.floor(x1 - EPSILON),this.columns), lastColumn = clamp((int)Math.floor(x2 + EPSILON),this.columns);
+      for(int column = firstColumn ; column <= lastColumn ; ++column)
+      {
+        // the part of the edge inside the column, extended by EPSILON to both sides
+        double ya, yb;
+        if(x2 - x1 < EPSILON)
+        {
+          ya = y1;
+          yb = y2;
+        }else
+        {
+          double slope = (y2 - y1) / (x2 - x1);
+          double xa = Math.max(x1,column - EPSILON), xb = Math.min(x2,column + 1 + EPSILON);
+          ya = y1 + (xa - x1) * slope;
+          yb = y1 + (xb - x1) * slope;
+        }
+        int firstRow = clamp((int)Math.floor(Math.min(ya,yb) - EPSILON),this.rows), lastRow = clamp((int)Math.floor(Math.max(ya,yb) + EPSILON),this.rows);
+        for(int row = firstRow ; row <= lastRow ; ++row)
+        {
+          int cell = row * this.columns + column;
+          bordersStamp[cell] = polygon + 1;
+          if(this.cells[cell] == OCEAN)
+            this.cells[cell] = MIXED;
+        }
+      }
+    }
+  }
+
+  /*
+   * private helper method that fills the cells inside the polygon that its border doesn't touch with the polygon index
+   * if no polygon touched them before, using an even-odd scanline through the centers of each row of cells
+   * @Param: float[] of the polygon locations, int index of the polygon, int[] stamp of the cells touched by the borders
+   * */
+  private void fillInside(float[] locations,int polygon,int[] bordersStamp)
+  {
+    int count = locations.length / 2;
+    double minRow = Double.POSITIVE_INFINITY, maxRow = Double.NEGATIVE_INFINITY;
+    for(int i = 0 ; i < count ; ++i)
+    {
+      minRow = Math.min(minRow,toRow(locations[i * 2]));
+      maxRow = Math.max(maxRow,toRow(locations[i * 2]));
+    }
+    double[] crossings = new double[count];
+    for(int row = clamp((int)Math.floor(minRow),this.rows) ; row <= clamp((int)Math.floor(maxRow),this.rows) ; ++row)
+    {
+      double y = row + 0.5;
+      int crossed = 0;
+      for(int i = 0 ; i < count ; ++i)
+      {
+        int j = (i + 1) % count;
+        double y1 = toRow(locations[i * 2]), y2 = toRow(locations[j * 2]);
+        if((y1 <= y) != (y2 <= y))
+        {
+          double x1 = toColumn(locations[i * 2 + 1]), x2 = toColumn(locations[j * 2 + 1]);
+          crossings[crossed++] = x1 + (y - y1) * (x2 - x1) / (y2 - y1);
+        }
+      }
+      Arrays.sort(crossings,0,crossed);
+      for(int k = 0 ; k + 1 < crossed ; k += 2) // cells whose centers are between each pair of crossings are inside
+      {
+        int firstColumn = Math.max(0,(int)Math.ceil(crossings[k] - 0.5));
+        int lastColumn = Math.min(this.columns - 1,(int)Math.floor(crossings[k + 1] - 0.5));
+        for(int column = firstColumn ; column <= lastColumn ; ++column)
+        {
+          int cell = row * this.columns + column;
+          if(bordersStamp[cell] != polygon + 1 && this.cells[cell] == OCEAN)
+            this.cells[cell] = (short)polygon;
+        }
+      }
+    }
+  }
+
+  private double toColumn(float lon)
+  {
+    return (lon + 180.0) * this.cellsPerDegree;
+  }
+
+  private double toRow(float lat)
+  {
+    return (lat + 90.0) * this.cellsPerDegree;
+  }
+
+  private static int clamp(int index,int length)
+  {
+    return Math.max(0,Math.min(length - 1,index));
+  }
+
+  /*
+   * private helper method that checks that the resolution is in the supported range
+   * @Param: int cells per degree
+   * */
+  private static void checkCellsPerDegree(int cellsPerDegree)
+  {
+    if(cellsPerDegree < 1 || cellsPerDegree > MAX_CELLS_PER_DEGREE)
+      throw new IllegalArgumentException("Cells per degree should be from 1 to "+MAX_CELLS_PER_DEGREE+", given: "+cellsPerDegree);
+  }
+}
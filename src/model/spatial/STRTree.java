@@ -0,0 +1,241 @@
+package model.spatial;/*
+  Author: Hisham Maged
+  Date : 10/18/2026
+  Class Desc : A read only R-tree of bounding boxes packed once using Sort-Tile-Recursive, used to find the boxes holding a location
+*/
+
+import java.util.Arrays;
+
+/**
+ * <h1>STRTree</h1>
+ * <p>
+ *   An R-tree over the bounding boxes of items given by their index, packed bottom up once using the Sort-Tile-Recursive
+ *   algorithm: the boxes are sorted by the longitude of their centers into vertical slices, each slice is sorted by
+ *   the latitude of the centers and cut into nodes of <code>NODE_CAPACITY</code> boxes, then the boxes of the nodes
+ *   are packed the same way level by level till a single root is left, so nodes are full and barely overlap
+ * </p>
+ * <p>
+ *   A search descends only into the nodes whose box intersects the searched box, so finding the few items whose boxes
+ *   hold a location costs a logarithmic number of box tests instead of testing every item,
+ *   the items found are candidates that the caller tests exactly (like a point in polygon test)
+ * </p>
+ * The boxes of each level are kept in a flat <code>float[]</code> of minLat, minLon, maxLat, maxLon per node
+ * and the children of a node are a range of the level below it, no object is made per node.
+ * <b>Immutable and thread safe</b> after it's made
+ * @author Hisham Maged
+ * @version 1.1
+ */
+public final class STRTree {
+
+  private static final int NODE_CAPACITY = 16;
+
+  private final int size;
+  private final int[] items; // index of the item of each leaf box, in packed order
+  private final float[][] boxes; // boxes[0] are the leaf boxes of the items, boxes[boxes.length - 1] holds the root
+  private final int[][] childStarts; // childStarts[level][node] first child of the node in level - 1, null for level 0
+  private final int[][] childEnds; // childEnds[level][node] end (exclusive) of the children of the node in level - 1
+
+  /**
+   * Boxes Constructor. packs the tree of the given bounding boxes, the item of each box is its index
+   * @param bounds float[] holding minLat, minLon, maxLat, maxLon of each item one after the other
+   * @throws IllegalArgumentException if bounds is null, its length isn't a multiple of 4 or a box has min bigger than max
+   */
+  public STRTree(float[] bounds)
+  {
+    if(bounds == null || bounds.length % 4 != 0)
+      throw new IllegalArgumentException("Bounds should hold 4 values per box");
+    this.size = bounds.length / 4;
+    for(int i = 0 ; i < this.size ; ++i)
+    {
+      if(!(bounds[i * 4] <= bounds[i * 4 + 2]) || !(bounds[i * 4 + 1] <= bounds[i * 4 + 3]))
+        throw new IllegalArgumentException("Invalid box of item "+i+": "+Arrays.toString(Arrays.copyOfRange(bounds,i * 4,i * 4 + 4)));
+    }
+
+    int levels = 1;
+    for(int count = this.size ; count > 1 ; count = (count + NODE_CAPACITY - 1) / NODE_CAPACITY)
+      ++levels;
+    this.boxes = new float[levels][];
+    this.childStarts = new int[levels][];
+    this.childEnds = new int[levels][];
+
+    // leaf level, sorted the STR way and each leaf box keeps the index of its item
+    int[] order = strOrder(bounds,this.size);
+    this.items = order;
+    this.boxes[0] = reorder(bounds,order);
+
+    for(int level = 1 ; level < levels ; ++level)
+    {
+      float[] below = this.boxes[level - 1];
+      int belowCount = below.length / 4, count = (belowCount + NODE_CAPACITY - 1) / NODE_CAPACITY;
+      float[] nodes = new float[count * 4];
+      int[] starts = new int[count], ends = new int[count];
+      for(int node = 0 ; node < count ; ++node)
+      {
+        starts[node] = node * NODE_CAPACITY;
+        ends[node] = Math.min(belowCount,starts[node] + NODE_CAPACITY);
+        union(below,starts[node],ends[node],nodes,node);
+      }
+      if(level < levels - 1) // sorts the nodes the STR way before they're grouped into the level above them
+      {
+        int[] nodeOrder = strOrder(nodes,count);
+        nodes = reorder(nodes,nodeOrder);
+        starts = reorder(starts,nodeOrder);
+        ends = reorder(ends,nodeOrder);
+      }
+      this.boxes[level] = nodes;
+      this.childStarts[level] = starts;
+      this.childEnds[level] = ends;
+    }
+  }
+
+  /**
+   * Finds the items whose boxes hold the given location, borders included
+   * @param lat latitude of the location
+   * @param lon longitude of the location
+   * @return int[] holding the indices of the found items in ascending order, empty if none was found
+   */
+  public int[] search(float lat,float lon)
+  {
+    return search(lat,lon,lat,lon);
+  }
+
+  /**
+   * Finds the items whose boxes intersect the given box, borders included
+   * @param minLat minimum latitude of the box
+   * @param minLon minimum longitude of the box
+   * @param maxLat maximum latitude of the box
+   * @param maxLon maximum longitude of the box
+   * @return int[] holding the indices of the found items in ascending order, empty if none was found
+   */
+  public int[] search(float minLat,float minLon,float maxLat,float maxLon)
+  {
+    if(this.size == 0)
+      return new int[0];
+    int[] found = new int[8];
+    int count = 0;
+    // stack of pending nodes as pairs of level and node index
+    int[] stack = new int[this.boxes.length * NODE_CAPACITY * 2];
+    int top = 0;
+    int root = this.boxes.length - 1;
+    for(int node = 0 ; node < this.boxes[root].length / 4 ; ++node) // root level holds a single node unless the tree is a single leaf level
+    {
+      stack[top++] = root;
+      stack[top++] = node;
+    }
+    while(top > 0)
+    {
+      int node = stack[--top], level = stack[--top];
+      if(!intersects(this.boxes[level],node,minLat,minLon,maxLat,maxLon))
+        continue;
+      if(level == 0)
+      {
+        if(count == found.length)
+          found = Arrays.copyOf(found,count * 2);
+        found[count++] = this.items[node];
+        continue;
+      }
+      for(int child = this.childStarts[level][node] ; child < this.childEnds[level][node] ; ++child)
+      {
+        stack[top++] = level - 1;
+        stack[top++] = child;
+      }
+    }
+    int[] result = Arrays.copyOf(found,count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * Gets the number of items in the tree
+   * @return number of boxes the tree was made of
+   */
+  public int size()
+  {
+    return this.size;
+  }
+
+  /*
+   * private helper method that orders boxes the Sort-Tile-Recursive way, sorted by the longitude of their centers into
+   * vertical slices of about sqrt(count / NODE_CAPACITY) nodes each, then each slice sorted by the latitude of the centers
+   * @Param: float[] of boxes, int count of boxes
+   * */
+  private static int[] strOrder(float[] boxes,int count)
+  {
+    Integer[] order = new Integer[count];
+    for(int i = 0 ; i < count ; ++i)
+      order[i] = i;
+    Arrays.sort(order,(a,b) -> Float.compare(centerLon(boxes,a),centerLon(boxes,b)));
+    int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+    int sliceSize = (int)Math.ceil(Math.sqrt(nodes)) * NODE_CAPACITY;
+    for(int start = 0 ; start < count ; start += sliceSize)
+      Arrays.sort(order,start,Math.min(count,start + sliceSize),(a,b) -> Float.compare(centerLat(boxes,a),centerLat(boxes,b)));
+    int[] result = new int[count];
+    for(int i = 0 ; i < count ; ++i)
+      result[i] = order[i];
+    return result;
+  }
+
+  /*
+   * private helper method that copies the boxes in the given order
+   * @Param: float[] of boxes, int[] order of the boxes
+   * */
+  private static float[] reorder(float[] boxes,int[] order)
+  {
+    float[] result = new float[order.length * 4];
+    for(int i = 0 ; i < order.length ; ++i)
+      System.arraycopy(boxes,order[i] * 4,result,i * 4,4);
+    return result;
+  }
+
+  /*
+   * private helper method that copies the values in the given order
+   * @Param: int[] of values, int[] order of the values
+   * */
+  private static int[] reorder(int[] values,int[] order)
+  {
+    int[] result = new int[order.length];
+    for(int i = 0 ; i < order.length ; ++i)
+      result[i] = values[order[i]];
+    return result;
+  }
+
+  /*
+   * private helper method that puts the box holding the boxes of the given range into the node box
+   * @Param: float[] of boxes, int start and end (exclusive) of the range, float[] of node boxes, int index of the node
+   * */
+  private static void union(float[] boxes,int start,int end,float[] nodes,int node)
+  {
+    float minLat = Float.POSITIVE_INFINITY, minLon = Float.POSITIVE_INFINITY;
+    float maxLat = Float.NEGATIVE_INFINITY, maxLon = Float.NEGATIVE_INFINITY;
+    for(int i = start ; i < end ; ++i)
+    {
+      minLat = Math.min(minLat,boxes[i * 4]);
+      minLon = Math.min(minLon,boxes[i * 4 + 1]);
+      maxLat = Math.max(maxLat,boxes[i * 4 + 2]);
+      maxLon = Math.max(maxLon,boxes[i * 4 + 3]);
+    }
+    nodes[node * 4] = minLat;
+    nodes[node * 4 + 1] = minLon;
+    nodes[node * 4 + 2] = maxLat;
+    nodes[node * 4 + 3] = maxLon;
+  }
+
+  /*
+   * private helper method that checks if the box of the given index intersects the given box
+   * @Param: float[] of boxes, int index of the box, float minLat, minLon, maxLat, maxLon of the other box
+   * */
+  private static boolean intersects(float[] boxes,int i,float minLat,float minLon,float maxLat,float maxLon)
+  {
+    return boxes[i * 4] <= maxLat && boxes[i * 4 + 2] >= minLat && boxes[i * 4 + 1] <= maxLon && boxes[i * 4 + 3] >= minLon;
+  }
+
+  private static float centerLat(float[] boxes,int i)
+  {
+    return (boxes[i * 4] + boxes[i * 4 + 2]) / 2;
+  }
+
+  private static float centerLon(float[] boxes,int i)
+  {
+    return (boxes[i * 4 + 1] + boxes[i * 4 + 3]) / 2;
+  }
+}
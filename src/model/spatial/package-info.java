@@ -0,0 +1,4 @@
+/**
+ * Provides the spatial indexes used to look up locations and boxes on the map without scanning all of them
+ */
+package model.spatial;